@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.digitalstrom.internal.client.job;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.digitalstrom.internal.client.DigitalSTROMAPI;
+import org.openhab.binding.digitalstrom.internal.client.entity.DSID;
+import org.openhab.binding.digitalstrom.internal.client.job.SensorJobScheduler.Priority;
+
+/**
+ * @since 1.10.0
+ */
+public class SensorJobSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final DSID METER_A = new DSID("0000000a");
+    private static final DSID METER_B = new DSID("0000000b");
+
+    private final BlockingQueue<String> executed = new LinkedBlockingQueue<String>();
+    private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<Long>());
+    private final AtomicLong clock = new AtomicLong();
+
+    private SensorJobScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testJobsOfOneCircuitAreExecutedOneAfterTheOther() throws Exception {
+        scheduler = createScheduler(3, 0);
+        TestJob blocking = new TestJob("a1", METER_A, true);
+        scheduler.addJob(blocking, Priority.HIGH);
+        scheduler.addJob(new TestJob("a2", METER_A), Priority.HIGH);
+        scheduler.addJob(new TestJob("b1", METER_B), Priority.HIGH);
+        scheduler.start();
+
+        assertTrue(blocking.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the other circuit is read while a1 is still running
+        assertEquals("b1", nextExecuted());
+        assertTrue(executed.isEmpty());
+        assertEquals(1, scheduler.getQueueDepth());
+
+        blocking.release.countDown();
+        assertEquals("a1", nextExecuted());
+        assertEquals("a2", nextExecuted());
+    }
+
+    @Test
+    public void testJobsAreExecutedByPriority() throws Exception {
+        scheduler = createScheduler(1, 0);
+        scheduler.addJob(new TestJob("low", METER_A), Priority.LOW);
+        scheduler.addJob(new TestJob("medium", METER_B), Priority.MEDIUM);
+        scheduler.addJob(new TestJob("high1", METER_A), Priority.HIGH);
+        scheduler.addJob(new TestJob("high2", METER_B), Priority.HIGH);
+        assertEquals(2, scheduler.getQueueDepth(Priority.HIGH));
+        assertEquals(1, scheduler.getQueueDepth(Priority.MEDIUM));
+        assertEquals(1, scheduler.getQueueDepth(Priority.LOW));
+        scheduler.start();
+
+        assertEquals(Arrays.asList("high1", "high2", "medium", "low"),
+                Arrays.asList(nextExecuted(), nextExecuted(), nextExecuted(), nextExecuted()));
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testEqualPendingJobIsNotQueuedAgain() throws Exception {
+        scheduler = createScheduler(1, 0);
+        assertTrue(scheduler.addJob(new TestJob("a1", METER_A), Priority.LOW));
+        assertFalse(scheduler.addJob(new TestJob("a1", METER_A), Priority.LOW));
+        assertFalse(scheduler.addJob(new TestJob("a1", METER_A), Priority.HIGH));
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getQueueDepth(Priority.HIGH));
+
+        scheduler.start();
+        assertEquals("a1", nextExecuted());
+
+        // not pending anymore
+        assertTrue(scheduler.addJob(new TestJob("a1", METER_A), Priority.LOW));
+        assertEquals("a1", nextExecuted());
+    }
+
+    @Test
+    public void testRemoveJobs() throws Exception {
+        scheduler = createScheduler(1, 0);
+        scheduler.addJob(new TestJob("a1", METER_A), Priority.LOW);
+        scheduler.addJob(new TestJob("a2", METER_A), Priority.HIGH);
+        scheduler.removeJobs(dsid("a1"));
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getQueueDepth(Priority.LOW));
+
+        scheduler.start();
+        assertEquals("a2", nextExecuted());
+    }
+
+    @Test
+    public void testJobsAreStartedOncePerRequestInterval() throws Exception {
+        scheduler = createScheduler(1, 1000);
+        scheduler.addJob(new TestJob("a1", METER_A), Priority.HIGH);
+        scheduler.addJob(new TestJob("b1", METER_B), Priority.HIGH);
+        scheduler.addJob(new TestJob("a2", METER_A), Priority.HIGH);
+        scheduler.start();
+        for (int i = 0; i < 3; i++) {
+            nextExecuted();
+        }
+
+        // the clock did not move while the jobs ran, so the second and third job waited a full interval each
+        long interval = TimeUnit.MILLISECONDS.toNanos(1000);
+        assertEquals(Arrays.asList(interval, interval), sleeps);
+        assertEquals(2 * interval, clock.get());
+    }
+
+    @Test
+    public void testNoWaitWithoutRequestInterval() throws Exception {
+        scheduler = createScheduler(1, 0);
+        for (int i = 0; i < 5; i++) {
+            scheduler.addJob(new TestJob("a" + i, METER_A), Priority.LOW);
+        }
+        scheduler.start();
+        for (int i = 0; i < 5; i++) {
+            nextExecuted();
+        }
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void testShutdownDiscardsWaitingJobs() throws Exception {
+        scheduler = createScheduler(1, 0);
+        TestJob blocking = new TestJob("a1", METER_A, true);
+        scheduler.addJob(blocking, Priority.HIGH);
+        scheduler.addJob(new TestJob("a2", METER_A), Priority.HIGH);
+        scheduler.addJob(new TestJob("b1", METER_B), Priority.LOW);
+        scheduler.start();
+        assertTrue(blocking.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        scheduler.shutdown();
+        assertEquals(0, scheduler.getQueueDepth());
+        assertFalse(scheduler.addJob(new TestJob("b2", METER_B), Priority.HIGH));
+
+        // the running job is interrupted, the worker ends without starting the waiting jobs
+        assertEquals("a1", nextExecuted());
+        assertTrue(blocking.interrupted);
+        joinWorkers();
+        assertTrue(executed.isEmpty());
+    }
+
+    private SensorJobScheduler createScheduler(int threads, long requestIntervalMillis) {
+        return new SensorJobScheduler(null, threads, requestIntervalMillis) {
+            @Override
+            protected String getSessionToken() {
+                return "token";
+            }
+
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+
+            @Override
+            protected void sleep(long nanos) {
+                sleeps.add(nanos);
+                clock.addAndGet(nanos);
+            }
+        };
+    }
+
+    private String nextExecuted() throws InterruptedException {
+        String name = executed.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("no job executed in time", name);
+        return name;
+    }
+
+    /**
+     * @return the short form dsid of a test job, the name padded with zeros
+     */
+    private static DSID dsid(String name) {
+        return new DSID(String.format("%8s", name).replace(' ', '0'));
+    }
+
+    private void joinWorkers() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("digitalSTROM Sensor Job Worker-")) {
+                thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                assertFalse(thread.isAlive());
+            }
+        }
+    }
+
+    /**
+     * Records its execution, optionally blocking until it is released; equal to the jobs with the
+     * same name.
+     */
+    private class TestJob implements SensorJob {
+        private final String name;
+        private final DSID meterDSID;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile boolean interrupted = false;
+
+        TestJob(String name, DSID meterDSID) {
+            this(name, meterDSID, false);
+        }
+
+        TestJob(String name, DSID meterDSID, boolean blocking) {
+            this.name = name;
+            this.meterDSID = meterDSID;
+            this.release = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        @Override
+        public DSID getDsid() {
+            return dsid(name);
+        }
+
+        @Override
+        public DSID getMeterDSID() {
+            return meterDSID;
+        }
+
+        @Override
+        public void execute(DigitalSTROMAPI digitalSTROM, String token) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            executed.add(name);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestJob && ((TestJob) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+}
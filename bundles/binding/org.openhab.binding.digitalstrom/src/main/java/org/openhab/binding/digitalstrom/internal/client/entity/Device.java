@@ -27,6 +27,13 @@ public interface Device {
 
     public int getZoneId();
 
+    /**
+     * The dSM (meter) of the circuit the device is connected to.
+     *
+     * @return dsid of the dSM or null, if it is unknown
+     */
+    public DSID getMeterDSID();
+
     /**
      * This device is available in his zone or not.
      * Every 24h the dSM (meter) checks, if the devices are
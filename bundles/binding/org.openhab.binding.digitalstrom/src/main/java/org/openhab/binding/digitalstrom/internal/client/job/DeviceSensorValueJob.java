@@ -74,8 +74,18 @@ public class DeviceSensorValueJob implements SensorJob {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return (this.device.getDSID().getValue() + this.sensorIndex.getIndex()).hashCode();
+    }
+
     @Override
     public DSID getDsid() {
         return device.getDSID();
     }
+
+    @Override
+    public DSID getMeterDSID() {
+        return device.getMeterDSID();
+    }
 }
@@ -19,6 +19,11 @@ import org.openhab.binding.digitalstrom.internal.client.entity.DSID;
 public interface SensorJob {
     public DSID getDsid();
 
+    /**
+     * @return dsid of the dSM (meter) of the device or null, if it is unknown
+     */
+    public DSID getMeterDSID();
+
     public void execute(DigitalSTROMAPI digitalSTROM, String token);
 
 }
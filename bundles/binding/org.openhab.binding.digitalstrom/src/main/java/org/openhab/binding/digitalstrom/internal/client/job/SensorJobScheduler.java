@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.digitalstrom.internal.client.job;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.digitalstrom.internal.client.DigitalSTROMAPI;
+import org.openhab.binding.digitalstrom.internal.client.entity.DSID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes {@link SensorJob}s by priority with a pool of worker threads. The sensor values are read
+ * by the dSM (meter) of a device over its circuit, so jobs of the same circuit are executed one
+ * after the other while jobs of different circuits are executed in parallel. Jobs of all circuits
+ * are started at most once per request interval, to limit the load on the digitalSTROM server
+ * (dSS).
+ *
+ * A job which equals an already pending job is not queued again.
+ *
+ * @since 1.10.0
+ */
+public abstract class SensorJobScheduler {
+
+    /**
+     * The priority of a job, jobs of a higher priority are executed first.
+     */
+    public enum Priority {
+        HIGH,
+        MEDIUM,
+        LOW
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorJobScheduler.class);
+
+    /** the circuit of the devices with an unknown dSM */
+    private static final String UNKNOWN_CIRCUIT = "";
+
+    private final DigitalSTROMAPI digitalSTROM;
+    private final int threads;
+    private final long requestIntervalNanos;
+
+    // guarded by circuits
+    private final Map<String, Circuit> circuits = new LinkedHashMap<String, Circuit>();
+    private final Set<SensorJob> pendingJobs = new HashSet<SensorJob>();
+    private final EnumMap<Priority, Integer> queueDepths = new EnumMap<Priority, Integer>(Priority.class);
+    private boolean shutdown = false;
+
+    // guarded by this
+    private boolean requested = false;
+    private long nextRequestNanos;
+
+    private final List<Thread> workers = new ArrayList<Thread>();
+
+    /**
+     * @param digitalSTROM the API the jobs are executed with
+     * @param threads the number of worker threads, which is the maximum number of circuits read in
+     *            parallel
+     * @param requestIntervalMillis the minimum time between the start of two jobs in milliseconds,
+     *            0 for no limit
+     */
+    public SensorJobScheduler(DigitalSTROMAPI digitalSTROM, int threads, long requestIntervalMillis) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, but is " + threads);
+        }
+        if (requestIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "requestIntervalMillis must not be negative, but is " + requestIntervalMillis);
+        }
+        this.digitalSTROM = digitalSTROM;
+        this.threads = threads;
+        this.requestIntervalNanos = TimeUnit.MILLISECONDS.toNanos(requestIntervalMillis);
+        for (Priority priority : Priority.values()) {
+            queueDepths.put(priority, 0);
+        }
+    }
+
+    /**
+     * @return the session token the jobs are executed with
+     */
+    protected abstract String getSessionToken();
+
+    /**
+     * Starts the worker threads.
+     */
+    public void start() {
+        synchronized (workers) {
+            for (int i = 1; i <= threads; i++) {
+                Thread worker = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        executeJobs();
+                    }
+                }, "digitalSTROM Sensor Job Worker-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads, pending jobs are discarded.
+     */
+    public void shutdown() {
+        synchronized (circuits) {
+            shutdown = true;
+            circuits.clear();
+            pendingJobs.clear();
+            for (Priority priority : Priority.values()) {
+                queueDepths.put(priority, 0);
+            }
+            circuits.notifyAll();
+        }
+        synchronized (workers) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            workers.clear();
+        }
+    }
+
+    /**
+     * Queues a job, unless an equal job is already pending.
+     *
+     * @param job the job
+     * @param priority the priority of the job
+     * @return true, if the job was queued
+     */
+    public boolean addJob(SensorJob job, Priority priority) {
+        synchronized (circuits) {
+            if (shutdown || !pendingJobs.add(job)) {
+                return false;
+            }
+            String circuitId = getCircuitId(job);
+            Circuit circuit = circuits.get(circuitId);
+            if (circuit == null) {
+                circuit = new Circuit(circuitId);
+                circuits.put(circuitId, circuit);
+            }
+            circuit.queues.get(priority).add(job);
+            queueDepths.put(priority, queueDepths.get(priority) + 1);
+            circuits.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Removes all pending jobs of a device.
+     *
+     * @param dsid the dsid of the device
+     */
+    public void removeJobs(DSID dsid) {
+        synchronized (circuits) {
+            for (Circuit circuit : circuits.values()) {
+                for (Priority priority : Priority.values()) {
+                    for (Iterator<SensorJob> iter = circuit.queues.get(priority).iterator(); iter.hasNext();) {
+                        SensorJob job = iter.next();
+                        if (job.getDsid().equals(dsid)) {
+                            iter.remove();
+                            pendingJobs.remove(job);
+                            queueDepths.put(priority, queueDepths.get(priority) - 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of pending jobs
+     */
+    public int getQueueDepth() {
+        synchronized (circuits) {
+            return pendingJobs.size();
+        }
+    }
+
+    /**
+     * @param priority the priority
+     * @return the number of pending jobs with the given priority
+     */
+    public int getQueueDepth(Priority priority) {
+        synchronized (circuits) {
+            return queueDepths.get(priority);
+        }
+    }
+
+    private void executeJobs() {
+        while (true) {
+            Circuit circuit;
+            SensorJob job;
+            synchronized (circuits) {
+                job = null;
+                circuit = null;
+                while (!shutdown && job == null) {
+                    circuit = nextCircuit();
+                    if (circuit == null) {
+                        try {
+                            circuits.wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    } else {
+                        job = circuit.poll();
+                        circuit.busy = true;
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+            }
+
+            try {
+                awaitRequestBudget();
+                logger.debug("execute {} for dsid {} on circuit '{}', {} jobs pending", job.getClass().getSimpleName(),
+                        job.getDsid().getValue(), circuit.id, getQueueDepth());
+                job.execute(digitalSTROM, getSessionToken());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("{} for dsid {} failed", job.getClass().getSimpleName(), job.getDsid().getValue(), e);
+            } finally {
+                synchronized (circuits) {
+                    circuit.busy = false;
+                    circuits.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the idle circuit with the job of the highest priority. Circuits with jobs of the same
+     * priority are served in turn.
+     */
+    private Circuit nextCircuit() {
+        for (Priority priority : Priority.values()) {
+            if (queueDepths.get(priority) == 0) {
+                continue;
+            }
+            for (Circuit circuit : circuits.values()) {
+                if (!circuit.busy && !circuit.queues.get(priority).isEmpty()) {
+                    // move the circuit to the end of the iteration order for the next turn
+                    circuits.remove(circuit.id);
+                    circuits.put(circuit.id, circuit);
+                    return circuit;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until the request interval has passed since the previous request to the dSS.
+     */
+    private void awaitRequestBudget() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoTime();
+            if (!requested || nextRequestNanos - now < 0) {
+                nextRequestNanos = now;
+                requested = true;
+            }
+            waitNanos = nextRequestNanos - now;
+            nextRequestNanos += requestIntervalNanos;
+        }
+        if (waitNanos > 0) {
+            sleep(waitNanos);
+        }
+    }
+
+    /**
+     * @return the current value of the time source of the request interval in nanoseconds
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Waits for the request interval.
+     *
+     * @param nanos the time to wait in nanoseconds
+     */
+    protected void sleep(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    private String getCircuitId(SensorJob job) {
+        DSID meterDSID = job.getMeterDSID();
+        return meterDSID != null ? meterDSID.getValue() : UNKNOWN_CIRCUIT;
+    }
+
+    /**
+     * The pending jobs of a circuit by priority.
+     */
+    private class Circuit {
+        private final String id;
+        private final EnumMap<Priority, LinkedList<SensorJob>> queues = new EnumMap<Priority, LinkedList<SensorJob>>(
+                Priority.class);
+        private boolean busy = false;
+
+        Circuit(String id) {
+            this.id = id;
+            for (Priority priority : Priority.values()) {
+                queues.put(priority, new LinkedList<SensorJob>());
+            }
+        }
+
+        SensorJob poll() {
+            for (Priority priority : Priority.values()) {
+                SensorJob job = queues.get(priority).poll();
+                if (job != null) {
+                    pendingJobs.remove(job);
+                    queueDepths.put(priority, queueDepths.get(priority) - 1);
+                    return job;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.exec.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Hashtable;
+import java.util.LinkedList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.library.items.StringItem;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+/**
+ * @since 1.10.0
+ */
+public class ExecBindingTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ExecGenericBindingProvider provider;
+    private TestExecBinding binding;
+    private final BlockingQueue<String> updates = new LinkedBlockingQueue<String>();
+
+    @Before
+    public void setUp() {
+        provider = new ExecGenericBindingProvider();
+        binding = new TestExecBinding();
+        binding.setEventPublisher(new EventPublisher() {
+            @Override
+            public void sendCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postUpdate(String itemName, State newState) {
+                updates.add(itemName);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        binding.release.countDown();
+        binding.deactivate();
+    }
+
+    @Test
+    public void testRefreshIsNotStartedAgainWhileQueued() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        binding.pool = executor;
+        provider.processBindingConfiguration("test", new StringItem("slow"), "<[slow:1000:]");
+        binding.addBindingProvider(provider);
+        binding.activate();
+
+        binding.execute();
+        assertEquals(1, executor.tasks.size());
+
+        // the item was marked as refreshed when the refresh was queued, it is not due yet
+        binding.clock.addAndGet(999);
+        binding.execute();
+        assertEquals(1, executor.tasks.size());
+        assertEquals(0, binding.getStatistics().getSkippedCount());
+
+        // a skipped refresh is counted once per refresh interval
+        binding.clock.addAndGet(1);
+        binding.execute();
+        binding.execute();
+        assertEquals(1, binding.getStatistics().getSkippedCount());
+        binding.clock.addAndGet(1000);
+        binding.execute();
+        assertEquals(2, binding.getStatistics().getSkippedCount());
+        assertEquals(1, executor.tasks.size());
+
+        executor.runNext();
+        assertEquals("slow", updates.poll());
+        assertEquals(1, binding.getStatistics().getRunCount());
+
+        binding.clock.addAndGet(1000);
+        binding.execute();
+        assertEquals(1, executor.tasks.size());
+        executor.runNext();
+        assertEquals(2, binding.getExecutions("slow"));
+    }
+
+    @Test
+    public void testHangingCommandDoesNotDelayOtherItems() throws Exception {
+        provider.processBindingConfiguration("test", new StringItem("hanging"), "<[hang:10:]");
+        provider.processBindingConfiguration("test", new StringItem("fast"), "<[fast:10:]");
+        CompletionCountingPool pool = new CompletionCountingPool(5);
+        binding.pool = pool;
+        binding.addBindingProvider(provider);
+        binding.activate();
+
+        binding.execute();
+        assertTrue(binding.started.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        pool.awaitCompletion();
+        assertEquals("fast", updates.poll());
+        binding.clock.addAndGet(10);
+        binding.execute();
+        pool.awaitCompletion();
+        assertEquals("fast", updates.poll());
+
+        assertEquals(1, binding.getExecutions("hang"));
+        assertEquals(2, binding.getExecutions("fast"));
+        assertEquals(1, binding.getStatistics().getSkippedCount());
+
+        binding.release.countDown();
+        assertEquals("hanging", nextUpdate());
+    }
+
+    @Test
+    public void testMaxThreadsBoundsConcurrentCommands() throws Exception {
+        Hashtable<String, Object> config = new Hashtable<String, Object>();
+        config.put("maxThreads", "2");
+        binding.updated(config);
+        for (int i = 0; i < 5; i++) {
+            provider.processBindingConfiguration("test", new StringItem("item" + i), "<[hang:60000:]");
+        }
+        binding.addBindingProvider(provider);
+        binding.activate();
+
+        binding.execute();
+        assertTrue(binding.started.tryAcquire(2, TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, binding.running.get());
+
+        binding.release.countDown();
+        for (int i = 0; i < 5; i++) {
+            nextUpdate();
+        }
+        assertEquals(2, binding.maxRunning.get());
+        assertEquals(5, binding.getExecutions("hang"));
+    }
+
+    private String nextUpdate() throws InterruptedException {
+        String itemName = updates.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("no item updated in time", itemName);
+        return itemName;
+    }
+
+    /**
+     * Replaces the execution of the command lines and the clock: the command line 'hang' blocks until released.
+     * Uses the given pool instead of its own, if set.
+     */
+    private static class TestExecBinding extends ExecBinding {
+
+        private final AtomicLong clock = new AtomicLong(1000000);
+        private ThreadPoolExecutor pool;
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Semaphore started = new Semaphore(0);
+        private final ConcurrentMap<String, AtomicInteger> executions = new ConcurrentHashMap<String, AtomicInteger>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        protected ThreadPoolExecutor createRefreshPool(int threads) {
+            return pool != null ? pool : super.createRefreshPool(threads);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return clock.get();
+        }
+
+        @Override
+        protected String executeCommandAndWaitResponse(String commandLine, ExecStatistics statistics) {
+            executions.putIfAbsent(commandLine, new AtomicInteger());
+            executions.get(commandLine).incrementAndGet();
+            int nowRunning = running.incrementAndGet();
+            synchronized (maxRunning) {
+                maxRunning.set(Math.max(maxRunning.get(), nowRunning));
+            }
+            try {
+                if (commandLine.equals("hang")) {
+                    started.release();
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return commandLine;
+        }
+
+        private int getExecutions(String commandLine) {
+            AtomicInteger count = executions.get(commandLine);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    /**
+     * Records the refreshes instead of executing them, they are run one by one with {@link #runNext()}.
+     */
+    private static class ManualExecutor extends ThreadPoolExecutor {
+
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+        ManualExecutor() {
+            super(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+        }
+
+        void runNext() {
+            tasks.removeFirst().run();
+        }
+    }
+
+    /**
+     * A pool which signals every finished refresh, after the refresh has been unregistered.
+     */
+    private static class CompletionCountingPool extends ThreadPoolExecutor {
+
+        private final Semaphore completed = new Semaphore(0);
+
+        CompletionCountingPool(int threads) {
+            super(threads, threads, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            completed.release();
+        }
+
+        void awaitCompletion() throws InterruptedException {
+            assertTrue("no refresh finished in time", completed.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -13,9 +13,16 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Dictionary;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -69,7 +76,24 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
     /** the interval to find new refresh candidates (defaults to 1000 milliseconds) */
     private int granularity = 1000;
 
-    private Map<String, Long> lastUpdateMap = new HashMap<String, Long>();
+    /** the maximum number of command lines executed concurrently to refresh items (defaults to 5) */
+    private int maxThreads = 5;
+
+    /** the interval to log the refresh statistics at debug level (10 minutes) */
+    private static final long STATISTICS_LOG_INTERVAL = 600000;
+
+    /** the time the last refresh of an item was started, or skipped because the previous one was still running */
+    private Map<String, Long> lastUpdateMap = new ConcurrentHashMap<String, Long>();
+
+    /** the refreshes which are queued or running, at most one per item */
+    private ConcurrentMap<String, RefreshJob> refreshesInProgress = new ConcurrentHashMap<String, RefreshJob>();
+
+    /** executes the command lines of the refreshes, so a hanging command line doesn't delay other items */
+    private ThreadPoolExecutor refreshPool;
+
+    private final ExecStatistics statistics = new ExecStatistics();
+
+    private long lastStatisticsLogTime = System.currentTimeMillis();
 
     /** RegEx to extract a parse a function String <code>'(.*?)\((.*)\)'</code> */
     private static final Pattern EXTRACT_FUNCTION_PATTERN = Pattern.compile("(.*?)\\((.*)\\)");
@@ -87,62 +111,144 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
     @Override
     public void activate() {
         super.activate();
+        refreshPool = createRefreshPool(maxThreads);
         setProperlyConfigured(true);
     }
 
+    /**
+     * Creates the pool which executes the command lines of the refreshes.
+     *
+     * @param threads the maximum number of command lines executed concurrently
+     * @return the pool
+     */
+    protected ThreadPoolExecutor createRefreshPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Exec Refresh Worker-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * @return the current time in milliseconds, which determines when the items are due for a refresh
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void deactivate() {
+        super.deactivate();
+        if (refreshPool != null) {
+            refreshPool.shutdownNow();
+            refreshPool = null;
+        }
+        refreshesInProgress.clear();
+        logger.debug("{}", statistics);
+    }
+
+    /**
+     * @return the statistics of the refreshes executed by this binding
+     */
+    public ExecStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void execute() {
+        ThreadPoolExecutor pool = refreshPool;
+        if (pool == null) {
+            return;
+        }
+
         for (ExecBindingProvider provider : providers) {
             for (String itemName : provider.getInBindingItemNames()) {
 
                 String commandLine = provider.getCommandLine(itemName);
 
                 int refreshInterval = provider.getRefreshInterval(itemName);
-                String transformation = provider.getTransformation(itemName);
 
                 Long lastUpdateTimeStamp = lastUpdateMap.get(itemName);
                 if (lastUpdateTimeStamp == null) {
                     lastUpdateTimeStamp = 0L;
                 }
 
-                long age = System.currentTimeMillis() - lastUpdateTimeStamp;
+                long now = currentTimeMillis();
+                long age = now - lastUpdateTimeStamp;
                 boolean needsUpdate = age >= refreshInterval;
 
                 if (needsUpdate) {
 
-                    logger.debug("item '{}' is about to be refreshed now", itemName);
-
                     commandLine = String.format(commandLine, Calendar.getInstance().getTime(), "", itemName);
 
-                    String response = executeCommandAndWaitResponse(commandLine);
-
-                    if (response == null) {
-                        logger.error("No response received from command '{}'", commandLine);
-                        lastUpdateMap.put(itemName, System.currentTimeMillis());
+                    // the next refresh is due an interval from now, whether this one is started or skipped
+                    lastUpdateMap.put(itemName, now);
+                    RefreshJob job = new RefreshJob(provider, itemName, commandLine);
+                    if (refreshesInProgress.putIfAbsent(itemName, job) != null) {
+                        // never run the command line of an item twice at the same time
+                        logger.debug("item '{}' is due, but its previous refresh has not finished yet", itemName);
+                        statistics.recordSkipped();
                         continue;
                     }
 
-                    String transformedResponse = response;
-                    // If transformation is needed
-                    if (transformation.length() > 0) {
-                        transformedResponse = transformResponse(response, transformation);
-                    }
-
-                    List<Class<? extends State>> acceptedDataTypes = provider.getAcceptedDataTypes(itemName);
-                    State state = null;
-                    if (acceptedDataTypes != null) {
-                        state = TypeParser.parseState(acceptedDataTypes, transformedResponse);
-                    }
-                    if (state != null) {
-                        eventPublisher.postUpdate(itemName, state);
-                    } else {
-                        logger.debug("Couldn't create state for value '{}'", transformedResponse);
+                    logger.debug("item '{}' is about to be refreshed now", itemName);
+                    try {
+                        pool.execute(job);
+                    } catch (RejectedExecutionException e) {
+                        // the binding is being deactivated
+                        refreshesInProgress.remove(itemName, job);
                     }
-
-                    lastUpdateMap.put(itemName, System.currentTimeMillis());
                 }
             }
         }
+
+        if (System.currentTimeMillis() - lastStatisticsLogTime >= STATISTICS_LOG_INTERVAL) {
+            lastStatisticsLogTime = System.currentTimeMillis();
+            logger.debug("{}, queued refreshes={}", statistics, pool.getQueue().size());
+        }
+    }
+
+    /**
+     * Executes the command line of an in-binding and posts the parsed and transformed response as state update. Runs
+     * in a thread of the refresh pool.
+     *
+     * @param provider the binding provider of the item
+     * @param itemName the item to refresh
+     * @param commandLine the formatted command line
+     */
+    private void refresh(ExecBindingProvider provider, String itemName, String commandLine) {
+        String response = executeCommandAndWaitResponse(commandLine, statistics);
+
+        if (response == null) {
+            logger.error("No response received from command '{}'", commandLine);
+            return;
+        }
+
+        String transformedResponse = response;
+        String transformation = provider.getTransformation(itemName);
+        // If transformation is needed
+        if (transformation != null && transformation.length() > 0) {
+            transformedResponse = transformResponse(response, transformation);
+        }
+
+        List<Class<? extends State>> acceptedDataTypes = provider.getAcceptedDataTypes(itemName);
+        State state = null;
+        if (acceptedDataTypes != null) {
+            state = TypeParser.parseState(acceptedDataTypes, transformedResponse);
+        }
+        if (state != null) {
+            eventPublisher.postUpdate(itemName, state);
+        } else {
+            logger.debug("Couldn't create state for value '{}'", transformedResponse);
+        }
     }
 
     protected String transformResponse(String response, String transformation) {
@@ -315,7 +421,18 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
      * @param commandLine the command line to execute
      * @return response data from executed command line
      */
-    private String executeCommandAndWaitResponse(String commandLine) {
+    protected String executeCommandAndWaitResponse(String commandLine) {
+        return executeCommandAndWaitResponse(commandLine, null);
+    }
+
+    /**
+     * Executes <code>commandLine</code> like {@link #executeCommandAndWaitResponse(String)}.
+     *
+     * @param commandLine the command line to execute
+     * @param statistics the statistics to record a timeout of the command line in, or <code>null</code>
+     * @return response data from executed command line
+     */
+    protected String executeCommandAndWaitResponse(String commandLine, ExecStatistics statistics) {
         String retval = null;
 
         CommandLine cmdLine = null;
@@ -360,8 +477,17 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
             retval = StringUtils.chomp(stdout.toString());
             logger.debug("exit code '{}', result '{}'", exitCode, retval);
 
+            if (watchdog.killedProcess()) {
+                logger.warn("commandLine '{}' did not finish within {} ms and was killed", commandLine, timeout);
+                if (statistics != null) {
+                    statistics.recordTimeout();
+                }
+            }
         } catch (InterruptedException e) {
-            logger.error("Timeout occured when executing commandLine '" + commandLine + "'", e);
+            // the binding is being deactivated
+            logger.debug("Interrupted while waiting for commandLine '{}'", commandLine);
+            watchdog.destroyProcess();
+            Thread.currentThread().interrupt();
         }
 
         return retval;
@@ -381,6 +507,26 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
             if (StringUtils.isNotBlank(granularityString)) {
                 granularity = Integer.parseInt(granularityString);
             }
+
+            String maxThreadsString = (String) config.get("maxThreads");
+            if (StringUtils.isNotBlank(maxThreadsString)) {
+                int newMaxThreads = Integer.parseInt(maxThreadsString);
+                if (newMaxThreads < 1) {
+                    throw new ConfigurationException("maxThreads", "maxThreads must be at least 1");
+                }
+                maxThreads = newMaxThreads;
+                ThreadPoolExecutor pool = refreshPool;
+                if (pool != null) {
+                    // the core size must never exceed the maximum size
+                    if (maxThreads > pool.getMaximumPoolSize()) {
+                        pool.setMaximumPoolSize(maxThreads);
+                        pool.setCorePoolSize(maxThreads);
+                    } else {
+                        pool.setCorePoolSize(maxThreads);
+                        pool.setMaximumPoolSize(maxThreads);
+                    }
+                }
+            }
         }
 
     }
@@ -395,4 +541,35 @@ public class ExecBinding extends AbstractActiveBinding<ExecBindingProvider>imple
         super.removeBindingProvider(bindingProvider);
     }
 
+    /**
+     * Refreshes an item in a thread of the refresh pool. The job stays registered in {@link #refreshesInProgress}
+     * until it has finished, so the item isn't refreshed again in the meantime.
+     */
+    private final class RefreshJob implements Runnable {
+
+        private final ExecBindingProvider provider;
+        private final String itemName;
+        private final String commandLine;
+        private final long queuedNanos = System.nanoTime();
+
+        private RefreshJob(ExecBindingProvider provider, String itemName, String commandLine) {
+            this.provider = provider;
+            this.itemName = itemName;
+            this.commandLine = commandLine;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            try {
+                refresh(provider, itemName, commandLine);
+            } catch (RuntimeException e) {
+                logger.error("Error refreshing item '" + itemName + "'", e);
+            } finally {
+                statistics.recordRun(startNanos - queuedNanos, System.nanoTime() - startNanos);
+                refreshesInProgress.remove(itemName, this);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.exec.internal;
+
+/**
+ * Collects statistics of the refreshes executed by the {@link ExecBinding} worker pool, to help sizing the pool and
+ * the timeout.
+ *
+ * @since 1.10.0
+ */
+public class ExecStatistics {
+
+    private long runCount = 0;
+    private long runNanos = 0;
+    private long maxRunNanos = 0;
+    private long queueWaitNanos = 0;
+    private long maxQueueWaitNanos = 0;
+    private long timeoutCount = 0;
+    private long skippedCount = 0;
+
+    /**
+     * Records an executed refresh.
+     *
+     * @param queueWaitNanos time in nanoseconds the refresh waited for a worker
+     * @param runNanos time in nanoseconds the refresh took to execute the command line and process its response
+     */
+    public synchronized void recordRun(long queueWaitNanos, long runNanos) {
+        runCount++;
+        this.runNanos += runNanos;
+        maxRunNanos = Math.max(maxRunNanos, runNanos);
+        this.queueWaitNanos += queueWaitNanos;
+        maxQueueWaitNanos = Math.max(maxQueueWaitNanos, queueWaitNanos);
+    }
+
+    /**
+     * Records the command line of a refresh which was killed by the watchdog because it did not finish within the
+     * timeout.
+     */
+    public synchronized void recordTimeout() {
+        timeoutCount++;
+    }
+
+    /**
+     * Records a refresh which was due, but not started because the previous refresh of the item was still queued or
+     * running. A refresh which stays queued or running is counted once per refresh interval of the item.
+     */
+    public synchronized void recordSkipped() {
+        skippedCount++;
+    }
+
+    /**
+     * @return the number of executed refreshes
+     */
+    public synchronized long getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @return the average time in milliseconds a refresh took
+     */
+    public synchronized double getAverageRunMillis() {
+        return runCount == 0 ? 0 : runNanos / 1e6 / runCount;
+    }
+
+    /**
+     * @return the longest time in milliseconds a refresh took
+     */
+    public synchronized double getMaxRunMillis() {
+        return maxRunNanos / 1e6;
+    }
+
+    /**
+     * @return the average time in milliseconds a refresh waited for a worker
+     */
+    public synchronized double getAverageQueueWaitMillis() {
+        return runCount == 0 ? 0 : queueWaitNanos / 1e6 / runCount;
+    }
+
+    /**
+     * @return the longest time in milliseconds a refresh waited for a worker
+     */
+    public synchronized double getMaxQueueWaitMillis() {
+        return maxQueueWaitNanos / 1e6;
+    }
+
+    /**
+     * @return the number of refresh command lines killed by the watchdog
+     */
+    public synchronized long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * @return the number of refreshes skipped because the previous refresh of the item had not finished
+     */
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "ExecStatistics [runs=%d, average run=%.1f ms, max run=%.1f ms, average queue wait=%.1f ms, max queue wait=%.1f ms, timeouts=%d, skipped=%d]",
+                runCount, getAverageRunMillis(), getMaxRunMillis(), getAverageQueueWaitMillis(),
+                getMaxQueueWaitMillis(), timeoutCount, skippedCount);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.expire.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+/**
+ * Benchmark of {@link ExpireBinding} with {@value #ITEM_COUNT} bound items. Reports the updates per second which
+ * (re)schedule the expiration of an item, and how late the items expire compared to their configured duration.
+ *
+ * @since 1.10.0
+ */
+public class ExpireBindingBenchmark {
+
+    private static final int ITEM_COUNT = 10000;
+    private static final long DURATION_NANOS = 2000000000L;
+
+    public static void main(String[] args) throws Exception {
+        final ConcurrentMap<String, Long> expiredNanos = new ConcurrentHashMap<String, Long>();
+        final CountDownLatch expired = new CountDownLatch(ITEM_COUNT);
+
+        ExpireGenericBindingProvider provider = new ExpireGenericBindingProvider();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            provider.processBindingConfiguration("benchmark", new SwitchItem("hour" + i), "1h");
+            provider.processBindingConfiguration("benchmark", new SwitchItem("second" + i), "1s");
+        }
+
+        ExpireBinding binding = new ExpireBinding();
+        binding.setEventPublisher(new EventPublisher() {
+            @Override
+            public void sendCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postUpdate(String itemName, State newState) {
+                expiredNanos.put(itemName, System.nanoTime());
+                expired.countDown();
+            }
+        });
+        binding.addBindingProvider(provider);
+        binding.activate(null, null);
+
+        // updates of items which are already waiting to expire, each one replaces the scheduled expiration
+        long updates = 0;
+        long start = System.nanoTime();
+        do {
+            binding.receiveUpdate("hour" + (updates % ITEM_COUNT), OnOffType.ON);
+            updates++;
+        } while (System.nanoTime() - start < DURATION_NANOS);
+        long elapsed = System.nanoTime() - start;
+        System.out.println(String.format("reschedule %10.0f updates/s", updates / (elapsed / 1e9)));
+
+        // expiration of items updated at (almost) the same time
+        long[] updatedNanos = new long[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            updatedNanos[i] = System.nanoTime();
+            binding.receiveUpdate("second" + i, OnOffType.ON);
+        }
+        if (!expired.await(10, TimeUnit.SECONDS)) {
+            System.out.println(expired.getCount() + " items did not expire");
+        }
+
+        long totalLateness = 0;
+        long maxLateness = 0;
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Long expiredAt = expiredNanos.get("second" + i);
+            if (expiredAt != null) {
+                long lateness = expiredAt - updatedNanos[i] - TimeUnit.SECONDS.toNanos(1);
+                totalLateness += lateness;
+                maxLateness = Math.max(maxLateness, lateness);
+            }
+        }
+        System.out.println(String.format("expire     %10.2f ms average lateness, %.2f ms max lateness",
+                totalLateness / 1e6 / ITEM_COUNT, maxLateness / 1e6));
+
+        binding.deactivate(0);
+    }
+}
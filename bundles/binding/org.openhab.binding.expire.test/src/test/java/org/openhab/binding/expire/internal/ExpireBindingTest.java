@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.expire.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * @since 1.10.0
+ */
+public class ExpireBindingTest {
+
+    private ExpireBinding binding;
+    private ExpireGenericBindingProvider provider;
+    private ManualScheduler scheduler;
+    private Map<String, State> postedStates;
+
+    @Before
+    public void setUp() throws Exception {
+        postedStates = new HashMap<String, State>();
+        provider = new ExpireGenericBindingProvider();
+        provider.processBindingConfiguration("test", new SwitchItem("item1"), "1s");
+        provider.processBindingConfiguration("test", new SwitchItem("item2"), "1s");
+
+        scheduler = new ManualScheduler();
+        binding = new ExpireBinding() {
+            @Override
+            protected ScheduledThreadPoolExecutor createScheduler() {
+                return scheduler;
+            }
+        };
+        binding.setEventPublisher(new EventPublisher() {
+            @Override
+            public void sendCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postCommand(String itemName, Command command) {
+            }
+
+            @Override
+            public void postUpdate(String itemName, State newState) {
+                postedStates.put(itemName, newState);
+            }
+        });
+        binding.addBindingProvider(provider);
+        binding.activate(null, null);
+    }
+
+    @After
+    public void tearDown() {
+        binding.deactivate(0);
+    }
+
+    @Test
+    public void testExpiresAfterDuration() throws Exception {
+        binding.receiveUpdate("item1", OnOffType.ON);
+        scheduler.advance(999);
+        assertTrue(postedStates.isEmpty());
+
+        scheduler.advance(1);
+        assertEquals(UnDefType.UNDEF, postedStates.get("item1"));
+        assertEquals(1, postedStates.size());
+    }
+
+    @Test
+    public void testUpdateReschedulesExpiration() throws Exception {
+        binding.receiveUpdate("item1", OnOffType.ON);
+        scheduler.advance(700);
+        binding.receiveUpdate("item1", OnOffType.OFF);
+
+        scheduler.advance(700);
+        assertTrue(postedStates.isEmpty());
+        assertEquals(1, scheduler.tasks.size());
+
+        scheduler.advance(300);
+        assertEquals(UnDefType.UNDEF, postedStates.get("item1"));
+    }
+
+    @Test
+    public void testExpireStateCancelsExpiration() throws Exception {
+        binding.receiveUpdate("item1", OnOffType.ON);
+        binding.receiveUpdate("item2", OnOffType.ON);
+        binding.receiveUpdate("item1", UnDefType.UNDEF);
+        assertEquals(1, scheduler.tasks.size());
+
+        scheduler.advance(1000);
+        assertNull(postedStates.get("item1"));
+        assertEquals(UnDefType.UNDEF, postedStates.get("item2"));
+    }
+
+    @Test
+    public void testUnboundItemIsNotExpired() throws Exception {
+        binding.receiveUpdate("item1", OnOffType.ON);
+        provider.removeConfigurations("test");
+
+        scheduler.advance(1000);
+        assertTrue(postedStates.isEmpty());
+    }
+
+    /**
+     * Records the scheduled tasks instead of running them, they are run by {@link #advance(long)} when their
+     * delay has passed. Cancelled tasks are removed, like with the remove on cancel policy of the binding.
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+        private final List<ManualFuture> tasks = new ArrayList<ManualFuture>();
+
+        private long now = 0;
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException();
+            }
+            ManualFuture future = new ManualFuture(command, now + unit.toMillis(delay));
+            tasks.add(future);
+            return future;
+        }
+
+        /**
+         * Moves the clock forward and runs the tasks which are due, in the order of their due time.
+         */
+        void advance(long millis) {
+            now += millis;
+            Collections.sort(tasks);
+            while (!tasks.isEmpty() && tasks.get(0).dueTime <= now) {
+                tasks.remove(0).command.run();
+            }
+        }
+
+        private class ManualFuture implements ScheduledFuture<Object> {
+
+            private final Runnable command;
+            private final long dueTime;
+            private boolean cancelled = false;
+
+            ManualFuture(Runnable command, long dueTime) {
+                this.command = command;
+                this.dueTime = dueTime;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(dueTime - now, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                cancelled = tasks.remove(this);
+                return cancelled;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public boolean isDone() {
+                return !tasks.contains(this);
+            }
+
+            @Override
+            public Object get() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object get(long timeout, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+}
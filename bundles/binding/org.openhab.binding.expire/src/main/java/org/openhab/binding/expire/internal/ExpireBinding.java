@@ -10,9 +10,13 @@ package org.openhab.binding.expire.internal;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.binding.expire.ExpireBindingProvider;
-import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.AbstractBinding;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
 import org.osgi.framework.BundleContext;
@@ -27,20 +31,20 @@ import org.slf4j.LoggerFactory;
  * @author John Cocula - minor refactoring
  * @since 1.9.0
  */
-public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider> {
+public class ExpireBinding extends AbstractBinding<ExpireBindingProvider> {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpireBinding.class);
 
     /**
-     * The refresh interval is used to check if any of the bound items is expired.
-     * One second should be fine for all use cases, so it's final and cannot be configured.
+     * Mapping of item names to the scheduled tasks expiring them.
      */
-    private static final long refreshInterval = 1000;
+    private Map<String, ExpireTask> itemExpireMap = new ConcurrentHashMap<String, ExpireTask>();
 
     /**
-     * Mapping of item names to future timestamps (in milliseconds) to expire them.
+     * Runs the expire tasks when they are due. The tasks are kept in a queue ordered by their due time, so scheduling
+     * and cancelling a task is O(log n) in the number of items waiting to expire.
      */
-    private Map<String, Long> itemExpireMap = new ConcurrentHashMap<String, Long>();
+    private ScheduledThreadPoolExecutor scheduler;
 
     public ExpireBinding() {
     }
@@ -60,7 +64,24 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
      * @param configuration Configuration properties for this component obtained from the ConfigAdmin service
      */
     public void activate(final BundleContext bundleContext, final Map<String, Object> configuration) {
-        setProperlyConfigured(true);
+        scheduler = createScheduler();
+    }
+
+    /**
+     * @return the scheduler which runs the expire tasks
+     */
+    protected ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Expire Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // items are rescheduled on every update, don't keep the cancelled tasks in the queue until they are due
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
     /**
@@ -90,32 +111,55 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
     public void deactivate(final int reason) {
         // deallocate resources here that are no longer needed and
         // should be reset when activating this binding again
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
         itemExpireMap.clear();
     }
 
     /**
-     * {@inheritDoc}
+     * Schedules the expiration of an item, replacing a previously scheduled expiration.
+     *
+     * @param itemName the item to expire
+     * @param duration the time in milliseconds until the item expires
      */
-    @Override
-    protected long getRefreshInterval() {
-        return refreshInterval;
+    private void scheduleExpire(String itemName, long duration) {
+        ExpireTask task = new ExpireTask(itemName);
+        ExpireTask oldTask = itemExpireMap.put(itemName, task);
+        if (oldTask != null) {
+            oldTask.cancel();
+        }
+        ScheduledThreadPoolExecutor currentScheduler = scheduler;
+        if (currentScheduler != null) {
+            task.schedule(currentScheduler, duration);
+        }
     }
 
     /**
-     * {@inheritDoc}
+     * Cancels a scheduled expiration of an item.
+     *
+     * @param itemName the item
      */
-    @Override
-    protected String getName() {
-        return "Expire Refresh Service";
-    }
-
-    private boolean isReadyToExpire(String itemName) {
-        Long nextExpireTs = itemExpireMap.get(itemName);
-        return (nextExpireTs != null) && (nextExpireTs <= System.currentTimeMillis());
+    private void cancelExpire(String itemName) {
+        ExpireTask task = itemExpireMap.remove(itemName);
+        if (task != null) {
+            task.cancel();
+        }
     }
 
-    private void expire(String itemName, ExpireBindingProvider provider) {
-        itemExpireMap.remove(itemName); // disable expire trigger until next update or command
+    private void expire(String itemName) {
+        ExpireBindingProvider provider = null;
+        for (ExpireBindingProvider candidate : providers) {
+            if (candidate.providesBindingFor(itemName)) {
+                provider = candidate;
+                break;
+            }
+        }
+        if (provider == null) {
+            logger.trace("Item {} is no longer bound, not expiring it", itemName);
+            return;
+        }
 
         Command expireCommand = provider.getExpireCommand(itemName);
         State expireState = provider.getExpireState(itemName);
@@ -131,26 +175,6 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
         }
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected void execute() {
-        logger.trace("Executing...");
-
-        // only bother to iterate if there is any possible work to do
-        if (!itemExpireMap.isEmpty()) {
-
-            for (ExpireBindingProvider provider : providers) {
-                for (String itemName : provider.getItemNames()) {
-                    if (isReadyToExpire(itemName)) {
-                        expire(itemName, provider);
-                    }
-                }
-            }
-        }
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -166,13 +190,13 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newCommand))
                         || (expireState != null && expireState.equals(newCommand))) {
                     // New command is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    cancelExpire(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received command '{}'; stopping any future expiration.", itemName,
                             newCommand);
                 } else {
-                    // New command is not the expired command or state, so add the trigger to the map
+                    // New command is not the expired command or state, so schedule the trigger
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    scheduleExpire(itemName, duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -197,12 +221,12 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
                 if ((expireCommand != null && expireCommand.equals(newState))
                         || (expireState != null && expireState.equals(newState))) {
                     // New state is expired command or state -> no further action needed
-                    itemExpireMap.remove(itemName); // remove expire trigger until next update or command
+                    cancelExpire(itemName); // remove expire trigger until next update or command
                     logger.debug("Item {} received update '{}'; stopping any future expiration.", itemName, newState);
                 } else {
-                    // New state is not the expired command or state, so add the trigger to the map
+                    // New state is not the expired command or state, so schedule the trigger
                     long duration = provider.getDuration(itemName);
-                    itemExpireMap.put(itemName, System.currentTimeMillis() + duration);
+                    scheduleExpire(itemName, duration);
                     logger.debug("Item {} will expire (with '{}' {}) in {} ms", itemName,
                             expireCommand == null ? expireState : expireCommand,
                             expireCommand == null ? "state" : "command", duration);
@@ -211,4 +235,40 @@ public class ExpireBinding extends AbstractActiveBinding<ExpireBindingProvider>
             }
         }
     }
+
+    /**
+     * Expires an item when it is due, unless it has been rescheduled or cancelled in the meantime.
+     */
+    private final class ExpireTask implements Runnable {
+
+        private final String itemName;
+        private volatile ScheduledFuture<?> future;
+
+        private ExpireTask(String itemName) {
+            this.itemName = itemName;
+        }
+
+        private void schedule(ScheduledThreadPoolExecutor scheduler, long delay) {
+            future = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> currentFuture = future;
+            if (currentFuture != null) {
+                currentFuture.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            // disable expire trigger until next update or command
+            if (itemExpireMap.remove(itemName, this)) {
+                try {
+                    expire(itemName);
+                } catch (RuntimeException e) {
+                    logger.error("Error expiring item {}", itemName, e);
+                }
+            }
+        }
+    }
 }
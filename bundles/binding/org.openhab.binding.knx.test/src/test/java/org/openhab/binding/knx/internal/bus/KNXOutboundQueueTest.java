@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.bus;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.exception.KNXFormatException;
+
+/**
+ * @since 1.10.0
+ */
+public class KNXOutboundQueueTest {
+
+    private int maxTelegramsPerSecond;
+    private KNXOutboundQueue queue;
+
+    @Before
+    public void setUp() {
+        maxTelegramsPerSecond = 0;
+        queue = new KNXOutboundQueue() {
+            @Override
+            protected int getMaxTelegramsPerSecond() {
+                return maxTelegramsPerSecond;
+            }
+        };
+    }
+
+    @Test
+    public void testReadsOfSameGroupAddressAreCollapsed() throws Exception {
+        Datapoint dp1 = createDP("1/1/1", "item1");
+        Datapoint dp2 = createDP("1/1/1", "item2");
+        Datapoint dp3 = createDP("1/1/2", "item3");
+
+        queue.addRead(dp1);
+        queue.addReads(Arrays.asList(dp2, dp3, dp1));
+        assertEquals(2, queue.getReadQueueSize());
+        assertEquals(2, queue.getCollapsedReadCount());
+
+        assertSame(dp1, queue.takeRead());
+        assertSame(dp3, queue.takeRead());
+        assertEquals(0, queue.getReadQueueSize());
+        assertEquals(2, queue.getReadCount());
+
+        // the group address can be read again once the read has been taken
+        queue.addRead(dp2);
+        assertEquals(1, queue.getReadQueueSize());
+        queue.clearReads();
+        assertEquals(0, queue.getReadQueueSize());
+    }
+
+    @Test
+    public void testWritesBeforeReads() throws Exception {
+        maxTelegramsPerSecond = 10;
+        queue.addRead(createDP("1/1/1", "item1"));
+        queue.acquireWriteSlot();
+
+        // this write has to wait for the budget, the read must not be sent before it
+        final AtomicLong writeNanos = new AtomicLong();
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.acquireWriteSlot();
+                    writeNanos.set(System.nanoTime());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        writer.start();
+        while (queue.getWaitingWrites() == 0) {
+            Thread.sleep(1);
+        }
+
+        queue.takeRead();
+        long readNanos = System.nanoTime();
+        writer.join();
+
+        assertTrue(writeNanos.get() > 0);
+        assertTrue(writeNanos.get() < readNanos);
+        assertEquals(2, queue.getWriteCount());
+        assertTrue(queue.getMaxWriteWaitMillis() > 0);
+    }
+
+    @Test
+    public void testTelegramBudget() throws Exception {
+        maxTelegramsPerSecond = 50;
+        for (int i = 0; i < 5; i++) {
+            queue.addRead(createDP("1/1/" + i, "item" + i));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            queue.acquireWriteSlot();
+            queue.takeRead();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        // 10 telegrams at 20 ms each, the first one is sent immediately
+        assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 170);
+        assertEquals(0, queue.getReadQueueSize());
+        assertTrue(queue.getAverageReadWaitMillis() > 0);
+    }
+
+    private Datapoint createDP(String groupAddress, String name) throws KNXFormatException {
+        return new CommandDP(new GroupAddress(groupAddress), name, 1, "1.001");
+    }
+}
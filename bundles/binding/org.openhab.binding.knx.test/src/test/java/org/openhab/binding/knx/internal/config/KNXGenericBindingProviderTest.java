@@ -11,6 +11,7 @@ package org.openhab.binding.knx.internal.config;
 import static junit.framework.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -209,6 +210,56 @@ public class KNXGenericBindingProviderTest {
         assertFalse(provider.isStartStopGA(new GroupAddress("4/2/13")));
     }
 
+    @Test
+    public void testGetListeningItemNames() throws BindingConfigParseException, KNXFormatException {
+        provider.processBindingConfiguration("text", item1, "<4/2/10+0/2/10, 5.005:4/2/11");
+        provider.processBindingConfiguration("text", item2, "0/2/10, 4/2/12");
+
+        // method under Test
+        assertEquals(Arrays.asList("item1"), toList(provider.getListeningItemNames(new GroupAddress("4/2/10"))));
+        assertEquals(Arrays.asList("item1", "item2"),
+                toList(provider.getListeningItemNames(new GroupAddress("0/2/10"))));
+        assertEquals(Arrays.asList("item2"), toList(provider.getListeningItemNames(new GroupAddress("4/2/12"))));
+        assertTrue(toList(provider.getListeningItemNames(new GroupAddress("4/2/13"))).isEmpty());
+
+        Iterator<Datapoint> datapoints = provider.getDatapoints("item2", new GroupAddress("0/2/10")).iterator();
+        assertEquals(new GroupAddress("0/2/10"), datapoints.next().getMainAddress());
+        assertFalse(datapoints.hasNext());
+        datapoints = provider.getDatapoints("item1", new GroupAddress("0/2/10")).iterator();
+        assertEquals(new GroupAddress("4/2/10"), datapoints.next().getMainAddress());
+        assertFalse(datapoints.hasNext());
+        assertFalse(provider.getDatapoints("item2", new GroupAddress("4/2/10")).iterator().hasNext());
+    }
+
+    @Test
+    public void testGetListeningItemNamesAfterReconfiguration() throws BindingConfigParseException, KNXFormatException {
+        provider.processBindingConfiguration("text", item1, "<4/2/10+0/2/10");
+        provider.processBindingConfiguration("text", item2, "0/2/10");
+        provider.processBindingConfiguration("text", item1, "4/2/11");
+
+        // method under Test
+        assertTrue(toList(provider.getListeningItemNames(new GroupAddress("4/2/10"))).isEmpty());
+        assertEquals(Arrays.asList("item2"), toList(provider.getListeningItemNames(new GroupAddress("0/2/10"))));
+        assertEquals(Arrays.asList("item1"), toList(provider.getListeningItemNames(new GroupAddress("4/2/11"))));
+        assertEquals(0, provider.getAutoRefreshTime(
+                provider.getDatapoints("item1", new GroupAddress("4/2/11")).iterator().next()));
+
+        provider.removeConfigurations("text");
+
+        // method under Test
+        assertTrue(toList(provider.getListeningItemNames(new GroupAddress("0/2/10"))).isEmpty());
+        assertTrue(toList(provider.getListeningItemNames(new GroupAddress("4/2/11"))).isEmpty());
+        assertFalse(provider.isCommandGA(new GroupAddress("4/2/11")));
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<T>();
+        for (T element : iterable) {
+            list.add(element);
+        }
+        return list;
+    }
+
     private class TestItem extends GenericItem {
 
         private List<Class<? extends State>> acceptedDataTypes = new ArrayList<Class<? extends State>>();
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dimming;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 1.10.0
+ */
+public class DimmingEngineTest {
+
+    private static final long STEP_PERIOD_MS = 20;
+    private static final int MAX_STEPS = 10;
+
+    private DimmingEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new DimmingEngine("test", STEP_PERIOD_MS, MAX_STEPS);
+    }
+
+    @After
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void testStepsUntilStopped() throws Exception {
+        AtomicInteger steps = new AtomicInteger();
+        engine.start("item1", new CountingStep(steps));
+        assertTrue(engine.isRunning("item1"));
+
+        Thread.sleep(STEP_PERIOD_MS * 3);
+        assertTrue(engine.stop("item1"));
+        assertFalse(engine.isRunning("item1"));
+        assertFalse(engine.stop("item1"));
+
+        int stepsWhenStopped = steps.get();
+        assertTrue("steps " + stepsWhenStopped, stepsWhenStopped >= 2);
+        Thread.sleep(STEP_PERIOD_MS * 3);
+        assertEquals(stepsWhenStopped, steps.get());
+    }
+
+    @Test
+    public void testStopsAfterMaxSteps() throws Exception {
+        AtomicInteger steps = new AtomicInteger();
+        engine.start("item1", new CountingStep(steps));
+
+        Thread.sleep(STEP_PERIOD_MS * (MAX_STEPS + 5));
+        assertFalse(engine.isRunning("item1"));
+        assertEquals(MAX_STEPS, steps.get());
+    }
+
+    @Test
+    public void testRestartReplacesDimmer() throws Exception {
+        AtomicInteger oldSteps = new AtomicInteger();
+        AtomicInteger newSteps = new AtomicInteger();
+        engine.start("item1", new CountingStep(oldSteps));
+        Thread.sleep(STEP_PERIOD_MS);
+        engine.start("item1", new CountingStep(newSteps));
+
+        int oldStepsWhenReplaced = oldSteps.get();
+        Thread.sleep(STEP_PERIOD_MS * 3);
+        assertEquals(oldStepsWhenReplaced, oldSteps.get());
+        assertTrue(newSteps.get() > 0);
+        assertEquals(1, engine.getRunningCount());
+    }
+
+    @Test
+    public void testManyDimmersShareOneThread() throws Exception {
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final AtomicInteger steps = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            engine.start("item" + i, new Runnable() {
+                @Override
+                public void run() {
+                    threads.add(Thread.currentThread());
+                    steps.incrementAndGet();
+                }
+            });
+        }
+        assertEquals(30, engine.getRunningCount());
+
+        Thread.sleep(STEP_PERIOD_MS * 3);
+        assertTrue(steps.get() >= 60);
+        assertEquals(1, threads.size());
+    }
+
+    private static final class CountingStep implements Runnable {
+        private final AtomicInteger steps;
+
+        private CountingStep(AtomicInteger steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public void run() {
+            steps.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import org.openhab.core.types.Type;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.DPTXlator1BitControlled;
+import tuwien.auto.calimero.dptxlator.DPTXlator2ByteFloat;
+import tuwien.auto.calimero.dptxlator.DPTXlator2ByteUnsigned;
+import tuwien.auto.calimero.dptxlator.DPTXlator3BitControlled;
+import tuwien.auto.calimero.dptxlator.DPTXlator4ByteFloat;
+import tuwien.auto.calimero.dptxlator.DPTXlator4ByteSigned;
+import tuwien.auto.calimero.dptxlator.DPTXlator4ByteUnsigned;
+import tuwien.auto.calimero.dptxlator.DPTXlator8BitSigned;
+import tuwien.auto.calimero.dptxlator.DPTXlator8BitUnsigned;
+import tuwien.auto.calimero.dptxlator.DPTXlatorBoolean;
+import tuwien.auto.calimero.dptxlator.DPTXlatorDate;
+import tuwien.auto.calimero.dptxlator.DPTXlatorDateTime;
+import tuwien.auto.calimero.dptxlator.DPTXlatorRGB;
+import tuwien.auto.calimero.dptxlator.DPTXlatorSceneControl;
+import tuwien.auto.calimero.dptxlator.DPTXlatorSceneNumber;
+import tuwien.auto.calimero.dptxlator.DPTXlatorString;
+import tuwien.auto.calimero.dptxlator.DPTXlatorTime;
+
+/**
+ * Micro benchmark of {@link KNXCoreTypeMapper}, using a telegram of each main datapoint type from
+ * {@link KNXCoreTypeMapperTest}. Reports the translations per second of each datapoint type, where a translation is
+ * a <code>toType()</code> of the telegram followed by a <code>toDPTValue()</code> of the resulting type.
+ *
+ * @since 1.10.0
+ */
+public class KNXCoreTypeMapperBenchmark {
+
+    private static final DPT[] DPTS = { DPTXlatorBoolean.DPT_SWITCH, DPTXlator1BitControlled.DPT_SWITCH_CONTROL,
+            DPTXlator3BitControlled.DPT_CONTROL_DIMMING, DPTXlator8BitUnsigned.DPT_SCALING,
+            DPTXlator8BitSigned.DPT_PERCENT_V8, DPTXlator2ByteUnsigned.DPT_VALUE_2_UCOUNT,
+            DPTXlator2ByteFloat.DPT_TEMPERATURE, DPTXlatorTime.DPT_TIMEOFDAY, DPTXlatorDate.DPT_DATE,
+            DPTXlator4ByteUnsigned.DPT_VALUE_4_UCOUNT, DPTXlator4ByteSigned.DPT_COUNT,
+            DPTXlator4ByteFloat.DPT_POWER, DPTXlatorString.DPT_STRING_8859_1,
+            DPTXlatorSceneNumber.DPT_SCENE_NUMBER, DPTXlatorSceneControl.DPT_SCENE_CONTROL,
+            DPTXlatorDateTime.DPT_DATE_TIME, DPTXlatorRGB.DPT_RGB };
+
+    private static final byte[][] DATA = { { 0x01 }, { 0x03 }, { 0x0B }, { (byte) 0x80 }, { (byte) 0x80 },
+            { (byte) 0xFF, 0x00 }, { 0x0C, 0x1A }, { 0x37, 59, 59 }, { 31, 0x02, 0x00 },
+            { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF }, { (byte) 0x80, 0x00, 0x00, 0x00 },
+            { (byte) 0x80, 0x00, 0x00, 0x01 },
+            { 0x61, 0x62, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69, 0x6A, 0x6B, 0x6C, 0x6D, 0x6E }, { 0x3F },
+            { (byte) 0xC0 }, { 0x00, 0x01, 0x01, 0x21, 0x02, 0x03, 0x00, 0x00 },
+            { (byte) 0xFF, (byte) 0x80, 0x00 } };
+
+    private static final long DURATION_NANOS = 500000000L;
+
+    public static void main(String[] args) throws Exception {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint[] datapoints = new Datapoint[DPTS.length];
+        for (int i = 0; i < DPTS.length; i++) {
+            String id = DPTS[i].getID();
+            int mainNumber = Integer.parseInt(id.substring(0, id.indexOf('.')));
+            datapoints[i] = new CommandDP(new GroupAddress("1/2/3"), "test", mainNumber, id);
+        }
+
+        // warm up
+        for (int i = 0; i < DPTS.length; i++) {
+            translate(mapper, datapoints[i], DATA[i], DURATION_NANOS / 5);
+        }
+
+        long totalTranslations = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < DPTS.length; i++) {
+            long start = System.nanoTime();
+            long translations = translate(mapper, datapoints[i], DATA[i], DURATION_NANOS);
+            long elapsed = System.nanoTime() - start;
+            System.out.println(String.format("%-8s %10.0f translations/s", DPTS[i].getID(),
+                    translations / (elapsed / 1e9)));
+            totalTranslations += translations;
+            totalNanos += elapsed;
+        }
+        System.out.println(String.format("%-8s %10.0f translations/s", "all", totalTranslations / (totalNanos / 1e9)));
+    }
+
+    private static long translate(KNXCoreTypeMapper mapper, Datapoint datapoint, byte[] data, long durationNanos) {
+        long translations = 0;
+        long results = 0;
+        long start = System.nanoTime();
+        do {
+            Type type = mapper.toType(datapoint, data);
+            if (type != null && mapper.toDPTValue(type, datapoint.getDPT()) != null) {
+                results++;
+            }
+            translations++;
+        } while (System.nanoTime() - start < durationNanos);
+        if (results == 0) {
+            System.out.println(datapoint.getDPT() + ": no value translated");
+        }
+        return translations;
+    }
+}
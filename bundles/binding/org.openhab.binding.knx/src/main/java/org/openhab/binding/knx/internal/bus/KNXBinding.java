@@ -11,10 +11,8 @@ package org.openhab.binding.knx.internal.bus;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.IllegalClassException;
@@ -22,6 +20,7 @@ import org.openhab.binding.knx.config.KNXBindingProvider;
 import org.openhab.binding.knx.config.KNXTypeMapper;
 import org.openhab.binding.knx.internal.connection.KNXConnection;
 import org.openhab.binding.knx.internal.connection.KNXConnectionListener;
+import org.openhab.binding.knx.internal.dimming.DimmingEngine;
 import org.openhab.core.binding.AbstractBinding;
 import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.library.types.IncreaseDecreaseType;
@@ -69,8 +68,14 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
 
     private boolean mKNXConnectionEstablished;
 
-    private Map<String, DimmerThread> itemDimmerThreads = Collections
-            .synchronizedMap(new HashMap<String, DimmerThread>());
+    /** the maximum number of commands posted for a start/stop dimming before it stops by itself */
+    private static final int MAX_DIMMING_STEPS = 100;
+
+    /** the time in milliseconds between two commands posted for a start/stop dimming */
+    private static final long DIMMING_STEP_PERIOD_MS = 500;
+
+    private final DimmingEngine dimmingEngine = new DimmingEngine("KNXBinding/Dimming", DIMMING_STEP_PERIOD_MS,
+            MAX_DIMMING_STEPS);
 
     public void activate(ComponentContext componentContext) {
         logger.debug("Calimero library version {}", Settings.getLibraryVersion());
@@ -87,6 +92,7 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
             provider.removeBindingChangeListener(this);
         }
         providers.clear();
+        dimmingEngine.shutdown();
         mKNXBusReaderScheduler.stop();
         KNXConnection.disconnect();
     }
@@ -144,7 +150,15 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
         if (datapoints != null) {
             ProcessCommunicator pc = KNXConnection.getCommunicator();
             if (pc != null) {
+                KNXOutboundQueue outboundQueue = mKNXBusReaderScheduler.getOutboundQueue();
                 for (Datapoint datapoint : datapoints) {
+                    try {
+                        outboundQueue.acquireWriteSlot();
+                    } catch (InterruptedException e) {
+                        logger.warn("Interrupted while waiting to send value '{}' to datapoint '{}'", value, datapoint);
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
                     try {
                         pc.write(datapoint, toDPTValue(value, datapoint.getDPT()));
                         logger.debug("Wrote value '{}' to datapoint '{}'", value, datapoint);
@@ -154,6 +168,7 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
                                 new Object[] { value, datapoint, e.getMessage() });
                         try {
                             // do a second try, maybe the reconnection was successful
+                            outboundQueue.acquireWriteSlot();
                             pc = KNXConnection.getCommunicator();
                             pc.write(datapoint, toDPTValue(value, datapoint.getDPT()));
                             logger.debug("Wrote value '{}' to datapoint '{}' on second try", value, datapoint);
@@ -161,6 +176,11 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
                             logger.error(
                                     "Value '{}' could not be sent to the KNX bus using datapoint '{}' - giving up after second try: {}",
                                     new Object[] { value, datapoint, e1.getMessage() });
+                        } catch (InterruptedException e1) {
+                            logger.warn("Interrupted while waiting to send value '{}' to datapoint '{}'", value,
+                                    datapoint);
+                            Thread.currentThread().interrupt();
+                            return;
                         }
                     }
                 }
@@ -227,10 +247,10 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
                         Type type = getType(datapoint, asdu);
                         if (type != null) {
                             if (type instanceof Command && isStartStopEnabled(itemName, destination, datapoint)) {
-                                if (isDimmerThreadRunning(itemName) && type == IncreaseDecreaseType.INCREASE) {
-                                    stopDimmerThread(itemName);
+                                if (dimmingEngine.isRunning(itemName) && type == IncreaseDecreaseType.INCREASE) {
+                                    dimmingEngine.stop(itemName);
                                 } else {
-                                    startDimmerThread(destination, itemName, (Command) type);
+                                    startDimming(destination, itemName, (Command) type);
                                 }
                             } else {
                                 sendTypeToItemButNotToKnx(destination, itemName, type);
@@ -256,11 +276,6 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
         }
     }
 
-    private boolean isDimmerThreadRunning(String itemName) {
-        DimmerThread dimmerThread = itemDimmerThreads.get(itemName);
-        return dimmerThread != null && dimmerThread.isRunning();
-    }
-
     private void sendTypeToItemButNotToKnx(GroupAddress destination, String itemName, Type type) {
         // we need to make sure that we won't send out this event to
         // the knx bus again, when receiving it on the openHAB bus
@@ -512,67 +527,16 @@ public class KNXBinding extends AbstractBinding<KNXBindingProvider> implements P
         return null;
     }
 
-    private void stopDimmerThread(String item) {
-        DimmerThread dimmerThread = itemDimmerThreads.remove(item);
-        if (dimmerThread != null) {
-            dimmerThread.stopRunning();
-        }
-    }
-
-    private void startDimmerThread(GroupAddress destination, String item, Command type) {
-        logger.trace("Starting new dimmer thread for item {}.", item);
-        DimmerThread dimmerThread = new DimmerThread(destination, item, type);
-        itemDimmerThreads.put(item, dimmerThread);
-        dimmerThread.start();
-    }
-
-    private class DimmerThread extends Thread {
-
-        private static final int MAX_LOOPS = 100;
-
-        private static final long SLEEP_PERIOD_MS = 500;
-
-        private GroupAddress destination;
-        private String item;
-        private Command command;
-        private boolean running = true;
-        private int currentLoop = 0;
-
-        public DimmerThread(GroupAddress destination, String item, Command type) {
-            this.destination = destination;
-            this.item = item;
-            this.command = type;
-            setDaemon(true);
-            setName("DimmerThread");
-        }
-
-        public void stopRunning() {
-            running = false;
-        }
-
-        @Override
-        public void run() {
-            while (mayRun()) {
+    private void startDimming(final GroupAddress destination, final String item, final Command command) {
+        logger.trace("Starting dimming for item {}.", item);
+        dimmingEngine.start(item, new Runnable() {
+            @Override
+            public void run() {
                 logger.debug("Post new value {} for items {}", command, item);
                 sendTypeToItemButNotToKnx(destination, item, command);
                 eventPublisher.postCommand(item, command);
-                try {
-                    Thread.sleep(SLEEP_PERIOD_MS);
-                } catch (InterruptedException e) {
-                    logger.warn("DimmerThread got interrupted. This should not happen.", e);
-                }
             }
-            this.running = false;
-            logger.trace("Dimmer thread finished.");
-        }
-
-        public boolean isRunning() {
-            return running;
-        }
-
-        private boolean mayRun() {
-            return running && (currentLoop <= MAX_LOOPS);
-        }
+        });
     }
 
 }
@@ -13,7 +13,6 @@ package org.openhab.binding.knx.internal.bus;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 
 import org.openhab.binding.knx.internal.connection.KNXConnection;
 import org.openhab.binding.knx.internal.connection.KNXConnectionListener;
@@ -35,12 +34,12 @@ import tuwien.auto.calimero.process.ProcessCommunicator;
  */
 public class KNXBindingDatapointReaderTask extends Thread implements KNXConnectionListener {
 
-    private final BlockingQueue<Datapoint> readQueue;
+    private final KNXOutboundQueue readQueue;
     private final Map<Datapoint, Integer> dpReadRetries = new HashMap<Datapoint, Integer>();
     private final static Logger sLogger = LoggerFactory.getLogger(KNXBindingDatapointReaderTask.class);
     private boolean mKNXConnected = true;
 
-    public KNXBindingDatapointReaderTask(BlockingQueue<Datapoint> queue) {
+    public KNXBindingDatapointReaderTask(KNXOutboundQueue queue) {
         super("KNXBinding/DatapointReaderTask");
         setDaemon(true);
         this.readQueue = queue;
@@ -58,7 +57,7 @@ public class KNXBindingDatapointReaderTask extends Thread implements KNXConnecti
         try {
             while (true) {
                 sLogger.debug("Autorefresh: Waiting for new item in reader queue");
-                dp = readQueue.take();
+                dp = readQueue.takeRead();
                 sLogger.debug("Autorefresh: got new item {} in reader queue", dp.getName());
 
                 if (dp != null) {
@@ -138,7 +137,7 @@ public class KNXBindingDatapointReaderTask extends Thread implements KNXConnecti
         if (retries >= 0) {
             sLogger.warn("Autorefresh: Remaining retries for address '{}' = '{}'",
                     datapoint.getMainAddress().toString(), retries);
-            readQueue.put(datapoint);
+            readQueue.addRead(datapoint);
             dpReadRetries.put(datapoint, retries);
         } else if (retries == -1) {
             sLogger.warn("Autorefresh: Give up, could not read address '{}' after '{}' retries.",
@@ -164,7 +163,7 @@ public class KNXBindingDatapointReaderTask extends Thread implements KNXConnecti
     @Override
     public synchronized void connectionLost() {
         mKNXConnected = false;
-        readQueue.clear();
+        readQueue.clearReads();
     }
 
 }
@@ -12,10 +12,8 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -35,7 +33,7 @@ import tuwien.auto.calimero.datapoint.Datapoint;
 public class KNXBusReaderScheduler {
     private static final Logger sLogger = LoggerFactory.getLogger(KNXBusReaderScheduler.class);
 
-    private final BlockingQueue<Datapoint> mReadQueue = new LinkedBlockingQueue<Datapoint>();
+    private final KNXOutboundQueue mOutboundQueue = new KNXOutboundQueue();
 
     private static Map<Integer, List<Datapoint>> mScheduleMap = new ConcurrentHashMap<Integer, List<Datapoint>>();
     private ScheduledExecutorService mScheduledExecutorService;
@@ -50,7 +48,7 @@ public class KNXBusReaderScheduler {
         sLogger.trace("Starting auto refresh scheduler");
 
         sLogger.debug("Starting reader task.");
-        mDatapointReaderTask = new KNXBindingDatapointReaderTask(mReadQueue);
+        mDatapointReaderTask = new KNXBindingDatapointReaderTask(mOutboundQueue);
         mDatapointReaderTask.start();
 
         sLogger.debug("Starting schedule executor.");
@@ -66,7 +64,8 @@ public class KNXBusReaderScheduler {
         sLogger.trace("Stopping auto refresh scheduler");
 
         sLogger.trace("Clearing all items from the refresher queue");
-        mReadQueue.clear();
+        mOutboundQueue.clearReads();
+        sLogger.debug("Outbound queue statistics: {}", mOutboundQueue);
 
         sLogger.debug("Terminating schedule executor.");
         mScheduledExecutorService.shutdown();
@@ -91,12 +90,22 @@ public class KNXBusReaderScheduler {
         return mIsRunning;
     }
 
+    /**
+     * Returns the queue of the telegrams sent to the KNX bus, which is shared by the reads of this scheduler and the
+     * writes of the binding.
+     *
+     * @return the outbound queue
+     */
+    public KNXOutboundQueue getOutboundQueue() {
+        return mOutboundQueue;
+    }
+
     /**
      * Clears all datapoints from the scheduler
      */
     public synchronized void clear() {
         sLogger.trace("Clearing all datapoints from auto refresh scheduler");
-        mReadQueue.clear();
+        mOutboundQueue.clearReads();
 
         // Restarting schedule executor
         if (mScheduledExecutorService != null) {
@@ -141,14 +150,15 @@ public class KNXBusReaderScheduler {
             return false;
         }
 
-        if (mReadQueue.size() > KNXConnection.getMaxRefreshQueueEntries()) {
+        if (mOutboundQueue.getReadQueueSize() > KNXConnection.getMaxRefreshQueueEntries()) {
             sLogger.error("Maximum number of permissible reading queue entries reached ('{}'). Ignoring new entries.",
                     KNXConnection.getMaxRefreshQueueEntries());
             return false;
         }
 
         sLogger.debug("Datapoint '{}':  one time reading scheduled.", datapoint.getName());
-        return mReadQueue.add(datapoint);
+        mOutboundQueue.addRead(datapoint);
+        return true;
     }
 
     /**
@@ -180,7 +190,7 @@ public class KNXBusReaderScheduler {
             return readOnce(datapoint);
         }
 
-        if (mReadQueue.size() > KNXConnection.getMaxRefreshQueueEntries()) {
+        if (mOutboundQueue.getReadQueueSize() > KNXConnection.getMaxRefreshQueueEntries()) {
             sLogger.error("Maximum number of permissible reading queue entries reached ('{}'). Ignoring new entries.",
                     KNXConnection.getMaxRefreshQueueEntries());
             return false;
@@ -293,7 +303,7 @@ public class KNXBusReaderScheduler {
                     sLogger.debug("Autorefresh: Adding {} item(s) with refresh time {} to reader queue.", dpList.size(),
                             autoRefreshTimeInSecs);
                     synchronized (dpList) {
-                        mReadQueue.addAll(dpList);
+                        mOutboundQueue.addReads(dpList);
                     }
                 }
             }
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.bus;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.knx.internal.connection.KNXConnection;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Orders the telegrams sent to the KNX bus.
+ * <p>
+ * Writes (commands and state updates) take precedence over reads: a read is only handed out while no write is waiting.
+ * Reads of a group address which is already queued for reading are collapsed into the queued read, as the response
+ * updates all items listening to the group address anyway. All telegrams share a budget of
+ * {@link KNXConnection#getMaxTelegramsPerSecond()} telegrams per second.
+ *
+ * @since 1.10.0
+ */
+public class KNXOutboundQueue {
+
+    private final LinkedList<QueuedRead> reads = new LinkedList<QueuedRead>();
+    private final Set<GroupAddress> readAddresses = new HashSet<GroupAddress>();
+
+    private int waitingWrites = 0;
+    private long nextSendNanos = System.nanoTime();
+
+    private long readCount = 0;
+    private long readWaitNanos = 0;
+    private long maxReadWaitNanos = 0;
+    private long collapsedReadCount = 0;
+    private long writeCount = 0;
+    private long writeWaitNanos = 0;
+    private long maxWriteWaitNanos = 0;
+
+    /**
+     * Queues a read of the given datapoint, unless a read of its group address is already queued.
+     *
+     * @param datapoint the datapoint to read
+     */
+    public synchronized void addRead(Datapoint datapoint) {
+        if (!readAddresses.add(datapoint.getMainAddress())) {
+            collapsedReadCount++;
+            return;
+        }
+        reads.add(new QueuedRead(datapoint, System.nanoTime()));
+        notifyAll();
+    }
+
+    /**
+     * Queues reads of the given datapoints, see {@link #addRead(Datapoint)}.
+     *
+     * @param datapoints the datapoints to read
+     */
+    public synchronized void addReads(Collection<Datapoint> datapoints) {
+        for (Datapoint datapoint : datapoints) {
+            addRead(datapoint);
+        }
+    }
+
+    /**
+     * Waits until a read is queued, no write is waiting and the telegram budget allows sending, and removes the read
+     * from the queue.
+     *
+     * @return the datapoint to read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized Datapoint takeRead() throws InterruptedException {
+        while (true) {
+            if (reads.isEmpty() || waitingWrites > 0) {
+                wait();
+                continue;
+            }
+            long now = System.nanoTime();
+            if (now - nextSendNanos < 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, nextSendNanos - now);
+                continue;
+            }
+            nextSendNanos = now + getSendIntervalNanos();
+            QueuedRead read = reads.removeFirst();
+            readAddresses.remove(read.datapoint.getMainAddress());
+            long waitNanos = now - read.queuedNanos;
+            readCount++;
+            readWaitNanos += waitNanos;
+            maxReadWaitNanos = Math.max(maxReadWaitNanos, waitNanos);
+            return read.datapoint;
+        }
+    }
+
+    /**
+     * Waits until the telegram budget allows sending a write. Must be called before every write to the KNX bus, reads
+     * are held back while writes are waiting.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void acquireWriteSlot() throws InterruptedException {
+        long start = System.nanoTime();
+        waitingWrites++;
+        try {
+            long now = start;
+            while (now - nextSendNanos < 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, nextSendNanos - now);
+                now = System.nanoTime();
+            }
+            nextSendNanos = now + getSendIntervalNanos();
+            long waitNanos = now - start;
+            writeCount++;
+            writeWaitNanos += waitNanos;
+            maxWriteWaitNanos = Math.max(maxWriteWaitNanos, waitNanos);
+        } finally {
+            waitingWrites--;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Removes all queued reads
+     */
+    public synchronized void clearReads() {
+        reads.clear();
+        readAddresses.clear();
+    }
+
+    /**
+     * @return the number of queued reads
+     */
+    public synchronized int getReadQueueSize() {
+        return reads.size();
+    }
+
+    /**
+     * @return the number of writes waiting for the telegram budget
+     */
+    public synchronized int getWaitingWrites() {
+        return waitingWrites;
+    }
+
+    /**
+     * @return the number of reads handed out by {@link #takeRead()}
+     */
+    public synchronized long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * @return the number of reads which were collapsed into an already queued read of the same group address
+     */
+    public synchronized long getCollapsedReadCount() {
+        return collapsedReadCount;
+    }
+
+    /**
+     * @return the average time in milliseconds reads waited in the queue
+     */
+    public synchronized double getAverageReadWaitMillis() {
+        return readCount == 0 ? 0 : readWaitNanos / 1e6 / readCount;
+    }
+
+    /**
+     * @return the longest time in milliseconds a read waited in the queue
+     */
+    public synchronized double getMaxReadWaitMillis() {
+        return maxReadWaitNanos / 1e6;
+    }
+
+    /**
+     * @return the number of writes which acquired a slot
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * @return the average time in milliseconds writes waited for the telegram budget
+     */
+    public synchronized double getAverageWriteWaitMillis() {
+        return writeCount == 0 ? 0 : writeWaitNanos / 1e6 / writeCount;
+    }
+
+    /**
+     * @return the longest time in milliseconds a write waited for the telegram budget
+     */
+    public synchronized double getMaxWriteWaitMillis() {
+        return maxWriteWaitNanos / 1e6;
+    }
+
+    /**
+     * @return the maximum number of telegrams per second, 0 for no limit
+     */
+    protected int getMaxTelegramsPerSecond() {
+        return KNXConnection.getMaxTelegramsPerSecond();
+    }
+
+    private long getSendIntervalNanos() {
+        int maxTelegramsPerSecond = getMaxTelegramsPerSecond();
+        return maxTelegramsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxTelegramsPerSecond : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "KNXOutboundQueue [queued reads=%d, waiting writes=%d, reads=%d, collapsed reads=%d, average read wait=%.1f ms, max read wait=%.1f ms, writes=%d, average write wait=%.1f ms, max write wait=%.1f ms]",
+                reads.size(), waitingWrites, readCount, collapsedReadCount, getAverageReadWaitMillis(),
+                getMaxReadWaitMillis(), writeCount, getAverageWriteWaitMillis(), getMaxWriteWaitMillis());
+    }
+
+    private static final class QueuedRead {
+        private final Datapoint datapoint;
+        private final long queuedNanos;
+
+        private QueuedRead(Datapoint datapoint, long queuedNanos) {
+            this.datapoint = datapoint;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
@@ -8,11 +8,16 @@
  */
 package org.openhab.binding.knx.internal.config;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.openhab.binding.knx.config.KNXBindingProvider;
 import org.openhab.binding.knx.internal.dpt.KNXCoreTypeMapper;
@@ -104,6 +109,17 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
     //Logger
     private static Logger logger = LoggerFactory.getLogger(KNXGenericBindingProvider.class);
 
+    /**
+     * The configuration items by the main address of each of their datapoints, including listening addresses. A group
+     * address shared by several items (like a central switch) has all of their configuration items in its list, in
+     * the order the items were configured. The KNX bus thread walks these lists for every telegram, so
+     * {@link #updateIndex(String, KNXBindingConfig)} puts a new list rather than changing the one in the map.
+     */
+    private final ConcurrentMap<GroupAddress, List<KNXBindingConfigItem>> configItemsByGroupAddress = new ConcurrentHashMap<GroupAddress, List<KNXBindingConfigItem>>();
+
+    /** the binding configurations contained in {@link #configItemsByGroupAddress} by item name */
+    private final Map<String, KNXBindingConfig> indexedConfigs = new HashMap<String, KNXBindingConfig>();
+
     /**
      * {@inheritDoc}
      */
@@ -129,43 +145,94 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
 
         super.processBindingConfiguration(context, item, bindingConfig);
 
-        addBindingConfig(item, parseBindingConfigString(item, bindingConfig));
+        KNXBindingConfig config = parseBindingConfigString(item, bindingConfig);
+        updateIndex(item.getName(), config);
+        addBindingConfig(item, config);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("unchecked")
-    public Iterable<Datapoint> getDatapoints(final String itemName, final GroupAddress groupAddress) {
-        synchronized (bindingConfigs) {
-            try {
-                Iterable<KNXBindingConfig> configList = Iterables.filter(Iterables.concat(bindingConfigs.values()),
-                        KNXBindingConfig.class);
-                Iterable<KNXBindingConfigItem> configItemList = Iterables.filter(Iterables.concat(configList),
-                        KNXBindingConfigItem.class);
+    public void removeConfigurations(String context) {
+        super.removeConfigurations(context);
 
-                Iterable<KNXBindingConfigItem> bindingConfigs = Iterables.filter(configItemList,
-                        new Predicate<KNXBindingConfigItem>() {
-                            @Override
-                            public boolean apply(KNXBindingConfigItem input) {
-                                return input.itemName.equals(itemName) && input.allDataPoints.contains(groupAddress);
-                            }
-                        });
+        synchronized (indexedConfigs) {
+            for (String itemName : new ArrayList<String>(indexedConfigs.keySet())) {
+                if (bindingConfigs.get(itemName) != indexedConfigs.get(itemName)) {
+                    updateIndex(itemName, null);
+                }
+            }
+        }
+    }
 
-                Iterable<Datapoint> datapoints = Iterables.transform(bindingConfigs,
-                        new Function<KNXBindingConfigItem, Datapoint>() {
-                            @Override
-                            public Datapoint apply(KNXBindingConfigItem configItem) {
-                                return configItem.mainDataPoint;
-                            }
-                        });
+    /**
+     * Replaces the configuration items of an item in the group address index.
+     *
+     * @param itemName the name of the item
+     * @param config the new binding configuration of the item, <code>null</code> if the item has none anymore
+     */
+    private void updateIndex(String itemName, KNXBindingConfig config) {
+        synchronized (indexedConfigs) {
+            KNXBindingConfig oldConfig = config != null ? indexedConfigs.put(itemName, config)
+                    : indexedConfigs.remove(itemName);
+            if (oldConfig != null) {
+                for (KNXBindingConfigItem configItem : oldConfig) {
+                    for (Object datapoint : configItem.allDataPoints.getDatapoints()) {
+                        GroupAddress groupAddress = ((Datapoint) datapoint).getMainAddress();
+                        List<KNXBindingConfigItem> configItems = new ArrayList<KNXBindingConfigItem>(
+                                configItemsByGroupAddress.get(groupAddress));
+                        configItems.remove(configItem);
+                        if (configItems.isEmpty()) {
+                            configItemsByGroupAddress.remove(groupAddress);
+                        } else {
+                            configItemsByGroupAddress.put(groupAddress, Collections.unmodifiableList(configItems));
+                        }
+                    }
+                }
+            }
+            if (config != null) {
+                for (KNXBindingConfigItem configItem : config) {
+                    for (Object datapoint : configItem.allDataPoints.getDatapoints()) {
+                        GroupAddress groupAddress = ((Datapoint) datapoint).getMainAddress();
+                        List<KNXBindingConfigItem> oldConfigItems = configItemsByGroupAddress.get(groupAddress);
+                        List<KNXBindingConfigItem> configItems = oldConfigItems == null
+                                ? new ArrayList<KNXBindingConfigItem>(1)
+                                : new ArrayList<KNXBindingConfigItem>(oldConfigItems);
+                        configItems.add(configItem);
+                        configItemsByGroupAddress.put(groupAddress, Collections.unmodifiableList(configItems));
+                    }
+                }
+            }
+        }
+    }
 
-                return datapoints;
-            } catch (NoSuchElementException e) {
-                return null;
+    /**
+     * Returns the configuration items with a datapoint for the given group address.
+     *
+     * @param groupAddress the group address
+     * @return the configuration items, an empty list if there are none
+     */
+    private List<KNXBindingConfigItem> getConfigItems(GroupAddress groupAddress) {
+        List<KNXBindingConfigItem> configItems = configItemsByGroupAddress.get(groupAddress);
+        if (configItems == null) {
+            return Collections.emptyList();
+        }
+        return configItems;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Datapoint> getDatapoints(final String itemName, final GroupAddress groupAddress) {
+        List<Datapoint> datapoints = new ArrayList<Datapoint>(1);
+        for (KNXBindingConfigItem configItem : getConfigItems(groupAddress)) {
+            if (configItem.itemName.equals(itemName)) {
+                datapoints.add(configItem.mainDataPoint);
             }
         }
+        return datapoints;
     }
 
     /**
@@ -215,33 +282,13 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
      * {@inheritDoc}
      */
     @Override
-    @SuppressWarnings("unchecked")
     public Iterable<String> getListeningItemNames(final GroupAddress groupAddress) {
-        synchronized (bindingConfigs) {
-            Iterable<KNXBindingConfig> configList = Iterables.filter(Iterables.concat(bindingConfigs.values()),
-                    KNXBindingConfig.class);
-            Iterable<KNXBindingConfigItem> configItemList = Iterables.filter(Iterables.concat(configList),
-                    KNXBindingConfigItem.class);
-            Iterable<KNXBindingConfigItem> filteredBindingConfigs = Iterables.filter(configItemList,
-                    new Predicate<KNXBindingConfigItem>() {
-                        @Override
-                        public boolean apply(KNXBindingConfigItem input) {
-                            if (input == null) {
-                                return false;
-                            }
-                            return input.allDataPoints.contains(groupAddress);
-                        }
-                    });
-            return Iterables.transform(filteredBindingConfigs, new Function<KNXBindingConfigItem, String>() {
-                @Override
-                public String apply(KNXBindingConfigItem from) {
-                    if (from == null) {
-                        return null;
-                    }
-                    return from.itemName;
-                }
-            });
+        List<KNXBindingConfigItem> configItems = getConfigItems(groupAddress);
+        List<String> itemNames = new ArrayList<String>(configItems.size());
+        for (KNXBindingConfigItem configItem : configItems) {
+            itemNames.add(configItem.itemName);
         }
+        return itemNames;
     }
 
     /*
@@ -251,24 +298,17 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
      */
     @Override
     public boolean isCommandGA(final GroupAddress groupAddress) {
-        synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    if (configItem.allDataPoints.contains(groupAddress)) {
-                        if (configItem.mainDataPoint instanceof CommandDP) {
-                            if (configItem.mainDataPoint.getMainAddress().equals(groupAddress)) {
-                                // the first GA in a CommandDP is always a command GA
-                                return true;
-                            } else {
-                                return false;
-                            }
-                        } else {
-                            // it is a StateDP, so the GA cannot be a command GA
-                            return false;
-                        }
-                    }
+        for (KNXBindingConfigItem configItem : getConfigItems(groupAddress)) {
+            if (configItem.mainDataPoint instanceof CommandDP) {
+                if (configItem.mainDataPoint.getMainAddress().equals(groupAddress)) {
+                    // the first GA in a CommandDP is always a command GA
+                    return true;
+                } else {
+                    return false;
                 }
+            } else {
+                // it is a StateDP, so the GA cannot be a command GA
+                return false;
             }
         }
         return false;
@@ -325,14 +365,9 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
      */
     @Override
     public int getAutoRefreshTime(Datapoint dataPoint) {
-        synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    if ((configItem.readableDataPoint != null) && (configItem.readableDataPoint.equals(dataPoint))) {
-                        return configItem.autoRefreshInSecs;
-                    }
-                }
+        for (KNXBindingConfigItem configItem : getConfigItems(dataPoint.getMainAddress())) {
+            if ((configItem.readableDataPoint != null) && (configItem.readableDataPoint.equals(dataPoint))) {
+                return configItem.autoRefreshInSecs;
             }
         }
         return 0;
@@ -553,15 +588,10 @@ public class KNXGenericBindingProvider extends AbstractGenericBindingProvider
      */
     @Override
     public boolean isStartStopGA(GroupAddress groupAddress) {
-        synchronized (bindingConfigs) {
-            for (BindingConfig config : bindingConfigs.values()) {
-                KNXBindingConfig knxConfig = (KNXBindingConfig) config;
-                for (KNXBindingConfigItem configItem : knxConfig) {
-                    Boolean startStopBehavior = configItem.startStopMap.get(groupAddress);
-                    if (startStopBehavior != null) {
-                        return startStopBehavior;
-                    }
-                }
+        for (KNXBindingConfigItem configItem : getConfigItems(groupAddress)) {
+            Boolean startStopBehavior = configItem.startStopMap.get(groupAddress);
+            if (startStopBehavior != null) {
+                return startStopBehavior;
             }
         }
         return false;
@@ -118,6 +118,12 @@ public class KNXConnection implements ManagedService {
      */
     private static int sMaxRefreshQueueEntries = 10000;
 
+    /**
+     * The maximum number of telegrams per second sent to the KNX bus, 0 means no limit. Default value is
+     * <code>0</code>
+     */
+    private static int sMaxTelegramsPerSecond = 0;
+
     /**
      * Determines whether Network Address Translation (NAT) will be used for IP connections.
      *
@@ -410,6 +416,20 @@ public class KNXConnection implements ManagedService {
                 }
             }
 
+            String maxTelegramsPerSecondString = (String) config.get("maxTelegramsPerSecond");
+            if (StringUtils.isNotBlank(maxTelegramsPerSecondString)) {
+                try {
+                    int maxTelegramsPerSecondValue = Integer.parseInt(maxTelegramsPerSecondString);
+                    if (maxTelegramsPerSecondValue >= 0) {
+                        sMaxTelegramsPerSecond = maxTelegramsPerSecondValue;
+                    }
+                } catch (NumberFormatException e) {
+                    sLogger.warn(
+                            "Error when trying to read parameter 'maxTelegramsPerSecond' from configuration. '{}' is not a number: using default.",
+                            maxTelegramsPerSecondString);
+                }
+            }
+
             String numberOfThreadsString = (String) config.get("numberOfThreads");
             if (StringUtils.isNotBlank(numberOfThreadsString)) {
                 try {
@@ -504,6 +524,13 @@ public class KNXConnection implements ManagedService {
         return sMaxRefreshQueueEntries;
     }
 
+    /**
+     * @return the sMaxTelegramsPerSecond
+     */
+    public static int getMaxTelegramsPerSecond() {
+        return sMaxTelegramsPerSecond;
+    }
+
     private static final class ConnectTimerTask extends TimerTask {
         private final Timer timer;
 
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dimming;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emulates continuous dimming by repeating a step (e.g. posting an INCREASE command) until the dimming is stopped or
+ * the maximum number of steps is reached.
+ * <p>
+ * All active dimmers are stepped by a single thread in one tick per step period, instead of one sleeping thread per
+ * dimmer. The tick is only scheduled while dimmers are active. The engine does not depend on any binding, the dimmers
+ * are identified by a key such as the item name.
+ *
+ * @since 1.10.0
+ */
+public class DimmingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DimmingEngine.class);
+
+    private final long stepPeriodNanos;
+    private final int maxSteps;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, Dimmer> dimmers = new ConcurrentHashMap<String, Dimmer>();
+
+    private ScheduledFuture<?> tick;
+
+    /**
+     * @param name name of the thread stepping the dimmers
+     * @param stepPeriodMillis time in milliseconds between two steps of a dimmer
+     * @param maxSteps number of steps after which a dimmer stops by itself
+     */
+    public DimmingEngine(final String name, long stepPeriodMillis, int maxSteps) {
+        this.stepPeriodNanos = TimeUnit.MILLISECONDS.toNanos(stepPeriodMillis);
+        this.maxSteps = maxSteps;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts dimming, replacing a running dimmer with the same key. The first step is executed immediately.
+     *
+     * @param key identifies the dimmer, e.g. the item name
+     * @param step executed once per step period by the dimming thread
+     */
+    public synchronized void start(String key, Runnable step) {
+        final Dimmer dimmer = new Dimmer(key, step);
+        Dimmer oldDimmer = dimmers.put(key, dimmer);
+        if (oldDimmer != null) {
+            oldDimmer.cancelled = true;
+        }
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!dimmer.cancelled) {
+                    step(dimmer, System.nanoTime());
+                }
+            }
+        });
+        if (tick == null) {
+            tick = scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }, stepPeriodNanos, stepPeriodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops dimming. A step which is currently executed is completed.
+     *
+     * @param key identifies the dimmer
+     * @return true if the dimmer was running
+     */
+    public boolean stop(String key) {
+        Dimmer dimmer = dimmers.remove(key);
+        if (dimmer == null) {
+            return false;
+        }
+        dimmer.cancelled = true;
+        return true;
+    }
+
+    /**
+     * @param key identifies the dimmer
+     * @return true if the dimmer is running
+     */
+    public boolean isRunning(String key) {
+        return dimmers.containsKey(key);
+    }
+
+    /**
+     * @return number of running dimmers
+     */
+    public int getRunningCount() {
+        return dimmers.size();
+    }
+
+    /**
+     * Stops all dimmers and the dimming thread
+     */
+    public synchronized void shutdown() {
+        for (Dimmer dimmer : dimmers.values()) {
+            dimmer.cancelled = true;
+        }
+        dimmers.clear();
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (Dimmer dimmer : dimmers.values()) {
+            // dimmers started during the last period had their first step already
+            if (!dimmer.cancelled && now - dimmer.lastStepNanos >= stepPeriodNanos / 2) {
+                step(dimmer, now);
+            }
+        }
+        synchronized (this) {
+            if (dimmers.isEmpty() && tick != null) {
+                tick.cancel(false);
+                tick = null;
+            }
+        }
+    }
+
+    private void step(Dimmer dimmer, long now) {
+        dimmer.lastStepNanos = now;
+        dimmer.steps++;
+        try {
+            dimmer.step.run();
+        } catch (RuntimeException e) {
+            logger.warn("Dimming step of '{}' failed, stopping it: {}", dimmer.key, e.getMessage());
+            dimmer.steps = maxSteps;
+        }
+        if (dimmer.steps >= maxSteps) {
+            logger.debug("Dimmer '{}' finished after {} steps.", dimmer.key, dimmer.steps);
+            dimmers.remove(dimmer.key, dimmer);
+        }
+    }
+
+    private static final class Dimmer {
+        private final String key;
+        private final Runnable step;
+        private volatile boolean cancelled = false;
+        // only accessed by the dimming thread
+        private long lastStepNanos;
+        private int steps = 0;
+
+        private Dimmer(String key, Runnable step) {
+            this.key = key;
+            this.step = step;
+        }
+    }
+}
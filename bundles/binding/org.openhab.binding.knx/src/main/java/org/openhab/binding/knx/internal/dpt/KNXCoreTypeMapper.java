@@ -18,7 +18,12 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.lang.time.FastDateFormat;
 import org.openhab.binding.knx.config.KNXTypeMapper;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
@@ -75,6 +80,28 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     static private final String TIME_DAY_FORMAT = new String("EEE, HH:mm:ss");
     static private final String DATE_FORMAT = new String("yyyy-MM-dd");
 
+    /** formats dates as expected by {@link DateTimeType#valueOf(String)}, immutable and thread-safe */
+    static private final FastDateFormat DATE_TIME_TYPE_FORMAT = FastDateFormat.getInstance(DateTimeType.DATE_PATTERN);
+
+    /** maximum number of idle translators kept per datapoint type */
+    static private final int MAX_IDLE_TRANSLATORS = 4;
+
+    /**
+     * parsers for {@link #DATE_FORMAT} and {@link #TIME_DAY_FORMAT}, <code>SimpleDateFormat</code> is not thread-safe,
+     * so they are only used while holding their lock
+     */
+    private final SimpleDateFormat dateParser = new SimpleDateFormat(DATE_FORMAT);
+    private final SimpleDateFormat timeDayParser = new SimpleDateFormat(TIME_DAY_FORMAT, Locale.US);
+
+    /**
+     * The idle translators used by {@link #toType(Datapoint, byte[])} by datapoint type id. Translators hold the data
+     * they translate, so a translator is taken from here for a single translation and put back afterwards.
+     */
+    private final ConcurrentMap<String, BlockingQueue<DPTXlator>> translators = new ConcurrentHashMap<String, BlockingQueue<DPTXlator>>();
+
+    /** the datapoint types by their id, as used by {@link #toDPTValue(Type, String)} */
+    static private final ConcurrentMap<String, DPT> dpts = new ConcurrentHashMap<String, DPT>();
+
     /** stores the openHAB type class for all (supported) KNX datapoint types */
     static private Map<String, Class<? extends Type>> dptTypeMap;
 
@@ -248,13 +275,16 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             return null;
         }
 
-        try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
-
-        } catch (KNXException e) {
-            e.printStackTrace();
-            return null;
+        dpt = dpts.get(dptID);
+        if (dpt == null) {
+            try {
+                DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+                dpt = translator.getType();
+                dpts.putIfAbsent(dptID, dpt);
+            } catch (KNXException e) {
+                e.printStackTrace();
+                return null;
+            }
         }
 
         // check for HSBType first, because it extends PercentType as well
@@ -319,8 +349,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
      */
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        DPTXlator translator = null;
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            translator = borrowTranslator(datapoint);
             translator.setData(data);
             String value = translator.getValue();
 
@@ -443,7 +474,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                             && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
                         // Pure date format, no time information
                         cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                        value = DATE_TIME_TYPE_FORMAT.format(cal);
                         return DateTimeType.valueOf(value);
                     } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
                             && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
@@ -452,13 +483,13 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                         cal.set(Calendar.HOUR_OF_DAY, translatorDateTime.getHour());
                         cal.set(Calendar.MINUTE, translatorDateTime.getMinute());
                         cal.set(Calendar.SECOND, translatorDateTime.getSecond());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                        value = DATE_TIME_TYPE_FORMAT.format(cal);
                         return DateTimeType.valueOf(value);
                     } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
                             && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
                         // Date format and time information
                         cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
+                        value = DATE_TIME_TYPE_FORMAT.format(cal);
                         return DateTimeType.valueOf(value);
                     }
                     break;
@@ -501,16 +532,66 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         } catch (KNXFormatException kfe) {
             logger.info("Translator couldn't parse data for datapoint type '{}' (KNXFormatException).",
                     datapoint.getDPT());
+            // don't reuse a translator which may have been left with partially set data
+            translator = null;
         } catch (KNXIllegalArgumentException kiae) {
             logger.info("Translator couldn't parse data for datapoint type '{}' (KNXIllegalArgumentException).",
                     datapoint.getDPT());
+            translator = null;
         } catch (KNXException e) {
             logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+        } finally {
+            if (translator != null) {
+                returnTranslator(datapoint, translator);
+            }
         }
 
         return null;
     }
 
+    /**
+     * Takes an idle translator for the datapoint type of the given datapoint, or creates a new one.
+     *
+     * @param datapoint the datapoint
+     * @return the translator, only to be used by the current thread until it is returned with
+     *         {@link #returnTranslator(Datapoint, DPTXlator)}
+     * @throws KNXException if no translator is available for the datapoint type
+     */
+    private DPTXlator borrowTranslator(Datapoint datapoint) throws KNXException {
+        BlockingQueue<DPTXlator> idle = translators.get(datapoint.getDPT());
+        DPTXlator translator = idle != null ? idle.poll() : null;
+        if (translator == null) {
+            translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+        }
+        return translator;
+    }
+
+    /**
+     * Puts a translator back for reuse, unless {@link #MAX_IDLE_TRANSLATORS} translators of its datapoint type are idle
+     * already.
+     *
+     * @param datapoint the datapoint the translator was taken for
+     * @param translator the translator
+     */
+    private void returnTranslator(Datapoint datapoint, DPTXlator translator) {
+        BlockingQueue<DPTXlator> idle = translators.get(datapoint.getDPT());
+        if (idle == null) {
+            idle = new ArrayBlockingQueue<DPTXlator>(MAX_IDLE_TRANSLATORS);
+            BlockingQueue<DPTXlator> existing = translators.putIfAbsent(datapoint.getDPT(), idle);
+            if (existing != null) {
+                idle = existing;
+            }
+        }
+        idle.offer(translator);
+    }
+
+    /**
+     * Called by the SCR when the type mapper is deactivated, drops the idle translators.
+     */
+    public void deactivate() {
+        translators.clear();
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
@@ -547,7 +628,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
         try {
             if (DPTXlatorDate.DPT_DATE.getID().equals(dpt)) {
-                date = new SimpleDateFormat(DATE_FORMAT).parse(value);
+                synchronized (dateParser) {
+                    date = dateParser.parse(value);
+                }
             } else if (DPTXlatorTime.DPT_TIMEOFDAY.getID().equals(dpt)) {
                 if (value.contains("no-day")) {
                     /*
@@ -562,14 +645,16 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     stb.replace(start, end, String.format(Locale.US, "%1$ta", Calendar.getInstance()));
                     value = stb.toString();
                 }
-                date = new SimpleDateFormat(TIME_DAY_FORMAT, Locale.US).parse(value);
+                synchronized (timeDayParser) {
+                    date = timeDayParser.parse(value);
+                }
             }
         } catch (ParseException pe) {
             // do nothing but logging
             logger.warn("Could not parse '{}' to a valid date", value);
         }
 
-        return date != null ? new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(date) : "";
+        return date != null ? DATE_TIME_TYPE_FORMAT.format(date) : "";
     }
 
     /**
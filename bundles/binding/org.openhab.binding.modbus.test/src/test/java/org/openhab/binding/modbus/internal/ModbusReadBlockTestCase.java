@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.binding.modbus.ModbusBindingProvider;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.procimg.SimpleInputRegister;
+
+public class ModbusReadBlockTestCase {
+
+    @Test
+    public void testMaxLength() {
+        assertEquals(125, ModbusReadBlock.getMaxLength(newSlave(new ModbusTcpSlave("tcp", null),
+                ModbusBindingProvider.TYPE_HOLDING, 0, 1)));
+        assertEquals(125, ModbusReadBlock.getMaxLength(newSlave(new ModbusUdpSlave("udp", null),
+                ModbusBindingProvider.TYPE_INPUT, 0, 1)));
+        assertEquals(125, ModbusReadBlock.getMaxLength(newSlave(new ModbusSerialSlave("serial", null),
+                ModbusBindingProvider.TYPE_HOLDING, 0, 1)));
+        assertEquals(2000, ModbusReadBlock.getMaxLength(newSlave(new ModbusTcpSlave("tcp", null),
+                ModbusBindingProvider.TYPE_COIL, 0, 1)));
+    }
+
+    @Test
+    public void testLargeBlockIsSplitAtMaxLength() {
+        List<ModbusSlave> slaves = new ArrayList<ModbusSlave>();
+        for (int i = 0; i < 4; i++) {
+            slaves.add(newSlave(new FakeSlave("slave" + i), ModbusBindingProvider.TYPE_HOLDING, i * 50, 50));
+        }
+
+        List<ModbusReadBlock> blocks = ModbusReadBlock.plan(slaves, true);
+
+        assertEquals(2, blocks.size());
+        assertEquals(100, blocks.get(0).getLength());
+        assertEquals(100, blocks.get(1).getLength());
+    }
+
+    @Test
+    public void testMergedReadFallsBackToSingleReadsOnIOError() {
+        FakeSlave slave1 = newSlave(new FakeSlave("slave1"), ModbusBindingProvider.TYPE_HOLDING, 0, 10);
+        FakeSlave slave2 = newSlave(new FakeSlave("slave2"), ModbusBindingProvider.TYPE_HOLDING, 10, 10);
+        // the device does not answer requests for more than 10 registers
+        slave1.maxLength = 10;
+        slave2.maxLength = 10;
+        ModbusReadBlock block = ModbusReadBlock.plan(Arrays.<ModbusSlave> asList(slave1, slave2), true).get(0);
+        assertTrue(block.isMerged());
+
+        assertTrue(block.update(new ModbusBinding()));
+        assertFalse(block.isMerged());
+        assertEquals(Arrays.asList("0+20", "0+10"), slave1.reads);
+        assertEquals(Arrays.asList("10+10"), slave2.reads);
+
+        // from now on the slaves are read one by one
+        assertTrue(block.update(new ModbusBinding()));
+        assertEquals(Arrays.asList("0+20", "0+10", "0+10"), slave1.reads);
+        assertEquals(Arrays.asList("10+10", "10+10"), slave2.reads);
+    }
+
+    @Test
+    public void testMergedReadIsKeptWhenDeviceIsUnreachable() {
+        FakeSlave slave1 = newSlave(new FakeSlave("slave1"), ModbusBindingProvider.TYPE_HOLDING, 0, 10);
+        FakeSlave slave2 = newSlave(new FakeSlave("slave2"), ModbusBindingProvider.TYPE_HOLDING, 10, 10);
+        slave1.maxLength = 0;
+        slave2.maxLength = 0;
+        ModbusReadBlock block = ModbusReadBlock.plan(Arrays.<ModbusSlave> asList(slave1, slave2), true).get(0);
+
+        assertFalse(block.update(new ModbusBinding()));
+        assertTrue(block.isMerged());
+
+        // the device is back
+        slave1.maxLength = 125;
+        assertTrue(block.update(new ModbusBinding()));
+        assertEquals(Arrays.asList("0+20", "0+10", "0+20"), slave1.reads);
+    }
+
+    private static <T extends ModbusSlave> T newSlave(T slave, String type, int start, int length) {
+        slave.setType(type);
+        slave.setStart(start);
+        slave.setLength(length);
+        return slave;
+    }
+
+    /**
+     * Slave of a device which fails with an IO error on requests for more than 'maxLength' registers.
+     */
+    private static class FakeSlave extends ModbusTcpSlave {
+        private final List<String> reads = new ArrayList<String>();
+        private int maxLength = 125;
+
+        FakeSlave(String name) {
+            super(name, null);
+        }
+
+        @Override
+        Object read(int start, int length) throws ModbusIOException {
+            reads.add(start + "+" + length);
+            if (length > maxLength) {
+                throw new ModbusIOException("I/O exception - failed to read.");
+            }
+            InputRegister[] registers = new InputRegister[length];
+            for (int i = 0; i < length; i++) {
+                registers[i] = new SimpleInputRegister(start + i);
+            }
+            return registers;
+        }
+    }
+}
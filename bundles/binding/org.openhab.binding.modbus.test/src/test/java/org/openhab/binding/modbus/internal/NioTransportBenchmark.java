@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.SocketChannel;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusCoupler;
+import net.wimpi.modbus.io.ModbusTCPNioTransport;
+import net.wimpi.modbus.io.ModbusTCPTransaction;
+import net.wimpi.modbus.io.RegisterResponseView;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+import net.wimpi.modbus.net.ModbusTCPListener;
+import net.wimpi.modbus.net.TCPMasterConnection;
+import net.wimpi.modbus.net.TCPSlaveConnection;
+import net.wimpi.modbus.net.TCPSlaveConnectionFactory;
+import net.wimpi.modbus.procimg.SimpleProcessImage;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Micro benchmark comparing reads of 125 holding registers from a local TCP server with the stream based
+ * <tt>ModbusTCPTransaction</tt> and with the NIO transport, one transaction at a time and pipelined. Reports
+ * transactions per second and the bytes allocated by the client thread per transaction (where the JVM supports
+ * measuring it).
+ *
+ * @since 1.10.0
+ */
+public class NioTransportBenchmark {
+
+    private static final int UNIT_ID = 1;
+    private static final int REGISTERS = 125;
+    private static final int[] PIPELINE_DEPTHS = { 1, 4, ModbusTCPNioTransport.MAX_OUTSTANDING_TRANSACTIONS };
+
+    private static final long DURATION_NANOS = 3000000000L;
+
+    public static void main(String[] args) throws Exception {
+        SimpleProcessImage spi = new SimpleProcessImage();
+        for (int i = 0; i < REGISTERS; i++) {
+            spi.addRegister(new SimpleRegister(i));
+        }
+        ModbusCoupler.getReference().setProcessImage(spi);
+        ModbusCoupler.getReference().setMaster(false);
+        ModbusCoupler.getReference().setUnitID(UNIT_ID);
+
+        InetAddress address = InetAddress.getLoopbackAddress();
+        ModbusTCPListener listener = new ModbusTCPListener(1, address, new TCPSlaveConnectionFactory() {
+
+            @Override
+            public TCPSlaveConnection create(Socket socket) {
+                // without this the responses to pipelined requests wait for the delayed acks of the client
+                try {
+                    socket.setTcpNoDelay(true);
+                } catch (SocketException e) {
+                    throw new IllegalStateException(e);
+                }
+                return new TCPSlaveConnection(socket);
+            }
+        });
+        listener.setPort(0);
+        listener.start();
+        while (listener.getLocalPort() == -1) {
+            Thread.sleep(5);
+        }
+        int port = listener.getLocalPort();
+
+        try {
+            // warm up
+            streams(address, port, DURATION_NANOS / 3);
+            for (int depth : PIPELINE_DEPTHS) {
+                nio(address, port, depth, DURATION_NANOS / 3);
+            }
+
+            streams(address, port, DURATION_NANOS);
+            for (int depth : PIPELINE_DEPTHS) {
+                nio(address, port, depth, DURATION_NANOS);
+            }
+        } finally {
+            listener.stop();
+        }
+        // the worker threads of the listener would keep the JVM running
+        System.exit(0);
+    }
+
+    private static void streams(InetAddress address, int port, long durationNanos) throws Exception {
+        TCPMasterConnection connection = new TCPMasterConnection(address, port);
+        connection.connect();
+        try {
+            ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(0, REGISTERS);
+            request.setUnitID(UNIT_ID);
+            ModbusTCPTransaction transaction = new ModbusTCPTransaction(connection);
+            transaction.setRequest(request);
+            transaction.setReconnecting(false);
+
+            long transactions = 0;
+            long checksum = 0;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                transaction.execute();
+                ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) transaction.getResponse();
+                checksum += response.getRegisterValue(REGISTERS - 1);
+                transactions++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < durationNanos);
+            report("streams", transactions, elapsed, allocatedBefore, checksum);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static void nio(InetAddress address, int port, int depth, long durationNanos) throws Exception {
+        ModbusTCPNioTransport transport = new ModbusTCPNioTransport(
+                SocketChannel.open(new InetSocketAddress(address, port)));
+        try {
+            RegisterResponseView view = new RegisterResponseView();
+            long transactions = 0;
+            long checksum = 0;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                for (int i = 0; i < depth; i++) {
+                    transport.sendReadRegistersRequest(UNIT_ID, Modbus.READ_MULTIPLE_REGISTERS, 0, REGISTERS);
+                }
+                transport.flush();
+                for (int i = 0; i < depth; i++) {
+                    transport.readRegistersResponse(view);
+                    checksum += view.getUnsignedRegister(REGISTERS - 1);
+                }
+                transactions += depth;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < durationNanos);
+            report("nio, pipeline depth " + depth, transactions, elapsed, allocatedBefore, checksum);
+        } finally {
+            transport.close();
+        }
+    }
+
+    private static void report(String name, long transactions, long elapsedNanos, long allocatedBefore,
+            long checksum) {
+        if (checksum != transactions * (REGISTERS - 1)) {
+            throw new IllegalStateException("Unexpected register values");
+        }
+        long allocatedAfter = allocatedBytes();
+        String allocated = allocatedBefore < 0 || allocatedAfter < 0 ? "n/a"
+                : String.valueOf((allocatedAfter - allocatedBefore) / transactions);
+        System.out.println(String.format("%s: %.0f transactions/s, %s bytes allocated/transaction", name,
+                transactions / (elapsedNanos / 1e9), allocated));
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, -1 if not supported by the JVM
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.verify;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Dictionary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.openhab.core.library.types.DecimalType;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.io.ModbusTCPNioTransport;
+import net.wimpi.modbus.io.RegisterResponseView;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+import net.wimpi.modbus.procimg.SimpleInputRegister;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests the NIO transport against the TCP server, directly and through the binding with
+ * <tt>tcpniotransport=true</tt>
+ */
+public class NioTransportTestCase extends TestCaseSupport {
+
+    private ModbusTCPNioTransport transport;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        for (int i = 0; i < 10; i++) {
+            spi.addRegister(new SimpleRegister(i * 100 - 300));
+            spi.addInputRegister(new SimpleInputRegister(i));
+        }
+        transport = new ModbusTCPNioTransport(
+                SocketChannel.open(new InetSocketAddress(localAddress(), tcpModbusPort)));
+    }
+
+    @Override
+    @After
+    public void tearDown() {
+        try {
+            transport.close();
+        } catch (Exception e) {
+            // ignore
+        }
+        super.tearDown();
+    }
+
+    @Test
+    public void testPipelinedReads() throws Exception {
+        int tid1 = transport.sendReadRegistersRequest(SLAVE_UNIT_ID, Modbus.READ_MULTIPLE_REGISTERS, 0, 2);
+        int tid2 = transport.sendReadRegistersRequest(SLAVE_UNIT_ID, Modbus.READ_INPUT_REGISTERS, 5, 3);
+        int tid3 = transport.sendReadRegistersRequest(SLAVE_UNIT_ID, Modbus.READ_MULTIPLE_REGISTERS, 8, 2);
+        transport.flush();
+        assertThat(transport.getOutstandingTransactions(), is(equalTo(3)));
+
+        RegisterResponseView view = new RegisterResponseView();
+        transport.readRegistersResponse(view);
+        assertThat(view.getTransactionID(), is(equalTo(tid1)));
+        assertThat(view.getFunctionCode(), is(equalTo(Modbus.READ_MULTIPLE_REGISTERS)));
+        assertThat(view.getRegisterCount(), is(equalTo(2)));
+        assertThat(view.getRegister(0), is(equalTo((short) -300)));
+        assertThat(view.getUnsignedRegister(0), is(equalTo(65536 - 300)));
+        assertThat(view.getRegister(1), is(equalTo((short) -200)));
+
+        transport.readRegistersResponse(view);
+        assertThat(view.getTransactionID(), is(equalTo(tid2)));
+        assertThat(view.getFunctionCode(), is(equalTo(Modbus.READ_INPUT_REGISTERS)));
+        assertThat(view.getRegisterCount(), is(equalTo(3)));
+        assertThat(view.getRegister(0), is(equalTo((short) 5)));
+        assertThat(view.getRegister(2), is(equalTo((short) 7)));
+
+        transport.readRegistersResponse(view);
+        assertThat(view.getTransactionID(), is(equalTo(tid3)));
+        assertThat(view.getRegisterCount(), is(equalTo(2)));
+        assertThat(view.getRegister(1), is(equalTo((short) 600)));
+        assertThat(transport.getOutstandingTransactions(), is(equalTo(0)));
+        assertThat(modbustRequestCaptor.getAllReturnValues().size(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testExceptionResponse() throws Exception {
+        transport.sendReadRegistersRequest(SLAVE_UNIT_ID, Modbus.READ_MULTIPLE_REGISTERS, 9, 5);
+        transport.flush();
+
+        RegisterResponseView view = new RegisterResponseView();
+        transport.readRegistersResponse(view);
+        assertThat(view.isException(), is(true));
+        assertThat(view.getExceptionCode(), is(equalTo(Modbus.ILLEGAL_ADDRESS_EXCEPTION)));
+        assertThat(view.getRegisterCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testModbusMessages() throws Exception {
+        ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(1, 2);
+        request.setUnitID(SLAVE_UNIT_ID);
+        request.setTransactionID(42);
+        transport.writeMessage(request);
+
+        ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) transport.readResponse();
+        assertThat(response.getTransactionID(), is(equalTo(42)));
+        assertThat(response.getWordCount(), is(equalTo(2)));
+        assertThat(response.getRegister(0).toShort(), is(equalTo((short) -200)));
+        assertThat(response.getRegister(1).toShort(), is(equalTo((short) -100)));
+    }
+
+    @Test
+    public void testBindingReadsWithNioTransport() throws Exception {
+        // the test server serves one connection at a time
+        transport.close();
+        binding = new ModbusBinding();
+        binding.updated(newNioBindingConfig(ModbusBindingProvider.TYPE_HOLDING, 1, 3));
+        configureNumberItemBinding(3, SLAVE_NAME, 0);
+        binding.execute();
+
+        waitForRequests(1);
+        verify(eventPublisher).postUpdate("Item1", new DecimalType(-200));
+        verify(eventPublisher).postUpdate("Item2", new DecimalType(-100));
+        verify(eventPublisher).postUpdate("Item3", new DecimalType(0));
+    }
+
+    @Test
+    public void testBindingWritesWithNioTransport() throws Exception {
+        // the test server serves one connection at a time
+        transport.close();
+        binding = new ModbusBinding();
+        binding.updated(newNioBindingConfig(ModbusBindingProvider.TYPE_HOLDING, 0, 2));
+        configureNumberItemBinding(2, SLAVE_NAME, 0);
+        binding.receiveCommand("Item2", new DecimalType(42));
+
+        waitForRequests(1);
+        assertThat(spi.getRegister(1).getValue(), is(equalTo(42)));
+    }
+
+    private Dictionary<String, Object> newNioBindingConfig(String type, int start, int length) throws Exception {
+        Dictionary<String, Object> config = addSlave(newLongPollBindingConfig(), SLAVE_NAME, type,
+                ModbusBindingProvider.VALUE_TYPE_INT16, start, length);
+        config.put("tcpniotransport", "true");
+        return config;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.binding.modbus.ModbusBindingProvider;
+
+import net.wimpi.modbus.procimg.SimpleDigitalOut;
+
+/**
+ * Tests polling of the slaves with their own poll interval
+ */
+public class PollSchedulerTestCase extends TestCaseSupport {
+
+    private static final long SLAVE_POLL_INTERVAL = 100;
+
+    @Override
+    @After
+    public void tearDown() {
+        if (binding != null) {
+            binding.deactivate();
+        }
+        super.tearDown();
+    }
+
+    private Dictionary<String, Object> newSlaveConfig() throws Exception {
+        spi.addDigitalOut(new SimpleDigitalOut(true));
+        Dictionary<String, Object> config = addSlave(newLongPollBindingConfig(), SLAVE_NAME,
+                ModbusBindingProvider.TYPE_COIL, null, 0, 1);
+        putSlaveConfigParameter(config, serverType, SLAVE_NAME, "poll", String.valueOf(SLAVE_POLL_INTERVAL));
+        // second slave uses the global poll interval and is never polled during the test
+        return addSlave(config, SLAVE2_NAME, ModbusBindingProvider.TYPE_COIL, null, 0, 1);
+    }
+
+    @Test
+    public void testSlavePolledWithOwnInterval() throws Exception {
+        long start = System.nanoTime();
+        binding = new ModbusBinding();
+        binding.updated(newSlaveConfig());
+        configureSwitchItemBinding(1, SLAVE_NAME, 0);
+
+        waitForAtLeastRequests(3);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        binding.deactivate();
+
+        // the polls are made at a fixed rate, starting one interval after the configuration
+        int requests = modbustRequestCaptor.getAllReturnValues().size();
+        assertThat(requests >= 3, is(true));
+        assertThat(elapsedMillis >= SLAVE_POLL_INTERVAL * 3, is(true));
+
+        ModbusPollMetrics metrics = binding.getPollMetrics().get(SLAVE_NAME);
+        assertThat(metrics.getIntervalMillis(), is(equalTo(SLAVE_POLL_INTERVAL)));
+        assertThat(metrics.getPolls(), is(equalTo((long) requests)));
+        assertThat(metrics.getErrors(), is(equalTo(0L)));
+        assertThat(metrics.getMaxLatencyMillis() > 0, is(true));
+        assertThat(binding.getPollMetrics().get(SLAVE2_NAME).getPolls(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testNoScheduledPollsWithoutItems() throws Exception {
+        binding = new ModbusBinding();
+        binding.updated(newSlaveConfig());
+
+        Thread.sleep(SLAVE_POLL_INTERVAL * 3);
+
+        assertThat(modbustRequestCaptor.getAllReturnValues().size(), is(equalTo(0)));
+        assertThat(binding.getPollMetrics().get(SLAVE_NAME).getPolls(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testPollNowSkipsSlaveWhichIsBeingPolled() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger polls = new AtomicInteger();
+        ModbusSlave slave = new ModbusTcpSlave(SLAVE_NAME, null) {
+            @Override
+            public boolean update(ModbusBinding binding) {
+                polls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        slave.setType(ModbusBindingProvider.TYPE_COIL);
+        slave.setLength(1);
+        final ModbusPollScheduler scheduler = new ModbusPollScheduler(new ModbusBinding());
+        scheduler.start(Collections.singletonList(slave), TimeUnit.HOURS.toMillis(1), false);
+        try {
+            Thread poller = new Thread() {
+                @Override
+                public void run() {
+                    scheduler.pollNow();
+                }
+            };
+            poller.start();
+            assertThat(started.await(MAX_WAIT_REQUESTS_MILLIS, TimeUnit.MILLISECONDS), is(true));
+
+            // returns without polling the slave again
+            scheduler.pollNow();
+            assertThat(polls.get(), is(equalTo(1)));
+
+            release.countDown();
+            poller.join(MAX_WAIT_REQUESTS_MILLIS);
+            assertThat(poller.isAlive(), is(false));
+            assertThat(scheduler.getMetrics().get(SLAVE_NAME).getPolls(), is(equalTo(1L)));
+        } finally {
+            release.countDown();
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * Waits until the server received at least the given number of requests. Unlike
+     * {@link #waitForRequests(int)}, more requests are fine, the scheduled polls go on while waiting.
+     */
+    private void waitForAtLeastRequests(int minRequestCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_WAIT_REQUESTS_MILLIS + SLAVE_POLL_INTERVAL * minRequestCount;
+        while (modbustRequestCaptor.getAllReturnValues().size() < minRequestCount) {
+            assertThat("requests not received in time", System.currentTimeMillis() < deadline, is(true));
+            Thread.sleep(10);
+        }
+    }
+}
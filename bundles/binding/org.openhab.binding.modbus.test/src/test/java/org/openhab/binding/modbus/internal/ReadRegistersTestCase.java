@@ -554,12 +554,69 @@ public class ReadRegistersTestCase extends TestCaseSupport {
     }
 
     /**
-     * Test reading same registers using different value types.
+     * Test reading same registers using different value types. The slaves are read with a single request.
      */
     @Test
     public void testReadRegistersMultipleWays()
             throws InterruptedException, UnknownHostException, BindingConfigParseException, ConfigurationException,
             InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        testReadRegistersMultipleWays(true);
+    }
+
+    /**
+     * Test reading same registers using different value types, every slave with its own request.
+     */
+    @Test
+    public void testReadRegistersMultipleWaysWithoutMergingReads()
+            throws InterruptedException, UnknownHostException, BindingConfigParseException, ConfigurationException,
+            InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        testReadRegistersMultipleWays(false);
+    }
+
+    /**
+     * Test reading adjacent registers with two slaves. The slaves are read with a single request and the registers
+     * are split up to the slaves.
+     */
+    @Test
+    public void testReadAdjacentSlavesWithSingleRequest()
+            throws InterruptedException, UnknownHostException, BindingConfigParseException, ConfigurationException,
+            InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        addRegisterMethod.invoke(spi, constructRegisterInt.newInstance(2));
+        addRegisterMethod.invoke(spi, constructRegisterInt.newInstance(-4));
+        addRegisterMethod.invoke(spi, constructRegisterInt.newInstance(99));
+        addRegisterMethod.invoke(spi, constructRegisterInt.newInstance(7));
+
+        binding = new ModbusBinding();
+        int offset = nonZeroOffset ? 1 : 0;
+        binding.updated(addSlave(
+                addSlave(newLongPollBindingConfig(), SLAVE_NAME, type, ModbusBindingProvider.VALUE_TYPE_INT16, offset,
+                        1),
+                SLAVE2_NAME, type, ModbusBindingProvider.VALUE_TYPE_INT16, offset + 1, 2));
+        configureNumberItemBinding(1, SLAVE_NAME, 0, "S1", null);
+        configureNumberItemBinding(2, SLAVE2_NAME, 0, "S2", null);
+        binding.execute();
+
+        waitForConnectionsReceived(1);
+        waitForRequests(1);
+
+        verify(eventPublisher, never()).postCommand(null, null);
+        verify(eventPublisher, never()).sendCommand(null, null);
+
+        if (nonZeroOffset) {
+            verify(eventPublisher).postUpdate("S1Item1", new DecimalType(-4));
+            verify(eventPublisher).postUpdate("S2Item1", new DecimalType(99));
+            verify(eventPublisher).postUpdate("S2Item2", new DecimalType(7));
+        } else {
+            verify(eventPublisher).postUpdate("S1Item1", new DecimalType(2));
+            verify(eventPublisher).postUpdate("S2Item1", new DecimalType(-4));
+            verify(eventPublisher).postUpdate("S2Item2", new DecimalType(99));
+        }
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    private void testReadRegistersMultipleWays(boolean mergeReads)
+            throws InterruptedException, UnknownHostException, BindingConfigParseException, ConfigurationException,
+            InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
         // 0x0002 = 00000000 00000010
         addRegisterMethod.invoke(spi, constructRegisterInt.newInstance(2));
         // 0xFFFC = 11111111 11111100
@@ -569,6 +626,7 @@ public class ReadRegistersTestCase extends TestCaseSupport {
 
         binding = new ModbusBinding();
         Dictionary<String, Object> cfg = newLongPollBindingConfig();
+        cfg.put("mergereads", String.valueOf(mergeReads));
         for (String valueType : new String[] { ModbusBindingProvider.VALUE_TYPE_BIT,
                 ModbusBindingProvider.VALUE_TYPE_UINT8, ModbusBindingProvider.VALUE_TYPE_INT16 }) {
             addSlave(cfg, SLAVE_NAME + valueType, type, valueType, nonZeroOffset ? 1 : 0, 2);
@@ -582,10 +640,11 @@ public class ReadRegistersTestCase extends TestCaseSupport {
         binding.execute();
 
         // Give the system some time to make the expected connections & requests
-        // We expect as many requests and connections as there are slaves conifigured for the binding.
-        // Note: same registers are read many times, there is currently no optimization implemented for this use case
-        waitForConnectionsReceived(3);
-        waitForRequests(3);
+        // We expect as many requests and connections as there are slaves conifigured for the binding, unless the
+        // reads are merged to a single request
+        int expectedRequests = mergeReads ? 1 : 3;
+        waitForConnectionsReceived(expectedRequests);
+        waitForRequests(expectedRequests);
 
         verify(eventPublisher, never()).postCommand(null, null);
         verify(eventPublisher, never()).sendCommand(null, null);
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.openhab.binding.modbus.internal.ModbusGenericBindingProvider.ModbusBindingConfig;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.procimg.SimpleInputRegister;
+
+/**
+ * Micro benchmark comparing the item updates of a full poll cycle (every slave polled once) when each slave scans
+ * all items of the binding for its own items (as done before) and when it looks up its items from the index by
+ * slave name. No modbus requests are made, the slaves update their items from the same registers in every cycle.
+ *
+ * @since 1.10.0
+ */
+public class SlaveItemIndexBenchmark {
+
+    /** slaves and items per slave of the benchmarked configurations */
+    private static final int[][] CONFIGURATIONS = { { 10, 10 }, { 60, 25 }, { 200, 50 } };
+
+    private static final long DURATION_NANOS = 2000000000L;
+
+    public static void main(String[] args) throws Exception {
+        for (int[] configuration : CONFIGURATIONS) {
+            int slaveCount = configuration[0];
+            int itemsPerSlave = configuration[1];
+
+            ModbusBinding binding = new ModbusBinding();
+            binding.setEventPublisher(new NoOpEventPublisher());
+            ModbusGenericBindingProvider provider = new ModbusGenericBindingProvider();
+            List<ModbusSlave> slaves = new ArrayList<ModbusSlave>();
+            for (int slaveIndex = 0; slaveIndex < slaveCount; slaveIndex++) {
+                String slaveName = "slave" + slaveIndex;
+                ModbusSlave slave = new ModbusTcpSlave(slaveName, null);
+                slave.setType(ModbusBindingProvider.TYPE_HOLDING);
+                slave.setLength(itemsPerSlave);
+                slaves.add(slave);
+                for (int itemIndex = 0; itemIndex < itemsPerSlave; itemIndex++) {
+                    NumberItem item = new NumberItem(slaveName + "Item" + itemIndex);
+                    provider.processBindingConfiguration("benchmark.items", item, slaveName + ":" + itemIndex);
+                }
+            }
+            binding.addBindingProvider(provider);
+
+            InputRegister[] registers = new InputRegister[itemsPerSlave];
+            for (int i = 0; i < itemsPerSlave; i++) {
+                registers[i] = new SimpleInputRegister(i);
+            }
+
+            // warm up
+            scan(binding, provider, slaves, registers, DURATION_NANOS / 4);
+            index(binding, slaves, registers, DURATION_NANOS / 4);
+
+            double scan = scan(binding, provider, slaves, registers, DURATION_NANOS);
+            double index = index(binding, slaves, registers, DURATION_NANOS);
+            System.out.println(String.format("%d slaves, %d items: %.0f poll cycles/s scanning, %.0f indexed",
+                    slaveCount, slaveCount * itemsPerSlave, scan, index));
+        }
+    }
+
+    /**
+     * @return poll cycles per second
+     */
+    private static double scan(ModbusBinding binding, ModbusBindingProvider provider, List<ModbusSlave> slaves,
+            InputRegister[] registers, long durationNanos) {
+        long cycles = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (ModbusSlave slave : slaves) {
+                for (String itemName : binding.getItemNames()) {
+                    if (!provider.providesBindingFor(itemName)) {
+                        continue;
+                    }
+                    ModbusBindingConfig config = provider.getConfig(itemName);
+                    if (config.slaveName.equals(slave.getName())) {
+                        binding.internalUpdateItem(slave, registers, config);
+                    }
+                }
+            }
+            cycles++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        return cycles / (elapsed / 1e9);
+    }
+
+    /**
+     * @return poll cycles per second
+     */
+    private static double index(ModbusBinding binding, List<ModbusSlave> slaves, InputRegister[] registers,
+            long durationNanos) {
+        long cycles = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (ModbusSlave slave : slaves) {
+                for (ModbusBindingConfig config : binding.getSlaveItemConfigs(slave.getName())) {
+                    binding.internalUpdateItem(slave, registers, config);
+                }
+            }
+            cycles++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        return cycles / (elapsed / 1e9);
+    }
+
+    private static class NoOpEventPublisher implements EventPublisher {
+
+        @Override
+        public void sendCommand(String itemName, Command command) {
+        }
+
+        @Override
+        public void postCommand(String itemName, Command command) {
+        }
+
+        @Override
+        public void postUpdate(String itemName, State newState) {
+        }
+    }
+}
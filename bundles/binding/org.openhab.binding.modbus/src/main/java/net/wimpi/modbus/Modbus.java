@@ -154,6 +154,14 @@ public interface Modbus {
      */
     public static final int MAX_MESSAGE_LENGTH = 256;
 
+    /**
+     * Defines the maximum length in bytes of a message
+     * including the MBAP header fields preceding the unit
+     * identifier (transaction id, protocol id and length),
+     * as used by the TCP and UDP transports (=<tt>262</tt>).
+     */
+    public static final int MAX_IP_MESSAGE_LENGTH = MAX_MESSAGE_LENGTH + 6;
+
     /**
      * Defines the default transaction identifier (=<tt>0</tt>).
      */
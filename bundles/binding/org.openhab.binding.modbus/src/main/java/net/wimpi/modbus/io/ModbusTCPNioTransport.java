@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package net.wimpi.modbus.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.msg.ModbusMessage;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+
+/**
+ * Modbus TCP transport using a non-blocking <tt>SocketChannel</tt> and pooled direct <tt>ByteBuffer</tt>s.
+ * <p>
+ * Besides the <tt>ModbusTransport</tt> methods working on <tt>ModbusMessage</tt>s, the transport can read holding
+ * and input registers without allocating any objects: {@link #sendReadRegistersRequest(int, int, int, int)} encodes
+ * the request directly into the output buffer and {@link #readRegistersResponse(RegisterResponseView)} decodes the
+ * response directly from the input buffer into a reusable {@link RegisterResponseView}.
+ * <p>
+ * Up to {@link #MAX_OUTSTANDING_TRANSACTIONS} read requests can be sent before reading the responses (pipelining).
+ * The transaction identifiers are assigned per connection, and responses are matched to the outstanding requests by
+ * their transaction identifier, so the slave may answer in any order. Requests are sent on {@link #flush()}, so a
+ * batch of requests usually needs only a single write.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @since 1.10.0
+ */
+public class ModbusTCPNioTransport implements ModbusTransport {
+
+    /**
+     * Maximum number of read requests sent without reading their responses
+     */
+    public static final int MAX_OUTSTANDING_TRANSACTIONS = 16;
+
+    /**
+     * Length of the MBAP header up to and including the length field
+     */
+    private static final int HEADER_LENGTH = 6;
+
+    private static final int MAX_FRAME_LENGTH = Modbus.MAX_IP_MESSAGE_LENGTH;
+
+    /**
+     * Length of the read registers request frame: header, unit id, function code, reference and word count
+     */
+    private static final int READ_REQUEST_LENGTH = HEADER_LENGTH + 6;
+
+    /**
+     * Pool used by default, the buffers have room for the responses of all outstanding transactions
+     */
+    public static final ByteBufferPool DEFAULT_BUFFER_POOL = new ByteBufferPool(
+            MAX_OUTSTANDING_TRANSACTIONS * MAX_FRAME_LENGTH, 32);
+
+    private final SocketChannel m_Channel;
+    private final Selector m_Selector;
+    private final SelectionKey m_Key;
+    private final ByteBufferPool m_Pool;
+
+    // input buffer is kept flipped (ready for reading), output buffer is kept ready for writing
+    private ByteBuffer m_In;
+    private ByteBuffer m_Out;
+
+    private int m_Timeout = Modbus.DEFAULT_TIMEOUT;
+    private int m_TransactionID = Modbus.DEFAULT_TRANSACTION_ID;
+    private final int[] m_Outstanding = new int[MAX_OUTSTANDING_TRANSACTIONS];
+    private int m_OutstandingCount;
+
+    // used only for ModbusMessage based I/O
+    private final BytesOutputStream m_ByteOut = new BytesOutputStream(MAX_FRAME_LENGTH);
+    private final BytesInputStream m_ByteIn = new BytesInputStream(MAX_FRAME_LENGTH);
+
+    /**
+     * Constructs a new transport using the {@link #DEFAULT_BUFFER_POOL}.
+     *
+     * @param channel connected channel, switched to non-blocking mode
+     * @throws IOException if the channel cannot be configured
+     */
+    public ModbusTCPNioTransport(SocketChannel channel) throws IOException {
+        this(channel, DEFAULT_BUFFER_POOL);
+    }
+
+    /**
+     * Constructs a new transport.
+     *
+     * @param channel connected channel, switched to non-blocking mode
+     * @param pool pool of the I/O buffers, the buffers must have room for at least one frame of maximum length
+     * @throws IOException if the channel cannot be configured
+     */
+    public ModbusTCPNioTransport(SocketChannel channel, ByteBufferPool pool) throws IOException {
+        if (pool.getBufferSize() < MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Buffers of the pool too small for modbus frames");
+        }
+        m_Channel = channel;
+        m_Pool = pool;
+        m_Channel.configureBlocking(false);
+        // requests are written in batches on flush, no need to coalesce them further
+        m_Channel.socket().setTcpNoDelay(true);
+        m_Selector = Selector.open();
+        try {
+            m_Key = m_Channel.register(m_Selector, 0);
+        } catch (IOException ex) {
+            IOUtils.closeQuietly(m_Selector);
+            throw ex;
+        }
+        m_In = pool.acquire();
+        m_In.flip();
+        m_Out = pool.acquire();
+    }// constructor
+
+    /**
+     * @return read and write timeout in milliseconds
+     */
+    public int getTimeout() {
+        return m_Timeout;
+    }
+
+    /**
+     * @param timeout read and write timeout in milliseconds
+     */
+    public void setTimeout(int timeout) {
+        m_Timeout = timeout;
+    }
+
+    /**
+     * @return number of read requests whose response has not been read yet
+     */
+    public int getOutstandingTransactions() {
+        return m_OutstandingCount;
+    }
+
+    /**
+     * Encodes a read holding registers or read input registers request into the output buffer. The request is sent
+     * with the next {@link #flush()}.
+     *
+     * @param unitID unit identifier of the slave
+     * @param functionCode {@link Modbus#READ_MULTIPLE_REGISTERS} or {@link Modbus#READ_INPUT_REGISTERS}
+     * @param reference address of the first register
+     * @param count number of registers, at most {@link RegisterResponseView#MAX_REGISTERS}
+     * @return transaction identifier of the request
+     * @throws ModbusIOException if too many requests are outstanding
+     */
+    public int sendReadRegistersRequest(int unitID, int functionCode, int reference, int count)
+            throws ModbusIOException {
+        if (functionCode != Modbus.READ_MULTIPLE_REGISTERS && functionCode != Modbus.READ_INPUT_REGISTERS) {
+            throw new IllegalArgumentException("Not a read registers function code: " + functionCode);
+        }
+        if (count < 1 || count > RegisterResponseView.MAX_REGISTERS) {
+            throw new IllegalArgumentException("Invalid register count: " + count);
+        }
+        if (m_OutstandingCount == MAX_OUTSTANDING_TRANSACTIONS || m_Out.remaining() < READ_REQUEST_LENGTH) {
+            throw new ModbusIOException("Too many outstanding transactions");
+        }
+        int tid = nextTransactionID();
+        m_Out.putShort((short) tid);
+        m_Out.putShort((short) Modbus.DEFAULT_PROTOCOL_ID);
+        m_Out.putShort((short) (READ_REQUEST_LENGTH - HEADER_LENGTH));
+        m_Out.put((byte) unitID);
+        m_Out.put((byte) functionCode);
+        m_Out.putShort((short) reference);
+        m_Out.putShort((short) count);
+        m_Outstanding[m_OutstandingCount++] = tid;
+        return tid;
+    }// sendReadRegistersRequest
+
+    /**
+     * Sends all requests encoded into the output buffer.
+     *
+     * @throws ModbusIOException on I/O errors or timeout
+     */
+    public void flush() throws ModbusIOException {
+        m_Out.flip();
+        try {
+            long deadline = deadline();
+            while (m_Out.hasRemaining()) {
+                if (m_Channel.write(m_Out) == 0) {
+                    await(SelectionKey.OP_WRITE, deadline);
+                }
+            }
+        } catch (ModbusIOException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new ModbusIOException(String.format("I/O exception - failed to write: %s", ex.getMessage()));
+        } finally {
+            m_Out.clear();
+        }
+    }// flush
+
+    /**
+     * Reads the response of an outstanding read registers request into the view.
+     *
+     * @param view view to decode the response into, overwritten
+     * @throws ModbusIOException on I/O errors, timeout, malformed response or if the transaction identifier of the
+     *             response does not match any outstanding request
+     */
+    public void readRegistersResponse(RegisterResponseView view) throws ModbusIOException {
+        if (m_OutstandingCount == 0) {
+            throw new ModbusIOException("No outstanding transaction");
+        }
+        int length = readFrame();
+        int start = m_In.position();
+        try {
+            int tid = m_In.getShort(start) & 0xFFFF;
+            if (!removeOutstanding(tid)) {
+                throw new ModbusIOException(String.format("Unexpected transaction id %d", tid));
+            }
+            int functionCode = m_In.get(start + HEADER_LENGTH + 1) & 0xFF;
+            view.set(tid, m_In.get(start + HEADER_LENGTH) & 0xFF, functionCode);
+            if (view.isException()) {
+                view.setExceptionCode(m_In.get(start + HEADER_LENGTH + 2) & 0xFF);
+                return;
+            }
+            int count = (m_In.get(start + HEADER_LENGTH + 2) & 0xFF) / 2;
+            int offset = start + HEADER_LENGTH + 3;
+            if (count > RegisterResponseView.MAX_REGISTERS || offset + count * 2 > start + length) {
+                throw new ModbusIOException("Malformed read registers response");
+            }
+            short[] registers = view.getRegisterArray();
+            for (int i = 0; i < count; i++) {
+                registers[i] = m_In.getShort(offset + i * 2);
+            }
+            view.setRegisterCount(count);
+        } finally {
+            m_In.position(start + length);
+        }
+    }// readRegistersResponse
+
+    @Override
+    public void writeMessage(ModbusMessage msg) throws ModbusIOException {
+        try {
+            m_ByteOut.reset();
+            msg.writeTo(m_ByteOut);
+            if (m_ByteOut.size() > m_Out.remaining()) {
+                throw new ModbusIOException("Message does not fit into the output buffer");
+            }
+            m_Out.put(m_ByteOut.getBuffer(), 0, m_ByteOut.size());
+        } catch (ModbusIOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new ModbusIOException(String.format("I/O exception - failed to write: %s", ex.getMessage()));
+        }
+        flush();
+    }// writeMessage
+
+    @Override
+    public ModbusRequest readRequest() throws ModbusIOException {
+        try {
+            int functionCode = readFrameToBytesInput();
+            ModbusRequest req = ModbusRequest.createModbusRequest(functionCode);
+            req.readFrom(m_ByteIn);
+            return req;
+        } catch (ModbusIOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new ModbusIOException("I/O exception - failed to read.");
+        }
+    }// readRequest
+
+    @Override
+    public ModbusResponse readResponse() throws ModbusIOException {
+        try {
+            int functionCode = readFrameToBytesInput();
+            ModbusResponse res = ModbusResponse.createModbusResponse(functionCode);
+            res.readFrom(m_ByteIn);
+            return res;
+        } catch (ModbusIOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new ModbusIOException("I/O exception - failed to read.");
+        }
+    }// readResponse
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.closeQuietly(m_Selector);
+        IOUtils.closeQuietly(m_Channel);
+        if (m_In != null) {
+            m_Pool.release(m_In);
+            m_Pool.release(m_Out);
+            m_In = null;
+            m_Out = null;
+        }
+    }// close
+
+    /**
+     * Copies the next frame to the byte input stream, positioned at the start of the frame
+     *
+     * @return function code of the frame
+     */
+    private int readFrameToBytesInput() throws ModbusIOException {
+        int length = readFrame();
+        byte[] buffer = m_ByteIn.getBuffer();
+        m_In.get(buffer, 0, length);
+        m_ByteIn.reset(buffer, length);
+        return buffer[HEADER_LENGTH + 1] & 0xFF;
+    }
+
+    /**
+     * Reads until the input buffer holds a complete frame at its position
+     *
+     * @return length of the frame
+     */
+    private int readFrame() throws ModbusIOException {
+        long deadline = deadline();
+        while (m_In.remaining() < HEADER_LENGTH) {
+            fill(deadline);
+        }
+        int length = HEADER_LENGTH + (m_In.getShort(m_In.position() + 4) & 0xFFFF);
+        if (length < HEADER_LENGTH + 3 || length > MAX_FRAME_LENGTH) {
+            throw new ModbusIOException(String.format("Invalid frame length %d", length));
+        }
+        while (m_In.remaining() < length) {
+            fill(deadline);
+        }
+        return length;
+    }// readFrame
+
+    /**
+     * Reads available bytes from the channel into the input buffer, waits for the channel to become readable if
+     * there are none
+     */
+    private void fill(long deadline) throws ModbusIOException {
+        m_In.compact();
+        try {
+            int read = m_Channel.read(m_In);
+            if (read == -1) {
+                throw new ModbusIOException("Premature end of stream", true);
+            }
+            if (read == 0) {
+                await(SelectionKey.OP_READ, deadline);
+            }
+        } catch (ModbusIOException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new ModbusIOException(String.format("I/O exception - failed to read: %s", ex.getMessage()));
+        } finally {
+            m_In.flip();
+        }
+    }// fill
+
+    private void await(int ops, long deadline) throws IOException, ModbusIOException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new ModbusIOException("Timed out waiting for the slave");
+        }
+        m_Key.interestOps(ops);
+        try {
+            m_Selector.select(remaining);
+        } finally {
+            m_Selector.selectedKeys().clear();
+            m_Key.interestOps(0);
+        }
+    }// await
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(m_Timeout);
+    }
+
+    private int nextTransactionID() {
+        if (m_TransactionID == Modbus.MAX_TRANSACTION_ID) {
+            m_TransactionID = 0;
+        }
+        return ++m_TransactionID;
+    }
+
+    private boolean removeOutstanding(int tid) {
+        for (int i = 0; i < m_OutstandingCount; i++) {
+            if (m_Outstanding[i] == tid) {
+                System.arraycopy(m_Outstanding, i + 1, m_Outstanding, i, m_OutstandingCount - i - 1);
+                m_OutstandingCount--;
+                return true;
+            }
+        }
+        return false;
+    }
+}// class ModbusTCPNioTransport
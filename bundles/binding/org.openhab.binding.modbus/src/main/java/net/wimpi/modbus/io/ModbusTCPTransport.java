@@ -240,7 +240,7 @@ public class ModbusTCPTransport implements ModbusTransport {
 
         m_Input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
         m_Output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-        m_ByteIn = new BytesInputStream(Modbus.MAX_MESSAGE_LENGTH);
+        m_ByteIn = new BytesInputStream(Modbus.MAX_IP_MESSAGE_LENGTH);
     }// prepareStreams
 
 }// class ModbusTCPTransport
@@ -49,8 +49,8 @@ public class ModbusUDPTransport implements ModbusTransport {
      */
     public ModbusUDPTransport(UDPTerminal terminal) {
         m_Terminal = terminal;
-        m_ByteOut = new BytesOutputStream(Modbus.MAX_MESSAGE_LENGTH);
-        m_ByteIn = new BytesInputStream(Modbus.MAX_MESSAGE_LENGTH);
+        m_ByteOut = new BytesOutputStream(Modbus.MAX_IP_MESSAGE_LENGTH);
+        m_ByteIn = new BytesInputStream(Modbus.MAX_IP_MESSAGE_LENGTH);
     }// constructor
 
     @Override
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package net.wimpi.modbus.io;
+
+import net.wimpi.modbus.Modbus;
+
+/**
+ * Reusable view of a read holding/input registers response (function codes 3 and 4).
+ * <p>
+ * The registers are decoded into a primitive array which is overwritten by the next response read into this view, so
+ * reading responses does not allocate any objects. Copy the values if they are needed after that.
+ *
+ * @see ModbusTCPNioTransport#readRegistersResponse(RegisterResponseView)
+ * @since 1.10.0
+ */
+public class RegisterResponseView {
+
+    /**
+     * Maximum number of registers in a read registers response
+     */
+    public static final int MAX_REGISTERS = 125;
+
+    private final short[] registers = new short[MAX_REGISTERS];
+    private int registerCount;
+    private int transactionID;
+    private int unitID;
+    private int functionCode;
+    private int exceptionCode;
+
+    void set(int transactionID, int unitID, int functionCode) {
+        this.transactionID = transactionID;
+        this.unitID = unitID;
+        this.functionCode = functionCode;
+        this.exceptionCode = 0;
+        this.registerCount = 0;
+    }
+
+    void setExceptionCode(int exceptionCode) {
+        this.exceptionCode = exceptionCode;
+    }
+
+    void setRegisterCount(int registerCount) {
+        this.registerCount = registerCount;
+    }
+
+    /**
+     * @return the backing array, valid up to {@link #getRegisterCount()}
+     */
+    short[] getRegisterArray() {
+        return registers;
+    }
+
+    public int getTransactionID() {
+        return transactionID;
+    }
+
+    public int getUnitID() {
+        return unitID;
+    }
+
+    /**
+     * @return function code of the response, with {@link Modbus#EXCEPTION_OFFSET} added for exception responses
+     */
+    public int getFunctionCode() {
+        return functionCode;
+    }
+
+    /**
+     * @return true if the slave responded with an exception
+     */
+    public boolean isException() {
+        return functionCode >= Modbus.EXCEPTION_OFFSET;
+    }
+
+    /**
+     * @return exception code of an exception response, 0 otherwise
+     */
+    public int getExceptionCode() {
+        return exceptionCode;
+    }
+
+    /**
+     * @return number of registers in the response, 0 for exception responses
+     */
+    public int getRegisterCount() {
+        return registerCount;
+    }
+
+    /**
+     * @param index index of the register in the response
+     * @return the register as signed 16 bit value
+     */
+    public short getRegister(int index) {
+        if (index < 0 || index >= registerCount) {
+            throw new IndexOutOfBoundsException("Register index " + index + ", count " + registerCount);
+        }
+        return registers[index];
+    }
+
+    /**
+     * @param index index of the register in the response
+     * @return the register as unsigned 16 bit value
+     */
+    public int getUnsignedRegister(int index) {
+        return getRegister(index) & 0xFFFF;
+    }
+
+    /**
+     * Copies the registers of the response to the given array
+     *
+     * @param dest destination array, at least {@link #getRegisterCount()} long
+     * @return number of registers copied
+     */
+    public int copyRegisters(short[] dest) {
+        System.arraycopy(registers, 0, dest, 0, registerCount);
+        return registerCount;
+    }
+}
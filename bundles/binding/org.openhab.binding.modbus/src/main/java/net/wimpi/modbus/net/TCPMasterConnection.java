@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 
 import org.apache.commons.lang.builder.StandardToStringStyle;
 import org.apache.commons.lang.builder.ToStringBuilder;
@@ -27,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.io.ModbusTCPNioTransport;
 import net.wimpi.modbus.io.ModbusTCPTransport;
 import net.wimpi.modbus.io.ModbusTransport;
 
@@ -48,10 +50,13 @@ public class TCPMasterConnection implements ModbusSlaveConnection {
     private int m_Port = Modbus.DEFAULT_PORT;
 
     // private int m_Retries = Modbus.DEFAULT_RETRIES;
-    private ModbusTCPTransport m_ModbusTransport;
+    private ModbusTransport m_ModbusTransport;
 
     private int m_ConnectTimeoutMillis;
 
+    // use ModbusTCPNioTransport instead of ModbusTCPTransport
+    private boolean m_NioTransport;
+
     private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
 
     static {
@@ -87,8 +92,20 @@ public class TCPMasterConnection implements ModbusSlaveConnection {
     public synchronized boolean connect() throws Exception {
         if (!isConnected()) {
             logger.debug("connect()");
-            m_Socket = new Socket();
-            m_Socket.connect(new InetSocketAddress(m_Address, m_Port), this.m_ConnectTimeoutMillis);
+            if (m_NioTransport) {
+                // connect in blocking mode, the transport switches the channel to non-blocking mode
+                SocketChannel channel = SocketChannel.open();
+                m_Socket = channel.socket();
+                try {
+                    m_Socket.connect(new InetSocketAddress(m_Address, m_Port), this.m_ConnectTimeoutMillis);
+                } catch (IOException ex) {
+                    channel.close();
+                    throw ex;
+                }
+            } else {
+                m_Socket = new Socket();
+                m_Socket.connect(new InetSocketAddress(m_Address, m_Port), this.m_ConnectTimeoutMillis);
+            }
             setTimeout(m_Timeout);
             m_Socket.setReuseAddress(true);
             m_Socket.setSoLinger(true, 1);
@@ -130,10 +147,15 @@ public class TCPMasterConnection implements ModbusSlaveConnection {
      * @throws IOException if an I/O related error occurs.
      */
     private void prepareTransport() throws IOException {
-        if (m_ModbusTransport == null) {
+        if (m_NioTransport) {
+            // closing the transport releases its buffers, a new transport is needed for every connect
+            ModbusTCPNioTransport transport = new ModbusTCPNioTransport(m_Socket.getChannel());
+            transport.setTimeout(m_Timeout);
+            m_ModbusTransport = transport;
+        } else if (!(m_ModbusTransport instanceof ModbusTCPTransport)) {
             m_ModbusTransport = new ModbusTCPTransport(m_Socket);
         } else {
-            m_ModbusTransport.setSocket(m_Socket);
+            ((ModbusTCPTransport) m_ModbusTransport).setSocket(m_Socket);
         }
     }// prepareIO
 
@@ -153,6 +175,9 @@ public class TCPMasterConnection implements ModbusSlaveConnection {
      */
     public void setTimeout(int timeout) {
         m_Timeout = timeout;
+        if (m_ModbusTransport instanceof ModbusTCPNioTransport) {
+            ((ModbusTCPNioTransport) m_ModbusTransport).setTimeout(m_Timeout);
+        }
         if (m_Socket != null) {
             try {
                 m_Socket.setSoTimeout(m_Timeout);
@@ -240,4 +265,24 @@ public class TCPMasterConnection implements ModbusSlaveConnection {
         this.m_ConnectTimeoutMillis = m_ConnectTimeoutMillis;
     }
 
+    /**
+     * Tests if this <tt>TCPMasterConnection</tt> uses the <tt>ModbusTCPNioTransport</tt>.
+     *
+     * @return <tt>true</tt> if the NIO transport is used, <tt>false</tt> otherwise.
+     */
+    public boolean isNioTransport() {
+        return m_NioTransport;
+    }
+
+    /**
+     * Sets if this <tt>TCPMasterConnection</tt> uses the <tt>ModbusTCPNioTransport</tt>, with a non-blocking
+     * <tt>SocketChannel</tt> and pooled buffers, instead of the stream based <tt>ModbusTCPTransport</tt>.
+     * Takes effect on the next connect.
+     *
+     * @param nioTransport <tt>true</tt> to use the NIO transport.
+     */
+    public void setNioTransport(boolean nioTransport) {
+        m_NioTransport = nioTransport;
+    }
+
 }// class TCPMasterConnection
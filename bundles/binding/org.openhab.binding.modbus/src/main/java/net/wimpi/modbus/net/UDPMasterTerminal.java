@@ -210,7 +210,7 @@ class UDPMasterTerminal implements UDPTerminal {
     public byte[] receiveMessage() throws Exception {
 
         // 1. Prepare buffer and receive package
-        byte[] buffer = new byte[256];// max size
+        byte[] buffer = new byte[Modbus.MAX_IP_MESSAGE_LENGTH];
         DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
         synchronized (m_Socket) {
             m_Socket.setSoTimeout(m_Timeout);
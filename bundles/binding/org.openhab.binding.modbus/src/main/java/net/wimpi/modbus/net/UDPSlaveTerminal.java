@@ -299,7 +299,7 @@ public class UDPSlaveTerminal implements UDPTerminal {
             do {
                 try {
                     // 1. Prepare buffer and receive package
-                    byte[] buffer = new byte[256];// max size
+                    byte[] buffer = new byte[Modbus.MAX_IP_MESSAGE_LENGTH];
                     DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
                     m_Socket.receive(packet);
                     // 2. Extract TID and remember request
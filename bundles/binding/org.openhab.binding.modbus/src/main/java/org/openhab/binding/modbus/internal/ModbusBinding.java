@@ -10,12 +10,14 @@ package org.openhab.binding.modbus.internal;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -36,7 +38,7 @@ import org.openhab.binding.modbus.internal.ModbusGenericBindingProvider.ModbusBi
 import org.openhab.binding.modbus.internal.pooling.EndpointPoolConfiguration;
 import org.openhab.binding.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
 import org.openhab.binding.modbus.internal.pooling.ModbusSlaveEndpoint;
-import org.openhab.core.binding.AbstractActiveBinding;
+import org.openhab.core.binding.AbstractBinding;
 import org.openhab.core.binding.BindingProvider;
 import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.library.types.DecimalType;
@@ -60,10 +62,14 @@ import net.wimpi.modbus.util.SerialParameters;
  * @author Dmitry Krasnov
  * @since 1.1.0
  */
-public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider> implements ManagedService {
+public class ModbusBinding extends AbstractBinding<ModbusBindingProvider> implements ManagedService {
 
     private static final long DEFAULT_POLL_INTERVAL = 200;
 
+    private static final boolean DEFAULT_MERGE_READS = true;
+
+    private static final boolean DEFAULT_TCP_NIO_TRANSPORT = false;
+
     /**
      * Time to wait between connection passive+borrow, i.e. time to wait between
      * transactions
@@ -86,7 +92,7 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     private static final String TCP_PREFIX = "tcp";
     private static final String SERIAL_PREFIX = "serial";
 
-    private static final String VALID_CONFIG_KEYS = "connection|id|start|length|type|valuetype|rawdatamultiplier|writemultipleregisters|updateunchangeditems|postundefinedonreaderror";
+    private static final String VALID_CONFIG_KEYS = "connection|id|start|length|type|valuetype|rawdatamultiplier|writemultipleregisters|updateunchangeditems|postundefinedonreaderror|poll";
     private static final Pattern EXTRACT_MODBUS_CONFIG_PATTERN = Pattern.compile(
             "^(" + TCP_PREFIX + "|" + UDP_PREFIX + "|" + SERIAL_PREFIX + "|)\\.(.*?)\\.(" + VALID_CONFIG_KEYS + ")$");
 
@@ -154,6 +160,22 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     /** slaves update interval in milliseconds */
     public static long pollInterval = DEFAULT_POLL_INTERVAL;
 
+    /** read adjacent slaves of the same device with a single request */
+    private boolean mergeReads = DEFAULT_MERGE_READS;
+
+    /** use the non-blocking transport with pooled buffers for TCP slaves */
+    private boolean tcpNioTransport = DEFAULT_TCP_NIO_TRANSPORT;
+
+    /**
+     * Configurations of the bound items by slave name, so that a slave only needs to look at its own items after a
+     * poll. Rebuilt from all providers by {@link #indexSlaveItemConfigs()}, a poll running meanwhile still uses the
+     * previous map.
+     */
+    private volatile Map<String, List<ModbusBindingConfig>> slaveItemConfigs = Collections.emptyMap();
+
+    /** polls each slave with its own poll interval */
+    private final ModbusPollScheduler pollScheduler = new ModbusPollScheduler(this);
+
     @Override
     public void activate() {
     }
@@ -163,14 +185,29 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
         clear();
     }
 
-    @Override
+    /**
+     * @return poll interval of the slaves without own poll interval, in milliseconds
+     */
     protected long getRefreshInterval() {
         return pollInterval;
     }
 
-    @Override
-    protected String getName() {
-        return "Modbus Polling Service";
+    /**
+     * Scheduled polls are skipped as long as there are no items bound to this binding
+     *
+     * @return true if the slaves should be polled
+     */
+    boolean isPollingRequired() {
+        return eventPublisher != null && bindingsExist();
+    }
+
+    /**
+     * Returns poll latency and jitter statistics of the slaves since the configuration was last updated
+     *
+     * @return statistics by slave name
+     */
+    public Map<String, ModbusPollMetrics> getPollMetrics() {
+        return pollScheduler.getMetrics();
     }
 
     /**
@@ -191,69 +228,46 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     /**
      * Posts update event to OpenHAB bus for "holding" and "input register" type slaves
      *
-     * @param binding ModbusBinding to get item configuration from BindingProviding
+     * @param slave slave the registers were read from
      * @param registers data received from slave device in the last pollInterval
-     * @param itemName item to update
+     * @param config configuration of the item to update
      */
-    protected void internalUpdateItem(String slaveName, InputRegister[] registers, String itemName) {
-        for (ModbusBindingProvider provider : providers) {
-            if (!provider.providesBindingFor(itemName)) {
-                continue;
-            }
-            ModbusBindingConfig config = provider.getConfig(itemName);
-            if (!config.slaveName.equals(slaveName)) {
-                continue;
-            }
-
-            ModbusSlave slave = modbusSlaves.get(slaveName);
-            String slaveValueType = slave.getValueType();
-            double rawDataMultiplier = slave.getRawDataMultiplier();
-
-            /* receive data manipulation */
-            State newState = extractStateFromRegisters(registers, config.readIndex, slaveValueType);
-            // Convert newState (DecimalType) to on/off kind of state if we have "boolean item" (Switch, Contact etc)
-            // In other cases (such as Number items) newStateBoolean will be UNDEF
-            State newStateBoolean = provider.getConfig(itemName)
-                    .translateBoolean2State(!newState.equals(DecimalType.ZERO));
-            // If we have boolean item (newStateBoolean is not UNDEF)
-            if (!UnDefType.UNDEF.equals(newStateBoolean)) {
-                newState = newStateBoolean;
-            } else if ((rawDataMultiplier != 1) && (config.getItemClass().isAssignableFrom(NumberItem.class))) {
-                double tmpValue = ((DecimalType) newState).doubleValue() * rawDataMultiplier;
-                newState = new DecimalType(String.valueOf(tmpValue));
-            }
+    protected void internalUpdateItem(ModbusSlave slave, InputRegister[] registers, ModbusBindingConfig config) {
+        String slaveValueType = slave.getValueType();
+        double rawDataMultiplier = slave.getRawDataMultiplier();
+
+        /* receive data manipulation */
+        State newState = extractStateFromRegisters(registers, config.readIndex, slaveValueType);
+        // Convert newState (DecimalType) to on/off kind of state if we have "boolean item" (Switch, Contact etc)
+        // In other cases (such as Number items) newStateBoolean will be UNDEF
+        State newStateBoolean = config.translateBoolean2State(!newState.equals(DecimalType.ZERO));
+        // If we have boolean item (newStateBoolean is not UNDEF)
+        if (!UnDefType.UNDEF.equals(newStateBoolean)) {
+            newState = newStateBoolean;
+        } else if ((rawDataMultiplier != 1) && (config.getItemClass().isAssignableFrom(NumberItem.class))) {
+            double tmpValue = ((DecimalType) newState).doubleValue() * rawDataMultiplier;
+            newState = new DecimalType(String.valueOf(tmpValue));
+        }
 
-            if (slave.isUpdateUnchangedItems() || !newState.equals(config.getState())) {
-                eventPublisher.postUpdate(itemName, newState);
-                config.setState(newState);
-            }
+        if (slave.isUpdateUnchangedItems() || !newState.equals(config.getState())) {
+            eventPublisher.postUpdate(config.getItemName(), newState);
+            config.setState(newState);
         }
     }
 
     /**
      * Posts update event to OpenHAB bus for all types of slaves when there is a read error
      *
-     * @param binding ModbusBinding to get item configuration from BindingProviding
+     * @param slave slave the read failed for
      * @param error
-     * @param itemName item to update
+     * @param config configuration of the item to update
      */
-    protected void internalUpdateReadErrorItem(String slaveName, Exception error, String itemName) {
+    protected void internalUpdateReadErrorItem(ModbusSlave slave, Exception error, ModbusBindingConfig config) {
         State newState = UnDefType.UNDEF;
-        for (ModbusBindingProvider provider : providers) {
-            if (!provider.providesBindingFor(itemName)) {
-                continue;
-            }
-            ModbusBindingConfig config = provider.getConfig(itemName);
-            if (!config.slaveName.equals(slaveName)) {
-                continue;
-            }
-
-            ModbusSlave slave = modbusSlaves.get(slaveName);
-            if (slave.isPostUndefinedOnReadError()
-                    && (slave.isUpdateUnchangedItems() || !newState.equals(config.getState()))) {
-                eventPublisher.postUpdate(itemName, newState);
-                config.setState(newState);
-            }
+        if (slave.isPostUndefinedOnReadError()
+                && (slave.isUpdateUnchangedItems() || !newState.equals(config.getState()))) {
+            eventPublisher.postUpdate(config.getItemName(), newState);
+            config.setState(newState);
         }
     }
 
@@ -354,33 +368,73 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     /**
      * Posts update event to OpenHAB bus for "coil" and "discrete input" type slaves
      *
-     * @param binding ModbusBinding to get item configuration from BindingProviding
-     * @param registers data received from slave device in the last pollInterval
-     * @param item item to update
+     * @param slave slave the coils were read from
+     * @param coils data received from slave device in the last pollInterval
+     * @param config configuration of the item to update
+     */
+    protected void internalUpdateItem(ModbusSlave slave, BitVector coils, ModbusBindingConfig config) {
+        if (config.readIndex >= slave.getLength()) {
+            logger.warn(
+                    "Item '{}' read index '{}' is out-of-bounds. Slave '{}' has been configured "
+                            + "to read only '{}' bits. Check your configuration!",
+                    config.getItemName(), config.readIndex, slave.getName(), slave.getLength());
+            return;
+        }
+
+        boolean state = coils.getBit(config.readIndex);
+        State newState = config.translateBoolean2State(state);
+        if (slave.isUpdateUnchangedItems() || !newState.equals(config.getState())) {
+            eventPublisher.postUpdate(config.getItemName(), newState);
+            config.setState(newState);
+        }
+    }
+
+    /**
+     * Returns the configurations of the items bound to a slave
+     *
+     * @param slaveName name of the slave
+     * @return item configurations, empty if no items are bound to the slave
+     */
+    public List<ModbusBindingConfig> getSlaveItemConfigs(String slaveName) {
+        List<ModbusBindingConfig> configs = slaveItemConfigs.get(slaveName);
+        if (configs == null) {
+            return Collections.emptyList();
+        }
+        return configs;
+    }
+
+    @Override
+    public void bindingChanged(BindingProvider provider, String itemName) {
+        super.bindingChanged(provider, itemName);
+        indexSlaveItemConfigs();
+    }
+
+    @Override
+    public void allBindingsChanged(BindingProvider provider) {
+        super.allBindingsChanged(provider);
+        indexSlaveItemConfigs();
+    }
+
+    /**
+     * Rebuilds the item configurations by slave name from the binding providers
      */
-    protected void internalUpdateItem(String slaveName, BitVector coils, String itemName) {
+    private synchronized void indexSlaveItemConfigs() {
+        Map<String, List<ModbusBindingConfig>> index = new HashMap<String, List<ModbusBindingConfig>>();
         for (ModbusBindingProvider provider : providers) {
-            if (provider.providesBindingFor(itemName)) {
+            for (String itemName : provider.getItemNames()) {
                 ModbusBindingConfig config = provider.getConfig(itemName);
-                if (config.slaveName.equals(slaveName)) {
-                    ModbusSlave slave = modbusSlaves.get(slaveName);
-                    if (config.readIndex >= slave.getLength()) {
-                        logger.warn(
-                                "Item '{}' read index '{}' is out-of-bounds. Slave '{}' has been configured "
-                                        + "to read only '{}' bits. Check your configuration!",
-                                itemName, config.readIndex, slaveName, slave.getLength());
-                        continue;
-                    }
-
-                    boolean state = coils.getBit(config.readIndex);
-                    State newState = config.translateBoolean2State(state);
-                    if (slave.isUpdateUnchangedItems() || !newState.equals(config.getState())) {
-                        eventPublisher.postUpdate(itemName, newState);
-                        config.setState(newState);
-                    }
+                if (config == null) {
+                    continue;
                 }
+                List<ModbusBindingConfig> configs = index.get(config.slaveName);
+                if (configs == null) {
+                    configs = new ArrayList<ModbusBindingConfig>();
+                    index.put(config.slaveName, configs);
+                }
+                configs.add(config);
             }
         }
+        slaveItemConfigs = index;
     }
 
     /**
@@ -401,23 +455,18 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
     }
 
     /**
-     * updates all slaves from the modbusSlaves
+     * updates all slaves from the modbusSlaves at once, in addition to the scheduled polls. Slaves of different
+     * endpoints are polled in parallel. Returns when all slaves have been polled.
      */
-    @Override
     protected void execute() {
-        Collection<ModbusSlave> slaves = new HashSet<ModbusSlave>();
-        synchronized (slaves) {
-            slaves.addAll(modbusSlaves.values());
-        }
-        for (ModbusSlave slave : slaves) {
-            slave.update(this);
-        }
+        pollScheduler.pollNow();
     }
 
     /**
      * Clear all configuration and close all connections
      */
     private void clear() {
+        pollScheduler.stop();
         try {
             // Closes all connections by calling destroyObject method in the ObjectFactory implementation
             if (connectionPool != null) {
@@ -432,226 +481,230 @@ public class ModbusBinding extends AbstractActiveBinding<ModbusBindingProvider>
 
     @Override
     public void updated(Dictionary<String, ?> config) throws ConfigurationException {
-        try {
-            // remove all known items if configuration changed
-            clear();
-            reconstructConnectionPool();
-            if (config == null) {
-                logger.debug("Got null config!");
-                return;
-            }
-            Enumeration<String> keys = config.keys();
-            Map<String, EndpointPoolConfiguration> slavePoolConfigs = new HashMap<String, EndpointPoolConfiguration>();
-            Map<ModbusSlaveEndpoint, EndpointPoolConfiguration> endpointPoolConfigs = new HashMap<ModbusSlaveEndpoint, EndpointPoolConfiguration>();
-            while (keys.hasMoreElements()) {
-                final String key = keys.nextElement();
-                final String value = (String) config.get(key);
-                try {
-                    // the config-key enumeration contains additional keys that we
-                    // don't want to process here ...
-                    if ("service.pid".equals(key)) {
-                        continue;
-                    }
+        // remove all known items if configuration changed
+        clear();
+        reconstructConnectionPool();
+        if (config == null) {
+            logger.debug("Got null config!");
+            return;
+        }
+        mergeReads = DEFAULT_MERGE_READS;
+        tcpNioTransport = DEFAULT_TCP_NIO_TRANSPORT;
+        Enumeration<String> keys = config.keys();
+        Map<String, EndpointPoolConfiguration> slavePoolConfigs = new HashMap<String, EndpointPoolConfiguration>();
+        Map<ModbusSlaveEndpoint, EndpointPoolConfiguration> endpointPoolConfigs = new HashMap<ModbusSlaveEndpoint, EndpointPoolConfiguration>();
+        while (keys.hasMoreElements()) {
+            final String key = keys.nextElement();
+            final String value = (String) config.get(key);
+            try {
+                // the config-key enumeration contains additional keys that we
+                // don't want to process here ...
+                if ("service.pid".equals(key)) {
+                    continue;
+                }
 
-                    Matcher matcher = EXTRACT_MODBUS_CONFIG_PATTERN.matcher(key);
-                    if (!matcher.matches()) {
-                        if ("poll".equals(key)) {
-                            if (StringUtils.isNotBlank((String) config.get(key))) {
-                                pollInterval = Integer.valueOf((String) config.get(key));
-                            }
-                        } else if ("writemultipleregisters".equals(key)) {
-                            // XXX: ugly to touch base class but kept here for backwards compat
-                            // FIXME: should this be deprecated as introduced as slave specific parameter?
-                            ModbusSlave.setWriteMultipleRegisters(Boolean.valueOf(config.get(key).toString()));
-                        } else {
-                            logger.debug(
-                                    "given modbus-slave-config-key '{}' does not follow the expected pattern or 'serial.<slaveId>.<{}>'",
-                                    key, VALID_CONFIG_KEYS);
+                Matcher matcher = EXTRACT_MODBUS_CONFIG_PATTERN.matcher(key);
+                if (!matcher.matches()) {
+                    if ("poll".equals(key)) {
+                        if (StringUtils.isNotBlank((String) config.get(key))) {
+                            pollInterval = Integer.valueOf((String) config.get(key));
                         }
-                        continue;
+                    } else if ("writemultipleregisters".equals(key)) {
+                        // XXX: ugly to touch base class but kept here for backwards compat
+                        // FIXME: should this be deprecated as introduced as slave specific parameter?
+                        ModbusSlave.setWriteMultipleRegisters(Boolean.valueOf(config.get(key).toString()));
+                    } else if ("mergereads".equals(key)) {
+                        mergeReads = Boolean.valueOf(config.get(key).toString());
+                    } else if ("tcpniotransport".equals(key)) {
+                        tcpNioTransport = Boolean.valueOf(config.get(key).toString());
+                    } else {
+                        logger.debug(
+                                "given modbus-slave-config-key '{}' does not follow the expected pattern or 'serial.<slaveId>.<{}>'",
+                                key, VALID_CONFIG_KEYS);
                     }
+                    continue;
+                }
 
-                    matcher.reset();
-                    matcher.find();
-
-                    String slave = matcher.group(2);
-
-                    ModbusSlave modbusSlave = modbusSlaves.get(slave);
-                    EndpointPoolConfiguration endpointPoolConfig = slavePoolConfigs.get(slave);
-                    if (modbusSlave == null) {
-                        if (matcher.group(1).equals(TCP_PREFIX)) {
-                            modbusSlave = new ModbusTcpSlave(slave, connectionPool);
-                        } else if (matcher.group(1).equals(UDP_PREFIX)) {
-                            modbusSlave = new ModbusUdpSlave(slave, connectionPool);
-                        } else if (matcher.group(1).equals(SERIAL_PREFIX)) {
-                            modbusSlave = new ModbusSerialSlave(slave, connectionPool);
-                        } else {
-                            throw new ConfigurationException(slave, "the given slave type '" + slave + "' is unknown");
-                        }
-                        endpointPoolConfig = new EndpointPoolConfiguration();
-                        // Do not give up if the connection attempt fails on the first time...
-                        endpointPoolConfig.setConnectMaxTries(Modbus.DEFAULT_RETRIES);
-                        logger.debug("modbusSlave '{}' instanciated", slave);
-                        modbusSlaves.put(slave, modbusSlave);
+                matcher.reset();
+                matcher.find();
+
+                String slave = matcher.group(2);
+
+                ModbusSlave modbusSlave = modbusSlaves.get(slave);
+                EndpointPoolConfiguration endpointPoolConfig = slavePoolConfigs.get(slave);
+                if (modbusSlave == null) {
+                    if (matcher.group(1).equals(TCP_PREFIX)) {
+                        modbusSlave = new ModbusTcpSlave(slave, connectionPool);
+                    } else if (matcher.group(1).equals(UDP_PREFIX)) {
+                        modbusSlave = new ModbusUdpSlave(slave, connectionPool);
+                    } else if (matcher.group(1).equals(SERIAL_PREFIX)) {
+                        modbusSlave = new ModbusSerialSlave(slave, connectionPool);
+                    } else {
+                        throw new ConfigurationException(slave, "the given slave type '" + slave + "' is unknown");
                     }
+                    endpointPoolConfig = new EndpointPoolConfiguration();
+                    // Do not give up if the connection attempt fails on the first time...
+                    endpointPoolConfig.setConnectMaxTries(Modbus.DEFAULT_RETRIES);
+                    logger.debug("modbusSlave '{}' instanciated", slave);
+                    modbusSlaves.put(slave, modbusSlave);
+                }
 
-                    String configKey = matcher.group(3);
-
-                    if ("connection".equals(configKey)) {
-                        String[] chunks = value.split(":");
-                        Iterator<String> settingIterator = stringArrayIterator(chunks);
-                        if (modbusSlave instanceof ModbusIPSlave) {
-                            ((ModbusIPSlave) modbusSlave).setHost(settingIterator.next());
-                            //
-                            // Defaults for endpoint and slave
-                            //
-                            modbusSlave.setRetryDelayMillis(DEFAULT_TCP_INTER_TRANSACTION_DELAY_MILLIS);
-                            endpointPoolConfig.setPassivateBorrowMinMillis(DEFAULT_TCP_INTER_TRANSACTION_DELAY_MILLIS);
-
-                            //
-                            // Optional parameters
-                            //
-                            try {
-                                ((ModbusIPSlave) modbusSlave).setPort(Integer.valueOf(settingIterator.next()));
-
-                                long passivateBorrowMinMillis = Long.parseLong(settingIterator.next());
-                                modbusSlave.setRetryDelayMillis(passivateBorrowMinMillis);
-                                endpointPoolConfig.setPassivateBorrowMinMillis(passivateBorrowMinMillis);
-
-                                endpointPoolConfig.setReconnectAfterMillis(Integer.parseInt(settingIterator.next()));
-
-                                // time to wait before trying connect closed connection. Note that
-                                // ModbusSlaveConnectionFactoryImpl makes sure that max{passivateBorrowMinMillis, this
-                                // parameter} is waited between connection attempts
-                                endpointPoolConfig.setInterConnectDelayMillis(Long.parseLong(settingIterator.next()));
-
-                                endpointPoolConfig.setConnectMaxTries(Integer.parseInt(settingIterator.next()));
-                                endpointPoolConfig.setConnectTimeoutMillis(Integer.parseInt(settingIterator.next()));
-                            } catch (NoSuchElementException e) {
-                                // Some of the optional parameters are missing -- it's ok!
-                            }
-                            if (settingIterator.hasNext()) {
-                                String errMsg = String
-                                        .format("%s Has too many colon (:) separated connection settings for a tcp/udp modbus slave. "
-                                                + "Expecting at most 6 parameters: hostname (mandatory) and "
-                                                + "optionally (in this order) port number, "
-                                                + "interTransactionDelayMillis, reconnectAfterMillis,"
-                                                + "interConnectDelayMillis, connectMaxTries, connectTimeout.", key);
-                                throw new ConfigurationException(key, errMsg);
-                            }
-                        } else if (modbusSlave instanceof ModbusSerialSlave) {
-                            SerialParameters serialParameters = new SerialParameters();
-                            serialParameters.setPortName(settingIterator.next());
-                            //
-                            // Defaults for endpoint and slave
-                            //
-                            endpointPoolConfig.setReconnectAfterMillis(-1); // never "disconnect" (close/open serial
-                                                                            // port)
-                                                                            // serial connection between borrows
-                            modbusSlave.setRetryDelayMillis(DEFAULT_SERIAL_INTER_TRANSACTION_DELAY_MILLIS);
-                            endpointPoolConfig
-                                    .setPassivateBorrowMinMillis(DEFAULT_SERIAL_INTER_TRANSACTION_DELAY_MILLIS);
-
-                            //
-                            // Optional parameters
-                            //
-                            try {
-                                serialParameters.setBaudRate(settingIterator.next());
-                                serialParameters.setDatabits(settingIterator.next());
-                                serialParameters.setParity(settingIterator.next());
-                                serialParameters.setStopbits(settingIterator.next());
-                                serialParameters.setEncoding(settingIterator.next());
-
-                                // time to wait between connection passive+borrow, i.e. time to wait between
-                                // transactions
-                                long passivateBorrowMinMillis = Long.parseLong(settingIterator.next());
-                                modbusSlave.setRetryDelayMillis(passivateBorrowMinMillis);
-                                endpointPoolConfig.setPassivateBorrowMinMillis(passivateBorrowMinMillis);
-
-                                serialParameters.setReceiveTimeoutMillis(settingIterator.next());
-                                serialParameters.setFlowControlIn(settingIterator.next());
-                                serialParameters.setFlowControlOut(settingIterator.next());
-                            } catch (NoSuchElementException e) {
-                                // Some of the optional parameters are missing -- it's ok!
-                            }
-                            if (settingIterator.hasNext()) {
-                                String errMsg = String.format(
-                                        "%s Has too many colon (:) separated connection settings for a serial modbus slave. "
-                                                + "Expecting at most 9 parameters (got %d): devicePort (mandatory), "
-                                                + "and 0 or more optional parameters (in this order): "
-                                                + "baudRate, dataBits, parity, stopBits, "
-                                                + "encoding, interTransactionWaitMillis, "
-                                                + "receiveTimeoutMillis, flowControlIn, flowControlOut",
-                                        key, chunks.length);
-                                throw new ConfigurationException(key, errMsg);
-                            }
-
-                            ((ModbusSerialSlave) modbusSlave).setSerialParameters(serialParameters);
+                String configKey = matcher.group(3);
+
+                if ("connection".equals(configKey)) {
+                    String[] chunks = value.split(":");
+                    Iterator<String> settingIterator = stringArrayIterator(chunks);
+                    if (modbusSlave instanceof ModbusIPSlave) {
+                        ((ModbusIPSlave) modbusSlave).setHost(settingIterator.next());
+                        //
+                        // Defaults for endpoint and slave
+                        //
+                        modbusSlave.setRetryDelayMillis(DEFAULT_TCP_INTER_TRANSACTION_DELAY_MILLIS);
+                        endpointPoolConfig.setPassivateBorrowMinMillis(DEFAULT_TCP_INTER_TRANSACTION_DELAY_MILLIS);
+
+                        //
+                        // Optional parameters
+                        //
+                        try {
+                            ((ModbusIPSlave) modbusSlave).setPort(Integer.valueOf(settingIterator.next()));
+
+                            long passivateBorrowMinMillis = Long.parseLong(settingIterator.next());
+                            modbusSlave.setRetryDelayMillis(passivateBorrowMinMillis);
+                            endpointPoolConfig.setPassivateBorrowMinMillis(passivateBorrowMinMillis);
+
+                            endpointPoolConfig.setReconnectAfterMillis(Integer.parseInt(settingIterator.next()));
+
+                            // time to wait before trying connect closed connection. Note that
+                            // ModbusSlaveConnectionFactoryImpl makes sure that max{passivateBorrowMinMillis, this
+                            // parameter} is waited between connection attempts
+                            endpointPoolConfig.setInterConnectDelayMillis(Long.parseLong(settingIterator.next()));
+
+                            endpointPoolConfig.setConnectMaxTries(Integer.parseInt(settingIterator.next()));
+                            endpointPoolConfig.setConnectTimeoutMillis(Integer.parseInt(settingIterator.next()));
+                        } catch (NoSuchElementException e) {
+                            // Some of the optional parameters are missing -- it's ok!
+                        }
+                        if (settingIterator.hasNext()) {
+                            String errMsg = String
+                                    .format("%s Has too many colon (:) separated connection settings for a tcp/udp modbus slave. "
+                                            + "Expecting at most 6 parameters: hostname (mandatory) and "
+                                            + "optionally (in this order) port number, "
+                                            + "interTransactionDelayMillis, reconnectAfterMillis,"
+                                            + "interConnectDelayMillis, connectMaxTries, connectTimeout.", key);
+                            throw new ConfigurationException(key, errMsg);
                         }
-                    } else if ("start".equals(configKey)) {
-                        modbusSlave.setStart(Integer.valueOf(value));
-                    } else if ("length".equals(configKey)) {
-                        modbusSlave.setLength(Integer.valueOf(value));
-                    } else if ("id".equals(configKey)) {
-                        modbusSlave.setId(Integer.valueOf(value));
-                    } else if ("type".equals(configKey)) {
-                        if (ArrayUtils.contains(ModbusBindingProvider.SLAVE_DATA_TYPES, value)) {
-                            modbusSlave.setType(value);
-                        } else {
-                            throw new ConfigurationException(configKey,
-                                    "the given slave type '" + value + "' is invalid");
+                    } else if (modbusSlave instanceof ModbusSerialSlave) {
+                        SerialParameters serialParameters = new SerialParameters();
+                        serialParameters.setPortName(settingIterator.next());
+                        //
+                        // Defaults for endpoint and slave
+                        //
+                        endpointPoolConfig.setReconnectAfterMillis(-1); // never "disconnect" (close/open serial
+                                                                        // port)
+                                                                        // serial connection between borrows
+                        modbusSlave.setRetryDelayMillis(DEFAULT_SERIAL_INTER_TRANSACTION_DELAY_MILLIS);
+                        endpointPoolConfig
+                                .setPassivateBorrowMinMillis(DEFAULT_SERIAL_INTER_TRANSACTION_DELAY_MILLIS);
+
+                        //
+                        // Optional parameters
+                        //
+                        try {
+                            serialParameters.setBaudRate(settingIterator.next());
+                            serialParameters.setDatabits(settingIterator.next());
+                            serialParameters.setParity(settingIterator.next());
+                            serialParameters.setStopbits(settingIterator.next());
+                            serialParameters.setEncoding(settingIterator.next());
+
+                            // time to wait between connection passive+borrow, i.e. time to wait between
+                            // transactions
+                            long passivateBorrowMinMillis = Long.parseLong(settingIterator.next());
+                            modbusSlave.setRetryDelayMillis(passivateBorrowMinMillis);
+                            endpointPoolConfig.setPassivateBorrowMinMillis(passivateBorrowMinMillis);
+
+                            serialParameters.setReceiveTimeoutMillis(settingIterator.next());
+                            serialParameters.setFlowControlIn(settingIterator.next());
+                            serialParameters.setFlowControlOut(settingIterator.next());
+                        } catch (NoSuchElementException e) {
+                            // Some of the optional parameters are missing -- it's ok!
                         }
-                    } else if ("valuetype".equals(configKey)) {
-                        if (ArrayUtils.contains(ModbusBindingProvider.VALUE_TYPES, value)) {
-                            modbusSlave.setValueType(value);
-                        } else {
-                            throw new ConfigurationException(configKey,
-                                    "the given value type '" + value + "' is invalid");
+                        if (settingIterator.hasNext()) {
+                            String errMsg = String.format(
+                                    "%s Has too many colon (:) separated connection settings for a serial modbus slave. "
+                                            + "Expecting at most 9 parameters (got %d): devicePort (mandatory), "
+                                            + "and 0 or more optional parameters (in this order): "
+                                            + "baudRate, dataBits, parity, stopBits, "
+                                            + "encoding, interTransactionWaitMillis, "
+                                            + "receiveTimeoutMillis, flowControlIn, flowControlOut",
+                                    key, chunks.length);
+                            throw new ConfigurationException(key, errMsg);
                         }
-                    } else if ("rawdatamultiplier".equals(configKey)) {
-                        modbusSlave.setRawDataMultiplier(Double.valueOf(value.toString()));
-                    } else if ("updateunchangeditems".equals(configKey)) {
-                        modbusSlave.setUpdateUnchangedItems(Boolean.valueOf(value.toString()));
-                    } else if ("postundefinedonreaderror".equals(configKey)) {
-                        modbusSlave.setPostUndefinedOnReadError(Boolean.valueOf(value.toString()));
+
+                        ((ModbusSerialSlave) modbusSlave).setSerialParameters(serialParameters);
+                    }
+                } else if ("start".equals(configKey)) {
+                    modbusSlave.setStart(Integer.valueOf(value));
+                } else if ("length".equals(configKey)) {
+                    modbusSlave.setLength(Integer.valueOf(value));
+                } else if ("id".equals(configKey)) {
+                    modbusSlave.setId(Integer.valueOf(value));
+                } else if ("type".equals(configKey)) {
+                    if (ArrayUtils.contains(ModbusBindingProvider.SLAVE_DATA_TYPES, value)) {
+                        modbusSlave.setType(value);
                     } else {
                         throw new ConfigurationException(configKey,
-                                "the given configKey '" + configKey + "' is unknown");
+                                "the given slave type '" + value + "' is invalid");
                     }
-                    modbusSlaves.put(slave, modbusSlave);
-                    slavePoolConfigs.put(slave, endpointPoolConfig);
-                } catch (Exception e) {
-                    String errMsg = String.format("Exception when parsing configuration parameter %s = %s  --  %s %s",
-                            key, value, e.getClass().getName(), e.getMessage());
-                    logger.error(errMsg);
-                    throw new ConfigurationException(key, errMsg);
+                } else if ("valuetype".equals(configKey)) {
+                    if (ArrayUtils.contains(ModbusBindingProvider.VALUE_TYPES, value)) {
+                        modbusSlave.setValueType(value);
+                    } else {
+                        throw new ConfigurationException(configKey,
+                                "the given value type '" + value + "' is invalid");
+                    }
+                } else if ("rawdatamultiplier".equals(configKey)) {
+                    modbusSlave.setRawDataMultiplier(Double.valueOf(value.toString()));
+                } else if ("updateunchangeditems".equals(configKey)) {
+                    modbusSlave.setUpdateUnchangedItems(Boolean.valueOf(value.toString()));
+                } else if ("postundefinedonreaderror".equals(configKey)) {
+                    modbusSlave.setPostUndefinedOnReadError(Boolean.valueOf(value.toString()));
+                } else if ("poll".equals(configKey)) {
+                    modbusSlave.setPollInterval(Long.valueOf(value.toString()));
+                } else {
+                    throw new ConfigurationException(configKey,
+                            "the given configKey '" + configKey + "' is unknown");
                 }
+                modbusSlaves.put(slave, modbusSlave);
+                slavePoolConfigs.put(slave, endpointPoolConfig);
+            } catch (Exception e) {
+                String errMsg = String.format("Exception when parsing configuration parameter %s = %s  --  %s %s",
+                        key, value, e.getClass().getName(), e.getMessage());
+                logger.error(errMsg);
+                throw new ConfigurationException(key, errMsg);
             }
-            // Finally, go through each slave definition, and combine the slave pool configurations
-            for (Entry<String, EndpointPoolConfiguration> slaveEntry : slavePoolConfigs.entrySet()) {
-                String slave = slaveEntry.getKey();
-                EndpointPoolConfiguration poolConfiguration = slaveEntry.getValue();
-                ModbusSlaveEndpoint endpoint = modbusSlaves.get(slave).getEndpoint();
-                EndpointPoolConfiguration existingPoolConfiguration = endpointPoolConfigs.get(endpoint);
-                // Do we have two slaves with same endpoint, but different pool configuration parameters? Warn if we do.
-                if (existingPoolConfiguration != null && !existingPoolConfiguration.equals(poolConfiguration)) {
-                    logger.warn(
-                            "Slave {} (endpoint {}) has different retry/connection delay "
-                                    + "(EndpointPoolConfiguration) etc. settings. Replacing {} with {}",
-                            slave, endpoint, existingPoolConfiguration, poolConfiguration);
-                }
-                endpointPoolConfigs.put(endpoint, poolConfiguration);
+        }
+        // Finally, go through each slave definition, and combine the slave pool configurations
+        for (Entry<String, EndpointPoolConfiguration> slaveEntry : slavePoolConfigs.entrySet()) {
+            String slave = slaveEntry.getKey();
+            EndpointPoolConfiguration poolConfiguration = slaveEntry.getValue();
+            ModbusSlaveEndpoint endpoint = modbusSlaves.get(slave).getEndpoint();
+            EndpointPoolConfiguration existingPoolConfiguration = endpointPoolConfigs.get(endpoint);
+            // Do we have two slaves with same endpoint, but different pool configuration parameters? Warn if we do.
+            if (existingPoolConfiguration != null && !existingPoolConfiguration.equals(poolConfiguration)) {
+                logger.warn(
+                        "Slave {} (endpoint {}) has different retry/connection delay "
+                                + "(EndpointPoolConfiguration) etc. settings. Replacing {} with {}",
+                        slave, endpoint, existingPoolConfiguration, poolConfiguration);
             }
-            connectionFactory.applyEndpointPoolConfigs(endpointPoolConfigs);
-            logger.debug("Parsed the following slave->endpoint configurations: {}. If the endpoint is same, "
-                    + "connections are shared between the instances.", slavePoolConfigs);
-            logger.debug("Parsed the following pool configurations: {}", endpointPoolConfigs);
-            logger.debug("config looked good");
-            setProperlyConfigured(true);
-        } catch (ConfigurationException ce) {
-            setProperlyConfigured(false);
-            throw ce;
+            endpointPoolConfigs.put(endpoint, poolConfiguration);
         }
+        connectionFactory.applyEndpointPoolConfigs(endpointPoolConfigs);
+        connectionFactory.setTcpNioTransport(tcpNioTransport);
+        logger.debug("Parsed the following slave->endpoint configurations: {}. If the endpoint is same, "
+                + "connections are shared between the instances.", slavePoolConfigs);
+        logger.debug("Parsed the following pool configurations: {}", endpointPoolConfigs);
+        logger.debug("config looked good");
+        pollScheduler.start(modbusSlaves.values(), pollInterval, mergeReads);
     }
 
     private static Iterator<String> stringArrayIterator(final String[] chunks) {
@@ -219,6 +219,7 @@ public class ModbusGenericBindingProvider extends AbstractGenericBindingProvider
          */
         ModbusBindingConfig(Item item, String config) throws BindingConfigParseException {
             itemClass = item.getClass();
+            itemName = item.getName();
             state = item.getState();
 
             try {
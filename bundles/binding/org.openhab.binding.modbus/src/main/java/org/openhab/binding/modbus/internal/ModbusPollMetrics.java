@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poll statistics of a single modbus slave.
+ *
+ * Latency is the time one poll takes, including the wait for the connection of the endpoint and the update of the
+ * items. Jitter is the deviation of the time between two consecutive scheduled polls from the poll interval of the
+ * slave, i.e. how late (or early) a poll started compared to the previous one.
+ *
+ * @since 1.10.0
+ */
+public class ModbusPollMetrics {
+
+    private final long intervalNanos;
+
+    private long polls;
+    private long errors;
+
+    private long lastLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+
+    private long lastStartNanos = -1;
+    private long jitterSamples;
+    private long lastJitterNanos;
+    private long maxJitterNanos;
+    private long totalJitterNanos;
+
+    /**
+     * @param intervalMillis poll interval of the slave
+     */
+    public ModbusPollMetrics(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /**
+     * Records a finished poll
+     *
+     * @param startNanos {@link System#nanoTime()} when the poll started
+     * @param endNanos {@link System#nanoTime()} when the poll finished
+     * @param scheduled true if the poll was started by the poll schedule of the slave, false if requested otherwise.
+     *            Only scheduled polls are considered for the jitter.
+     * @param success false if the read failed
+     */
+    public synchronized void record(long startNanos, long endNanos, boolean scheduled, boolean success) {
+        polls++;
+        if (!success) {
+            errors++;
+        }
+        lastLatencyNanos = endNanos - startNanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        totalLatencyNanos += lastLatencyNanos;
+
+        if (!scheduled) {
+            return;
+        }
+        if (lastStartNanos >= 0) {
+            lastJitterNanos = Math.abs(startNanos - lastStartNanos - intervalNanos);
+            maxJitterNanos = Math.max(maxJitterNanos, lastJitterNanos);
+            totalJitterNanos += lastJitterNanos;
+            jitterSamples++;
+        }
+        lastStartNanos = startNanos;
+    }
+
+    public long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+    }
+
+    public synchronized long getPolls() {
+        return polls;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    public synchronized double getLastLatencyMillis() {
+        return toMillis(lastLatencyNanos);
+    }
+
+    public synchronized double getMaxLatencyMillis() {
+        return toMillis(maxLatencyNanos);
+    }
+
+    public synchronized double getAverageLatencyMillis() {
+        return polls == 0 ? 0 : toMillis(totalLatencyNanos) / polls;
+    }
+
+    public synchronized double getLastJitterMillis() {
+        return toMillis(lastJitterNanos);
+    }
+
+    public synchronized double getMaxJitterMillis() {
+        return toMillis(maxJitterNanos);
+    }
+
+    public synchronized double getAverageJitterMillis() {
+        return jitterSamples == 0 ? 0 : toMillis(totalJitterNanos) / jitterSamples;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "interval=%dms, polls=%d, errors=%d, latency last/avg/max=%.1f/%.1f/%.1fms, "
+                        + "jitter last/avg/max=%.1f/%.1f/%.1fms",
+                getIntervalMillis(), polls, errors, getLastLatencyMillis(), getAverageLatencyMillis(),
+                getMaxLatencyMillis(), getLastJitterMillis(), getAverageJitterMillis(), getMaxJitterMillis());
+    }
+}
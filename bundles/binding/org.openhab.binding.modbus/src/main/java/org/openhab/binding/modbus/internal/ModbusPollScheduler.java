@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls each modbus slave on its own schedule.
+ *
+ * Every slave has its own periodic task, so a slave which is slow to respond (e.g. offline serial slave waiting for
+ * timeouts) does not delay the polls of the other slaves. Slaves which are read with a single request (see
+ * {@link ModbusReadBlock}) share the task. The tasks are executed in parallel, the polls to the same endpoint are still
+ * executed one at a time since the slaves borrow the connection of the endpoint from the connection pool for the
+ * transaction.
+ *
+ * The executor has one thread per task, up to {@link #MAX_POLL_THREADS}. A slave waiting for the connection of a busy
+ * endpoint blocks its thread, so with more slow endpoints than threads the polls of the other slaves are delayed until
+ * a thread is free. A block is never polled concurrently with itself: a poll is skipped while the previous poll of the
+ * block, scheduled or requested with {@link #pollNow()}, is still running.
+ *
+ * @since 1.10.0
+ */
+public class ModbusPollScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusPollScheduler.class);
+
+    /**
+     * Time to wait for running polls to finish when the scheduler is stopped
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Maximum number of threads polling the slaves in parallel
+     */
+    private static final int MAX_POLL_THREADS = 5;
+
+    private final ModbusBinding binding;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private Map<String, ModbusPollMetrics> metrics = Collections.emptyMap();
+
+    private List<PollTask> tasks = Collections.emptyList();
+
+    public ModbusPollScheduler(ModbusBinding binding) {
+        this.binding = binding;
+    }
+
+    /**
+     * Schedules polling of the slaves, replacing the slaves polled before. The first poll of each slave is executed
+     * after its poll interval.
+     *
+     * @param slaves slaves to poll
+     * @param defaultPollInterval poll interval of the slaves without their own poll interval, in milliseconds
+     * @param mergeReads true to read adjacent slaves of the same device with a single request
+     */
+    public synchronized void start(Collection<ModbusSlave> slaves, long defaultPollInterval, boolean mergeReads) {
+        stop();
+        if (slaves.isEmpty()) {
+            return;
+        }
+        List<ModbusReadBlock> newBlocks = ModbusReadBlock.plan(slaves, mergeReads);
+        executor = new ScheduledThreadPoolExecutor(Math.min(newBlocks.size(), MAX_POLL_THREADS),
+                new PollThreadFactory());
+        Map<String, ModbusPollMetrics> newMetrics = new ConcurrentHashMap<String, ModbusPollMetrics>();
+        List<PollTask> newTasks = new ArrayList<PollTask>(newBlocks.size());
+        for (ModbusReadBlock block : newBlocks) {
+            // all slaves of a block have the same poll interval
+            ModbusSlave first = block.getSlaves().get(0);
+            long interval = first.getPollInterval() > 0 ? first.getPollInterval() : defaultPollInterval;
+            List<ModbusPollMetrics> blockMetrics = new ArrayList<ModbusPollMetrics>(block.getSlaves().size());
+            for (ModbusSlave slave : block.getSlaves()) {
+                ModbusPollMetrics slaveMetrics = new ModbusPollMetrics(interval);
+                newMetrics.put(slave.getName(), slaveMetrics);
+                blockMetrics.add(slaveMetrics);
+            }
+            PollTask task = new PollTask(block, blockMetrics);
+            executor.scheduleAtFixedRate(task, interval, interval, TimeUnit.MILLISECONDS);
+            newTasks.add(task);
+            if (block.isMerged()) {
+                logger.debug("Polling modbus slaves {} with a single request every {} ms", block, interval);
+            } else {
+                logger.debug("Polling modbus slave '{}' every {} ms", first.getName(), interval);
+            }
+        }
+        metrics = newMetrics;
+        tasks = newTasks;
+    }
+
+    /**
+     * Cancels polling of all slaves. Waits for running polls to finish.
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Modbus polls did not finish in {} ms, interrupting them", SHUTDOWN_TIMEOUT_MILLIS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        tasks = Collections.emptyList();
+        for (Map.Entry<String, ModbusPollMetrics> entry : metrics.entrySet()) {
+            logger.debug("Poll statistics of modbus slave '{}': {}", entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Polls all scheduled slaves once, in parallel, and waits until all polls have finished. The polls are executed in
+     * addition to the scheduled polls, except for the slaves which are being polled already.
+     */
+    public void pollNow() {
+        ScheduledThreadPoolExecutor executor;
+        List<PollTask> scheduledTasks;
+        synchronized (this) {
+            executor = this.executor;
+            scheduledTasks = this.tasks;
+        }
+        if (executor == null) {
+            return;
+        }
+        List<PollTask> tasks = new ArrayList<PollTask>(scheduledTasks.size());
+        for (PollTask scheduledTask : scheduledTasks) {
+            PollTask task = scheduledTask.claim();
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            logger.debug("Modbus polling stopped while polling the slaves");
+        } finally {
+            for (PollTask task : tasks) {
+                task.release();
+            }
+        }
+    }
+
+    /**
+     * @return poll statistics by slave name
+     */
+    public synchronized Map<String, ModbusPollMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private class PollTask implements Runnable, Callable<Void> {
+
+        private final ModbusReadBlock block;
+        private final List<ModbusPollMetrics> metrics;
+        private final boolean scheduled;
+
+        // shared by all tasks of the block, true while the block is polled or claimed for a poll
+        private final AtomicBoolean polling;
+
+        // true until a task which claimed the block is run or released, null for the scheduled task
+        private final AtomicBoolean claimed;
+
+        PollTask(ModbusReadBlock block, List<ModbusPollMetrics> metrics) {
+            this(block, metrics, new AtomicBoolean(), null);
+        }
+
+        private PollTask(ModbusReadBlock block, List<ModbusPollMetrics> metrics, AtomicBoolean polling,
+                AtomicBoolean claimed) {
+            this.block = block;
+            this.metrics = metrics;
+            this.scheduled = claimed == null;
+            this.polling = polling;
+            this.claimed = claimed;
+        }
+
+        /**
+         * Claims the block for a single poll in addition to the scheduled polls. The block must be released with
+         * {@link #release()} if the returned task isn't run.
+         *
+         * @return the task polling the block once, or null if the block is being polled already
+         */
+        PollTask claim() {
+            if (!polling.compareAndSet(false, true)) {
+                logger.trace("ModbusSlaves {}: poll still running, not polling again", block);
+                return null;
+            }
+            return new PollTask(block, metrics, polling, new AtomicBoolean(true));
+        }
+
+        /**
+         * Releases the block claimed by this task if the task has not been run.
+         */
+        void release() {
+            if (claimed != null && claimed.compareAndSet(true, false)) {
+                polling.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (claimed != null) {
+                if (!claimed.compareAndSet(true, false)) {
+                    // released without being run
+                    return;
+                }
+            } else if (!binding.isPollingRequired()) {
+                return;
+            } else if (!polling.compareAndSet(false, true)) {
+                logger.trace("ModbusSlaves {}: previous poll still running, skipping poll", block);
+                return;
+            }
+            try {
+                poll();
+            } finally {
+                polling.set(false);
+            }
+        }
+
+        private void poll() {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                success = block.update(binding);
+            } catch (RuntimeException e) {
+                // an exception would cancel the periodic task
+                logger.error("ModbusSlaves {}: unexpected error when polling", block, e);
+            } finally {
+                long end = System.nanoTime();
+                for (ModbusPollMetrics slaveMetrics : metrics) {
+                    if (slaveMetrics != null) {
+                        slaveMetrics.record(start, end, scheduled, success);
+                    }
+                }
+                logger.trace("ModbusSlaves {}: poll took {} ms", block, TimeUnit.NANOSECONDS.toMillis(end - start));
+            }
+        }
+
+        @Override
+        public Void call() {
+            run();
+            return null;
+        }
+    }
+
+    private static class PollThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Modbus Polling Service-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
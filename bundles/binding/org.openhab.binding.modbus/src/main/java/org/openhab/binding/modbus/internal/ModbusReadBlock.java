@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.openhab.binding.modbus.ModbusBindingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.Modbus;
+import net.wimpi.modbus.ModbusException;
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.procimg.InputRegister;
+import net.wimpi.modbus.procimg.Register;
+import net.wimpi.modbus.procimg.SimpleRegister;
+import net.wimpi.modbus.util.BitVector;
+
+/**
+ * Slaves which are read with a single modbus request.
+ *
+ * Slaves of the same endpoint, unit id, type and poll interval whose coils/registers are adjacent or overlap are read
+ * with one request covering all of them, as long as the request stays within the limits of the modbus protocol and the
+ * response fits into the receive buffer of the transport. The data is then split up to the slaves. This saves round
+ * trips especially on slow serial lines, where users often define many small slaves for the same device.
+ *
+ * If the device rejects the combined request (e.g. there is a gap in its register map between the slaves which the
+ * single requests did not cover), or the combined request fails while the single requests succeed, the slaves of the
+ * block are read one by one from then on.
+ *
+ * @since 1.10.0
+ */
+public class ModbusReadBlock {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusReadBlock.class);
+
+    /**
+     * Maximum number of registers in a single read request (FC 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read request (FC 1 and 2)
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    /**
+     * Bytes of a TCP/UDP frame besides the PDU: the MBAP header including the unit id
+     */
+    private static final int IP_FRAME_OVERHEAD = 7;
+
+    /**
+     * Bytes of a serial frame besides the PDU: the unit id and the CRC
+     */
+    private static final int SERIAL_FRAME_OVERHEAD = 3;
+
+    /**
+     * Bytes of a read response PDU besides the data: the function code and the byte count
+     */
+    private static final int READ_RESPONSE_OVERHEAD = 2;
+
+    private final List<ModbusSlave> slaves;
+    private final int start;
+    private final int length;
+
+    private volatile boolean split = false;
+
+    private ModbusReadBlock(List<ModbusSlave> slaves, int start, int length) {
+        this.slaves = Collections.unmodifiableList(slaves);
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Groups the slaves into blocks
+     *
+     * @param slaves slaves to read
+     * @param merge false to read every slave with its own request
+     * @return blocks covering all slaves, every slave is part of exactly one block
+     */
+    public static List<ModbusReadBlock> plan(Collection<ModbusSlave> slaves, boolean merge) {
+        List<ModbusReadBlock> blocks = new ArrayList<ModbusReadBlock>();
+        if (!merge) {
+            for (ModbusSlave slave : slaves) {
+                blocks.add(new ModbusReadBlock(Arrays.asList(slave), slave.getStart(), slave.getLength()));
+            }
+            return blocks;
+        }
+
+        Map<GroupKey, List<ModbusSlave>> groups = new LinkedHashMap<GroupKey, List<ModbusSlave>>();
+        for (ModbusSlave slave : slaves) {
+            GroupKey key = new GroupKey(slave);
+            List<ModbusSlave> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<ModbusSlave>();
+                groups.put(key, group);
+            }
+            group.add(slave);
+        }
+
+        for (List<ModbusSlave> group : groups.values()) {
+            Collections.sort(group, new Comparator<ModbusSlave>() {
+                @Override
+                public int compare(ModbusSlave s1, ModbusSlave s2) {
+                    return Integer.compare(s1.getStart(), s2.getStart());
+                }
+            });
+            int maxLength = getMaxLength(group.get(0));
+
+            List<ModbusSlave> blockSlaves = new ArrayList<ModbusSlave>();
+            int blockStart = 0;
+            int blockEnd = 0;
+            for (ModbusSlave slave : group) {
+                int slaveEnd = slave.getStart() + slave.getLength();
+                if (!blockSlaves.isEmpty() && slave.getStart() <= blockEnd
+                        && Math.max(blockEnd, slaveEnd) - blockStart <= maxLength) {
+                    blockSlaves.add(slave);
+                    blockEnd = Math.max(blockEnd, slaveEnd);
+                    continue;
+                }
+                if (!blockSlaves.isEmpty()) {
+                    blocks.add(new ModbusReadBlock(blockSlaves, blockStart, blockEnd - blockStart));
+                }
+                blockSlaves = new ArrayList<ModbusSlave>();
+                blockSlaves.add(slave);
+                blockStart = slave.getStart();
+                blockEnd = slaveEnd;
+            }
+            blocks.add(new ModbusReadBlock(blockSlaves, blockStart, blockEnd - blockStart));
+        }
+        return blocks;
+    }
+
+    /**
+     * @return the number of coils/registers the slave can read with one request, limited by the protocol and by the
+     *         size of the buffer its transport receives the response in
+     */
+    static int getMaxLength(ModbusSlave slave) {
+        int frameLength = slave instanceof ModbusIPSlave ? Modbus.MAX_IP_MESSAGE_LENGTH : Modbus.MAX_MESSAGE_LENGTH;
+        int frameOverhead = slave instanceof ModbusIPSlave ? IP_FRAME_OVERHEAD : SERIAL_FRAME_OVERHEAD;
+        int maxDataBytes = frameLength - frameOverhead - READ_RESPONSE_OVERHEAD;
+
+        String type = slave.getType();
+        if (ModbusBindingProvider.TYPE_COIL.equals(type) || ModbusBindingProvider.TYPE_DISCRETE.equals(type)) {
+            return Math.min(MAX_BITS_PER_READ, maxDataBytes * 8);
+        }
+        return Math.min(MAX_REGISTERS_PER_READ, maxDataBytes / 2);
+    }
+
+    /**
+     * @return slaves of this block, ordered by start address
+     */
+    public List<ModbusSlave> getSlaves() {
+        return slaves;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return true if the slaves are read with a single request
+     */
+    public boolean isMerged() {
+        return slaves.size() > 1 && !split;
+    }
+
+    /**
+     * Reads the data of all slaves in this block from the device and updates their items
+     *
+     * @param binding ModbusBindig that stores providers information
+     * @return true if the data was read successfully
+     */
+    public boolean update(ModbusBinding binding) {
+        if (!isMerged()) {
+            boolean success = true;
+            for (ModbusSlave slave : slaves) {
+                success &= slave.update(binding);
+            }
+            return success;
+        }
+
+        ModbusSlave first = slaves.get(0);
+        Object data = null;
+        Exception readError = null;
+        try {
+            logger.trace("ModbusSlave ({}): reading {} coils/registers from {} for slaves {}", first.getName(),
+                    length, start, slaves);
+            data = first.read(start, length);
+        } catch (ModbusSlaveException e) {
+            logger.warn("Slaves {} could not be read with a single request ({}), reading them one by one", slaves,
+                    e.getMessage());
+            split = true;
+            return update(binding);
+        } catch (ModbusIOException e) {
+            // the device may not answer a request it cannot handle at all, or it is not reachable
+            return updateAfterIOError(binding, e);
+        } catch (ModbusException e) {
+            // Logging already done in getModbusData
+            readError = e;
+        } catch (ModbusConnectionException e) {
+            // Logging already done in getModbusData
+            readError = e;
+        } catch (ModbusUnexpectedTransactionIdException e) {
+            // Logging already done in getModbusData
+            readError = e;
+        } catch (Exception e) {
+            logger.error("ModbusSlave ({}) error getting response from slave", first.getName(), e);
+            return false;
+        }
+
+        boolean success = true;
+        for (ModbusSlave slave : slaves) {
+            success &= slave.update(binding, readError == null ? slice(data, slave) : null, readError);
+        }
+        return success;
+    }
+
+    /**
+     * Reads the slaves one by one after the combined request failed. If any of them can be read, the device is
+     * reachable and the combined request itself is the problem, so the slaves are read one by one from then on.
+     */
+    private boolean updateAfterIOError(ModbusBinding binding, ModbusIOException error) {
+        logger.debug("Slaves {} could not be read with a single request ({}), trying them one by one", slaves,
+                error.getMessage());
+        boolean anySuccess = false;
+        boolean success = true;
+        for (ModbusSlave slave : slaves) {
+            boolean slaveSuccess = slave.update(binding);
+            anySuccess |= slaveSuccess;
+            success &= slaveSuccess;
+        }
+        if (anySuccess) {
+            logger.warn("Slaves {} could not be read with a single request ({}), reading them one by one", slaves,
+                    error.getMessage());
+            split = true;
+        }
+        return success;
+    }
+
+    /**
+     * @return the part of the data read for this block which belongs to the slave
+     */
+    private Object slice(Object data, ModbusSlave slave) {
+        int offset = slave.getStart() - start;
+        if (data instanceof BitVector) {
+            BitVector bits = (BitVector) data;
+            BitVector slaveBits = new BitVector(slave.getLength());
+            for (int i = 0; i < slave.getLength(); i++) {
+                slaveBits.setBit(i, bits.getBit(offset + i));
+            }
+            return slaveBits;
+        } else if (data instanceof Register[]) {
+            // holding registers are modified in place by increase/decrease commands, so every slave gets its own
+            Register[] registers = (Register[]) data;
+            Register[] slaveRegisters = new Register[slave.getLength()];
+            for (int i = 0; i < slave.getLength(); i++) {
+                slaveRegisters[i] = new SimpleRegister(registers[offset + i].getValue());
+            }
+            return slaveRegisters;
+        } else if (data instanceof InputRegister[]) {
+            return Arrays.copyOfRange((InputRegister[]) data, offset, offset + slave.getLength());
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        List<String> names = new ArrayList<String>(slaves.size());
+        for (ModbusSlave slave : slaves) {
+            names.add(slave.getName());
+        }
+        return names + "@" + start + "+" + length;
+    }
+
+    /**
+     * Slaves with equal keys may be read with a single request
+     */
+    private static class GroupKey {
+
+        private final Object endpoint;
+        private final int id;
+        private final String type;
+        private final long pollInterval;
+
+        GroupKey(ModbusSlave slave) {
+            this.endpoint = slave.getEndpoint();
+            this.id = slave.getId();
+            this.type = slave.getType();
+            this.pollInterval = slave.getPollInterval();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(11, 29).append(endpoint).append(id).append(type).append(pollInterval)
+                    .toHashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return new EqualsBuilder().append(endpoint, other.endpoint).append(id, other.id)
+                    .append(type, other.type).append(pollInterval, other.pollInterval).isEquals();
+        }
+    }
+}
@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.modbus.internal;
 
-import java.util.Collection;
-
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.openhab.binding.modbus.ModbusBindingProvider;
 import org.openhab.binding.modbus.internal.ModbusGenericBindingProvider.ModbusBindingConfig;
@@ -122,6 +120,11 @@ public abstract class ModbusSlave {
      */
     private boolean postUndefinedOnReadError = false;
 
+    /**
+     * Poll interval of this slave in milliseconds. Zero means that the global poll interval is used.
+     */
+    private long pollInterval = 0;
+
     /**
      * @param slave slave name from cfg file used for item binding
      * @connectionPool pool to create connections
@@ -389,44 +392,40 @@ public abstract class ModbusSlave {
      * Reads data from the connected device and updates items with the new data
      *
      * @param binding ModbusBindig that stores providers information
+     * @return true if the data was read successfully
      */
-    public void update(ModbusBinding binding) {
+    public boolean update(ModbusBinding binding) {
+        Object local = null;
+        Exception localReadError = null;
         try {
+            local = read(getStart(), getLength());
+        } catch (ModbusException e) {
+            // Logging already done in getModbusData
+            localReadError = e;
+        } catch (ModbusConnectionException e) {
+            // Logging already done in getModbusData
+            localReadError = e;
+        } catch (ModbusUnexpectedTransactionIdException e) {
+            // Logging already done in getModbusData
+            localReadError = e;
+        } catch (Exception e) {
+            logger.error("ModbusSlave ({}) error getting response from slave", name, e);
+            return false;
+        }
+        return update(binding, local, localReadError);
+    }
 
-            Object local = null;
-            Exception localReadError = null;
-            try {
-                if (ModbusBindingProvider.TYPE_COIL.equals(getType())) {
-                    ModbusRequest request = new ReadCoilsRequest(getStart(), getLength());
-                    if (this instanceof ModbusSerialSlave) {
-                        request.setHeadless();
-                    }
-                    ReadCoilsResponse response = (ReadCoilsResponse) getModbusData(request);
-                    local = response.getCoils();
-                } else if (ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
-                    ModbusRequest request = new ReadInputDiscretesRequest(getStart(), getLength());
-                    ReadInputDiscretesResponse response = (ReadInputDiscretesResponse) getModbusData(request);
-                    local = response.getDiscretes();
-                } else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())) {
-                    ModbusRequest request = new ReadMultipleRegistersRequest(getStart(), getLength());
-                    ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) getModbusData(request);
-                    local = response.getRegisters();
-                } else if (ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
-                    ModbusRequest request = new ReadInputRegistersRequest(getStart(), getLength());
-                    ReadInputRegistersResponse response = (ReadInputRegistersResponse) getModbusData(request);
-                    local = response.getRegisters();
-                }
-            } catch (ModbusException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
-            } catch (ModbusConnectionException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
-            } catch (ModbusUnexpectedTransactionIdException e) {
-                // Logging already done in getModbusData
-                localReadError = e;
-            }
-
+    /**
+     * Updates items with data read from the device. The data might have been read by a request covering other slaves
+     * as well, see {@link ModbusReadBlock}.
+     *
+     * @param binding ModbusBindig that stores providers information
+     * @param local data read for this slave (BitVector or InputRegister[] depending on type), null on read error
+     * @param localReadError error when reading the data, null if the data was read successfully
+     * @return true if the data was read successfully
+     */
+    boolean update(ModbusBinding binding, Object local, Exception localReadError) {
+        try {
             if (storage == null) {
                 storage = local;
                 readError = localReadError;
@@ -436,34 +435,70 @@ public abstract class ModbusSlave {
                     readError = localReadError;
                 }
             }
-            Collection<String> items = binding.getItemNames();
-            for (String item : items) {
-                updateItem(binding, item);
+            for (ModbusBindingConfig config : binding.getSlaveItemConfigs(name)) {
+                updateItem(binding, config);
             }
+            return localReadError == null;
         } catch (Exception e) {
             logger.error("ModbusSlave ({}) error getting response from slave", name, e);
+            return false;
         }
 
     }
 
+    /**
+     * Reads coils/discrete inputs/registers, depending on the type of this slave, from the device
+     *
+     * @param start address of first coil/discrete input/register to read
+     * @param length number of coils/discrete inputs/registers to read
+     * @return BitVector for coils and discrete inputs, InputRegister[] for registers
+     * @throws ModbusConnectionException when connection cannot be established
+     * @throws ModbusException ModbusIOException on IO errors, ModbusSlaveException with protocol level exceptions
+     * @throws ModbusUnexpectedTransactionIdException when response transaction id does not match the request
+     */
+    Object read(int start, int length)
+            throws ModbusConnectionException, ModbusException, ModbusUnexpectedTransactionIdException {
+        if (ModbusBindingProvider.TYPE_COIL.equals(getType())) {
+            ModbusRequest request = new ReadCoilsRequest(start, length);
+            if (this instanceof ModbusSerialSlave) {
+                request.setHeadless();
+            }
+            ReadCoilsResponse response = (ReadCoilsResponse) getModbusData(request);
+            return response.getCoils();
+        } else if (ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
+            ModbusRequest request = new ReadInputDiscretesRequest(start, length);
+            ReadInputDiscretesResponse response = (ReadInputDiscretesResponse) getModbusData(request);
+            return response.getDiscretes();
+        } else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())) {
+            ModbusRequest request = new ReadMultipleRegistersRequest(start, length);
+            ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) getModbusData(request);
+            return response.getRegisters();
+        } else if (ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
+            ModbusRequest request = new ReadInputRegistersRequest(start, length);
+            ReadInputRegistersResponse response = (ReadInputRegistersResponse) getModbusData(request);
+            return response.getRegisters();
+        }
+        return null;
+    }
+
     /**
      * Updates OpenHAB item with data read from slave device
      * works only for type "coil" and "holding"
      *
      * @param binding ModbusBinding
-     * @param item item to update
+     * @param config configuration of the item to update
      */
-    private void updateItem(ModbusBinding binding, String item) {
+    private void updateItem(ModbusBinding binding, ModbusBindingConfig config) {
         if (readError == null) {
             if (ModbusBindingProvider.TYPE_COIL.equals(getType())
                     || ModbusBindingProvider.TYPE_DISCRETE.equals(getType())) {
-                binding.internalUpdateItem(name, (BitVector) storage, item);
+                binding.internalUpdateItem(this, (BitVector) storage, config);
             } else if (ModbusBindingProvider.TYPE_HOLDING.equals(getType())
                     || ModbusBindingProvider.TYPE_INPUT.equals(getType())) {
-                binding.internalUpdateItem(name, (InputRegister[]) storage, item);
+                binding.internalUpdateItem(this, (InputRegister[]) storage, config);
             }
         } else {
-            binding.internalUpdateReadErrorItem(name, readError, item);
+            binding.internalUpdateReadErrorItem(this, readError, config);
         }
     }
 
@@ -597,4 +632,12 @@ public abstract class ModbusSlave {
     public void setPostUndefinedOnReadError(boolean postUndefinedOnReadError) {
         this.postUndefinedOnReadError = postUndefinedOnReadError;
     }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
 }
@@ -66,6 +66,7 @@ public class ModbusSlaveConnectionFactoryImpl
     private volatile Map<ModbusSlaveEndpoint, EndpointPoolConfiguration> endpointPoolConfigs = new ConcurrentHashMap<ModbusSlaveEndpoint, EndpointPoolConfiguration>();
     private volatile Map<ModbusSlaveEndpoint, Long> lastPassivateMillis = new ConcurrentHashMap<ModbusSlaveEndpoint, Long>();
     private volatile Map<ModbusSlaveEndpoint, Long> lastConnectMillis = new ConcurrentHashMap<ModbusSlaveEndpoint, Long>();
+    private volatile boolean tcpNioTransport;
 
     private InetAddress getInetAddress(ModbusIPSlaveEndpoint key) {
         try {
@@ -99,6 +100,7 @@ public class ModbusSlaveConnectionFactoryImpl
                     connectTimeoutMillis = config.getConnectTimeoutMillis();
                 }
                 TCPMasterConnection connection = new TCPMasterConnection(address, key.getPort(), connectTimeoutMillis);
+                connection.setNioTransport(tcpNioTransport);
                 logger.trace("Created connection {} for endpoint {}", connection, key);
                 return connection;
             }
@@ -192,6 +194,15 @@ public class ModbusSlaveConnectionFactoryImpl
                 endpointPoolConfigs);
     }
 
+    /**
+     * Sets if TCP connections created from now on use the NIO transport
+     *
+     * @param tcpNioTransport true to use <tt>ModbusTCPNioTransport</tt> for TCP connections
+     */
+    public void setTcpNioTransport(boolean tcpNioTransport) {
+        this.tcpNioTransport = tcpNioTransport;
+    }
+
     private void tryConnect(ModbusSlaveEndpoint endpoint, PooledObject<ModbusSlaveConnection> obj,
             ModbusSlaveConnection connection, EndpointPoolConfiguration config) throws Exception {
         if (connection.isConnected()) {
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import java.util.List;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.openhab.binding.rfxcom.RFXComBindingProvider;
+import org.openhab.binding.rfxcom.RFXComValueSelector;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessageFactory;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessageInterface;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.types.State;
+
+/**
+ * Benchmark of the dispatching of received packets to the bound items, as done by {@link RFXComBinding}. Replays a
+ * stream of captured sensor packets of {@value #DEVICE_COUNT} devices, of which only {@value #BOUND_DEVICE_COUNT} are
+ * bound to items (like in a neighbourhood with many 433 MHz weather sensors), and reports the packets per second of
+ * the dispatching by the device id index compared to a scan of all items.
+ *
+ * @since 1.10.0
+ */
+public class RFXComBindingBenchmark {
+
+    /** captured packets of different sensor types, the sensor id is in bytes 4 and 5 */
+    private static final String[] CAPTURED_PACKETS = { "0A5201800F0201294C0349", "0850021DFB0100D770",
+            "0B550217B6000000004D3C69", "085101027700360189" };
+
+    private static final String[] VALUE_SELECTORS = { "Temperature", "Humidity", "SignalLevel", "BatteryLevel" };
+
+    private static final int DEVICE_COUNT = 200;
+    private static final int BOUND_DEVICE_COUNT = 10;
+    private static final int STREAM_LENGTH = 10000;
+    private static final long DURATION_NANOS = 2000000000L;
+
+    private static long updates = 0;
+
+    public static void main(String[] args) throws Exception {
+        RFXComGenericBindingProvider provider = new RFXComGenericBindingProvider();
+        for (int device = 0; device < BOUND_DEVICE_COUNT; device++) {
+            for (String valueSelector : VALUE_SELECTORS) {
+                provider.processBindingConfiguration("benchmark", new NumberItem(valueSelector + device),
+                        "<" + device + ":" + valueSelector);
+            }
+        }
+
+        byte[][] stream = new byte[STREAM_LENGTH][];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            byte[] packet = DatatypeConverter.parseHexBinary(CAPTURED_PACKETS[i % CAPTURED_PACKETS.length]);
+            int sensorId = (i * 7) % DEVICE_COUNT;
+            packet[4] = (byte) (sensorId >> 8);
+            packet[5] = (byte) sensorId;
+            stream[i] = packet;
+        }
+
+        // warm up
+        replay(provider, stream, false, DURATION_NANOS / 4);
+        replay(provider, stream, true, DURATION_NANOS / 4);
+
+        updates = 0;
+        double scanRate = replay(provider, stream, false, DURATION_NANOS);
+        long scanUpdates = updates;
+        updates = 0;
+        double indexRate = replay(provider, stream, true, DURATION_NANOS);
+        System.out.println(String.format("scan  %10.0f packets/s (%d updates)", scanRate, scanUpdates));
+        System.out.println(String.format("index %10.0f packets/s (%d updates)", indexRate, updates));
+    }
+
+    private static double replay(RFXComBindingProvider provider, byte[][] stream, boolean index, long durationNanos)
+            throws RFXComException {
+        long packets = 0;
+        long start = System.nanoTime();
+        do {
+            for (byte[] packet : stream) {
+                RFXComMessageInterface obj = RFXComMessageFactory.getMessageInterface(packet);
+                if (index) {
+                    dispatchByIndex(provider, obj);
+                } else {
+                    dispatchByScan(provider, obj);
+                }
+            }
+            packets += stream.length;
+        } while (System.nanoTime() - start < durationNanos);
+        return packets / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void dispatchByIndex(RFXComBindingProvider provider, RFXComMessageInterface obj)
+            throws RFXComException {
+        String deviceId = obj.generateDeviceId();
+        List<RFXComValueSelector> supportedValueSelectors = obj.getSupportedValueSelectors();
+        for (String itemName : provider.getInBindingItemNames(deviceId)) {
+            RFXComValueSelector valueSelector = provider.getValueSelector(itemName);
+            if (supportedValueSelectors.contains(valueSelector)) {
+                postUpdate(itemName, obj.convertToState(valueSelector));
+            }
+        }
+    }
+
+    /**
+     * The dispatching of {@link RFXComBinding} before the device id index was introduced.
+     */
+    private static void dispatchByScan(RFXComBindingProvider provider, RFXComMessageInterface obj)
+            throws RFXComException {
+        String deviceId = obj.generateDeviceId();
+        List<RFXComValueSelector> supportedValueSelectors = obj.getSupportedValueSelectors();
+        for (String itemName : provider.getItemNames()) {
+            if (provider.getId(itemName).equals(deviceId) && provider.isInBinding(itemName)) {
+                RFXComValueSelector valueSelector = provider.getValueSelector(itemName);
+                if (supportedValueSelectors.contains(valueSelector)) {
+                    postUpdate(itemName, obj.convertToState(valueSelector));
+                }
+            }
+        }
+    }
+
+    private static void postUpdate(String itemName, State state) {
+        if (state != null) {
+            updates++;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.model.item.binding.BindingConfigParseException;
+
+/**
+ * @since 1.10.0
+ */
+public class RFXComGenericBindingProviderTest {
+
+    private RFXComGenericBindingProvider provider;
+
+    @Before
+    public void setUp() {
+        provider = new RFXComGenericBindingProvider();
+    }
+
+    @Test
+    public void testGetInBindingItemNames() throws BindingConfigParseException {
+        provider.processBindingConfiguration("test", new NumberItem("temperature"), "<2264:Temperature");
+        provider.processBindingConfiguration("test", new NumberItem("humidity"), "<2264:Humidity");
+        provider.processBindingConfiguration("test", new NumberItem("other"), "<3842:Temperature");
+        provider.processBindingConfiguration("test", new SwitchItem("light"), ">2264:LIGHTING2.AC:Command");
+
+        // the order of the items is not defined
+        assertEquals(new HashSet<String>(Arrays.asList("temperature", "humidity")),
+                new HashSet<String>(provider.getInBindingItemNames("2264")));
+        assertEquals(Arrays.asList("other"), provider.getInBindingItemNames("3842"));
+        assertTrue(provider.getInBindingItemNames("1234").isEmpty());
+    }
+
+    @Test
+    public void testGetInBindingItemNamesAfterReconfiguration() throws BindingConfigParseException {
+        provider.processBindingConfiguration("test", new NumberItem("temperature"), "<2264:Temperature");
+        provider.processBindingConfiguration("other", new NumberItem("humidity"), "<2264:Humidity");
+
+        // the item is bound to another device now
+        provider.processBindingConfiguration("test", new NumberItem("temperature"), "<3842:Temperature");
+        assertEquals(Arrays.asList("humidity"), provider.getInBindingItemNames("2264"));
+        assertEquals(Arrays.asList("temperature"), provider.getInBindingItemNames("3842"));
+
+        provider.removeConfigurations("test");
+        assertEquals(Arrays.asList("humidity"), provider.getInBindingItemNames("2264"));
+        assertTrue(provider.getInBindingItemNames("3842").isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal.messages;
+
+import static org.junit.Assert.*;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.junit.Test;
+import org.openhab.binding.rfxcom.internal.RFXComException;
+
+/**
+ * @since 1.10.0
+ */
+public class RFXComMessageDecoderTest {
+
+    private final RFXComMessageDecoder decoder = new RFXComMessageDecoder();
+
+    @Test
+    public void testMessagesOfSameTypeAreReused() throws RFXComException {
+        RFXComTemperatureHumidityMessage first = (RFXComTemperatureHumidityMessage) decode("0A5201800F0201294C0349");
+        assertEquals(3842, first.sensorId);
+        assertEquals(29.7, first.temperature, 0.01);
+
+        RFXComTemperatureHumidityMessage second = (RFXComTemperatureHumidityMessage) decode("0A520211700200A72D0089");
+        assertSame(first, second);
+        assertEquals(28674, second.sensorId);
+        assertEquals(16.7, second.temperature, 0.01);
+        assertEquals("0A520211700200A72D0089", DatatypeConverter.printHexBinary(second.decodeMessage()));
+
+        assertNotSame(first, decode("08500110000180BC69"));
+    }
+
+    @Test
+    public void testReusedMessageHasNoFieldsOfPreviousPacket() throws RFXComException {
+        RFXComUVMessage uv3 = (RFXComUVMessage) decode("0957030100010A00E689");
+        assertEquals(23.0, uv3.temperature, 0.01);
+
+        // only the TFA sensor reports a temperature
+        RFXComUVMessage uv1 = (RFXComUVMessage) decode("0957010200010A000089");
+        assertSame(uv3, uv1);
+        assertEquals(0, uv1.temperature, 0.01);
+    }
+
+    @Test
+    public void testReusedInterfaceMessageHasNoFieldsOfLongerPacket() throws RFXComException {
+        RFXComInterfaceMessage extended = (RFXComInterfaceMessage) decode("1401000102530A00002F0301031C03000000000000");
+        assertEquals(1010, extended.firmwareVersion);
+        assertTrue(extended.enableHomeConfortPackets);
+        assertTrue(extended.enableKeeLoqPackets);
+        assertEquals(28, extended.outputPower);
+
+        // the short status of an older firmware has no HomeConfort, KeeLoq and output power fields
+        RFXComInterfaceMessage status = (RFXComInterfaceMessage) decode("0D01000202535000002F01020000");
+        assertSame(extended, status);
+        assertEquals(80, status.firmwareVersion);
+        assertFalse(status.enableHomeConfortPackets);
+        assertFalse(status.enableKeeLoqPackets);
+        assertEquals(1, status.hardwareVersion1);
+        assertEquals(2, status.hardwareVersion2);
+        assertEquals(0, status.outputPower);
+    }
+
+    @Test
+    public void testTransmitterMessagesAreNotReused() throws RFXComException {
+        RFXComMessageInterface first = decode("0402010100");
+        RFXComMessageInterface second = decode("0402010200");
+        assertTrue(first instanceof RFXComTransmitterMessage);
+        assertNotSame(first, second);
+        assertEquals(1, ((RFXComTransmitterMessage) first).seqNbr);
+    }
+
+    @Test(expected = RFXComException.class)
+    public void testNotImplementedPacketType() throws RFXComException {
+        decode("085E01020001000089");
+    }
+
+    private RFXComMessageInterface decode(String hexMessage) throws RFXComException {
+        return decoder.decode(DatatypeConverter.parseHexBinary(hexMessage));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal.messages;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openhab.binding.rfxcom.internal.RFXComException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
+
+/**
+ * Micro benchmark of the decoding of received packets, using a packet of each packet type supported by
+ * {@link RFXComMessageFactory}. Reports the packets per second decoded by a reflective lookup of the message class
+ * (as done before 1.10.0), by {@link RFXComMessageFactory#getMessageInterface(byte[])} and by a reusing
+ * {@link RFXComMessageDecoder}.
+ *
+ * @since 1.10.0
+ */
+public class RFXComMessageFactoryBenchmark {
+
+    private static final long DURATION_NANOS = 200000000L;
+
+    private static final int REFLECTION = 0;
+    private static final int FACTORY = 1;
+    private static final int DECODER = 2;
+
+    public static void main(String[] args) throws Exception {
+        List<PacketType> packetTypes = new ArrayList<PacketType>();
+        List<byte[]> packets = new ArrayList<byte[]>();
+        List<String> classNames = new ArrayList<String>();
+        for (PacketType packetType : PacketType.values()) {
+            try {
+                // the default message of each type
+                RFXComMessageInterface message = RFXComMessageFactory.getMessageInterface(packetType);
+                byte[] packet = message.decodeMessage();
+                if (packet == null) {
+                    // can only be received
+                    continue;
+                }
+                RFXComMessageFactory.getMessageInterface(packet);
+                packetTypes.add(packetType);
+                packets.add(packet);
+                classNames.add(message.getClass().getSimpleName());
+            } catch (RFXComException e) {
+                // not supported
+            }
+        }
+
+        RFXComMessageDecoder decoder = new RFXComMessageDecoder();
+
+        // warm up
+        for (int i = 0; i < packets.size(); i++) {
+            for (int method = REFLECTION; method <= DECODER; method++) {
+                decode(decoder, packets.get(i), classNames.get(i), method, DURATION_NANOS / 5);
+            }
+        }
+
+        System.out.println(String.format("%-32s %12s %12s %12s", "packets/s", "reflection", "factory", "decoder"));
+        double[] totals = new double[3];
+        for (int i = 0; i < packets.size(); i++) {
+            double[] rates = new double[3];
+            for (int method = REFLECTION; method <= DECODER; method++) {
+                rates[method] = decode(decoder, packets.get(i), classNames.get(i), method, DURATION_NANOS);
+                totals[method] += 1 / rates[method];
+            }
+            System.out.println(String.format("%-32s %12.0f %12.0f %12.0f", packetTypes.get(i), rates[REFLECTION],
+                    rates[FACTORY], rates[DECODER]));
+        }
+        System.out.println(String.format("%-32s %12.0f %12.0f %12.0f", "all (" + packets.size() + " types)",
+                packets.size() / totals[REFLECTION], packets.size() / totals[FACTORY],
+                packets.size() / totals[DECODER]));
+    }
+
+    private static double decode(RFXComMessageDecoder decoder, byte[] packet, String className, int method,
+            long durationNanos) throws Exception {
+        long count = 0;
+        long hash = 0;
+        long start = System.nanoTime();
+        do {
+            RFXComMessageInterface message;
+            if (method == REFLECTION) {
+                message = decodeByReflection(packet, className);
+            } else if (method == FACTORY) {
+                message = RFXComMessageFactory.getMessageInterface(packet);
+            } else {
+                message = decoder.decode(packet);
+            }
+            hash += message.hashCode();
+            count++;
+        } while (System.nanoTime() - start < durationNanos);
+        if (hash == 42) {
+            System.out.println();
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static RFXComMessageInterface decodeByReflection(byte[] packet, String className) throws Exception {
+        Class<?> cl = Class.forName("org.openhab.binding.rfxcom.internal.messages." + className);
+        Constructor<?> c = cl.getConstructor(byte[].class);
+        return (RFXComMessageInterface) c.newInstance(packet);
+    }
+}
@@ -8,6 +8,8 @@
  */
 package org.openhab.binding.rfxcom;
 
+import java.util.List;
+
 import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
 import org.openhab.core.autoupdate.AutoUpdateBindingProvider;
 
@@ -77,4 +79,16 @@ public interface RFXComBindingProvider extends AutoUpdateBindingProvider {
      */
     public Object getSubType(String itemName);
 
+    /**
+     * Returns the names of the in binding items of the given device.
+     * 
+     * @param deviceId
+     *            the id of the device which sent a message.
+     * 
+     * @return the names of the in binding items with the given id, an empty
+     *         list if no item is bound to the device.
+     * @since 1.10.0
+     */
+    public List<String> getInBindingItemNames(String deviceId);
+
 }
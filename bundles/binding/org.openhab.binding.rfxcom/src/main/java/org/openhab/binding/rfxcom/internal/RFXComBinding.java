@@ -23,6 +23,7 @@ import org.openhab.binding.rfxcom.RFXComValueSelector;
 import org.openhab.binding.rfxcom.internal.connector.RFXComEventListener;
 import org.openhab.binding.rfxcom.internal.connector.RFXComSerialConnector;
 import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessageDecoder;
 import org.openhab.binding.rfxcom.internal.messages.RFXComMessageFactory;
 import org.openhab.binding.rfxcom.internal.messages.RFXComMessageInterface;
 import org.openhab.binding.rfxcom.internal.messages.RFXComTransmitterMessage;
@@ -229,11 +230,14 @@ public class RFXComBinding extends AbstractBinding<RFXComBindingProvider> {
 
     private class MessageLister implements RFXComEventListener {
 
+        /** reuses the messages, they aren't used anymore once a packet has been processed */
+        private final RFXComMessageDecoder decoder = new RFXComMessageDecoder();
+
         @Override
-        public void packetReceived(EventObject event, byte[] packet) {
+        public synchronized void packetReceived(EventObject event, byte[] packet) {
 
             try {
-                RFXComMessageInterface obj = RFXComMessageFactory.getMessageInterface(packet);
+                RFXComMessageInterface obj = decoder.decode(packet);
 
                 if (obj instanceof RFXComTransmitterMessage) {
                     RFXComTransmitterMessage resp = (RFXComTransmitterMessage) obj;
@@ -246,25 +250,19 @@ public class RFXComBinding extends AbstractBinding<RFXComBindingProvider> {
                     if (supportedValueSelectors != null) {
 
                         for (RFXComBindingProvider provider : providers) {
-                            for (String itemName : provider.getItemNames()) {
-
-                                String id1 = provider.getId(itemName);
-                                boolean inBinding = provider.isInBinding(itemName);
+                            // messages of devices which aren't bound (e.g. the neighbours' sensors) end here
+                            for (String itemName : provider.getInBindingItemNames(deviceId)) {
 
-                                if (id1.equals(deviceId) && inBinding) {
+                                RFXComValueSelector valueSelector = provider.getValueSelector(itemName);
 
-                                    RFXComValueSelector valueSelector = provider.getValueSelector(itemName);
-
-                                    if (supportedValueSelectors.contains(valueSelector)) {
-                                        try {
-                                            State value = obj.convertToState(valueSelector);
-                                            eventPublisher.postUpdate(itemName, value);
-                                        } catch (RFXComException e) {
-                                            logger.warn("Data conversion error", e);
-                                        }
+                                if (supportedValueSelectors.contains(valueSelector)) {
+                                    try {
+                                        State value = obj.convertToState(valueSelector);
+                                        eventPublisher.postUpdate(itemName, value);
+                                    } catch (RFXComException e) {
+                                        logger.warn("Data conversion error", e);
                                     }
                                 }
-
                             }
                         }
                     }
@@ -141,6 +141,11 @@ public class RFXComConnection implements ManagedService {
         @Override
         public void packetReceived(EventObject event, byte[] data) {
 
+            // the packet is only decoded for logging
+            if (!logger.isDebugEnabled()) {
+                return;
+            }
+
             try {
                 RFXComMessageInterface obj = RFXComMessageFactory.getMessageInterface(data);
                 logger.debug("Data received:\n{}", obj.toString());
@@ -9,6 +9,11 @@
 package org.openhab.binding.rfxcom.internal;
 
 import java.io.InvalidClassException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.openhab.binding.rfxcom.RFXComBindingProvider;
 import org.openhab.binding.rfxcom.RFXComValueSelector;
@@ -52,6 +57,14 @@ import org.openhab.model.item.binding.BindingConfigParseException;
  */
 public class RFXComGenericBindingProvider extends AbstractGenericBindingProvider implements RFXComBindingProvider {
 
+    /**
+     * The names of the items with an in binding by the id of their device (like "2561.1"), the key being what the
+     * received messages return from <code>generateDeviceId()</code>. Built from the binding configurations on the
+     * first lookup and dropped whenever they change, the lists are not modified once built.
+     */
+    private volatile Map<String, List<String>> inBindingItemNamesByDeviceId;
+    private final Object indexLock = new Object();
+
     /**
      * {@inheritDoc}
      */
@@ -141,6 +154,54 @@ public class RFXComGenericBindingProvider extends AbstractGenericBindingProvider
         }
 
         addBindingConfig(item, config);
+        invalidateIndex();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeConfigurations(String context) {
+        super.removeConfigurations(context);
+        invalidateIndex();
+    }
+
+    /**
+     * Builds the index of the in binding items by device id, if it isn't already built.
+     */
+    private Map<String, List<String>> buildIndex() {
+        synchronized (indexLock) {
+            if (inBindingItemNamesByDeviceId != null) {
+                return inBindingItemNamesByDeviceId;
+            }
+            Map<String, List<String>> index = new HashMap<String, List<String>>();
+            for (Map.Entry<String, BindingConfig> entry : bindingConfigs.entrySet()) {
+                RFXComBindingConfig config = (RFXComBindingConfig) entry.getValue();
+                if (!config.inBinding) {
+                    continue;
+                }
+                List<String> itemNames = index.get(config.id);
+                if (itemNames == null) {
+                    itemNames = new ArrayList<String>(1);
+                    index.put(config.id, itemNames);
+                }
+                itemNames.add(entry.getKey());
+            }
+            for (Map.Entry<String, List<String>> entry : index.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            inBindingItemNamesByDeviceId = index;
+            return index;
+        }
+    }
+
+    /**
+     * Drops the index of the in binding items, it is rebuilt on the next lookup.
+     */
+    private void invalidateIndex() {
+        synchronized (indexLock) {
+            inBindingItemNamesByDeviceId = null;
+        }
     }
 
     static class RFXComBindingConfig implements BindingConfig {
@@ -185,6 +246,19 @@ public class RFXComGenericBindingProvider extends AbstractGenericBindingProvider
         return config != null ? config.subType : null;
     }
 
+    @Override
+    public List<String> getInBindingItemNames(String deviceId) {
+        Map<String, List<String>> index = inBindingItemNamesByDeviceId;
+        if (index == null) {
+            index = buildIndex();
+        }
+        List<String> itemNames = index.get(deviceId);
+        if (itemNames == null) {
+            return Collections.emptyList();
+        }
+        return itemNames;
+    }
+
     @Override
     public Boolean autoUpdate(final String itemName) {
         if (!providesBindingFor(itemName)) {
@@ -121,6 +121,8 @@ public abstract class RFXComBaseMessage implements RFXComMessageInterface {
 
         if (data.length > 5) {
             id2 = data[5];
+        } else {
+            id2 = 0;
         }
     }
 
@@ -331,8 +331,13 @@ public class RFXComInterfaceMessage extends RFXComBaseMessage {
 
             outputPower = data[13];
         } else {
+            enableHomeConfortPackets = false;
+            enableKeeLoqPackets = false;
+
             hardwareVersion1 = data[10];
             hardwareVersion2 = data[11];
+
+            outputPower = 0;
         }
 
     }
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal.messages;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.openhab.binding.rfxcom.internal.RFXComException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
+
+/**
+ * Decodes received packets into message instances which are reused for all packets of the same packet type, instead
+ * of creating a new message per packet like {@link RFXComMessageFactory#getMessageInterface(byte[])}.
+ * <p>
+ * A decoded message is only valid until the next packet of its type is decoded, so a decoder must only be used by a
+ * single thread (e.g. the thread reading from the RFXCOM controller) which is done with a message before decoding the
+ * next packet. Transmitter messages are never reused, as they are handed over to the thread waiting for the
+ * response to a command.
+ *
+ * @since 1.10.0
+ */
+public class RFXComMessageDecoder {
+
+    private final Map<PacketType, RFXComMessageInterface> messages = new EnumMap<PacketType, RFXComMessageInterface>(
+            PacketType.class);
+
+    /**
+     * Decodes a packet.
+     *
+     * @param packet the received packet
+     * @return the message, valid until the next packet of the same type is decoded
+     * @throws RFXComException if the packet type isn't supported or the packet is invalid
+     */
+    public RFXComMessageInterface decode(byte[] packet) throws RFXComException {
+        PacketType packetType = RFXComMessageFactory.getPacketType(packet[1]);
+        RFXComMessageInterface message = messages.get(packetType);
+
+        if (message == null) {
+            message = RFXComMessageFactory.getMessageInterface(packet);
+            if (packetType != PacketType.TRANSMITTER_MESSAGE) {
+                messages.put(packetType, message);
+            }
+            return message;
+        }
+
+        try {
+            message.encodeMessage(packet);
+        } catch (RuntimeException e) {
+            // the message may be half decoded, don't reuse it
+            messages.remove(packetType);
+            throw new RFXComException(e);
+        }
+        return message;
+    }
+}
@@ -8,68 +8,414 @@
  */
 package org.openhab.binding.rfxcom.internal.messages;
 
-import java.lang.reflect.Constructor;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 import org.openhab.binding.rfxcom.internal.RFXComException;
 import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
 
+/**
+ * Creates the messages of the packet types supported by the binding. The message classes are looked up in a table of
+ * creators built once, so no reflection is involved in decoding a packet.
+ */
 public class RFXComMessageFactory {
 
-    final static String classUrl = "org.openhab.binding.rfxcom.internal.messages.";
-
-    @SuppressWarnings("serial")
-    private static final Map<PacketType, String> messageClasses = Collections
-            .unmodifiableMap(new HashMap<PacketType, String>() {
-                {
-                    put(PacketType.INTERFACE_CONTROL, "RFXComControlMessage");
-                    put(PacketType.INTERFACE_MESSAGE, "RFXComInterfaceMessage");
-                    put(PacketType.TRANSMITTER_MESSAGE, "RFXComTransmitterMessage");
-                    put(PacketType.UNDECODED_RF_MESSAGE, "RFXComUndecodedRFMessage");
-                    put(PacketType.LIGHTING1, "RFXComLighting1Message");
-                    put(PacketType.LIGHTING2, "RFXComLighting2Message");
-                    put(PacketType.LIGHTING3, "RFXComLighting3Message");
-                    put(PacketType.LIGHTING4, "RFXComLighting4Message");
-                    put(PacketType.LIGHTING5, "RFXComLighting5Message");
-                    put(PacketType.LIGHTING6, "RFXComLighting6Message");
-                    put(PacketType.CHIME, "RFXComChimeMessage");
-                    put(PacketType.FAN, "RFXComFanMessage");
-                    put(PacketType.CURTAIN1, "RFXComCurtain1Message");
-                    put(PacketType.BLINDS1, "RFXComBlinds1Message");
-                    put(PacketType.RFY, "RFXComRfyMessage");
-                    put(PacketType.SECURITY1, "RFXComSecurity1Message");
-                    put(PacketType.SECURITY2, "RFXComSecurity2Message");
-                    put(PacketType.CAMERA1, "RFXComCamera1Message");
-                    put(PacketType.REMOTE_CONTROL, "RFXComRemoteControlMessage");
-                    put(PacketType.THERMOSTAT1, "RFXComThermostat1Message");
-                    put(PacketType.THERMOSTAT2, "RFXComThermostat2Message");
-                    put(PacketType.THERMOSTAT3, "RFXComThermostat3Message");
-                    put(PacketType.BBQ1, "RFXComBBQMessage");
-                    put(PacketType.TEMPERATURE_RAIN, "RFXComTemperatureRainMessage");
-                    put(PacketType.TEMPERATURE, "RFXComTemperatureMessage");
-                    put(PacketType.HUMIDITY, "RFXComHumidityMessage");
-                    put(PacketType.TEMPERATURE_HUMIDITY, "RFXComTemperatureHumidityMessage");
-                    put(PacketType.BAROMETRIC, "RFXComBarometricMessage");
-                    put(PacketType.TEMPERATURE_HUMIDITY_BAROMETRIC, "RFXComTemperatureHumidityBarometricMessage");
-                    put(PacketType.RAIN, "RFXComRainMessage");
-                    put(PacketType.WIND, "RFXComWindMessage");
-                    put(PacketType.UV, "RFXComUVMessage");
-                    put(PacketType.DATE_TIME, "RFXComDateTimeMessage");
-                    put(PacketType.CURRENT, "RFXComCurrentMessage");
-                    put(PacketType.ENERGY, "RFXComEnergyMessage");
-                    put(PacketType.CURRENT_ENERGY, "RFXComCurrentEnergyMessage");
-                    put(PacketType.POWER, "RFXComPowerMessage");
-                    put(PacketType.WEIGHT, "RFXComWeightMessage");
-                    put(PacketType.GAS, "RFXComGasMessage");
-                    put(PacketType.WATER, "RFXComWaterMessage");
-                    put(PacketType.RFXSENSOR, "RFXComRFXSensorMessage");
-                    put(PacketType.RFXMETER, "RFXComRFXMeterMessage");
-                    put(PacketType.FS20, "RFXComFS20Message");
-                    put(PacketType.IO_LINES, "RFXComIOLinesMessage");
-                }
-            });
+    /**
+     * Creates the message class of a packet type.
+     */
+    private interface MessageCreator {
+
+        RFXComMessageInterface create();
+
+        RFXComMessageInterface create(byte[] packet);
+    }
+
+    private static final Map<PacketType, MessageCreator> messageCreators = new EnumMap<PacketType, MessageCreator>(
+            PacketType.class);
+
+    /** the packet types by their byte value, see {@link #getPacketType(byte)} */
+    private static final PacketType[] packetTypes = new PacketType[256];
+
+    static {
+        messageCreators.put(PacketType.INTERFACE_CONTROL, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComControlMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComControlMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.INTERFACE_MESSAGE, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComInterfaceMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComInterfaceMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.TRANSMITTER_MESSAGE, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComTransmitterMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComTransmitterMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.UNDECODED_RF_MESSAGE, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComUndecodedRFMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComUndecodedRFMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING1, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting1Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting1Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING2, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting2Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting2Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING3, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting3Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting3Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING4, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting4Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting4Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING5, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting5Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting5Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.LIGHTING6, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComLighting6Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComLighting6Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.CHIME, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComChimeMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComChimeMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.FAN, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComFanMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComFanMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.CURTAIN1, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComCurtain1Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComCurtain1Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.BLINDS1, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComBlinds1Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComBlinds1Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.RFY, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComRfyMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComRfyMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.SECURITY1, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComSecurity1Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComSecurity1Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.SECURITY2, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComSecurity2Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComSecurity2Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.THERMOSTAT1, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComThermostat1Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComThermostat1Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.THERMOSTAT2, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComThermostat2Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComThermostat2Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.THERMOSTAT3, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComThermostat3Message();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComThermostat3Message(packet);
+            }
+        });
+        messageCreators.put(PacketType.TEMPERATURE_RAIN, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComTemperatureRainMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComTemperatureRainMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.TEMPERATURE, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComTemperatureMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComTemperatureMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.HUMIDITY, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComHumidityMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComHumidityMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.TEMPERATURE_HUMIDITY, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComTemperatureHumidityMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComTemperatureHumidityMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.TEMPERATURE_HUMIDITY_BAROMETRIC, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComTemperatureHumidityBarometricMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComTemperatureHumidityBarometricMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.RAIN, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComRainMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComRainMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.WIND, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComWindMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComWindMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.UV, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComUVMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComUVMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.DATE_TIME, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComDateTimeMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComDateTimeMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.CURRENT, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComCurrentMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComCurrentMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.ENERGY, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComEnergyMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComEnergyMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.CURRENT_ENERGY, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComCurrentEnergyMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComCurrentEnergyMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.POWER, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComPowerMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComPowerMessage(packet);
+            }
+        });
+        messageCreators.put(PacketType.WEIGHT, new MessageCreator() {
+            @Override
+            public RFXComMessageInterface create() {
+                return new RFXComWeightMessage();
+            }
+
+            @Override
+            public RFXComMessageInterface create(byte[] packet) {
+                return new RFXComWeightMessage(packet);
+            }
+        });
+
+        for (PacketType packetType : PacketType.values()) {
+            packetTypes[packetType.toByte() & 0xFF] = packetType;
+        }
+    }
 
     /**
      * Command to reset RFXCOM controller.
@@ -94,33 +440,26 @@ public class RFXComMessageFactory {
 
     public static RFXComMessageInterface getMessageInterface(PacketType packetType) throws RFXComException {
 
-        try {
-            String className = messageClasses.get(packetType);
-            Class<?> cl = Class.forName(classUrl + className);
-            return (RFXComMessageInterface) cl.newInstance();
-
-        } catch (ClassNotFoundException e) {
-            throw new RFXComException("Message " + packetType + " not implemented", e);
-
-        } catch (Exception e) {
-            throw new RFXComException(e);
+        MessageCreator creator = messageCreators.get(packetType);
+        if (creator == null) {
+            throw new RFXComException("Message " + packetType + " not implemented");
         }
+        return creator.create();
     }
 
     public static RFXComMessageInterface getMessageInterface(byte[] packet) throws RFXComException {
 
         PacketType packetType = getPacketType(packet[1]);
 
-        try {
-            String className = messageClasses.get(packetType);
-            Class<?> cl = Class.forName(classUrl + className);
-            Constructor<?> c = cl.getConstructor(byte[].class);
-            return (RFXComMessageInterface) c.newInstance(packet);
-
-        } catch (ClassNotFoundException e) {
-            throw new RFXComException("Message " + packetType + "(" + packet[1] + ") not implemented", e);
+        MessageCreator creator = messageCreators.get(packetType);
+        if (creator == null) {
+            throw new RFXComException("Message " + packetType + "(" + packet[1] + ") not implemented");
+        }
 
-        } catch (Exception e) {
+        try {
+            return creator.create(packet);
+        } catch (RuntimeException e) {
+            // e.g. a packet which is too short for its type
             throw new RFXComException(e);
         }
     }
@@ -136,13 +475,8 @@ public class RFXComMessageFactory {
         throw new IllegalArgumentException("Unknown packet type " + packetType);
     }
 
-    private static PacketType getPacketType(byte packetType) {
-        for (PacketType p : PacketType.values()) {
-            if (p.toByte() == packetType) {
-                return p;
-            }
-        }
-
-        return PacketType.UNKNOWN;
+    static PacketType getPacketType(byte packetType) {
+        PacketType p = packetTypes[packetType & 0xFF];
+        return p != null ? p : PacketType.UNKNOWN;
     }
 }
@@ -123,6 +123,8 @@ public class RFXComUVMessage extends RFXComBaseMessage {
             if ((data[7] & 0x80) != 0) {
                 temperature = -temperature;
             }
+        } else {
+            temperature = 0;
         }
 
         signalLevel = (byte) ((data[9] & 0xF0) >> 4);
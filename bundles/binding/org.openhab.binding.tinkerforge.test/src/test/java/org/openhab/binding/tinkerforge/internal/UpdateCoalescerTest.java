@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tinkerforge.internal;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.tinkerforge.internal.UpdateCoalescer.Policy;
+import org.openhab.binding.tinkerforge.internal.UpdateCoalescer.UpdateListener;
+import org.openhab.binding.tinkerforge.internal.types.DecimalValue;
+import org.openhab.binding.tinkerforge.internal.types.OnOffValue;
+import org.openhab.binding.tinkerforge.internal.types.TinkerforgeValue;
+import org.openhab.binding.tinkerforge.internal.types.UnDefValue;
+
+public class UpdateCoalescerTest {
+
+    private ManualScheduler scheduler;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        listener = new RecordingListener();
+    }
+
+    @Test
+    public void testWindowOpenedByFirstValue() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.LATEST, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(1));
+        coalescer.offer(new DecimalValue(2));
+
+        assertEquals(1, scheduler.tasks.size());
+        assertEquals(Long.valueOf(500), scheduler.delays.get(0));
+        assertTrue(listener.values.isEmpty());
+
+        scheduler.runNext();
+        assertEquals(1, listener.values.size());
+        assertDecimal(2, listener.values.get(0));
+        assertEquals(2, coalescer.getReceived());
+        assertEquals(1, coalescer.getPosted());
+        assertEquals(1, coalescer.getDropped());
+        assertEquals(0, coalescer.getMerged());
+    }
+
+    @Test
+    public void testNextValueOpensNewWindow() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.LATEST, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(1));
+        scheduler.runNext();
+        coalescer.offer(new DecimalValue(2));
+
+        assertEquals(1, scheduler.tasks.size());
+        scheduler.runNext();
+        assertEquals(2, listener.values.size());
+        assertDecimal(2, listener.values.get(1));
+    }
+
+    @Test
+    public void testEmptyWindowPostsNothing() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.LATEST, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(1));
+        coalescer.offer(UnDefValue.UNDEF);
+        // the end of the window discarded by UNDEF
+        scheduler.runNext();
+
+        assertEquals(1, listener.values.size());
+        assertSame(UnDefValue.UNDEF, listener.values.get(0));
+        assertEquals(1, coalescer.getDropped());
+    }
+
+    @Test
+    public void testAverage() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.AVERAGE, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(10));
+        coalescer.offer(new DecimalValue(20));
+        coalescer.offer(new DecimalValue(30));
+        coalescer.offer(new DecimalValue(41));
+        scheduler.runNext();
+
+        assertDecimal(25.25, listener.values.get(0));
+        assertEquals(3, coalescer.getMerged());
+        assertEquals(0, coalescer.getDropped());
+    }
+
+    @Test
+    public void testMinAndMax() {
+        UpdateCoalescer min = new UpdateCoalescer(Policy.MIN, 500, scheduler, listener);
+        UpdateCoalescer max = new UpdateCoalescer(Policy.MAX, 500, scheduler, listener);
+
+        for (int value : new int[] { 5, -3, 12, 7 }) {
+            min.offer(new DecimalValue(value));
+            max.offer(new DecimalValue(value));
+        }
+        scheduler.runNext();
+        scheduler.runNext();
+
+        assertDecimal(-3, listener.values.get(0));
+        assertDecimal(12, listener.values.get(1));
+    }
+
+    @Test
+    public void testSingleValueIsPostedUnchanged() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.AVERAGE, 500, scheduler, listener);
+        DecimalValue value = new DecimalValue(7);
+
+        coalescer.offer(value);
+        scheduler.runNext();
+
+        assertSame(value, listener.values.get(0));
+        assertEquals(0, coalescer.getMerged());
+    }
+
+    @Test
+    public void testLatestForNonDecimalValues() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.AVERAGE, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(1));
+        coalescer.offer(OnOffValue.ON);
+        coalescer.offer(new DecimalValue(3));
+        scheduler.runNext();
+
+        assertDecimal(3, listener.values.get(0));
+        assertEquals(2, coalescer.getDropped());
+        assertEquals(0, coalescer.getMerged());
+    }
+
+    @Test
+    public void testUndefIsPostedImmediately() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.AVERAGE, 500, scheduler, listener);
+
+        coalescer.offer(new DecimalValue(1));
+        coalescer.offer(new DecimalValue(2));
+        coalescer.offer(UnDefValue.UNDEF);
+
+        assertEquals(1, listener.values.size());
+        assertSame(UnDefValue.UNDEF, listener.values.get(0));
+        assertEquals(2, coalescer.getDropped());
+
+        // a value after UNDEF waits for the window already scheduled
+        coalescer.offer(new DecimalValue(4));
+        assertEquals(1, scheduler.tasks.size());
+        scheduler.runNext();
+        assertDecimal(4, listener.values.get(1));
+    }
+
+    @Test
+    public void testPostedImmediatelyWhenSchedulerIsShutDown() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Policy.LATEST, 500, scheduler, listener);
+        scheduler.shutdown();
+
+        coalescer.offer(new DecimalValue(1));
+        coalescer.offer(new DecimalValue(2));
+
+        assertEquals(2, listener.values.size());
+        assertDecimal(1, listener.values.get(0));
+        assertDecimal(2, listener.values.get(1));
+        assertEquals(0, coalescer.getDropped());
+    }
+
+    private static void assertDecimal(double expected, TinkerforgeValue value) {
+        assertTrue(value instanceof DecimalValue);
+        assertEquals(0, new BigDecimal(expected).compareTo(((DecimalValue) value).bigDecimalValue()));
+    }
+
+    private static class RecordingListener implements UpdateListener {
+
+        private final List<TinkerforgeValue> values = new ArrayList<TinkerforgeValue>();
+
+        @Override
+        public void postUpdate(TinkerforgeValue value) {
+            values.add(value);
+        }
+    }
+
+    /**
+     * Keeps the scheduled tasks until a test runs them, so that the end of a window is controlled by the test.
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+        private final List<Long> delays = new ArrayList<Long>();
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+            delays.add(unit.toMillis(delay));
+            return null;
+        }
+
+        void runNext() {
+            assertFalse(tasks.isEmpty());
+            tasks.removeFirst().run();
+        }
+    }
+}
@@ -9,10 +9,15 @@
 package org.openhab.binding.tinkerforge.internal;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.emf.common.notify.Notification;
@@ -22,7 +27,10 @@ import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.openhab.binding.tinkerforge.TinkerforgeBindingProvider;
 import org.openhab.binding.tinkerforge.ecosystem.TinkerforgeContextImpl;
+import org.openhab.binding.tinkerforge.internal.UpdateCoalescer.Policy;
+import org.openhab.binding.tinkerforge.internal.UpdateCoalescer.UpdateListener;
 import org.openhab.binding.tinkerforge.internal.config.ConfigurationHandler;
+import org.openhab.binding.tinkerforge.internal.config.DeviceOptions;
 import org.openhab.binding.tinkerforge.internal.model.ColorActor;
 import org.openhab.binding.tinkerforge.internal.model.DigitalActor;
 import org.openhab.binding.tinkerforge.internal.model.DimmableActor;
@@ -53,6 +61,7 @@ import org.openhab.binding.tinkerforge.internal.model.SetPointActor;
 import org.openhab.binding.tinkerforge.internal.model.SimpleColorActor;
 import org.openhab.binding.tinkerforge.internal.model.SwitchSensor;
 import org.openhab.binding.tinkerforge.internal.model.TFConfig;
+import org.openhab.binding.tinkerforge.internal.tools.Tools;
 import org.openhab.binding.tinkerforge.internal.types.DecimalValue;
 import org.openhab.binding.tinkerforge.internal.types.DirectionValue;
 import org.openhab.binding.tinkerforge.internal.types.HSBValue;
@@ -145,6 +154,10 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
 
     private static final int BRICKD_DEFAULT_PORT = 4223;
 
+    private static final String OPTION_COALESCE = "coalesce";
+    private static final String OPTION_COALESCE_PERIOD = "coalesceperiod";
+    private static final long DEFAULT_COALESCE_PERIOD = 1000;
+
     /**
      * the refresh interval which is used to poll values from the Tinkerforge server (optional,
      * defaults to 60000ms)
@@ -158,6 +171,22 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
     private boolean isConnected;
     private TinkerforgeContextImpl context = (TinkerforgeContextImpl) TinkerforgeContextImpl.getInstance();
 
+    /**
+     * The names of the configured items and their providers by the uid and subid of the bound
+     * device, used to find the items to update for the notifications of the {@link Ecosystem}.
+     * Built on demand and discarded whenever the binding configurations or the {@link OHConfig}
+     * change.
+     */
+    private volatile Map<String, Map<String, TinkerforgeBindingProvider>> itemIndex;
+    private final Object itemIndexLock = new Object();
+
+    /**
+     * The {@link UpdateCoalescer UpdateCoalescers} of the items with a coalesce option by item name,
+     * built together with the {@link #itemIndex}.
+     */
+    private volatile Map<String, UpdateCoalescer> coalescers = Collections.emptyMap();
+    private ScheduledExecutorService coalescerScheduler;
+
     public TinkerforgeBinding() {
         modelFactory = ModelFactory.eINSTANCE;
     }
@@ -169,6 +198,15 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
     @Override
     public void deactivate() {
         disconnectModel();
+        synchronized (itemIndexLock) {
+            // the coalescers use the scheduler, they must not be reused after an activation
+            itemIndex = null;
+            coalescers = Collections.emptyMap();
+            if (coalescerScheduler != null) {
+                coalescerScheduler.shutdownNow();
+                coalescerScheduler = null;
+            }
+        }
     }
 
     /**
@@ -505,60 +543,152 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
      *         no item was found.
      */
     private String searchConfiguredItemName(String uid, String subId) {
-        for (TinkerforgeBindingProvider provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                String deviceUid = provider.getUid(itemName);
-                String subDeviceId = provider.getSubId(itemName);
-                String deviceName = provider.getName(itemName);
-                if (deviceName != null) {
-                    logger.trace("found item for command: name {}", deviceName);
-                    OHTFDevice<?, ?> ohtfDevice = ohConfig.getConfigByOHId(deviceName);
-                    deviceUid = ohtfDevice.getUid();
-                    deviceName = ohtfDevice.getSubid();
-                }
-                if (uid.equals(deviceUid)) {
-                    if (subId == null && subDeviceId == null) {
-                        return itemName;
-                    } else if (subId != null && subId.equals(subDeviceId)) {
-                        return itemName;
-                    }
-                }
-            }
-        }
-        return null;
+        Map<String, TinkerforgeBindingProvider> providerMap = getBindingProviders(uid, subId);
+        return providerMap.isEmpty() ? null : providerMap.keySet().iterator().next();
     }
 
     /**
-     * Searches the provider which is bound to the device with the given uid and subid.
+     * Searches the providers which are bound to the device with the given uid and subid.
      *
      * @param uid The device uid as {@code String}.
      * @param subId The device subid as {@code String} or {@code null} if it is not a sub device.
-     * @return The {@code TinkerforgeBindingProvider} which is bound to the device as {@code Item} or
-     *         {@code null} if no item was found.
+     * @return The names of the items which are bound to the device mapped to their
+     *         {@code TinkerforgeBindingProvider}, the map is empty if no item was found.
      */
     private Map<String, TinkerforgeBindingProvider> getBindingProviders(String uid, String subId) {
-        Map<String, TinkerforgeBindingProvider> providerMap = new HashMap<String, TinkerforgeBindingProvider>();
-        for (TinkerforgeBindingProvider provider : providers) {
-            for (String itemName : provider.getItemNames()) {
-                String deviceUid = provider.getUid(itemName);
-                String subDeviceId = provider.getSubId(itemName);
-                String deviceName = provider.getName(itemName);
-                if (deviceName != null) {
-                    OHTFDevice<?, ?> ohtfDevice = ohConfig.getConfigByOHId(deviceName);
-                    deviceUid = ohtfDevice.getUid();
-                    subDeviceId = ohtfDevice.getSubid();
-                    logger.trace("found deviceName {}, uid={}, subId {}", deviceName, deviceUid, subDeviceId);
-                }
-                if (uid.equals(deviceUid)) {
-                    if (subId == null && subDeviceId == null) {
-                        providerMap.put(itemName, provider);
-                    } else if (subId != null && subId.equals(subDeviceId)) {
-                        providerMap.put(itemName, provider);
+        Map<String, Map<String, TinkerforgeBindingProvider>> index = itemIndex;
+        if (index == null) {
+            index = buildItemIndex();
+        }
+        Map<String, TinkerforgeBindingProvider> providerMap = index.get(getIndexKey(uid, subId));
+        return providerMap != null ? providerMap : Collections.<String, TinkerforgeBindingProvider> emptyMap();
+    }
+
+    /**
+     * Builds the index of the items by the uid and subid of their device, if it isn't already built.
+     * Items which are bound to a device by its symbolic name are resolved through the
+     * {@link OHConfig}.
+     *
+     * @return The items mapped to their {@code TinkerforgeBindingProvider} by the key of their device
+     *         as returned by {@link #getIndexKey(String, String) getIndexKey}.
+     */
+    private Map<String, Map<String, TinkerforgeBindingProvider>> buildItemIndex() {
+        synchronized (itemIndexLock) {
+            if (itemIndex != null) {
+                return itemIndex;
+            }
+            Map<String, Map<String, TinkerforgeBindingProvider>> index =
+                    new HashMap<String, Map<String, TinkerforgeBindingProvider>>();
+            Map<String, UpdateCoalescer> itemCoalescers = new HashMap<String, UpdateCoalescer>();
+            for (TinkerforgeBindingProvider provider : providers) {
+                for (String itemName : provider.getItemNames()) {
+                    String deviceUid = provider.getUid(itemName);
+                    String subDeviceId = provider.getSubId(itemName);
+                    String deviceName = provider.getName(itemName);
+                    if (deviceName != null) {
+                        OHTFDevice<?, ?> ohtfDevice = ohConfig != null ? ohConfig.getConfigByOHId(deviceName) : null;
+                        if (ohtfDevice == null) {
+                            logger.debug("{} found no device configuration for name {} of item {}",
+                                    LoggerConstants.CONFIG, deviceName, itemName);
+                            continue;
+                        }
+                        deviceUid = ohtfDevice.getUid();
+                        subDeviceId = ohtfDevice.getSubid();
+                        logger.trace("found deviceName {}, uid={}, subId {}", deviceName, deviceUid, subDeviceId);
+                    }
+                    if (deviceUid == null) {
+                        continue;
+                    }
+                    String key = getIndexKey(deviceUid, subDeviceId);
+                    Map<String, TinkerforgeBindingProvider> providerMap = index.get(key);
+                    if (providerMap == null) {
+                        providerMap = new LinkedHashMap<String, TinkerforgeBindingProvider>();
+                        index.put(key, providerMap);
+                    }
+                    providerMap.put(itemName, provider);
+                    UpdateCoalescer coalescer = createCoalescer(provider, itemName);
+                    if (coalescer != null) {
+                        itemCoalescers.put(itemName, coalescer);
                     }
                 }
             }
+            for (Entry<String, Map<String, TinkerforgeBindingProvider>> entry : index.entrySet()) {
+                entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+            }
+            logger.debug("{} indexed items of {} devices", LoggerConstants.CONFIG, index.size());
+            coalescers = itemCoalescers;
+            itemIndex = index;
+            return index;
+        }
+    }
+
+    /**
+     * Discards the index of the items by their device, it is rebuilt on the next lookup. Must be
+     * called whenever the binding configurations or the {@link OHConfig} change.
+     */
+    private void invalidateItemIndex() {
+        synchronized (itemIndexLock) {
+            itemIndex = null;
         }
-        return providerMap;
+    }
+
+    /**
+     * Creates the {@link UpdateCoalescer} for an item with the coalesce option. The coalescer of the
+     * previous index is kept if the item's options didn't change, so that its open window and
+     * statistics survive the rebuild of the index.
+     *
+     * @param provider The {@code TinkerforgeBindingProvider} of the item.
+     * @param itemName The name of the item as {@code String}.
+     * @return The {@code UpdateCoalescer} or {@code null} if the updates of the item aren't
+     *         coalesced.
+     */
+    private UpdateCoalescer createCoalescer(final TinkerforgeBindingProvider provider, final String itemName) {
+        DeviceOptions deviceOptions = provider.getDeviceOptions(itemName);
+        if (deviceOptions == null || !deviceOptions.containsKey(OPTION_COALESCE)) {
+            return null;
+        }
+        Policy policy;
+        long period;
+        try {
+            policy = Policy.valueOf(Tools.getStringOpt(OPTION_COALESCE, deviceOptions).toUpperCase());
+            period = Tools.getLongOpt(OPTION_COALESCE_PERIOD, deviceOptions, DEFAULT_COALESCE_PERIOD);
+        } catch (IllegalArgumentException e) {
+            logger.error("{} invalid coalesce options for item {}, updates are not coalesced: {}",
+                    LoggerConstants.CONFIG, itemName, e.getMessage());
+            return null;
+        }
+        if (period <= 0) {
+            logger.error("{} invalid coalesceperiod {} for item {}, updates are not coalesced", LoggerConstants.CONFIG,
+                    period, itemName);
+            return null;
+        }
+        UpdateCoalescer coalescer = coalescers.get(itemName);
+        if (coalescer != null && coalescer.getPolicy() == policy && coalescer.getPeriod() == period) {
+            return coalescer;
+        }
+        if (coalescerScheduler == null) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Tinkerforge Update Coalescer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            coalescerScheduler = scheduler;
+        }
+        logger.debug("{} coalescing updates of item {}: {} per {} ms", LoggerConstants.CONFIG, itemName, policy,
+                period);
+        return new UpdateCoalescer(policy, period, coalescerScheduler, new UpdateListener() {
+            @Override
+            public void postUpdate(TinkerforgeValue value) {
+                postItemUpdate(itemName, provider, value);
+            }
+        });
+    }
+
+    private static String getIndexKey(String uid, String subId) {
+        return subId == null ? uid : uid + " " + subId;
     }
 
     /**
@@ -592,6 +722,11 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
                 updateItemValues(provider, itemName, true);
             }
         }
+        if (logger.isDebugEnabled()) {
+            for (Entry<String, UpdateCoalescer> entry : coalescers.entrySet()) {
+                logger.debug("{} item {}: {}", LoggerConstants.TFMODELUPDATE, entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     /**
@@ -638,9 +773,16 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
     @Override
     public void bindingChanged(BindingProvider provider, String itemName) {
         logger.debug("{} bindingChanged item {}", LoggerConstants.ITEMUPDATE, itemName);
+        invalidateItemIndex();
         updateItemValues((TinkerforgeBindingProvider) provider, itemName, false);
     }
 
+    @Override
+    public void allBindingsChanged(BindingProvider provider) {
+        invalidateItemIndex();
+        super.allBindingsChanged(provider);
+    }
+
     private void postUpdate(String uid, String subId, TinkerforgeValue sensorValue) {
         // TODO undef handling
         logger.trace("postUpdate called for uid {} subid {}", uid, subId);
@@ -648,78 +790,95 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
         if (providerMap.size() == 0) {
             logger.debug("{} found no item for uid {}, subid {}", LoggerConstants.TFMODELUPDATE, uid, subId);
         }
+        Map<String, UpdateCoalescer> itemCoalescers = coalescers;
         for (Entry<String, TinkerforgeBindingProvider> entry : providerMap.entrySet()) {
             String itemName = entry.getKey();
-            TinkerforgeBindingProvider provider = entry.getValue();
-            Class<? extends Item> itemType = provider.getItemType(itemName);
-            State value = UnDefType.UNDEF;
-            if (sensorValue instanceof DecimalValue) {
-                if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
-                    value = DecimalType.valueOf(String.valueOf(sensorValue));
-                    logger.trace("found item to update for DecimalValue {}", itemName);
-                } else if (itemType.isAssignableFrom(ContactItem.class)) {
-                    value = sensorValue.equals(DecimalValue.ZERO) ? OpenClosedType.CLOSED : OpenClosedType.OPEN;
-                } else if (itemType.isAssignableFrom(SwitchItem.class)) {
-                    value = sensorValue.equals(DecimalValue.ZERO) ? OnOffType.OFF : OnOffType.ON;
-                } else {
-                    logger.trace("no update for DecimalValue for item {}", itemName);
-                    continue;
-                }
-            } else if (sensorValue instanceof HighLowValue) {
-                if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
-                    value = sensorValue == HighLowValue.HIGH ? DecimalType.valueOf("1") : DecimalType.valueOf("0");
-                } else if (itemType.isAssignableFrom(ContactItem.class)) {
-                    value = sensorValue == HighLowValue.HIGH ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                } else if (itemType.isAssignableFrom(SwitchItem.class)) {
-                    value = sensorValue == HighLowValue.HIGH ? OnOffType.ON : OnOffType.OFF;
-                } else {
-                    continue;
-                }
-            } else if (sensorValue instanceof OnOffValue) {
-                if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
-                    value = sensorValue == OnOffValue.ON ? DecimalType.valueOf("1") : DecimalType.valueOf("0");
-                } else if (itemType.isAssignableFrom(ContactItem.class)) {
-                    value = sensorValue == OnOffValue.ON ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                } else if (itemType.isAssignableFrom(SwitchItem.class)) {
-                    value = sensorValue == OnOffValue.ON ? OnOffType.ON : OnOffType.OFF;
-                } else {
-                    continue;
-                }
-            } else if (sensorValue instanceof PercentValue) {
-                if (itemType.isAssignableFrom(SwitchItem.class)) {
-                    value = ((PercentValue) sensorValue).toBigDecimal().compareTo(BigDecimal.ZERO) == 1 ? OnOffType.ON
-                            : OnOffType.OFF;
-                    logger.debug("switch found {}", itemName);
-                } else if (itemType.isAssignableFrom(RollershutterItem.class)
-                        || itemType.isAssignableFrom(DimmerItem.class)) {
-                    value = new PercentType(((PercentValue) sensorValue).toBigDecimal());
-                    logger.debug("Rollershutter or dimmer found {} {}", itemName);
-                } else if (itemType.isAssignableFrom(ContactItem.class)) {
-                    value = ((PercentValue) sensorValue).toBigDecimal().compareTo(BigDecimal.ZERO) == -1
-                            ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                    logger.debug("contact found {}", itemName);
-                } else {
-                    continue;
-                }
-            } else if (sensorValue instanceof DirectionValue) {
-                if (itemType.isAssignableFrom(RollershutterItem.class)) {
-                    value = sensorValue == DirectionValue.RIGHT ? UpDownType.UP : UpDownType.DOWN;
-                    logger.trace("found item to update for UpDownValue {}", itemName);
-                } else {
-                    continue;
-                }
-            } else if (sensorValue instanceof HSBValue) {
-                if (itemType.isAssignableFrom(ColorItem.class)) {
-                    logger.trace("found item to update for HSBValue {}", itemName);
-                    value = ((HSBValue) sensorValue).getHsbValue();
-                }
-            } else if (sensorValue == UnDefValue.UNDEF || sensorValue == null) {
-                value = UnDefType.UNDEF;
+            UpdateCoalescer coalescer = itemCoalescers.get(itemName);
+            if (coalescer != null) {
+                coalescer.offer(sensorValue);
+            } else {
+                postItemUpdate(itemName, entry.getValue(), sensorValue);
+            }
+        }
+    }
+
+    /**
+     * Converts a device value to a {@code State} suitable for the type of the item and posts it to
+     * the openHAB event bus.
+     *
+     * @param itemName The name of the item as {@code String}.
+     * @param provider The {@code TinkerforgeBindingProvider} of the item.
+     * @param sensorValue The new value of the device.
+     */
+    private void postItemUpdate(String itemName, TinkerforgeBindingProvider provider, TinkerforgeValue sensorValue) {
+        Class<? extends Item> itemType = provider.getItemType(itemName);
+        State value = UnDefType.UNDEF;
+        if (sensorValue instanceof DecimalValue) {
+            if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
+                value = DecimalType.valueOf(String.valueOf(sensorValue));
+                logger.trace("found item to update for DecimalValue {}", itemName);
+            } else if (itemType.isAssignableFrom(ContactItem.class)) {
+                value = sensorValue.equals(DecimalValue.ZERO) ? OpenClosedType.CLOSED : OpenClosedType.OPEN;
+            } else if (itemType.isAssignableFrom(SwitchItem.class)) {
+                value = sensorValue.equals(DecimalValue.ZERO) ? OnOffType.OFF : OnOffType.ON;
+            } else {
+                logger.trace("no update for DecimalValue for item {}", itemName);
+                return;
+            }
+        } else if (sensorValue instanceof HighLowValue) {
+            if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
+                value = sensorValue == HighLowValue.HIGH ? DecimalType.valueOf("1") : DecimalType.valueOf("0");
+            } else if (itemType.isAssignableFrom(ContactItem.class)) {
+                value = sensorValue == HighLowValue.HIGH ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            } else if (itemType.isAssignableFrom(SwitchItem.class)) {
+                value = sensorValue == HighLowValue.HIGH ? OnOffType.ON : OnOffType.OFF;
+            } else {
+                return;
+            }
+        } else if (sensorValue instanceof OnOffValue) {
+            if (itemType.isAssignableFrom(NumberItem.class) || itemType.isAssignableFrom(StringItem.class)) {
+                value = sensorValue == OnOffValue.ON ? DecimalType.valueOf("1") : DecimalType.valueOf("0");
+            } else if (itemType.isAssignableFrom(ContactItem.class)) {
+                value = sensorValue == OnOffValue.ON ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            } else if (itemType.isAssignableFrom(SwitchItem.class)) {
+                value = sensorValue == OnOffValue.ON ? OnOffType.ON : OnOffType.OFF;
+            } else {
+                return;
+            }
+        } else if (sensorValue instanceof PercentValue) {
+            if (itemType.isAssignableFrom(SwitchItem.class)) {
+                value = ((PercentValue) sensorValue).toBigDecimal().compareTo(BigDecimal.ZERO) == 1 ? OnOffType.ON
+                        : OnOffType.OFF;
+                logger.debug("switch found {}", itemName);
+            } else if (itemType.isAssignableFrom(RollershutterItem.class)
+                    || itemType.isAssignableFrom(DimmerItem.class)) {
+                value = new PercentType(((PercentValue) sensorValue).toBigDecimal());
+                logger.debug("Rollershutter or dimmer found {} {}", itemName);
+            } else if (itemType.isAssignableFrom(ContactItem.class)) {
+                value = ((PercentValue) sensorValue).toBigDecimal().compareTo(BigDecimal.ZERO) == -1
+                        ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                logger.debug("contact found {}", itemName);
+            } else {
+                return;
+            }
+        } else if (sensorValue instanceof DirectionValue) {
+            if (itemType.isAssignableFrom(RollershutterItem.class)) {
+                value = sensorValue == DirectionValue.RIGHT ? UpDownType.UP : UpDownType.DOWN;
+                logger.trace("found item to update for UpDownValue {}", itemName);
+            } else {
+                return;
+            }
+        } else if (sensorValue instanceof HSBValue) {
+            if (itemType.isAssignableFrom(ColorItem.class)) {
+                logger.trace("found item to update for HSBValue {}", itemName);
+                value = ((HSBValue) sensorValue).getHsbValue();
             }
-            eventPublisher.postUpdate(itemName, value);
-            logger.debug("{} postupdate: found sensorValue: {} for item {}", LoggerConstants.TFMODELUPDATE, sensorValue,
-                    itemName);
+        } else if (sensorValue == UnDefValue.UNDEF || sensorValue == null) {
+            value = UnDefType.UNDEF;
         }
+        eventPublisher.postUpdate(itemName, value);
+        logger.debug("{} postupdate: found sensorValue: {} for item {}", LoggerConstants.TFMODELUPDATE, sensorValue,
+                itemName);
     }
 
     /**
@@ -860,10 +1019,12 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
 
     protected void addBindingProvider(TinkerforgeBindingProvider bindingProvider) {
         super.addBindingProvider(bindingProvider);
+        invalidateItemIndex();
     }
 
     protected void removeBindingProvider(TinkerforgeBindingProvider bindingProvider) {
         super.removeBindingProvider(bindingProvider);
+        invalidateItemIndex();
     }
 
     /**
@@ -889,6 +1050,7 @@ public class TinkerforgeBinding extends AbstractActiveBinding<TinkerforgeBinding
 
             ConfigurationHandler configurationHandler = new ConfigurationHandler();
             ohConfig = configurationHandler.createConfig(config);
+            invalidateItemIndex();
 
             // read further config parameters here ...
             logger.debug("{} updated called", LoggerConstants.CONFIG);
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tinkerforge.internal;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.tinkerforge.internal.types.DecimalValue;
+import org.openhab.binding.tinkerforge.internal.types.TinkerforgeValue;
+import org.openhab.binding.tinkerforge.internal.types.UnDefValue;
+
+/**
+ * Coalesces the sensor values of a device reported within a period into a single update. The first
+ * value after an idle period opens a window of {@code period} milliseconds, at the end of the
+ * window one value computed by the {@link Policy} from all values received in the window is passed
+ * to the {@link UpdateListener}. {@link UnDefValue#UNDEF} discards the values of the open window
+ * and is passed on immediately.
+ *
+ * The average, minimum and maximum can only be computed for {@link DecimalValue DecimalValues},
+ * for a window with other values the latest value is used.
+ *
+ * @since 1.10.0
+ */
+public class UpdateCoalescer {
+
+    /**
+     * The value which is passed on for the values received in a window.
+     */
+    public enum Policy {
+        /** the latest value, all other values are dropped */
+        LATEST,
+        /** the average of the values */
+        AVERAGE,
+        /** the minimum of the values */
+        MIN,
+        /** the maximum of the values */
+        MAX
+    }
+
+    /**
+     * Receives the coalesced values.
+     */
+    public interface UpdateListener {
+        void postUpdate(TinkerforgeValue value);
+    }
+
+    private final Policy policy;
+    private final long period;
+    private final ScheduledExecutorService scheduler;
+    private final UpdateListener listener;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    // the values of the open window
+    private int count;
+    private TinkerforgeValue latest;
+    private boolean allDecimal;
+    private BigDecimal sum;
+    private BigDecimal min;
+    private BigDecimal max;
+    private boolean flushScheduled;
+
+    private long received;
+    private long posted;
+    private long merged;
+    private long dropped;
+
+    /**
+     * @param policy the policy for the values of a window
+     * @param period the length of a window in milliseconds
+     * @param scheduler the scheduler which runs the end of the windows and calls the listener
+     * @param listener the listener for the coalesced values
+     */
+    public UpdateCoalescer(Policy policy, long period, ScheduledExecutorService scheduler, UpdateListener listener) {
+        this.policy = policy;
+        this.period = period;
+        this.scheduler = scheduler;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds a value reported by the device to the current window.
+     *
+     * @param value the new value of the device
+     */
+    public void offer(TinkerforgeValue value) {
+        boolean postNow = false;
+        synchronized (this) {
+            received++;
+            if (value == null || value == UnDefValue.UNDEF) {
+                dropped += count;
+                reset();
+                posted++;
+                postNow = true;
+            } else {
+                add(value);
+                if (!flushScheduled) {
+                    try {
+                        scheduler.schedule(flushTask, period, TimeUnit.MILLISECONDS);
+                        flushScheduled = true;
+                    } catch (RejectedExecutionException e) {
+                        // the binding is being deactivated
+                        postNow = true;
+                    }
+                }
+            }
+        }
+        if (postNow) {
+            if (value == null || value == UnDefValue.UNDEF) {
+                listener.postUpdate(value);
+            } else {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Ends the current window and passes its coalesced value to the listener.
+     */
+    void flush() {
+        TinkerforgeValue value;
+        synchronized (this) {
+            flushScheduled = false;
+            if (count == 0) {
+                return;
+            }
+            value = coalesce();
+            if (policy == Policy.LATEST || !allDecimal) {
+                dropped += count - 1;
+            } else {
+                merged += count - 1;
+            }
+            posted++;
+            reset();
+        }
+        listener.postUpdate(value);
+    }
+
+    private void add(TinkerforgeValue value) {
+        latest = value;
+        if (count == 0) {
+            allDecimal = true;
+        }
+        if (allDecimal && value instanceof DecimalValue) {
+            BigDecimal decimal = ((DecimalValue) value).bigDecimalValue();
+            if (count == 0) {
+                sum = decimal;
+                min = decimal;
+                max = decimal;
+            } else {
+                sum = sum.add(decimal);
+                min = min.min(decimal);
+                max = max.max(decimal);
+            }
+        } else {
+            allDecimal = false;
+        }
+        count++;
+    }
+
+    private TinkerforgeValue coalesce() {
+        if (count == 1 || !allDecimal) {
+            return latest;
+        }
+        switch (policy) {
+            case AVERAGE:
+                return new DecimalValue(sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64));
+            case MIN:
+                return new DecimalValue(min);
+            case MAX:
+                return new DecimalValue(max);
+            default:
+                return latest;
+        }
+    }
+
+    private void reset() {
+        count = 0;
+        latest = null;
+        sum = null;
+        min = null;
+        max = null;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return the number of values received from the device
+     */
+    public synchronized long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return the number of values passed to the listener
+     */
+    public synchronized long getPosted() {
+        return posted;
+    }
+
+    /**
+     * @return the number of values which were merged into an average, minimum or maximum
+     */
+    public synchronized long getMerged() {
+        return merged;
+    }
+
+    /**
+     * @return the number of values which were superseded by a later value of the same window
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "UpdateCoalescer [policy=" + policy + ", period=" + period + ", received=" + received + ", posted="
+                + posted + ", merged=" + merged + ", dropped=" + dropped + "]";
+    }
+}
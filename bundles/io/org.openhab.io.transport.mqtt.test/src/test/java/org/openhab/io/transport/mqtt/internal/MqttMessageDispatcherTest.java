@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.io.transport.mqtt.MqttMessageConsumer;
+import org.openhab.io.transport.mqtt.internal.MqttMessageDispatcher.OverflowPolicy;
+
+public class MqttMessageDispatcherTest {
+
+    private MqttMessageDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void testOrderingPerTopic() throws Exception {
+        dispatcher = new MqttMessageDispatcher("test", 4, 1000, OverflowPolicy.BLOCK);
+        dispatcher.start();
+
+        RecordingConsumer consumer = new RecordingConsumer(400);
+        List<MqttMessageConsumer> consumers = Collections.<MqttMessageConsumer> singletonList(consumer);
+        for (int i = 0; i < 100; i++) {
+            for (int t = 0; t < 4; t++) {
+                dispatcher.dispatch("topic/" + t, String.valueOf(i).getBytes(), consumers);
+            }
+        }
+
+        assertTrue(consumer.done.await(10, TimeUnit.SECONDS));
+        for (int t = 0; t < 4; t++) {
+            List<String> received = consumer.getPayloads("topic/" + t);
+            assertEquals(100, received.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(String.valueOf(i), received.get(i));
+            }
+        }
+        assertEquals(400, dispatcher.getDispatchedCount());
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        dispatcher = new MqttMessageDispatcher("test", 1, 2, OverflowPolicy.DROP_NEWEST);
+        // lanes are not started, so nothing is taken from the queue
+        RecordingConsumer consumer = new RecordingConsumer(1);
+        List<MqttMessageConsumer> consumers = Collections.<MqttMessageConsumer> singletonList(consumer);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch("topic", String.valueOf(i).getBytes(), consumers);
+        }
+
+        assertEquals(2, dispatcher.getQueueDepth());
+        assertEquals(3, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        dispatcher = new MqttMessageDispatcher("test", 1, 2, OverflowPolicy.DROP_OLDEST);
+        RecordingConsumer consumer = new RecordingConsumer(2);
+        List<MqttMessageConsumer> consumers = Collections.<MqttMessageConsumer> singletonList(consumer);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch("topic", String.valueOf(i).getBytes(), consumers);
+        }
+        assertEquals(3, dispatcher.getDroppedCount());
+
+        dispatcher.start();
+        assertTrue(consumer.done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, consumer.getPayloads("topic").size());
+        assertEquals("3", consumer.getPayloads("topic").get(0));
+        assertEquals("4", consumer.getPayloads("topic").get(1));
+    }
+
+    @Test
+    public void testOverflowPolicyFromString() {
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.fromString("drop-oldest"));
+        assertEquals(OverflowPolicy.DROP_NEWEST, OverflowPolicy.fromString("drop-newest"));
+        assertEquals(OverflowPolicy.BLOCK, OverflowPolicy.fromString(" block "));
+    }
+
+    private static class RecordingConsumer implements MqttMessageConsumer {
+
+        private final List<String[]> messages = new ArrayList<String[]>();
+
+        private final CountDownLatch done;
+
+        private RecordingConsumer(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void processMessage(String topic, byte[] payload) {
+            messages.add(new String[] { topic, new String(payload) });
+            done.countDown();
+        }
+
+        private synchronized List<String> getPayloads(String topic) {
+            List<String> result = new ArrayList<String>();
+            for (String[] message : messages) {
+                if (message[0].equals(topic)) {
+                    result.add(message[1]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String getTopic() {
+            return null;
+        }
+
+        @Override
+        public void setTopic(String topic) {
+        }
+
+        @Override
+        public void setEventPublisher(EventPublisher eventPublisher) {
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.mqtt.internal.MqttPublishPipeline.Publication;
+
+public class MqttPublishPipelineTest {
+
+    private MqttClient client;
+
+    private ManualScheduler scheduler;
+
+    private RecordingPipeline pipeline;
+
+    @Before
+    public void setUp() throws Exception {
+        client = new MqttClient("tcp://localhost:1883", "test", new MemoryPersistence());
+        scheduler = new ManualScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testRetainedMessagesAreCoalesced() throws Exception {
+        pipeline = new RecordingPipeline(1, 0);
+        pipeline.publish("blocker", "0".getBytes(), 1, false);
+        pipeline.connected(client);
+
+        Publication first = pipeline.publish("a", "1".getBytes(), 1, true);
+        pipeline.publish("b", "1".getBytes(), 1, true);
+        Publication replaced = pipeline.publish("a", "2".getBytes(), 1, true);
+        pipeline.publish("a", "3".getBytes(), 1, false);
+
+        assertSame(first, replaced);
+        assertEquals(3, pipeline.getQueueSize());
+        assertEquals(1, pipeline.getCoalescedCount());
+
+        pipeline.completeAll();
+        assertEquals(list("blocker=0", "a=2", "b=1", "a=3"), pipeline.sent);
+    }
+
+    @Test
+    public void testSentRetainedMessageIsNotReplaced() throws Exception {
+        pipeline = new RecordingPipeline(1, 0);
+        pipeline.connected(client);
+
+        pipeline.publish("a", "1".getBytes(), 1, true);
+        pipeline.publish("a", "2".getBytes(), 1, true);
+
+        assertEquals(0, pipeline.getCoalescedCount());
+        pipeline.completeAll();
+        assertEquals(list("a=1", "a=2"), pipeline.sent);
+    }
+
+    @Test
+    public void testCoalescingLargeQueue() throws Exception {
+        pipeline = new RecordingPipeline(1, 0);
+        for (int i = 0; i < 100000; i++) {
+            pipeline.publish("topic/" + i, "1".getBytes(), 1, true);
+        }
+        for (int i = 0; i < 100000; i++) {
+            pipeline.publish("topic/" + i, "2".getBytes(), 1, true);
+        }
+
+        assertEquals(100000, pipeline.getQueueSize());
+        assertEquals(100000, pipeline.getCoalescedCount());
+    }
+
+    @Test
+    public void testInFlightMessagesAreRequeuedInOrder() throws Exception {
+        pipeline = new RecordingPipeline(3, 0);
+        pipeline.connected(client);
+        for (int i = 1; i <= 5; i++) {
+            pipeline.publish("topic", String.valueOf(i).getBytes(), 1, false);
+        }
+        assertEquals(3, pipeline.getInFlightCount());
+
+        pipeline.disconnected();
+        pipeline.sent.clear();
+        pipeline.tokens.clear();
+        assertEquals(0, pipeline.getInFlightCount());
+        assertEquals(5, pipeline.getQueueSize());
+
+        pipeline.connected(client);
+        pipeline.completeAll();
+        assertEquals(list("topic=1", "topic=2", "topic=3", "topic=4", "topic=5"), pipeline.sent);
+        assertEquals(5, pipeline.getDeliveredCount());
+    }
+
+    @Test
+    public void testInFlightMessagesWithQos0AreDropped() throws Exception {
+        pipeline = new RecordingPipeline(3, 0);
+        pipeline.connected(client);
+        Publication dropped = pipeline.publish("topic", "1".getBytes(), 0, false);
+        pipeline.publish("topic", "2".getBytes(), 1, false);
+        pipeline.publish("topic", "3".getBytes(), 2, false);
+
+        pipeline.disconnected();
+        pipeline.sent.clear();
+        pipeline.tokens.clear();
+        assertFalse(dropped.waitForCompletion(0));
+        assertNotNull(dropped.getFailure());
+        assertEquals(1, pipeline.getFailedCount());
+        assertEquals(2, pipeline.getQueueSize());
+
+        pipeline.connected(client);
+        pipeline.completeAll();
+        assertEquals(list("topic=2", "topic=3"), pipeline.sent);
+    }
+
+    @Test
+    public void testRequeuedRetainedMessageIsCoalesced() throws Exception {
+        pipeline = new RecordingPipeline(1, 0);
+        pipeline.connected(client);
+        pipeline.publish("a", "1".getBytes(), 1, true);
+
+        pipeline.disconnected();
+        pipeline.sent.clear();
+        pipeline.tokens.clear();
+        pipeline.publish("a", "2".getBytes(), 1, true);
+
+        assertEquals(1, pipeline.getQueueSize());
+        pipeline.connected(client);
+        pipeline.completeAll();
+        assertEquals(list("a=2"), pipeline.sent);
+    }
+
+    @Test
+    public void testFailedMessageIsRetriedWithBackoff() throws Exception {
+        pipeline = new RecordingPipeline(1, 3);
+        pipeline.failures = 1;
+        pipeline.connected(client);
+
+        Publication publication = pipeline.publish("a", "1".getBytes(), 1, false);
+        pipeline.publish("b", "1".getBytes(), 1, false);
+
+        // the failed message does not block the queue
+        assertEquals(list("b=1"), pipeline.sent);
+        assertEquals(1, scheduler.tasks.size());
+        assertEquals(100, scheduler.delays.get(0).longValue());
+        pipeline.completeAll();
+
+        pipeline.failures = 1;
+        scheduler.runNext();
+        assertEquals(2, scheduler.delays.size());
+        assertEquals(200, scheduler.delays.get(1).longValue());
+
+        scheduler.runNext();
+        pipeline.completeAll();
+        assertEquals(list("b=1", "a=1"), pipeline.sent);
+        assertTrue(publication.waitForCompletion(0));
+        assertEquals(2, pipeline.getRetriedCount());
+        assertEquals(0, pipeline.getFailedCount());
+    }
+
+    @Test
+    public void testMessageFailsAfterRetries() throws Exception {
+        pipeline = new RecordingPipeline(1, 1);
+        pipeline.failures = 2;
+        pipeline.connected(client);
+
+        Publication publication = pipeline.publish("a", "1".getBytes(), 1, false);
+        scheduler.runNext();
+
+        assertTrue(scheduler.tasks.isEmpty());
+        assertTrue(pipeline.sent.isEmpty());
+        assertFalse(publication.waitForCompletion(0));
+        assertEquals(new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED).getMessage(),
+                publication.getFailure());
+        assertEquals(1, pipeline.getFailedCount());
+    }
+
+    @Test
+    public void testRetainedMessageWaitingForRetryIsCoalesced() throws Exception {
+        pipeline = new RecordingPipeline(1, 1);
+        pipeline.failures = 1;
+        pipeline.connected(client);
+
+        pipeline.publish("a", "1".getBytes(), 1, true);
+        pipeline.publish("a", "2".getBytes(), 1, true);
+        assertEquals(1, pipeline.getQueueSize());
+
+        scheduler.runNext();
+        pipeline.completeAll();
+        assertEquals(list("a=2"), pipeline.sent);
+    }
+
+    @Test
+    public void testClearCompletesMessageWaitingForRetry() throws Exception {
+        pipeline = new RecordingPipeline(1, 1);
+        pipeline.failures = 1;
+        pipeline.connected(client);
+
+        Publication publication = pipeline.publish("a", "1".getBytes(), 1, false);
+        pipeline.clear();
+        scheduler.runNext();
+
+        assertFalse(publication.waitForCompletion(0));
+        assertNotNull(publication.getFailure());
+        assertTrue(pipeline.sent.isEmpty());
+        assertEquals(0, pipeline.getQueueSize());
+    }
+
+    private static List<String> list(String... values) {
+        List<String> list = new ArrayList<String>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private class RecordingPipeline extends MqttPublishPipeline {
+
+        private final List<String> sent = new ArrayList<String>();
+
+        private final LinkedList<MqttDeliveryToken> tokens = new LinkedList<MqttDeliveryToken>();
+
+        private int failures;
+
+        RecordingPipeline(int maxInFlight, int maxRetries) {
+            super("test", maxInFlight, maxRetries, 100, scheduler);
+        }
+
+        @Override
+        protected MqttDeliveryToken send(MqttClient client, String topic, MqttMessage message) throws MqttException {
+            if (failures > 0) {
+                failures--;
+                throw new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED);
+            }
+            sent.add(topic + "=" + new String(message.getPayload()));
+            MqttDeliveryToken token = new MqttDeliveryToken("test");
+            tokens.add(token);
+            return token;
+        }
+
+        void completeAll() {
+            while (!tokens.isEmpty()) {
+                deliveryComplete(tokens.removeFirst());
+            }
+        }
+    }
+
+    /**
+     * Scheduler which runs the scheduled tasks only on request.
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+        private final List<Long> delays = new ArrayList<Long>();
+
+        ManualScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            tasks.add(command);
+            delays.add(unit.toMillis(delay));
+            return null;
+        }
+
+        void runNext() {
+            assertFalse(tasks.isEmpty());
+            tasks.removeFirst().run();
+        }
+    }
+}
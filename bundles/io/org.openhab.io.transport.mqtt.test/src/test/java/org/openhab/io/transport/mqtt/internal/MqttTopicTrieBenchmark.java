@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Micro benchmark comparing the {@link MqttTopicTrie} with the regular
+ * expression based matching which was previously done for every consumer in
+ * {@link MqttBrokerConnection#messageArrived}.
+ *
+ * @since 1.10.0
+ */
+public class MqttTopicTrieBenchmark {
+
+    private static final int CONSUMERS = 2000;
+
+    private static final int MESSAGES = 20000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        List<String> filters = new ArrayList<String>();
+        MqttTopicTrie<String> trie = new MqttTopicTrie<String>();
+        for (int i = 0; i < CONSUMERS; i++) {
+            String filter;
+            switch (i % 4) {
+                case 0:
+                    filter = "home/room" + (i % 50) + "/+/state";
+                    break;
+                case 1:
+                    filter = "home/room" + (i % 50) + "/device" + i + "/#";
+                    break;
+                default:
+                    filter = "home/room" + (i % 50) + "/device" + i + "/state";
+                    break;
+            }
+            filters.add(filter);
+            trie.add(filter, filter);
+        }
+
+        String[] topics = new String[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            topics[i] = "home/room" + (i % 50) + "/device" + (i % CONSUMERS) + "/state";
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long matches = 0;
+            long start = System.nanoTime();
+            for (String topic : topics) {
+                for (String filter : filters) {
+                    if (isRegexMatch(topic, filter)) {
+                        matches++;
+                    }
+                }
+            }
+            long regexNanos = System.nanoTime() - start;
+
+            long trieMatches = 0;
+            start = System.nanoTime();
+            for (String topic : topics) {
+                trieMatches += trie.match(topic).size();
+            }
+            long trieNanos = System.nanoTime() - start;
+
+            if (matches != trieMatches) {
+                throw new IllegalStateException("Matchers disagree: " + matches + " != " + trieMatches);
+            }
+
+            System.out.println(String.format("round %d: regex %.0f msgs/s, trie %.0f msgs/s (%d matches)", round,
+                    MESSAGES / (regexNanos / 1e9), MESSAGES / (trieNanos / 1e9), trieMatches));
+        }
+    }
+
+    /**
+     * The matcher as previously implemented in {@link MqttBrokerConnection}.
+     */
+    private static boolean isRegexMatch(String source, String target) {
+        if (source.equals(target)) {
+            return true;
+        }
+        if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
+            return false;
+        }
+        String regex = target;
+        regex = StringUtils.replace(regex, "+", "[^/]*");
+        regex = StringUtils.replace(regex, "#", ".*");
+        return source.matches(regex);
+    }
+}
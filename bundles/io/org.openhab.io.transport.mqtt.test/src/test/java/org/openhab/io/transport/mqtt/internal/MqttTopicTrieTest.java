@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MqttTopicTrieTest {
+
+    private MqttTopicTrie<String> trie;
+
+    @Before
+    public void setUp() {
+        trie = new MqttTopicTrie<String>();
+    }
+
+    @Test
+    public void testExactMatch() {
+        trie.add("home/kitchen/temperature", "a");
+        trie.add("home/kitchen/humidity", "b");
+
+        assertEquals(Arrays.asList("a"), trie.match("home/kitchen/temperature"));
+        assertEquals(Arrays.asList("b"), trie.match("home/kitchen/humidity"));
+        assertTrue(trie.match("home/kitchen").isEmpty());
+        assertTrue(trie.match("home/kitchen/temperature/x").isEmpty());
+    }
+
+    @Test
+    public void testSingleLevelWildcard() {
+        trie.add("home/+/temperature", "a");
+
+        assertEquals(Arrays.asList("a"), trie.match("home/kitchen/temperature"));
+        assertEquals(Arrays.asList("a"), trie.match("home/living/temperature"));
+        assertEquals(Arrays.asList("a"), trie.match("home//temperature"));
+        assertTrue(trie.match("home/kitchen/humidity").isEmpty());
+        assertTrue(trie.match("home/kitchen/sensor/temperature").isEmpty());
+        assertTrue(trie.match("home/temperature").isEmpty());
+    }
+
+    @Test
+    public void testMultiLevelWildcard() {
+        trie.add("home/#", "a");
+        trie.add("#", "b");
+
+        assertEquals(sorted("a", "b"), sorted(trie.match("home/kitchen/temperature")));
+        assertEquals(sorted("a", "b"), sorted(trie.match("home")));
+        assertEquals(Arrays.asList("b"), trie.match("garden/temperature"));
+    }
+
+    @Test
+    public void testCombinedWildcards() {
+        trie.add("+/kitchen/#", "a");
+        trie.add("home/+/+", "b");
+        trie.add("home/kitchen/light", "c");
+
+        assertEquals(sorted("a", "b", "c"), sorted(trie.match("home/kitchen/light")));
+        assertEquals(sorted("a"), sorted(trie.match("home/kitchen/light/state")));
+        assertEquals(sorted("b"), sorted(trie.match("home/living/light")));
+    }
+
+    @Test
+    public void testRemove() {
+        trie.add("home/+/temperature", "a");
+        trie.add("home/+/temperature", "b");
+        trie.add("home/#", "c");
+
+        assertTrue(trie.remove("home/+/temperature", "a"));
+        assertFalse(trie.remove("home/+/temperature", "a"));
+        assertEquals(sorted("b", "c"), sorted(trie.match("home/kitchen/temperature")));
+
+        assertTrue(trie.remove("home/+/temperature", "b"));
+        assertTrue(trie.remove("home/#", "c"));
+        assertTrue(trie.match("home/kitchen/temperature").isEmpty());
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    public void testRemoveUnknownFilter() {
+        trie.add("home/kitchen", "a");
+
+        assertFalse(trie.remove("home/living", "a"));
+        assertFalse(trie.remove("home/kitchen/light", "a"));
+        assertEquals(Arrays.asList("a"), trie.match("home/kitchen"));
+    }
+
+    private static List<String> sorted(String... values) {
+        return sorted(Arrays.asList(values));
+    }
+
+    private static List<String> sorted(List<String> values) {
+        String[] array = values.toArray(new String[values.size()]);
+        Arrays.sort(array);
+        return Collections.unmodifiableList(Arrays.asList(array));
+    }
+}
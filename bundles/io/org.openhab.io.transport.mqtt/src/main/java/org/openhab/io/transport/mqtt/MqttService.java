@@ -15,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang.StringUtils;
 import org.openhab.core.events.EventPublisher;
 import org.openhab.io.transport.mqtt.internal.MqttBrokerConnection;
+import org.openhab.io.transport.mqtt.internal.MqttMessageDispatcher.OverflowPolicy;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.slf4j.Logger;
@@ -98,6 +99,20 @@ public class MqttService implements ManagedService {
                 conn.setLastWill(will);
             } else if (property.equals("keepAlive")) {
                 conn.setKeepAliveInterval(Integer.parseInt(value));
+            } else if (property.equals("maxInFlight")) {
+                conn.setMaxInFlight(Integer.parseInt(value));
+            } else if (property.equals("publishRetries")) {
+                conn.setPublishRetries(Integer.parseInt(value));
+            } else if (property.equals("dispatchThreads")) {
+                conn.setDispatchThreads(Integer.parseInt(value));
+            } else if (property.equals("dispatchQueueSize")) {
+                conn.setDispatchQueueSize(Integer.parseInt(value));
+            } else if (property.equals("dispatchOverflow")) {
+                try {
+                    conn.setDispatchOverflowPolicy(OverflowPolicy.fromString(value));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid dispatch overflow policy '{}' for broker '{}'", value, name);
+                }
             } else {
                 logger.warn("Unrecognized property: {}", key);
             }
@@ -24,15 +24,15 @@ import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
-import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
-import org.eclipse.paho.client.mqttv3.MqttTopic;
 import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
 import org.openhab.io.transport.mqtt.MqttMessageConsumer;
 import org.openhab.io.transport.mqtt.MqttMessageProducer;
 import org.openhab.io.transport.mqtt.MqttSenderChannel;
 import org.openhab.io.transport.mqtt.MqttWillAndTestament;
+import org.openhab.io.transport.mqtt.internal.MqttMessageDispatcher.OverflowPolicy;
+import org.openhab.io.transport.mqtt.internal.MqttPublishPipeline.Publication;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,12 +77,28 @@ public class MqttBrokerConnection implements MqttCallback {
 
     private List<MqttMessageConsumer> consumers = new CopyOnWriteArrayList<MqttMessageConsumer>();
 
+    private MqttTopicTrie<MqttMessageConsumer> subscriptions = new MqttTopicTrie<MqttMessageConsumer>();
+
     private List<MqttMessageProducer> producers = new CopyOnWriteArrayList<MqttMessageProducer>();
 
     private Timer reconnectTimer;
 
     private int keepAliveInterval = 60;
 
+    private int dispatchThreads = 0;
+
+    private int dispatchQueueSize = 1000;
+
+    private OverflowPolicy dispatchOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    private MqttMessageDispatcher dispatcher;
+
+    private int maxInFlight = MqttPublishPipeline.MAX_IN_FLIGHT_LIMIT;
+
+    private int publishRetries = 3;
+
+    private MqttPublishPipeline publishPipeline;
+
     /**
      * Create a new connection with the given name.
      * 
@@ -111,11 +127,21 @@ public class MqttBrokerConnection implements MqttCallback {
         logger.info("Starting MQTT broker connection '{}'", name);
         openConnection();
 
+        if (publishPipeline == null) {
+            publishPipeline = new MqttPublishPipeline(name, maxInFlight, publishRetries);
+        }
+        publishPipeline.connected(client);
+
         if (reconnectTimer != null) {
             // we are active, so stop trying to reconnect
             reconnectTimer.cancel();
         }
 
+        if (dispatchThreads > 0 && dispatcher == null) {
+            dispatcher = new MqttMessageDispatcher(name, dispatchThreads, dispatchQueueSize, dispatchOverflowPolicy);
+            dispatcher.start();
+        }
+
         // start all consumers
         for (MqttMessageConsumer c : consumers) {
             startConsumer(c);
@@ -245,9 +271,9 @@ public class MqttBrokerConnection implements MqttCallback {
     /**
      * Set whether messages should be sent synchronously (the message is sent
      * and the thread waits until delivery to the broker has completed) or
-     * asynchronously (the message is sent and the sendign thread does not wait
-     * for delivery completion). In the case of async, the sending thread
-     * currently does not receive any feedback when delivery is completed.
+     * asynchronously (the message is sent and the sending thread does not wait
+     * for delivery completion). In both cases messages are pipelined, see
+     * {@link #setMaxInFlight(int)}; delivery failures are logged.
      * 
      * @param async
      */
@@ -412,23 +438,21 @@ public class MqttBrokerConnection implements MqttCallback {
                     return;
                 }
 
-                // Create and configure a message
-                MqttMessage message = new MqttMessage(payload);
-                message.setQos(qos);
-                message.setRetained(retain);
+                // queue the message, it is sent as soon as the number of
+                // unacknowledged messages allows it
+                Publication publication = publishPipeline.publish(topic, payload, qos, retain);
 
-                // publish message asynchronously
-                MqttTopic mqttTopic = client.getTopic(topic);
-                MqttDeliveryToken deliveryToken = mqttTopic.publish(message);
-
-                logger.debug("Publishing message {} to topic '{}'", deliveryToken.getMessageId(), topic);
                 if (!async) {
                     // wait for publish confirmation
-                    deliveryToken.waitForCompletion(10000);
-                    if (!deliveryToken.isComplete()) {
-                        logger.error(
-                                "Did not receive completion message within timeout limit whilst publishing to topic '{}'",
-                                topic);
+                    if (!publication.waitForCompletion(10000)) {
+                        String failure = publication.getFailure();
+                        if (failure != null) {
+                            logger.error("Could not publish message to topic '{}': {}", topic, failure);
+                        } else {
+                            logger.error(
+                                    "Did not receive completion message within timeout limit whilst publishing to topic '{}'",
+                                    topic);
+                        }
                     }
                 }
 
@@ -445,6 +469,7 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public synchronized void addConsumer(MqttMessageConsumer subscriber) {
         consumers.add(subscriber);
+        subscriptions.add(subscriber.getTopic(), subscriber);
         if (started) {
             startConsumer(subscriber);
         }
@@ -497,7 +522,7 @@ public class MqttBrokerConnection implements MqttCallback {
             logger.error("Error unsubscribing topic from broker", e);
         }
         consumers.remove(subscriber);
-
+        subscriptions.remove(subscriber.getTopic(), subscriber);
     }
 
     /**
@@ -512,6 +537,14 @@ public class MqttBrokerConnection implements MqttCallback {
         } catch (MqttException e) {
             logger.error("Error closing connection to broker", e);
         }
+        if (publishPipeline != null) {
+            publishPipeline.disconnected();
+            publishPipeline.clear();
+        }
+        if (dispatcher != null) {
+            dispatcher.stop();
+            dispatcher = null;
+        }
         started = false;
     }
 
@@ -530,6 +563,9 @@ public class MqttBrokerConnection implements MqttCallback {
         }
 
         started = false;
+        if (publishPipeline != null) {
+            publishPipeline.disconnected();
+        }
         logger.info("Starting connection helper to periodically try restore connection to broker '{}'", name);
 
         MqttBrokerConnectionHelper helper = new MqttBrokerConnectionHelper(this);
@@ -541,50 +577,25 @@ public class MqttBrokerConnection implements MqttCallback {
     @Override
     public void deliveryComplete(IMqttDeliveryToken token) {
         logger.trace("Message with id {} delivered.", token.getMessageId());
+        MqttPublishPipeline pipeline = publishPipeline;
+        if (pipeline != null) {
+            pipeline.deliveryComplete(token);
+        }
     }
 
     @Override
     public void messageArrived(String topic, MqttMessage message) throws Exception {
 
         logger.trace("Received message on topic '{}' : {}", topic, new String(message.getPayload()));
-        for (MqttMessageConsumer consumer : consumers) {
-            if (isTopicMatch(topic, consumer.getTopic())) {
-                consumer.processMessage(topic, message.getPayload());
-            }
-        }
-    }
-
-    /**
-     * Check if the topic on which a message was received matches provided
-     * target topic. The matching will take into account the + and # wildcards.
-     * 
-     * @param source
-     *            topic from received message
-     * @param target
-     *            topic as defined with possible wildcards.
-     * @return true if both topics match.
-     */
-    private boolean isTopicMatch(String source, String target) {
-        if (source.equals(target)) {
-            return true;
-        }
-        if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
-            return false;
+        List<MqttMessageConsumer> matches = subscriptions.match(topic);
+        MqttMessageDispatcher currentDispatcher = dispatcher;
+        if (currentDispatcher != null) {
+            currentDispatcher.dispatch(topic, message.getPayload(), matches);
         } else {
-
-            String regex = target;
-            regex = StringUtils.replace(regex, "+", "[^/]*");
-            regex = StringUtils.replace(regex, "#", ".*");
-            boolean result = source.matches(regex);
-            if (result) {
-                logger.trace("Topic match for '{}' and '{}' using regex {}", source, target, regex);
-                return true;
-            } else {
-                logger.trace("No topic match for '{}' and '{}' using regex {}", source, target, regex);
-                return false;
+            for (MqttMessageConsumer consumer : matches) {
+                consumer.processMessage(topic, message.getPayload());
             }
         }
-
     }
 
     /**
@@ -599,4 +610,75 @@ public class MqttBrokerConnection implements MqttCallback {
         this.keepAliveInterval = keepAliveInterval;
     }
 
+    /**
+     * Set the number of threads used to process received messages. With the
+     * default of 0, messages are processed on the MQTT client thread.
+     * Otherwise messages are queued and processed on the given number of
+     * threads, while preserving the order of messages on the same topic.
+     *
+     * @param dispatchThreads number of dispatch threads
+     */
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = Math.max(0, dispatchThreads);
+    }
+
+    /**
+     * Set the maximum number of queued messages per dispatch thread. The
+     * default is 1000.
+     *
+     * @param dispatchQueueSize queue size
+     */
+    public void setDispatchQueueSize(int dispatchQueueSize) {
+        if (dispatchQueueSize > 0) {
+            this.dispatchQueueSize = dispatchQueueSize;
+        }
+    }
+
+    /**
+     * Set the behavior when a dispatch queue is full. The default is to drop
+     * the oldest queued message.
+     *
+     * @param dispatchOverflowPolicy overflow policy
+     */
+    public void setDispatchOverflowPolicy(OverflowPolicy dispatchOverflowPolicy) {
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+    }
+
+    /**
+     * @return the message dispatcher of this connection, or null if received
+     *         messages are processed on the MQTT client thread.
+     */
+    public MqttMessageDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Set the maximum number of published messages which may be waiting for
+     * delivery completion at the same time. Further messages are queued. The
+     * default and maximum is 10.
+     *
+     * @param maxInFlight number of messages
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Set how often sending a message is retried before it is reported as
+     * failed. The default is 3.
+     *
+     * @param publishRetries number of retries
+     */
+    public void setPublishRetries(int publishRetries) {
+        this.publishRetries = publishRetries;
+    }
+
+    /**
+     * @return the publish pipeline of this connection, or null if the
+     *         connection was never started.
+     */
+    public MqttPublishPipeline getPublishPipeline() {
+        return publishPipeline;
+    }
+
 }
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.io.transport.mqtt.MqttMessageConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches received MQTT messages to the message consumers on a fixed number
+ * of worker threads (lanes), so that slow consumers do not block the MQTT
+ * client thread. Topics are hashed to lanes, which guarantees that all
+ * messages received on the same topic are processed in the order in which
+ * they arrived.
+ *
+ * Every lane has a bounded queue. What happens when a queue is full is
+ * determined by the {@link OverflowPolicy}.
+ *
+ * @since 1.10.0
+ */
+public class MqttMessageDispatcher {
+
+    private static Logger logger = LoggerFactory.getLogger(MqttMessageDispatcher.class);
+
+    /**
+     * Behavior of the dispatcher when the queue of a lane is full.
+     */
+    public enum OverflowPolicy {
+        /** discard the oldest queued message to make room for the new one */
+        DROP_OLDEST,
+        /** block the MQTT client thread until there is room in the queue */
+        BLOCK,
+        /** discard the newly received message */
+        DROP_NEWEST;
+
+        /**
+         * Parse a policy from its configuration value, e.g. 'drop-oldest'.
+         *
+         * @param value
+         *            configuration value.
+         * @return policy.
+         * @throws IllegalArgumentException
+         *             if the value is not a valid policy.
+         */
+        public static OverflowPolicy fromString(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final String name;
+
+    private final Lane[] lanes;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Create a new dispatcher. The worker threads are not started until
+     * {@link #start()} is called.
+     *
+     * @param name
+     *            name of the broker connection, used for the thread names.
+     * @param threads
+     *            number of lanes.
+     * @param queueSize
+     *            maximum number of queued messages per lane.
+     * @param overflowPolicy
+     *            behavior when a lane queue is full.
+     */
+    public MqttMessageDispatcher(String name, int threads, int queueSize, OverflowPolicy overflowPolicy) {
+        this.name = name;
+        this.overflowPolicy = overflowPolicy;
+        this.lanes = new Lane[threads];
+        for (int i = 0; i < threads; i++) {
+            lanes[i] = new Lane(i, queueSize);
+        }
+    }
+
+    /**
+     * Start all worker threads.
+     */
+    public void start() {
+        logger.debug("Starting {} MQTT dispatch lanes for broker '{}'", lanes.length, name);
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+    }
+
+    /**
+     * Stop all worker threads. Messages which are still queued are discarded.
+     */
+    public void stop() {
+        logger.debug("Stopping MQTT dispatch lanes for broker '{}'", name);
+        for (Lane lane : lanes) {
+            lane.interrupt();
+        }
+    }
+
+    /**
+     * Queue a received message for processing by the given consumers.
+     *
+     * @param topic
+     *            topic on which the message was received.
+     * @param payload
+     *            message content.
+     * @param consumers
+     *            consumers which are subscribed to the topic.
+     * @throws InterruptedException
+     *             if the calling thread is interrupted while blocked on a
+     *             full queue.
+     */
+    public void dispatch(String topic, byte[] payload, List<MqttMessageConsumer> consumers)
+            throws InterruptedException {
+        if (consumers.isEmpty()) {
+            return;
+        }
+
+        Lane lane = lanes[(topic.hashCode() & Integer.MAX_VALUE) % lanes.length];
+        Delivery delivery = new Delivery(topic, payload, consumers);
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                lane.queue.put(delivery);
+                break;
+            case DROP_NEWEST:
+                if (!lane.queue.offer(delivery)) {
+                    dropped.incrementAndGet();
+                    logger.debug("Dispatch queue for broker '{}' is full, dropping message on topic '{}'", name,
+                            topic);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!lane.queue.offer(delivery)) {
+                    Delivery oldest = lane.queue.poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        logger.debug("Dispatch queue for broker '{}' is full, dropping message on topic '{}'", name,
+                                oldest.topic);
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * @return number of messages currently waiting in all lanes.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * @return number of messages which were handed to their consumers.
+     */
+    public long getDispatchedCount() {
+        return dispatched.get();
+    }
+
+    /**
+     * @return number of messages which were discarded because a queue was
+     *         full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return average time in milliseconds between the arrival of a message
+     *         and the start of its processing.
+     */
+    public double getAverageLatency() {
+        long count = dispatched.get();
+        return count == 0 ? 0 : totalLatency.get() / 1e6 / count;
+    }
+
+    /**
+     * @return maximum time in milliseconds between the arrival of a message
+     *         and the start of its processing.
+     */
+    public double getMaxLatency() {
+        return maxLatency.get() / 1e6;
+    }
+
+    private void process(Delivery delivery) {
+        long latency = System.nanoTime() - delivery.received;
+        totalLatency.addAndGet(latency);
+        long max = maxLatency.get();
+        while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+            max = maxLatency.get();
+        }
+        dispatched.incrementAndGet();
+
+        for (MqttMessageConsumer consumer : delivery.consumers) {
+            try {
+                consumer.processMessage(delivery.topic, delivery.payload);
+            } catch (Exception e) {
+                logger.error("Error processing message on topic '{}'", delivery.topic, e);
+            }
+        }
+    }
+
+    private static class Delivery {
+
+        private final String topic;
+
+        private final byte[] payload;
+
+        private final List<MqttMessageConsumer> consumers;
+
+        private final long received = System.nanoTime();
+
+        private Delivery(String topic, byte[] payload, List<MqttMessageConsumer> consumers) {
+            this.topic = topic;
+            this.payload = payload;
+            this.consumers = consumers;
+        }
+    }
+
+    private class Lane extends Thread {
+
+        private final BlockingQueue<Delivery> queue;
+
+        private Lane(int index, int queueSize) {
+            super("MQTT dispatch " + name + "-" + index);
+            setDaemon(true);
+            queue = new ArrayBlockingQueue<Delivery>(queueSize);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                try {
+                    process(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+}
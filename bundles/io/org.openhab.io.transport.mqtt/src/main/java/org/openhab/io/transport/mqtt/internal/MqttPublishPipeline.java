@@ -0,0 +1,473 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pipelined publisher for a single broker connection. Messages are queued and
+ * sent without waiting for the acknowledgement of the previous message, while
+ * keeping at most a configurable number of messages in flight. Completion is
+ * tracked through the delivery tokens reported by
+ * {@link MqttBrokerConnection#deliveryComplete(IMqttDeliveryToken)}.
+ *
+ * Retained messages which are still waiting in the queue are replaced by a
+ * newer retained message for the same topic, as the broker would only keep
+ * the latest one anyway.
+ *
+ * Messages which cannot be sent are retried up to a configurable number of
+ * times before they are reported as failed. The delay before a retry doubles
+ * with every attempt.
+ *
+ * @since 1.10.0
+ */
+public class MqttPublishPipeline {
+
+    private static Logger logger = LoggerFactory.getLogger(MqttPublishPipeline.class);
+
+    /**
+     * The Paho client does not allow more than 10 unacknowledged messages.
+     */
+    public static final int MAX_IN_FLIGHT_LIMIT = 10;
+
+    /**
+     * Default delay in milliseconds before the first retry of a failed send.
+     */
+    public static final long DEFAULT_RETRY_DELAY = 500;
+
+    private static final long MAX_RETRY_DELAY = 30000;
+
+    private static final String DISCARDED = "message discarded before delivery";
+
+    private static ScheduledExecutorService sharedRetryScheduler;
+
+    private final String name;
+
+    private final int maxInFlight;
+
+    private final int maxRetries;
+
+    private final long retryDelay;
+
+    private ScheduledExecutorService retryScheduler;
+
+    private MqttClient client;
+
+    private final LinkedList<Publication> queue = new LinkedList<Publication>();
+
+    /** queued retained messages by topic, which can still be replaced */
+    private final Map<String, Publication> pendingRetained = new HashMap<String, Publication>();
+
+    /** in flight messages in the order they were sent */
+    private final Map<IMqttDeliveryToken, Publication> inFlight = new LinkedHashMap<IMqttDeliveryToken, Publication>();
+
+    /** messages waiting for the delay before their next attempt */
+    private final Set<Publication> waitingForRetry = new HashSet<Publication>();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong retried = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Create a new pipeline.
+     *
+     * @param name
+     *            name of the broker connection.
+     * @param maxInFlight
+     *            maximum number of messages waiting for delivery completion.
+     * @param maxRetries
+     *            number of times sending a message is retried.
+     */
+    public MqttPublishPipeline(String name, int maxInFlight, int maxRetries) {
+        this(name, maxInFlight, maxRetries, DEFAULT_RETRY_DELAY, null);
+    }
+
+    /**
+     * Create a new pipeline.
+     *
+     * @param name
+     *            name of the broker connection.
+     * @param maxInFlight
+     *            maximum number of messages waiting for delivery completion.
+     * @param maxRetries
+     *            number of times sending a message is retried.
+     * @param retryDelay
+     *            delay in milliseconds before the first retry of a message.
+     * @param retryScheduler
+     *            scheduler for the retries, or null to use a scheduler shared
+     *            by all pipelines.
+     */
+    MqttPublishPipeline(String name, int maxInFlight, int maxRetries, long retryDelay,
+            ScheduledExecutorService retryScheduler) {
+        this.name = name;
+        this.maxInFlight = Math.max(1, Math.min(maxInFlight, MAX_IN_FLIGHT_LIMIT));
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryDelay = Math.max(1, retryDelay);
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * Attach the pipeline to a connected client and send any queued messages.
+     *
+     * @param client
+     *            connected client.
+     */
+    public synchronized void connected(MqttClient client) {
+        this.client = client;
+        sendQueued();
+    }
+
+    /**
+     * Detach the pipeline from the client. Messages with QoS 1 or 2 which
+     * were in flight are queued again and sent once the connection is
+     * restored. In flight messages with QoS 0 are dropped, as the broker gives
+     * no delivery guarantee for them and may already have received them.
+     */
+    public synchronized void disconnected() {
+        client = null;
+        List<Publication> unacknowledged = new ArrayList<Publication>();
+        for (Publication publication : inFlight.values()) {
+            if (publication.qos == 0) {
+                logger.debug("Dropping message to topic '{}' with QoS 0 sent before the connection was lost",
+                        publication.topic);
+                failed.incrementAndGet();
+                publication.fail("connection lost before the delivery of the message with QoS 0");
+            } else {
+                unacknowledged.add(publication);
+            }
+        }
+        inFlight.clear();
+        queue.addAll(0, unacknowledged);
+        for (Publication publication : unacknowledged) {
+            if (publication.retain && !pendingRetained.containsKey(publication.topic)) {
+                pendingRetained.put(publication.topic, publication);
+            }
+        }
+    }
+
+    /**
+     * Queue a message for publishing.
+     *
+     * @param topic
+     *            topic to publish to.
+     * @param payload
+     *            message content.
+     * @param qos
+     *            quality of service level.
+     * @param retain
+     *            true if the broker should retain the message.
+     * @return handle which can be used to wait for delivery.
+     */
+    public synchronized Publication publish(String topic, byte[] payload, int qos, boolean retain) {
+        if (retain) {
+            Publication queued = pendingRetained.get(topic);
+            if (queued != null) {
+                logger.trace("Replacing pending retained message for topic '{}'", topic);
+                queued.payload = payload;
+                queued.qos = qos;
+                coalesced.incrementAndGet();
+                return queued;
+            }
+        }
+
+        Publication publication = new Publication(topic, payload, qos, retain);
+        queue.addLast(publication);
+        if (retain) {
+            pendingRetained.put(topic, publication);
+        }
+        sendQueued();
+        return publication;
+    }
+
+    /**
+     * Mark the message belonging to the given token as delivered, and send
+     * the next queued message.
+     *
+     * @param token
+     *            token of the delivered message.
+     */
+    public synchronized void deliveryComplete(IMqttDeliveryToken token) {
+        Publication publication = inFlight.remove(token);
+        if (publication == null) {
+            return;
+        }
+        delivered.incrementAndGet();
+        publication.succeed();
+        sendQueued();
+    }
+
+    /**
+     * Discard all queued messages and release threads waiting for them.
+     */
+    public synchronized void clear() {
+        for (Publication publication : queue) {
+            publication.fail(DISCARDED);
+        }
+        for (Publication publication : inFlight.values()) {
+            publication.fail(DISCARDED);
+        }
+        for (Publication publication : waitingForRetry) {
+            publication.fail(DISCARDED);
+        }
+        queue.clear();
+        pendingRetained.clear();
+        inFlight.clear();
+        waitingForRetry.clear();
+    }
+
+    private void sendQueued() {
+        if (client == null) {
+            return;
+        }
+
+        while (inFlight.size() < maxInFlight && !queue.isEmpty()) {
+            Publication publication = queue.removeFirst();
+            if (publication.retain && pendingRetained.get(publication.topic) == publication) {
+                pendingRetained.remove(publication.topic);
+            }
+
+            MqttMessage message = new MqttMessage(publication.payload);
+            message.setQos(publication.qos);
+            message.setRetained(publication.retain);
+
+            try {
+                MqttDeliveryToken token = send(client, publication.topic, message);
+                logger.debug("Publishing message {} to topic '{}'", token.getMessageId(), publication.topic);
+                inFlight.put(token, publication);
+            } catch (MqttException e) {
+                if (e.getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT) {
+                    // the client is busy, try again on the next delivery
+                    queue.addFirst(publication);
+                    if (publication.retain && !pendingRetained.containsKey(publication.topic)) {
+                        pendingRetained.put(publication.topic, publication);
+                    }
+                    return;
+                }
+                if (publication.attempts++ < maxRetries) {
+                    logger.debug("Error publishing message to topic '{}', will retry: {}", publication.topic,
+                            e.getMessage());
+                    retried.incrementAndGet();
+                    scheduleRetry(publication);
+                    continue;
+                }
+                logger.error("Error publishing message to topic '{}' on broker '{}': {}", publication.topic, name,
+                        e.getMessage());
+                failed.incrementAndGet();
+                publication.fail(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Send a message with the client.
+     *
+     * @param client
+     *            connected client.
+     * @param topic
+     *            topic to publish to.
+     * @param message
+     *            message to publish.
+     * @return token to track the delivery of the message.
+     * @throws MqttException
+     *             if the message could not be sent.
+     */
+    protected MqttDeliveryToken send(MqttClient client, String topic, MqttMessage message) throws MqttException {
+        return client.getTopic(topic).publish(message);
+    }
+
+    /**
+     * Queue a failed message again after a delay, which doubles with every
+     * attempt. Other queued messages are sent in the meantime, so one failing
+     * message does not block the queue. A newer retained message for the same
+     * topic replaces the content of the waiting message.
+     */
+    private void scheduleRetry(final Publication publication) {
+        long delay = Math.min(retryDelay << Math.min(publication.attempts - 1, 16), MAX_RETRY_DELAY);
+        waitingForRetry.add(publication);
+        if (publication.retain) {
+            pendingRetained.put(publication.topic, publication);
+        }
+        try {
+            getRetryScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    retry(publication);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            retry(publication);
+        }
+    }
+
+    private synchronized void retry(Publication publication) {
+        if (!waitingForRetry.remove(publication)) {
+            // the pipeline was cleared in the meantime
+            return;
+        }
+        queue.addLast(publication);
+        sendQueued();
+    }
+
+    private ScheduledExecutorService getRetryScheduler() {
+        if (retryScheduler == null) {
+            retryScheduler = getSharedRetryScheduler();
+        }
+        return retryScheduler;
+    }
+
+    private static synchronized ScheduledExecutorService getSharedRetryScheduler() {
+        if (sharedRetryScheduler == null) {
+            sharedRetryScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MQTT Publish Retry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sharedRetryScheduler;
+    }
+
+    /**
+     * @return number of messages waiting to be sent.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size() + waitingForRetry.size();
+    }
+
+    /**
+     * @return number of messages waiting for delivery completion.
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return number of successfully delivered messages.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * @return number of retained messages which were replaced by a newer one
+     *         before being sent.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return number of retried send attempts.
+     */
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    /**
+     * @return number of messages which could not be sent.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * A message which was handed to the pipeline.
+     */
+    public static class Publication {
+
+        private final String topic;
+
+        private byte[] payload;
+
+        private int qos;
+
+        private final boolean retain;
+
+        private int attempts;
+
+        private volatile boolean success;
+
+        private volatile String failure;
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Publication(String topic, byte[] payload, int qos, boolean retain) {
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+        }
+
+        private void succeed() {
+            success = true;
+            done.countDown();
+        }
+
+        private void fail(String reason) {
+            failure = reason != null ? reason : "unknown error";
+            done.countDown();
+        }
+
+        /**
+         * Wait until the message has been delivered or has failed.
+         *
+         * @param timeout
+         *            maximum time to wait in milliseconds.
+         * @return true if the message was delivered within the timeout.
+         * @throws InterruptedException
+         *             if the waiting thread was interrupted.
+         */
+        public boolean waitForCompletion(long timeout) throws InterruptedException {
+            return done.await(timeout, TimeUnit.MILLISECONDS) && success;
+        }
+
+        /**
+         * @return the reason why the message could not be delivered, or null
+         *         if it was delivered or is still pending.
+         */
+        public String getFailure() {
+            return failure;
+        }
+
+        /**
+         * @return topic the message is published to.
+         */
+        public String getTopic() {
+            return topic;
+        }
+    }
+}
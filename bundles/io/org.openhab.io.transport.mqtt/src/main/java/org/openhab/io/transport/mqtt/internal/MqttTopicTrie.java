@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Subscription index which maps MQTT topic filters to the values (typically
+ * message consumers) registered for them. Filters are stored in a trie with
+ * one node per topic level, so that looking up the subscribers for a received
+ * topic only depends on the depth of the topic and not on the number of
+ * registered filters.
+ *
+ * The + (single level) and # (multi level) wildcards are supported as defined
+ * by the MQTT 3.1.1 specification, i.e. 'a/#' also matches the parent topic
+ * 'a'.
+ *
+ * Modifications are synchronized, lookups are lock-free and can safely be
+ * executed concurrently with modifications.
+ *
+ * @since 1.10.0
+ */
+public class MqttTopicTrie<T> {
+
+    private static final String SEPARATOR = "/";
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node<T> root = new Node<T>();
+
+    /**
+     * Register a value for the given topic filter.
+     *
+     * @param filter
+     *            topic filter, may contain + or # wildcards.
+     * @param value
+     *            value to register.
+     */
+    public synchronized void add(String filter, T value) {
+        String[] levels = split(filter);
+        Node<T> node = root;
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (MULTI_LEVEL_WILDCARD.equals(level) && i == levels.length - 1) {
+                node.multiLevelValues.add(value);
+                return;
+            }
+            Node<T> child = node.children.get(level);
+            if (child == null) {
+                child = new Node<T>();
+                node.children.put(level, child);
+            }
+            node = child;
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Remove a value which was previously registered for the given topic
+     * filter. Nodes which no longer hold any values are pruned.
+     *
+     * @param filter
+     *            topic filter the value was registered with.
+     * @param value
+     *            value to remove.
+     * @return true if the value was found and removed.
+     */
+    public synchronized boolean remove(String filter, T value) {
+        return remove(root, split(filter), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            return node.values.remove(value);
+        }
+        String level = levels[index];
+        if (MULTI_LEVEL_WILDCARD.equals(level) && index == levels.length - 1) {
+            return node.multiLevelValues.remove(value);
+        }
+        Node<T> child = node.children.get(level);
+        if (child == null) {
+            return false;
+        }
+        boolean removed = remove(child, levels, index + 1, value);
+        if (removed && child.isEmpty()) {
+            node.children.remove(level);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all registered values.
+     */
+    public synchronized void clear() {
+        root.children.clear();
+        root.values.clear();
+        root.multiLevelValues.clear();
+    }
+
+    /**
+     * Find all values registered with a topic filter matching the given
+     * topic.
+     *
+     * @param topic
+     *            topic on which a message was received, without wildcards.
+     * @return matching values, or an empty list if there are none.
+     */
+    public List<T> match(String topic) {
+        List<T> result = new ArrayList<T>();
+        match(root, split(topic), 0, result);
+        return result;
+    }
+
+    private void match(Node<T> node, String[] levels, int index, List<T> result) {
+        // a trailing # also matches the parent level, so it applies before
+        // checking whether the topic has been fully consumed
+        result.addAll(node.multiLevelValues);
+
+        if (index == levels.length) {
+            result.addAll(node.values);
+            return;
+        }
+
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, result);
+        }
+        Node<T> wildcard = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (wildcard != null) {
+            match(wildcard, levels, index + 1, result);
+        }
+    }
+
+    /**
+     * @return true if no values are registered.
+     */
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    private static String[] split(String topic) {
+        // keep empty levels, 'a//b' has three levels
+        return topic.split(SEPARATOR, -1);
+    }
+
+    private static class Node<T> {
+
+        private final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<String, Node<T>>();
+
+        private final List<T> values = new CopyOnWriteArrayList<T>();
+
+        private final List<T> multiLevelValues = new CopyOnWriteArrayList<T>();
+
+        private boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty() && multiLevelValues.isEmpty();
+        }
+    }
+}
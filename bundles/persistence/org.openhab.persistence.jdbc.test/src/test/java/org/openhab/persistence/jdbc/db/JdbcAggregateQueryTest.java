@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.persistence.jdbc.model.JdbcAggregation;
+
+public class JdbcAggregateQueryTest {
+
+    private static final String MYSQL_BUCKET = "FLOOR(UNIX_TIMESTAMP(time) / 300)";
+
+    @Test
+    public void testMysql() {
+        assertAggregateQueries(new JdbcMysqlDAO(), MYSQL_BUCKET);
+    }
+
+    @Test
+    public void testMariadb() {
+        assertAggregateQueries(new JdbcMariadbDAO(), MYSQL_BUCKET);
+    }
+
+    @Test
+    public void testHsqldb() {
+        assertAggregateQueries(new JdbcHsqldbDAO(), MYSQL_BUCKET);
+    }
+
+    @Test
+    public void testPostgresql() {
+        assertAggregateQueries(new JdbcPostgresqlDAO(), "FLOOR(EXTRACT(EPOCH FROM time) / 300)");
+    }
+
+    @Test
+    public void testH2() {
+        assertAggregateQueries(new JdbcH2DAO(),
+                "FLOOR(DATEDIFF('SECOND', TIMESTAMP '1970-01-01 00:00:00', time) / 300)");
+    }
+
+    @Test
+    public void testDerby() {
+        assertAggregateQueries(new JdbcDerbyDAO(),
+                "{fn TIMESTAMPDIFF(SQL_TSI_SECOND, TIMESTAMP('1970-01-01 00:00:00'), time)} / 300");
+    }
+
+    @Test
+    public void testSqlite() {
+        // the local time stored as text is converted to UTC before taking the seconds since epoch
+        assertAggregateQueries(new JdbcSqliteDAO(), "CAST(strftime('%s', time, 'utc') AS INTEGER) / 300");
+    }
+
+    @Test
+    public void testDescendingWithoutEndDate() {
+        FilterCriteria filter = new FilterCriteria().setBeginDate(new Date(0)).setOrdering(Ordering.DESCENDING);
+        List<Object> params = new ArrayList<Object>();
+
+        String sql = new JdbcMysqlDAO().histItemAggregateQueryProvider(filter, "item0001", 60, JdbcAggregation.MAX,
+                params);
+
+        assertEquals("SELECT MIN(time), MAX(value) FROM item0001 WHERE TIME>? GROUP BY "
+                + "FLOOR(UNIX_TIMESTAMP(time) / 60) ORDER BY MIN(time) DESC", sql);
+        assertEquals(1, params.size());
+    }
+
+    private void assertAggregateQueries(JdbcBaseDAO dao, String bucket) {
+        FilterCriteria filter = new FilterCriteria().setBeginDate(new Date(0)).setEndDate(new Date(3600000))
+                .setOrdering(Ordering.ASCENDING);
+
+        List<Object> params = new ArrayList<Object>();
+        String sql = dao.histItemAggregateQueryProvider(filter, "item0001", 300, JdbcAggregation.AVG, params);
+        assertEquals("SELECT MIN(time), AVG(value) FROM item0001 WHERE TIME>? AND TIME<? GROUP BY " + bucket
+                + " ORDER BY MIN(time) ASC", sql);
+        assertEquals(2, params.size());
+
+        params.clear();
+        sql = dao.histItemAggregateQueryProvider(filter, "item0001", 300, JdbcAggregation.LAST, params);
+        assertEquals("SELECT time, value FROM item0001 WHERE time IN (SELECT MAX(time) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY " + bucket + ") ORDER BY time ASC", sql);
+        assertEquals(2, params.size());
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.junit.Assert.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+public class JdbcHistItemIterableTest {
+
+    @Test
+    public void testAscending() {
+        FakeDAO dao = new FakeDAO(25);
+        FilterCriteria filter = new FilterCriteria().setOrdering(Ordering.ASCENDING);
+
+        List<Long> times = readTimes(dao, filter, 10);
+
+        assertEquals(25, times.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i * 1000L, times.get(i).longValue());
+        }
+        assertEquals(3, dao.queries);
+        assertEquals(0, dao.openConnections);
+    }
+
+    @Test
+    public void testDescendingWithPeriod() {
+        FakeDAO dao = new FakeDAO(25);
+        FilterCriteria filter = new FilterCriteria().setOrdering(Ordering.DESCENDING).setBeginDate(new Date(2000))
+                .setEndDate(new Date(22000));
+
+        List<Long> times = readTimes(dao, filter, 5);
+
+        // 3000 to 21000
+        assertEquals(19, times.size());
+        for (int i = 0; i < 19; i++) {
+            assertEquals((21 - i) * 1000L, times.get(i).longValue());
+        }
+        assertEquals(4, dao.queries);
+    }
+
+    @Test
+    public void testFullLastPage() {
+        FakeDAO dao = new FakeDAO(20);
+        FilterCriteria filter = new FilterCriteria().setOrdering(Ordering.ASCENDING);
+
+        assertEquals(20, readTimes(dao, filter, 10).size());
+        // the third query finds no more rows
+        assertEquals(3, dao.queries);
+    }
+
+    @Test
+    public void testAbandonedIterationReleasesConnection() {
+        FakeDAO dao = new FakeDAO(1000);
+        FilterCriteria filter = new FilterCriteria().setOrdering(Ordering.ASCENDING);
+        Iterable<HistoricItem> result = new JdbcHistItemIterable(dao, new NumberItem("item"), filter, -1,
+                "item0001", "NUMBERITEM", 100);
+
+        // like a rule which stops at the first value above a threshold
+        Iterator<HistoricItem> it = result.iterator();
+        for (int i = 0; i < 150; i++) {
+            assertTrue(it.hasNext());
+            it.next();
+        }
+
+        assertEquals(2, dao.queries);
+        assertEquals(0, dao.openConnections);
+        assertEquals(100, dao.maxRowsRead);
+    }
+
+    private List<Long> readTimes(FakeDAO dao, FilterCriteria filter, int pageSize) {
+        List<Long> times = new ArrayList<Long>();
+        for (HistoricItem item : new JdbcHistItemIterable(dao, new NumberItem("item"), filter, -1, "item0001",
+                "NUMBERITEM", pageSize)) {
+            times.add(item.getTimestamp().getTime());
+        }
+        return times;
+    }
+
+    /**
+     * Answers the history queries from rows with a time of one second steps, like a pool with a single
+     * connection.
+     */
+    private static class FakeDAO extends JdbcBaseDAO {
+        private final List<Object[]> rows = new ArrayList<Object[]>();
+        private int queries = 0;
+        private int openConnections = 0;
+        private int maxRowsRead = 0;
+
+        FakeDAO(int count) {
+            for (int i = 0; i < count; i++) {
+                rows.add(new Object[] { new Timestamp(i * 1000L), Double.valueOf(i) });
+            }
+        }
+
+        @Override
+        protected List<Object[]> queryObjectArrays(String sql, Object[] params, int maxRows) {
+            openConnections++;
+            try {
+                queries++;
+                int param = 0;
+                Timestamp after = sql.contains("TIME>?") ? (Timestamp) params[param++] : null;
+                Timestamp before = sql.contains("TIME<?") ? (Timestamp) params[param++] : null;
+                List<Object[]> result = new ArrayList<Object[]>();
+                for (Object[] row : rows) {
+                    Timestamp time = (Timestamp) row[0];
+                    if ((after == null || time.after(after)) && (before == null || time.before(before))) {
+                        result.add(row);
+                    }
+                }
+                if (sql.contains("DESC")) {
+                    Collections.reverse(result);
+                }
+                if (maxRows > 0 && result.size() > maxRows) {
+                    result = result.subList(0, maxRows);
+                }
+                maxRowsRead = Math.max(maxRowsRead, result.size());
+                return result;
+            } finally {
+                openConnections--;
+            }
+        }
+    }
+}
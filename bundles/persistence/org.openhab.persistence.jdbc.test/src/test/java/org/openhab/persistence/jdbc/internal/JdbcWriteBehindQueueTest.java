@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.persistence.jdbc.model.ItemVO;
+
+public class JdbcWriteBehindQueueTest {
+
+    private JdbcWriteBehindQueue queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        RecordingMapper mapper = new RecordingMapper();
+        queue = new JdbcWriteBehindQueue(mapper, 100, 10, 60000);
+        queue.start();
+
+        for (int i = 0; i < 25; i++) {
+            assertTrue(queue.add(newItemValue(i)));
+        }
+
+        assertEquals(10, mapper.nextBatch().size());
+        assertEquals(10, mapper.nextBatch().size());
+        queue.stop();
+        assertEquals(5, mapper.nextBatch().size());
+        assertEquals(25, queue.getRowCount());
+        assertTrue(mapper.batches.isEmpty());
+    }
+
+    @Test
+    public void testFlushOnInterval() throws Exception {
+        RecordingMapper mapper = new RecordingMapper();
+        queue = new JdbcWriteBehindQueue(mapper, 100, 10, 50);
+        queue.start();
+
+        long start = System.currentTimeMillis();
+        queue.add(newItemValue(1));
+        queue.add(newItemValue(2));
+        queue.add(newItemValue(3));
+
+        assertEquals(3, mapper.nextBatch().size());
+        assertTrue(System.currentTimeMillis() - start >= 50);
+    }
+
+    @Test
+    public void testStopDrainsQueue() throws Exception {
+        RecordingMapper mapper = new RecordingMapper();
+        mapper.blocked = new CountDownLatch(1);
+        queue = new JdbcWriteBehindQueue(mapper, 1000, 10, 60000);
+        queue.start();
+
+        for (int i = 0; i < 505; i++) {
+            assertTrue(queue.add(newItemValue(i)));
+        }
+        Thread stopper = new Thread() {
+            @Override
+            public void run() {
+                queue.stop();
+            }
+        };
+        stopper.start();
+        // the writer is still busy with the first batch
+        assertTrue(mapper.started.await(10, TimeUnit.SECONDS));
+        mapper.blocked.countDown();
+        stopper.join(10000);
+
+        assertFalse(stopper.isAlive());
+        assertFalse(queue.add(newItemValue(0)));
+        int values = 0;
+        while (!mapper.batches.isEmpty()) {
+            values += mapper.batches.poll().size();
+        }
+        assertEquals(505, values);
+        assertEquals(505, queue.getRowCount());
+        assertFalse(mapper.interrupted);
+    }
+
+    @Test
+    public void testAddAfterStop() throws Exception {
+        RecordingMapper mapper = new RecordingMapper();
+        queue = new JdbcWriteBehindQueue(mapper, 10, 10, 60000);
+        assertFalse(queue.add(newItemValue(0)));
+
+        queue.start();
+        queue.stop();
+        assertFalse(queue.add(newItemValue(0)));
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void testStopWithFullQueue() throws Exception {
+        RecordingMapper mapper = new RecordingMapper();
+        mapper.blocked = new CountDownLatch(1);
+        queue = new JdbcWriteBehindQueue(mapper, 5, 1, 60000);
+        queue.start();
+
+        // one value in the writer and a full queue
+        for (int i = 0; i < 6; i++) {
+            assertTrue(queue.add(newItemValue(i)));
+        }
+        final List<Boolean> added = new ArrayList<Boolean>();
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                boolean result = queue.add(newItemValue(6));
+                synchronized (added) {
+                    added.add(result);
+                }
+            }
+        };
+        producer.start();
+        Thread stopper = new Thread() {
+            @Override
+            public void run() {
+                queue.stop();
+            }
+        };
+        stopper.start();
+        Thread.sleep(200);
+        mapper.blocked.countDown();
+        stopper.join(10000);
+        producer.join(10000);
+
+        assertFalse(stopper.isAlive());
+        assertFalse(producer.isAlive());
+        // a value is either written or rejected, but never lost
+        int expected = added.get(0) ? 7 : 6;
+        assertEquals(expected, queue.getRowCount());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    private static ItemVO newItemValue(int value) {
+        ItemVO vo = new ItemVO("item0001", null);
+        vo.setValue(value);
+        return vo;
+    }
+
+    private static class RecordingMapper extends JdbcMapper {
+
+        private final BlockingQueue<List<ItemVO>> batches = new LinkedBlockingQueue<List<ItemVO>>();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private volatile CountDownLatch blocked;
+
+        private volatile boolean interrupted = false;
+
+        @Override
+        public int storeItemValues(List<ItemVO> vol) {
+            started.countDown();
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                interrupted = true;
+            }
+            batches.add(new ArrayList<ItemVO>(vol));
+            return 0;
+        }
+
+        List<ItemVO> nextBatch() throws InterruptedException {
+            List<ItemVO> batch = batches.poll(10, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Micro benchmark comparing item value inserts and history queries as done
+ * through Yank before (SQL built and statement prepared and closed for every
+ * value, filter dates inlined as literals) with the parameterized statements
+ * served from the {@link PreparedStatementCache} of a single connection, as
+ * used by a write-behind batch. It runs against an embedded Derby in-memory
+ * database, so the Derby driver (e.g. from the lib folder of the JPA
+ * persistence bundle) has to be on the classpath.
+ *
+ * @since 1.10.0
+ */
+public class PreparedStatementCacheBenchmark {
+
+    private static final String SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+
+    private static final int TABLES = 50;
+
+    private static final int INSERTS = 50000;
+
+    private static final int QUERIES = 5000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Class.forName("org.apache.derby.jdbc.EmbeddedDriver");
+        Connection con = DriverManager.getConnection("jdbc:derby:memory:benchmark;create=true");
+        Statement st = con.createStatement();
+        for (int t = 0; t < TABLES; t++) {
+            st.execute("CREATE TABLE item" + t + " (time TIMESTAMP NOT NULL, value DOUBLE, PRIMARY KEY(time))");
+        }
+        st.close();
+
+        PreparedStatementCache cache = new PreparedStatementCache(250);
+        // distinct times for the primary key, Derby's CURRENT_TIMESTAMP repeats within a statement burst
+        long time = System.currentTimeMillis() - 3600000;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < INSERTS; i++) {
+                String sql = StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
+                        new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                        new String[] { "item" + (i % TABLES), "DOUBLE", "'" + new Timestamp(time++) + "'" });
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setObject(1, (double) i);
+                ps.executeUpdate();
+                ps.close();
+            }
+            long uncachedInserts = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < INSERTS; i++) {
+                String sql = SQL_INSERT_ITEM_VALUE.replace("#tableName#", "item" + (i % TABLES))
+                        .replace("#dbType#", "DOUBLE").replace("#tablePrimaryValue#", "?");
+                PreparedStatement ps = cache.prepare(con, sql);
+                ps.setTimestamp(1, new Timestamp(time++));
+                ps.setObject(2, (double) i);
+                ps.executeUpdate();
+                cache.release(con, ps);
+            }
+            long cachedInserts = System.nanoTime() - start;
+
+            long begin = System.currentTimeMillis() - 3600000;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                Timestamp from = new Timestamp(begin + i);
+                PreparedStatement ps = con.prepareStatement("SELECT time, value FROM item" + (i % TABLES)
+                        + " WHERE TIME>'" + from + "' ORDER BY time DESC OFFSET 0 ROWS FETCH FIRST 1 ROWS ONLY");
+                consume(ps.executeQuery());
+                ps.close();
+            }
+            long uncachedQueries = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                String sql = "SELECT time, value FROM item" + (i % TABLES)
+                        + " WHERE TIME>? ORDER BY time DESC OFFSET 0 ROWS FETCH FIRST 1 ROWS ONLY";
+                PreparedStatement ps = cache.prepare(con, sql);
+                ps.setObject(1, new Timestamp(begin + i));
+                consume(ps.executeQuery());
+                cache.release(con, ps);
+            }
+            long cachedQueries = System.nanoTime() - start;
+
+            System.out.println(String.format(
+                    "round %d: inserts %.0f/s before, %.0f/s cached; queries %.0f/s before, %.0f/s cached", round,
+                    INSERTS / (uncachedInserts / 1e9), INSERTS / (cachedInserts / 1e9),
+                    QUERIES / (uncachedQueries / 1e9), QUERIES / (cachedQueries / 1e9)));
+        }
+
+        cache.close(con);
+        con.close();
+    }
+
+    private static void consume(ResultSet rs) throws Exception {
+        while (rs.next()) {
+            rs.getObject(1);
+            rs.getObject(2);
+        }
+        rs.close();
+    }
+}
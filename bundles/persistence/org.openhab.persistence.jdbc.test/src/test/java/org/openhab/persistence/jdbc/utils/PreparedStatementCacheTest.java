@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PreparedStatementCacheTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        FakeConnection con = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con.proxy, "SELECT 1");
+        cache.release(con.proxy, ps1);
+        PreparedStatement ps2 = cache.prepare(con.proxy, "SELECT 1");
+        cache.release(con.proxy, ps2);
+
+        assertSame(ps1, ps2);
+        assertEquals(1, con.prepared.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertFalse(con.isClosed(ps1));
+    }
+
+    @Test
+    public void testPerConnection() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        FakeConnection con1 = new FakeConnection();
+        FakeConnection con2 = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con1.proxy, "SELECT 1");
+        PreparedStatement ps2 = cache.prepare(con2.proxy, "SELECT 1");
+
+        assertNotSame(ps1, ps2);
+        assertEquals(1, con1.prepared.size());
+        assertEquals(1, con2.prepared.size());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        FakeConnection con = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con.proxy, "SELECT 1");
+        cache.prepare(con.proxy, "SELECT 2");
+        // touch the first statement, so the second one is the least recently used
+        cache.prepare(con.proxy, "SELECT 1");
+        PreparedStatement ps3 = cache.prepare(con.proxy, "SELECT 3");
+
+        assertEquals(3, con.prepared.size());
+        assertFalse(con.isClosed(ps1));
+        assertTrue(con.isClosed(con.prepared.get(1)));
+        assertFalse(con.isClosed(ps3));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        FakeConnection con = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con.proxy, "SELECT 1");
+        cache.invalidate(con.proxy, "SELECT 1");
+        PreparedStatement ps2 = cache.prepare(con.proxy, "SELECT 1");
+
+        assertTrue(con.isClosed(ps1));
+        assertNotSame(ps1, ps2);
+    }
+
+    @Test
+    public void testCloseConnection() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        FakeConnection con = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con.proxy, "SELECT 1");
+        PreparedStatement ps2 = cache.prepare(con.proxy, "SELECT 2");
+        cache.close(con.proxy);
+        assertTrue(con.isClosed(ps1));
+        assertTrue(con.isClosed(ps2));
+
+        // the statements are prepared again on the next use of the connection
+        assertNotSame(ps1, cache.prepare(con.proxy, "SELECT 1"));
+        assertEquals(3, con.prepared.size());
+        cache.clear();
+        assertEquals(3, con.closeCount);
+    }
+
+    @Test
+    public void testClosedConnectionIsPurged() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        FakeConnection con1 = new FakeConnection();
+        cache.prepare(con1.proxy, "SELECT 1");
+        con1.closed = true;
+
+        FakeConnection con2 = new FakeConnection();
+        cache.prepare(con2.proxy, "SELECT 1");
+        cache.clear();
+
+        // the statement of the closed connection was dropped and not closed again by clear()
+        assertEquals(0, con1.closeCount);
+        assertEquals(1, con2.closeCount);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(0);
+        FakeConnection con = new FakeConnection();
+
+        PreparedStatement ps1 = cache.prepare(con.proxy, "SELECT 1");
+        cache.release(con.proxy, ps1);
+        PreparedStatement ps2 = cache.prepare(con.proxy, "SELECT 1");
+
+        assertNotSame(ps1, ps2);
+        assertTrue(con.isClosed(ps1));
+    }
+
+    /**
+     * Connection which records the statements prepared on it.
+     */
+    private static class FakeConnection implements InvocationHandler {
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Connection.class }, this);
+
+        private final List<PreparedStatement> prepared = new ArrayList<PreparedStatement>();
+
+        private final List<PreparedStatement> closedStatements = new ArrayList<PreparedStatement>();
+
+        private boolean closed = false;
+
+        private int closeCount = 0;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("prepareStatement".equals(name)) {
+                PreparedStatement ps = createStatement();
+                prepared.add(ps);
+                return ps;
+            } else if ("isClosed".equals(name)) {
+                return closed;
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            return null;
+        }
+
+        private PreparedStatement createStatement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            String name = method.getName();
+                            if ("close".equals(name)) {
+                                closedStatements.add((PreparedStatement) proxy);
+                                closeCount++;
+                            } else if ("hashCode".equals(name)) {
+                                return System.identityHashCode(proxy);
+                            } else if ("equals".equals(name)) {
+                                return proxy == args[0];
+                            }
+                            return null;
+                        }
+                    });
+        }
+
+        private boolean isClosed(PreparedStatement ps) {
+            return closedStatements.contains(ps);
+        }
+    }
+}
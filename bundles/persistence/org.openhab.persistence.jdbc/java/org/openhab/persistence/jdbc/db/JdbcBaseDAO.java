@@ -9,18 +9,24 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
+import org.apache.commons.dbutils.handlers.ArrayListHandler;
+import org.apache.commons.lang.StringUtils;
 import org.knowm.yank.Yank;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -45,8 +51,10 @@ import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
+import org.openhab.persistence.jdbc.model.JdbcAggregation;
 import org.openhab.persistence.jdbc.model.JdbcItem;
 import org.openhab.persistence.jdbc.utils.DbMetaData;
+import org.openhab.persistence.jdbc.utils.PreparedStatementCache;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +75,9 @@ public class JdbcBaseDAO {
     // Get Database Meta data
     protected DbMetaData dbMeta;
 
+    // prepared statements for item value inserts and history queries, per connection
+    protected PreparedStatementCache statementCache = new PreparedStatementCache(250);
+
     protected String SQL_PING_DB;
     protected String SQL_GET_DB;
     protected String SQL_IF_TABLE_EXISTS;
@@ -77,6 +88,10 @@ public class JdbcBaseDAO {
     protected String SQL_GET_ITEM_TABLES;
     protected String SQL_CREATE_ITEM_TABLE;
     protected String SQL_INSERT_ITEM_VALUE;
+    // replaces #tablePrimaryValue# in SQL_INSERT_ITEM_VALUE when the time is passed as parameter
+    protected String SQL_INSERT_ITEM_VALUE_TIME_PARAM = "?";
+    // number of the time bucket of a row for aggregated queries, i.e. seconds since epoch / #bucketSeconds#
+    protected String SQL_TIME_BUCKET;
 
     /********
      * INIT *
@@ -145,6 +160,7 @@ public class JdbcBaseDAO {
         SQL_GET_ITEM_TABLES = "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE' AND table_schema=#jdbcUriDatabaseName# AND NOT table_name=#itemsManageTable#";
         SQL_CREATE_ITEM_TABLE = "CREATE TABLE IF NOT EXISTS #tableName# (time #tablePrimaryKey# NOT NULL, value #dbType#, PRIMARY KEY(time))";
         SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
+        SQL_TIME_BUCKET = "FLOOR(UNIX_TIMESTAMP(time) / #bucketSeconds#)";
     }
 
     /**
@@ -324,19 +340,107 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(SQL_INSERT_ITEM_VALUE,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { vo.getValue(), vo.getValue() };
+        String sql = storeItemValueSqlProvider(vo, sqlTypes.get("tablePrimaryValue"));
+        // the value is bound to every parameter, e.g. 'ON DUPLICATE KEY UPDATE VALUE= ?'
+        Object[] params = new Object[StringUtils.countMatches(sql, "?")];
+        Arrays.fill(params, vo.getValue());
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
-        Yank.execute(sql, params);
+        executeUpdate(sql, params);
+    }
+
+    /**
+     * Converts the current state of an item into a value object which can be
+     * stored later on with {@link #doStoreItemValues(List)}. The current time
+     * is used as time stamp.
+     */
+    public ItemVO doPrepareItemValue(Item item, ItemVO vo) {
+        vo = storeItemValueProvider(item, vo);
+        vo.setTime(new Date());
+        return vo;
+    }
+
+    /**
+     * Stores a list of values prepared by {@link #doPrepareItemValue(Item, ItemVO)} in one transaction, using JDBC
+     * batches per item table. If the batch fails, the values are stored one by one, so a single bad value (e.g. a
+     * duplicate time stamp) does not discard the others.
+     *
+     * @return number of values which could not be stored
+     */
+    public int doStoreItemValues(List<ItemVO> vol) throws SQLException {
+        // group by statement, i.e. by item table
+        Map<String, List<ItemVO>> batches = new LinkedHashMap<String, List<ItemVO>>();
+        for (ItemVO vo : vol) {
+            String sql = storeItemValuesSqlProvider(vo);
+            List<ItemVO> batch = batches.get(sql);
+            if (batch == null) {
+                batch = new ArrayList<ItemVO>();
+                batches.put(sql, batch);
+            }
+            batch.add(vo);
+        }
+
+        Connection con = Yank.getDefaultConnectionPool().getConnection();
+        try {
+            boolean autoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                for (Map.Entry<String, List<ItemVO>> batch : batches.entrySet()) {
+                    logger.debug("JDBC::doStoreItemValues sql={} rows={}", batch.getKey(), batch.getValue().size());
+                    int paramCount = StringUtils.countMatches(batch.getKey(), "?");
+                    PreparedStatement ps = statementCache.prepare(con, batch.getKey());
+                    try {
+                        for (ItemVO vo : batch.getValue()) {
+                            setStoreItemValuesParams(ps, paramCount, vo);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    } catch (SQLException e) {
+                        statementCache.invalidate(con, batch.getKey());
+                        throw e;
+                    }
+                    ps.clearBatch();
+                    statementCache.release(con, ps);
+                }
+                con.commit();
+                return 0;
+            } catch (SQLException e) {
+                logger.warn("JDBC::doStoreItemValues: batch failed, storing {} values one by one: {}", vol.size(),
+                        e.getMessage());
+                con.rollback();
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+
+            int failed = 0;
+            for (Map.Entry<String, List<ItemVO>> batch : batches.entrySet()) {
+                int paramCount = StringUtils.countMatches(batch.getKey(), "?");
+                for (ItemVO vo : batch.getValue()) {
+                    try {
+                        PreparedStatement ps = statementCache.prepare(con, batch.getKey());
+                        setStoreItemValuesParams(ps, paramCount, vo);
+                        ps.executeUpdate();
+                        statementCache.release(con, ps);
+                    } catch (SQLException e) {
+                        logger.error("JDBC::doStoreItemValues: could not store value '{}' in table '{}': {}",
+                                vo.getValue(), vo.getTableName(), e.getMessage());
+                        statementCache.invalidate(con, batch.getKey());
+                        failed++;
+                    }
+                }
+            }
+            return failed;
+        } finally {
+            statementCache.close(con);
+            con.close();
+        }
     }
 
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name);
-        logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+        List<Object> params = new ArrayList<Object>();
+        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, params);
+        logger.debug("JDBC::doGetHistItemFilterQuery sql={} params={}", sql, params);
+        List<Object[]> m = queryObjectArrays(sql, params.toArray());
 
         List<HistoricItem> items = new ArrayList<HistoricItem>();
         for (int i = 0; i < m.size(); i++) {
@@ -345,26 +449,96 @@ public class JdbcBaseDAO {
         return items;
     }
 
+    /**
+     * Like {@link #doGetHistItemFilterQuery(Item, FilterCriteria, int, String, String)}, but the rows are read from
+     * the database while the result is iterated, 'fetchSize' rows at a time. See {@link JdbcHistItemIterable}.
+     */
+    public JdbcHistItemIterable doGetHistItemFilterIterable(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, String name, int fetchSize) {
+        logger.debug("JDBC::doGetHistItemFilterIterable table={} fetchSize={}", table, fetchSize);
+        return new JdbcHistItemIterable(this, item, filter, numberDecimalcount, table, name, fetchSize);
+    }
+
+    /**
+     * Queries one value per time bucket of 'bucketSeconds' length, computed by the database. The number of returned
+     * values is therefore limited by the length of the queried period divided by the bucket length, no matter how
+     * many values are stored.
+     *
+     * Only {@link JdbcAggregation#LAST} is supported for items which are not numeric, other functions fall back to it.
+     */
+    public List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, long bucketSeconds, JdbcAggregation aggregation) {
+        boolean numeric = !(item instanceof ColorItem) && (item instanceof NumberItem || item instanceof DimmerItem
+                || item instanceof RollershutterItem);
+        if (!numeric) {
+            aggregation = JdbcAggregation.LAST;
+        }
+        List<Object> params = new ArrayList<Object>();
+        String sql = histItemAggregateQueryProvider(filter, table, bucketSeconds, aggregation, params);
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={} params={}", sql, params);
+        List<Object[]> m = queryObjectArrays(sql, params.toArray());
+
+        List<HistoricItem> items = new ArrayList<HistoricItem>(m.size());
+        for (Object[] row : m) {
+            if (row[1] == null) {
+                continue;
+            }
+            State state = aggregation == JdbcAggregation.LAST ? getState(item, row[1])
+                    : getAggregateState(item, (Number) row[1], numberDecimalcount);
+            items.add(new JdbcItem(item.getName(), state, objectAsDate(row[0])));
+        }
+        return items;
+    }
+
     /*************
      * Providers *
      *************/
-    static final DateTimeFormatter jdbcDateFormat = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss");
-
-    private String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
-            String simpleName) {
-        logger.debug(
-                "JDBC::getHistItemFilterQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}",
-                filter.toString(), numberDecimalcount, table, simpleName);
-
+    /**
+     * @return ' WHERE TIME>? AND TIME<?' for the dates set in the filter, an empty string if none is set
+     */
+    protected String histItemTimeFilterProvider(FilterCriteria filter, List<Object> params) {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + jdbcDateFormat.print(new DateTime(filter.getBeginDate().getTime())) + "'";
+            filterString += " TIME>?";
+            params.add(timeAsParam(filter.getBeginDate()));
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + jdbcDateFormat.print(new DateTime(filter.getEndDate().getTime())) + "'";
+            filterString += " TIME<?";
+            params.add(timeAsParam(filter.getEndDate()));
         }
+        return filterString;
+    }
+
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, String table, long bucketSeconds,
+            JdbcAggregation aggregation, List<Object> params) {
+        String bucket = StringUtils.replace(SQL_TIME_BUCKET, "#bucketSeconds#", String.valueOf(bucketSeconds));
+        String order = filter.getOrdering() == Ordering.ASCENDING ? " ASC" : " DESC";
+        String queryString;
+        if (aggregation == JdbcAggregation.LAST) {
+            // SELECT time, value FROM item0001 WHERE time IN (SELECT MAX(time) FROM item0001 WHERE TIME>? GROUP BY
+            // FLOOR(UNIX_TIMESTAMP(time) / 300)) ORDER BY time ASC
+            queryString = "SELECT time, value FROM " + table + " WHERE time IN (SELECT MAX(time) FROM " + table
+                    + histItemTimeFilterProvider(filter, params) + " GROUP BY " + bucket + ") ORDER BY time" + order;
+        } else {
+            // SELECT MIN(time), AVG(value) FROM item0001 WHERE TIME>? GROUP BY FLOOR(UNIX_TIMESTAMP(time) / 300)
+            // ORDER BY MIN(time) ASC
+            queryString = "SELECT MIN(time), " + aggregation.name() + "(value) FROM " + table
+                    + histItemTimeFilterProvider(filter, params) + " GROUP BY " + bucket + " ORDER BY MIN(time)"
+                    + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName, List<Object> params) {
+        logger.debug(
+                "JDBC::getHistItemFilterQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}",
+                filter.toString(), numberDecimalcount, table, simpleName);
+
+        String filterString = histItemTimeFilterProvider(filter, params);
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC ";
         if (filter.getPageSize() != 0x7fffffff) {
             filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
@@ -392,6 +566,40 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Creates the insert statement from SQL_INSERT_ITEM_VALUE. The statement only differs per item table, so it is
+     * served from the {@link PreparedStatementCache} for the further values of an item stored with the same
+     * connection.
+     */
+    protected String storeItemValueSqlProvider(ItemVO vo, String tablePrimaryValue) {
+        String sql = StringUtils.replace(SQL_INSERT_ITEM_VALUE, "#tableName#", vo.getTableName());
+        sql = StringUtils.replace(sql, "#dbType#", vo.getDbType());
+        return StringUtils.replace(sql, "#tablePrimaryValue#", tablePrimaryValue);
+    }
+
+    /**
+     * Creates the insert statement for {@link #doStoreItemValues(List)}, with the time passed as first parameter
+     * instead of being taken from the database clock.
+     */
+    protected String storeItemValuesSqlProvider(ItemVO vo) {
+        return storeItemValueSqlProvider(vo, SQL_INSERT_ITEM_VALUE_TIME_PARAM);
+    }
+
+    /**
+     * Binds the parameters of a statement created by {@link #storeItemValuesSqlProvider(ItemVO)}: the time first,
+     * the value for all following parameters (e.g. 'ON DUPLICATE KEY UPDATE VALUE= ?').
+     */
+    protected void setStoreItemValuesParams(PreparedStatement ps, int paramCount, ItemVO vo) throws SQLException {
+        ps.setObject(1, timeAsParam(vo.getTime()));
+        for (int i = 2; i <= paramCount; i++) {
+            ps.setObject(i, vo.getValue());
+        }
+    }
+
+    protected Object timeAsParam(Date time) {
+        return new Timestamp(time.getTime());
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -465,6 +673,99 @@ public class JdbcBaseDAO {
     /*****************
      * H E L P E R S *
      *****************/
+    /**
+     * Executes an update with a cached prepared statement.
+     *
+     * @return number of updated rows, -1 if the statement failed
+     */
+    protected int executeUpdate(String sql, Object[] params) {
+        Connection con = null;
+        try {
+            con = Yank.getDefaultConnectionPool().getConnection();
+            PreparedStatement ps = statementCache.prepare(con, sql);
+            try {
+                setParams(ps, params);
+                int rows = ps.executeUpdate();
+                statementCache.release(con, ps);
+                return rows;
+            } catch (SQLException e) {
+                statementCache.invalidate(con, sql);
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("JDBC::executeUpdate: error in SQL '{}' params={}: {}", sql, Arrays.toString(params),
+                    e.getMessage());
+            return -1;
+        } finally {
+            closeConnection(con);
+        }
+    }
+
+    /**
+     * Executes a query with a cached prepared statement.
+     *
+     * @return all rows as arrays of column values, an empty list if the query failed
+     */
+    protected List<Object[]> queryObjectArrays(String sql, Object[] params) {
+        return queryObjectArrays(sql, params, 0);
+    }
+
+    /**
+     * Executes a query with a cached prepared statement, returning at most 'maxRows' rows.
+     *
+     * @param maxRows
+     *            maximum number of rows, 0 for all rows
+     * @return the rows as arrays of column values, an empty list if the query failed
+     */
+    protected List<Object[]> queryObjectArrays(String sql, Object[] params, int maxRows) {
+        Connection con = null;
+        try {
+            con = Yank.getDefaultConnectionPool().getConnection();
+            PreparedStatement ps = statementCache.prepare(con, sql);
+            try {
+                setParams(ps, params);
+                ps.setMaxRows(maxRows);
+                ResultSet rs = ps.executeQuery();
+                try {
+                    List<Object[]> rows = new ArrayListHandler().handle(rs);
+                    if (maxRows != 0) {
+                        ps.setMaxRows(0);
+                    }
+                    statementCache.release(con, ps);
+                    return rows;
+                } finally {
+                    rs.close();
+                }
+            } catch (SQLException e) {
+                statementCache.invalidate(con, sql);
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("JDBC::queryObjectArrays: error in SQL '{}' params={}: {}", sql, Arrays.toString(params),
+                    e.getMessage());
+            return new ArrayList<Object[]>();
+        } finally {
+            closeConnection(con);
+        }
+    }
+
+    private void setParams(PreparedStatement ps, Object[] params) throws SQLException {
+        for (int i = 0; params != null && i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
+        }
+    }
+
+    private void closeConnection(Connection con) {
+        if (con != null) {
+            statementCache.close(con);
+            try {
+                con.close();
+            } catch (SQLException e) {
+                logger.debug("JDBC::closeConnection: {}", e.getMessage());
+            }
+        }
+    }
+
     protected State getState(Item item, Object v) {
         String clazz = v.getClass().getSimpleName();
         logger.debug("JDBC::ItemResultHandler::handleResult getState value = '{}', getClass = '{}', clazz = '{}'",
@@ -509,6 +810,21 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Converts the result of an aggregate function, which may be of a different type than the column (e.g. AVG of an
+     * INTEGER column).
+     */
+    protected State getAggregateState(Item item, Number v, int numberDecimalcount) {
+        BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v : new BigDecimal(v.toString());
+        if (item instanceof DimmerItem || item instanceof RollershutterItem) {
+            return new PercentType(value.setScale(0, RoundingMode.HALF_UP));
+        }
+        if (numberDecimalcount > -1) {
+            value = value.setScale(numberDecimalcount, RoundingMode.HALF_UP);
+        }
+        return new DecimalType(value);
+    }
+
     protected Date objectAsDate(Object v) {
         if (v instanceof java.lang.String) {
             // toInstant is Java8 only: return Date.from(Timestamp.valueOf(v.toString()).toInstant());
@@ -575,6 +891,19 @@ public class JdbcBaseDAO {
         return sqlTypes;
     }
 
+    /**
+     * @param size
+     *            maximum number of prepared statements kept open per connection, 0 disables caching
+     */
+    public void setStatementCacheSize(int size) {
+        statementCache.clear();
+        statementCache = new PreparedStatementCache(size);
+    }
+
+    public PreparedStatementCache getStatementCache() {
+        return statementCache;
+    }
+
     public String getDataType(Item item) {
         return sqlTypes.get(getItemType(item));
     }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.openhab.core.items.Item;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.model.JdbcItem;
+
+/**
+ * Result of a history query which is read from the database in pages of
+ * 'pageSize' rows while it is iterated. The rows of a page are converted to
+ * {@link HistoricItem}s one at a time, so the memory needed does not depend on
+ * the number of rows.
+ *
+ * Every page is a query of its own, which continues after the time of the
+ * last row of the previous page. The connection is returned to the pool as
+ * soon as a page has been read, so an iterator holds no database resources
+ * between two calls and can be abandoned at any time.
+ *
+ * @since 1.10.0
+ */
+public class JdbcHistItemIterable implements Iterable<HistoricItem> {
+
+    private final JdbcBaseDAO dao;
+    private final Item item;
+    private final FilterCriteria filter;
+    private final int numberDecimalcount;
+    private final String table;
+    private final String name;
+    private final int pageSize;
+
+    JdbcHistItemIterable(JdbcBaseDAO dao, Item item, FilterCriteria filter, int numberDecimalcount, String table,
+            String name, int pageSize) {
+        this.dao = dao;
+        this.item = item;
+        this.filter = filter;
+        this.numberDecimalcount = numberDecimalcount;
+        this.table = table;
+        this.name = name;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Reads the page after the row with the given time.
+     *
+     * @param after
+     *            time column of the last row read, null for the first page
+     */
+    private List<Object[]> readPage(Object after) {
+        List<Object> params = new ArrayList<Object>();
+        String sql;
+        if (after == null) {
+            sql = dao.histItemFilterQueryProvider(filter, numberDecimalcount, table, name, params);
+        } else {
+            // the time is unique, so the next page starts right after it in the order of the query
+            boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+            FilterCriteria pageFilter = new FilterCriteria().setItemName(filter.getItemName())
+                    .setOrdering(filter.getOrdering()).setBeginDate(filter.getBeginDate())
+                    .setEndDate(filter.getEndDate());
+            if (ascending) {
+                pageFilter.setBeginDate(new Date(0));
+            } else {
+                pageFilter.setEndDate(new Date(0));
+            }
+            sql = dao.histItemFilterQueryProvider(pageFilter, numberDecimalcount, table, name, params);
+            // the value as read from the database keeps the full precision of the column
+            params.set(ascending ? 0 : params.size() - 1, after);
+        }
+        return dao.queryObjectArrays(sql, params.toArray(), pageSize);
+    }
+
+    private class PageIterator implements Iterator<HistoricItem> {
+        private List<Object[]> page = Collections.emptyList();
+        private int index = 0;
+        private boolean lastPage = false;
+
+        @Override
+        public boolean hasNext() {
+            if (index < page.size()) {
+                return true;
+            }
+            if (lastPage) {
+                return false;
+            }
+            Object after = page.isEmpty() ? null : page.get(page.size() - 1)[0];
+            page = readPage(after);
+            index = 0;
+            lastPage = page.size() < pageSize;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public HistoricItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row = page.get(index++);
+            return new JdbcItem(item.getName(), dao.getState(item, row[1]), dao.objectAsDate(row[0]));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -55,6 +55,13 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private boolean writeBehind = false;
+    private int writeBehindFlushSize = 100;
+    private int writeBehindFlushInterval = 1000;
+    private int writeBehindQueueSize = 10000;
+
+    private int queryFetchSize = 0;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -164,6 +171,42 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String wb = (String) configuration.get("writeBehind");
+        if (StringUtils.isNotBlank(wb)) {
+            writeBehind = Boolean.parseBoolean(wb);
+            logger.debug("JDBC::updateConfig: writeBehind={}", writeBehind);
+        }
+
+        String wfs = (String) configuration.get("writeBehindFlushSize");
+        if (StringUtils.isNotBlank(wfs) && StringUtils.isNumeric(wfs) && Integer.parseInt(wfs) > 0) {
+            writeBehindFlushSize = Integer.parseInt(wfs);
+            logger.debug("JDBC::updateConfig: writeBehindFlushSize={}", writeBehindFlushSize);
+        }
+
+        String wfi = (String) configuration.get("writeBehindFlushInterval");
+        if (StringUtils.isNotBlank(wfi) && StringUtils.isNumeric(wfi)) {
+            writeBehindFlushInterval = Integer.parseInt(wfi);
+            logger.debug("JDBC::updateConfig: writeBehindFlushInterval={}", writeBehindFlushInterval);
+        }
+
+        String wqs = (String) configuration.get("writeBehindQueueSize");
+        if (StringUtils.isNotBlank(wqs) && StringUtils.isNumeric(wqs) && Integer.parseInt(wqs) > 0) {
+            writeBehindQueueSize = Integer.parseInt(wqs);
+            logger.debug("JDBC::updateConfig: writeBehindQueueSize={}", writeBehindQueueSize);
+        }
+
+        String sc = (String) configuration.get("statementCacheSize");
+        if (StringUtils.isNotBlank(sc) && StringUtils.isNumeric(sc)) {
+            dBDAO.setStatementCacheSize(Integer.parseInt(sc));
+            logger.debug("JDBC::updateConfig: statementCacheSize={}", sc);
+        }
+
+        String qfs = (String) configuration.get("queryFetchSize");
+        if (StringUtils.isNotBlank(qfs) && StringUtils.isNumeric(qfs)) {
+            queryFetchSize = Integer.parseInt(qfs);
+            logger.debug("JDBC::updateConfig: queryFetchSize={}", queryFetchSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (StringUtils.isNotBlank(ac)) {
@@ -340,6 +383,26 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public boolean getWriteBehind() {
+        return writeBehind;
+    }
+
+    public int getWriteBehindFlushSize() {
+        return writeBehindFlushSize;
+    }
+
+    public int getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public int getWriteBehindQueueSize() {
+        return writeBehindQueueSize;
+    }
+
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
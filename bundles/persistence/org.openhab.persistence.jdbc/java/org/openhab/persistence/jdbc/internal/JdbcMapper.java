@@ -8,6 +8,7 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +18,7 @@ import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.db.JdbcHistItemIterable;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.slf4j.Logger;
@@ -144,6 +146,32 @@ public class JdbcMapper {
         return item;
     }
 
+    public ItemVO prepareItemValue(Item item) {
+        logger.debug("JDBC::prepareItemValue: item={}", item.toString());
+        String tableName = getTable(item);
+        if (tableName == null) {
+            logger.error("JDBC::prepareItemValue: Unable to store item '{}'.", item.getName());
+            return null;
+        }
+        return conf.getDBDAO().doPrepareItemValue(item, new ItemVO(tableName, null));
+    }
+
+    public int storeItemValues(List<ItemVO> vol) {
+        logger.debug("JDBC::storeItemValues: size={}", vol.size());
+        long timerStart = System.currentTimeMillis();
+        int failed;
+        try {
+            failed = conf.getDBDAO().doStoreItemValues(vol);
+            errCnt = 0;
+        } catch (SQLException e) {
+            logger.error("JDBC::storeItemValues: Unable to store {} values: {}", vol.size(), e.getMessage());
+            failed = vol.size();
+            errCnt++;
+        }
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        return failed;
+    }
+
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
@@ -161,6 +189,19 @@ public class JdbcMapper {
         return null;
     }
 
+    public JdbcHistItemIterable getHistItemFilterIterable(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item, int fetchSize) {
+        logger.debug("JDBC::getHistItemFilterIterable table='{}' item='{}' fetchSize='{}'", table, item.getName(),
+                fetchSize);
+        if (table != null) {
+            return conf.getDBDAO().doGetHistItemFilterIterable(item, filter, numberDecimalcount, table,
+                    item.getName(), fetchSize);
+        } else {
+            logger.error("JDBC::getHistItemFilterIterable: TABLE is NULL; cannot get data from non-existent table.");
+        }
+        return null;
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -181,7 +222,8 @@ public class JdbcMapper {
 
     protected void closeConnection() {
         logger.debug("JDBC::closeConnection");
-        // Closes all open connection pools
+        // Closes all cached statements and open connection pools
+        conf.getDBDAO().getStatementCache().clear();
         Yank.releaseDefaultConnectionPool();
         conf.setDbConnected(false);
     }
@@ -22,6 +22,7 @@ import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.model.ItemVO;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,8 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     @SuppressWarnings("unused")
     private BundleContext bundleContext;
 
+    private JdbcWriteBehindQueue writeBehindQueue = null;
+
     /**
      * Called by the SCR to activate the component with its configuration read
      * from CAS
@@ -81,6 +84,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopWriteBehindQueue();
         this.bundleContext = null;
         initialized = false;
     }
@@ -130,6 +134,15 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             return;
         }
         long timerStart = System.currentTimeMillis();
+        JdbcWriteBehindQueue queue = writeBehindQueue;
+        if (queue != null) {
+            ItemVO vo = prepareItemValue(item);
+            if (vo != null && queue.add(vo)) {
+                logger.debug("JDBC: Queued item '{}' as '{}' in {} ms, queue depth {}.", item.getName(),
+                        item.getState().toString(), System.currentTimeMillis() - timerStart, queue.getQueueDepth());
+            }
+            return;
+        }
         storeItemValue(item);
         logger.debug("JDBC: Stored item '{}' as '{}' in SQL database at {} in {} ms.", item.getName(),
                 item.getState().toString(), (new java.util.Date()).toString(), System.currentTimeMillis() - timerStart);
@@ -198,7 +211,16 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
 
         long timerStart = System.currentTimeMillis();
         List<HistoricItem> items = new ArrayList<HistoricItem>();
-        items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        if (conf.getQueryFetchSize() > 0 && filter.getPageSize() == Integer.MAX_VALUE) {
+            // unpaged queries may return any number of rows, read them while they are iterated
+            logger.debug("JDBC::query: streaming query for {} with fetchSize {}", item.getName(),
+                    conf.getQueryFetchSize());
+            errCnt = 0;
+            return getHistItemFilterIterable(filter, conf.getNumberDecimalcount(), table, item,
+                    conf.getQueryFetchSize());
+        } else {
+            items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        }
 
         logger.debug("JDBC::query: query for {} returned {} rows in {} ms", item.getName(), items.size(),
                 System.currentTimeMillis() - timerStart);
@@ -214,6 +236,14 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        // write values queued with the previous configuration
+        stopWriteBehindQueue();
+
+        if (conf != null) {
+            // the statements and tables of the previous configuration may belong to another database
+            conf.getDBDAO().getStatementCache().clear();
+            sqlTables.clear();
+        }
         conf = new JdbcConfiguration(configuration);
         if (checkDBAccessability()) {
             checkDBSchema();
@@ -223,6 +253,26 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             initialized = false;
         }
 
+        if (conf.getWriteBehind()) {
+            writeBehindQueue = new JdbcWriteBehindQueue(this, conf.getWriteBehindQueueSize(),
+                    conf.getWriteBehindFlushSize(), conf.getWriteBehindFlushInterval());
+            writeBehindQueue.start();
+        }
+
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getName());
     }
+
+    private void stopWriteBehindQueue() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.stop();
+            writeBehindQueue = null;
+        }
+    }
+
+    /**
+     * @return the write-behind queue, or null if values are written immediately
+     */
+    public JdbcWriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
 }
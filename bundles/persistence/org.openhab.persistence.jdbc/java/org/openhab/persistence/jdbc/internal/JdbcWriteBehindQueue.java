@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue for item values. Values are collected in a bounded queue
+ * and written by a single writer thread in batches of up to
+ * 'writeBehindFlushSize' values, at the latest 'writeBehindFlushInterval'
+ * milliseconds after the first value of a batch was queued. When the queue is
+ * full, storing blocks until the writer has caught up.
+ *
+ * Stopping the queue ends it with a marker value, so the writer finishes the
+ * batch it is writing and all values queued before the marker.
+ *
+ * @since 1.10.0
+ */
+public class JdbcWriteBehindQueue implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcWriteBehindQueue.class);
+
+    // maximum time to wait for the queue to be drained on stop
+    private static final long STOP_TIMEOUT = 30000;
+
+    // time to wait for space in a full queue before checking whether it was stopped
+    private static final long ADD_TIMEOUT = 100;
+
+    // queued after the last value on stop
+    private static final ItemVO END_OF_QUEUE = new ItemVO(null, null);
+
+    private final JdbcMapper mapper;
+    private final BlockingQueue<ItemVO> queue;
+    private final int flushSize;
+    private final long flushInterval;
+    private final Object lifecycleLock = new Object();
+    private Thread writer;
+
+    // values are added under the read lock, running is changed under the write lock
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+    private boolean running = false;
+
+    // metrics
+    private long flushCount = 0;
+    private long rowCount = 0;
+    private long failedCount = 0;
+    private long flushTimeTotal = 0;
+    private long lastFlushTime = 0;
+
+    public JdbcWriteBehindQueue(JdbcMapper mapper, int queueSize, int flushSize, long flushInterval) {
+        this.mapper = mapper;
+        this.queue = new ArrayBlockingQueue<ItemVO>(queueSize);
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+    }
+
+    public void start() {
+        synchronized (lifecycleLock) {
+            runningLock.writeLock().lock();
+            try {
+                if (running) {
+                    return;
+                }
+                running = true;
+            } finally {
+                runningLock.writeLock().unlock();
+            }
+            logger.debug("JDBC::JdbcWriteBehindQueue: starting, flushSize={} flushInterval={} ms", flushSize,
+                    flushInterval);
+            writer = new Thread(this, "JDBC write-behind");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stops the writer thread. All queued values are written before this
+     * method returns.
+     */
+    public void stop() {
+        synchronized (lifecycleLock) {
+            runningLock.writeLock().lock();
+            try {
+                if (!running) {
+                    return;
+                }
+                running = false;
+            } finally {
+                runningLock.writeLock().unlock();
+            }
+            logger.debug("JDBC::JdbcWriteBehindQueue: stopping, draining {} queued values", queue.size());
+            long deadline = System.currentTimeMillis() + STOP_TIMEOUT;
+            try {
+                if (queue.offer(END_OF_QUEUE, STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                logger.warn("JDBC::JdbcWriteBehindQueue: writer did not finish within {} ms, {} values are lost",
+                        STOP_TIMEOUT, queue.size());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Queues a value for writing, blocks while the queue is full.
+     *
+     * @return false if the queue is not running or the caller was interrupted
+     */
+    public boolean add(ItemVO vo) {
+        while (true) {
+            // the lock is released between the attempts, so a full queue does not block stop()
+            runningLock.readLock().lock();
+            try {
+                if (!running) {
+                    return false;
+                }
+                if (queue.offer(vo, ADD_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                runningLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        List<ItemVO> batch = new ArrayList<ItemVO>(flushSize);
+        boolean end = false;
+        while (!end) {
+            try {
+                ItemVO first = queue.take();
+                if (first == END_OF_QUEUE) {
+                    break;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushInterval;
+                while (batch.size() < flushSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    ItemVO vo = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (vo == null) {
+                        break;
+                    }
+                    if (vo == END_OF_QUEUE) {
+                        end = true;
+                        break;
+                    }
+                    batch.add(vo);
+                }
+            } catch (InterruptedException e) {
+                logger.warn("JDBC::JdbcWriteBehindQueue: writer interrupted, {} queued values are lost",
+                        queue.size());
+                end = true;
+            }
+            flush(batch);
+        }
+        logger.debug("JDBC::JdbcWriteBehindQueue: stopped");
+    }
+
+    private void flush(List<ItemVO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        int failed = mapper.storeItemValues(batch);
+        long time = System.currentTimeMillis() - timerStart;
+
+        synchronized (this) {
+            flushCount++;
+            rowCount += batch.size() - failed;
+            failedCount += failed;
+            flushTimeTotal += time;
+            lastFlushTime = time;
+        }
+        logger.debug("JDBC::JdbcWriteBehindQueue: flushed {} values in {} ms ({} rows/s), {} failed, queue={}",
+                batch.size(), time, time > 0 ? batch.size() * 1000 / time : batch.size(), failed, queue.size());
+        batch.clear();
+    }
+
+    /**
+     * @return number of values waiting to be written
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of values written
+     */
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return number of values which could not be written
+     */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return duration of the last flush in ms
+     */
+    public synchronized long getLastFlushTime() {
+        return lastFlushTime;
+    }
+
+    /**
+     * @return average duration of a flush in ms
+     */
+    public synchronized double getAverageFlushTime() {
+        return flushCount == 0 ? 0 : (double) flushTimeTotal / flushCount;
+    }
+
+    /**
+     * @return average number of values written per second of flush time
+     */
+    public synchronized double getRowsPerSecond() {
+        return flushTimeTotal == 0 ? 0 : rowCount * 1000.0 / flushTimeTotal;
+    }
+}
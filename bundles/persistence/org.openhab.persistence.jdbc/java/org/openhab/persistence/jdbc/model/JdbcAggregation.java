@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.model;
+
+/**
+ * Function used to reduce the values within one time bucket of an aggregated
+ * history query to a single value.
+ *
+ * @since 1.10.0
+ */
+public enum JdbcAggregation {
+    /** average of all values, numeric items only */
+    AVG,
+    /** smallest value, numeric items only */
+    MIN,
+    /** largest value, numeric items only */
+    MAX,
+    /** last value, works for all item types */
+    LAST;
+
+    /**
+     * @param value
+     *            configuration value like 'avg', case insensitive
+     * @return the aggregation function
+     * @throws IllegalArgumentException
+     *             if the value is not a valid function
+     */
+    public static JdbcAggregation fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
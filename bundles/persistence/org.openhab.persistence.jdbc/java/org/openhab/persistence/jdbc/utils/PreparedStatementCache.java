@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps prepared statements open per borrowed database connection, so that
+ * statements which are executed again and again while a connection is in use
+ * (e.g. the inserts of a write-behind batch into the same item table) are
+ * parsed and planned by the database only once.
+ *
+ * Statements are prepared on the connection handed out by the pool, so that
+ * the pool sees the errors of the statements and evicts broken connections.
+ * The pool closes these statements when the connection is returned, so the
+ * statements of a connection must be dropped with {@link #close(Connection)}
+ * before the connection is closed. A borrowed connection is only used by one
+ * thread at a time, so its cached statements are never shared between
+ * threads. Statements are reused across connections by the drivers which
+ * cache prepared statements per physical connection themselves (e.g.
+ * PostgreSQL, or MySQL with 'cachePrepStmts').
+ *
+ * The least recently used statement of a connection is closed when more than
+ * 'size' statements are cached. Statements of connections which have been
+ * closed without {@link #close(Connection)} are dropped when the next new
+ * connection is seen.
+ *
+ * @since 1.10.0
+ */
+public class PreparedStatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    private final int size;
+    private final Map<Connection, Map<String, PreparedStatement>> cache = new IdentityHashMap<Connection, Map<String, PreparedStatement>>();
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param size
+     *            maximum number of statements cached per connection, 0 disables caching
+     */
+    public PreparedStatementCache(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns an open statement for the given SQL. Cached statements must not
+     * be closed by the caller, see {@link #release(Connection, PreparedStatement)}.
+     */
+    public PreparedStatement prepare(Connection con, String sql) throws SQLException {
+        if (size <= 0) {
+            return con.prepareStatement(sql);
+        }
+        Map<String, PreparedStatement> statements;
+        synchronized (this) {
+            statements = cache.get(con);
+            if (statements == null) {
+                purgeClosedConnections();
+                statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > size) {
+                            closeQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+                cache.put(con, statements);
+            }
+            PreparedStatement ps = statements.get(sql);
+            if (ps != null) {
+                hits++;
+                return ps;
+            }
+            misses++;
+        }
+        PreparedStatement ps = con.prepareStatement(sql);
+        synchronized (this) {
+            statements.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * Hands back a statement after use. Statements are only closed if caching
+     * is disabled.
+     */
+    public void release(Connection con, PreparedStatement ps) throws SQLException {
+        if (size <= 0) {
+            ps.close();
+        } else {
+            ps.clearParameters();
+        }
+    }
+
+    /**
+     * Closes and removes a statement which failed, e.g. because the table was
+     * altered or the connection is broken.
+     */
+    public void invalidate(Connection con, String sql) {
+        if (size <= 0) {
+            return;
+        }
+        PreparedStatement ps;
+        synchronized (this) {
+            Map<String, PreparedStatement> statements = cache.get(con);
+            ps = statements == null ? null : statements.remove(sql);
+        }
+        if (ps != null) {
+            closeQuietly(ps);
+        }
+    }
+
+    /**
+     * Closes and removes the statements of a connection, before the connection
+     * is handed back to the pool.
+     */
+    public void close(Connection con) {
+        if (size <= 0) {
+            return;
+        }
+        Map<String, PreparedStatement> statements;
+        synchronized (this) {
+            statements = cache.remove(con);
+        }
+        if (statements != null) {
+            for (PreparedStatement ps : statements.values()) {
+                closeQuietly(ps);
+            }
+        }
+    }
+
+    /**
+     * Closes all cached statements, e.g. before the connection pool is closed.
+     */
+    public void clear() {
+        List<PreparedStatement> statements = new ArrayList<PreparedStatement>();
+        synchronized (this) {
+            for (Map<String, PreparedStatement> map : cache.values()) {
+                statements.addAll(map.values());
+            }
+            cache.clear();
+        }
+        for (PreparedStatement ps : statements) {
+            closeQuietly(ps);
+        }
+        logger.debug("JDBC::PreparedStatementCache: cleared {} statements, hits={} misses={}", statements.size(),
+                hits, misses);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void purgeClosedConnections() {
+        Iterator<Connection> it = cache.keySet().iterator();
+        while (it.hasNext()) {
+            try {
+                if (!it.next().isClosed()) {
+                    continue;
+                }
+            } catch (SQLException e) {
+                // treat as closed
+            }
+            it.remove();
+        }
+    }
+
+    private void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            logger.debug("JDBC::PreparedStatementCache: error closing statement: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+
+/**
+ * Micro benchmark comparing stores per second with the database file opened
+ * and closed for every value (as done before) and with the databases kept
+ * open in a {@link RRD4jDbPool}, for a growing number of items. The databases
+ * are created in a temporary folder with the default archives of numeric
+ * items.
+ *
+ * @since 1.10.0
+ */
+public class RRD4jDbPoolBenchmark {
+
+    private static final int[] ITEM_COUNTS = { 10, 100, 800 };
+
+    private static final int STORES = 20000;
+
+    private static final int[][] ARCHIVES = { { 1, 480 }, { 4, 360 }, { 14, 644 }, { 60, 720 }, { 720, 730 },
+            { 10080, 520 } };
+
+    public static void main(String[] args) throws Exception {
+        File folder = File.createTempFile("rrd4j", "benchmark");
+        folder.delete();
+        folder.mkdirs();
+        final long start = System.currentTimeMillis() / 1000 - 86400;
+
+        for (int items : ITEM_COUNTS) {
+            for (int i = 0; i < items; i++) {
+                createDb(path(folder, i), start);
+            }
+
+            // every value is stored one second after the previous value of the same item
+            long timer = System.nanoTime();
+            for (int i = 0; i < STORES; i++) {
+                RrdDb db = new RrdDb(path(folder, i % items));
+                store(db, start + 1 + i / items, i);
+                db.close();
+            }
+            long unpooled = System.nanoTime() - timer;
+
+            RRD4jDbPool pool = new RRD4jDbPool(new RRD4jDbPool.RrdDbFactory() {
+                @Override
+                public RrdDb open(String name) throws IOException {
+                    return new RrdDb(name);
+                }
+            }, items, 600000);
+            timer = System.nanoTime();
+            long offset = STORES / items + 1;
+            for (int i = 0; i < STORES; i++) {
+                String name = path(folder, i % items);
+                RrdDb db = pool.acquire(name);
+                synchronized (db) {
+                    store(db, start + 1 + offset + i / items, i);
+                }
+                pool.release(name);
+            }
+            long pooled = System.nanoTime() - timer;
+            pool.close();
+
+            System.out.println(String.format("%d items: %.0f stores/s open/close, %.0f stores/s pooled", items,
+                    STORES / (unpooled / 1e9), STORES / (pooled / 1e9)));
+
+            for (File file : folder.listFiles()) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    private static String path(File folder, int item) {
+        return new File(folder, "item" + item + ".rrd").getAbsolutePath();
+    }
+
+    private static void createDb(String path, long start) throws IOException {
+        RrdDef def = new RrdDef(path, 60);
+        def.setStartTime(start);
+        def.addDatasource("state", DsType.GAUGE, 60, Double.NaN, Double.NaN);
+        for (int[] archive : ARCHIVES) {
+            def.addArchive(ConsolFun.AVERAGE, 0.5, archive[0], archive[1]);
+        }
+        new RrdDb(def).close();
+    }
+
+    private static void store(RrdDb db, long time, double value) throws IOException {
+        Sample sample = db.createSample();
+        sample.setTime(time);
+        sample.setValue("state", value);
+        sample.update();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+
+public class RRD4jDbPoolTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        MemoryFactory factory = new MemoryFactory();
+        RRD4jDbPool pool = new RRD4jDbPool(factory, 10, 60000);
+
+        RrdDb db1 = pool.acquire("a");
+        pool.release("a");
+        RrdDb db2 = pool.acquire("a");
+        pool.release("a");
+
+        assertSame(db1, db2);
+        assertEquals(1, factory.opened.size());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertFalse(db1.isClosed());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        MemoryFactory factory = new MemoryFactory();
+        RRD4jDbPool pool = new RRD4jDbPool(factory, 2, 60000);
+
+        RrdDb a = use(pool, "a");
+        RrdDb b = use(pool, "b");
+        // touch a, so that b is the least recently used database
+        use(pool, "a");
+        RrdDb c = use(pool, "c");
+
+        assertEquals(2, pool.size());
+        assertFalse(a.isClosed());
+        assertTrue(b.isClosed());
+        assertFalse(c.isClosed());
+        assertEquals(1, pool.getEvictions());
+    }
+
+    @Test
+    public void testDatabaseInUseIsNotEvicted() throws Exception {
+        MemoryFactory factory = new MemoryFactory();
+        RRD4jDbPool pool = new RRD4jDbPool(factory, 1, 60000);
+
+        RrdDb a = pool.acquire("a");
+        RrdDb b = use(pool, "b");
+
+        assertFalse(a.isClosed());
+        assertTrue(b.isClosed());
+        pool.release("a");
+        assertFalse(a.isClosed());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testEvictIdle() throws Exception {
+        MemoryFactory factory = new MemoryFactory();
+        RRD4jDbPool pool = new RRD4jDbPool(factory, 10, 0);
+
+        RrdDb a = use(pool, "a");
+        RrdDb b = pool.acquire("b");
+        Thread.sleep(5);
+        pool.evictIdle();
+
+        assertTrue(a.isClosed());
+        assertFalse(b.isClosed());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testOpenFailed() throws Exception {
+        RRD4jDbPool pool = new RRD4jDbPool(new RRD4jDbPool.RrdDbFactory() {
+            @Override
+            public RrdDb open(String name) throws IOException {
+                return null;
+            }
+        }, 10, 60000);
+
+        assertNull(pool.acquire("a"));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        MemoryFactory factory = new MemoryFactory();
+        RRD4jDbPool pool = new RRD4jDbPool(factory, 10, 60000);
+
+        RrdDb a = use(pool, "a");
+        RrdDb b = use(pool, "b");
+        pool.close();
+
+        assertTrue(a.isClosed());
+        assertTrue(b.isClosed());
+        assertEquals(0, pool.size());
+    }
+
+    private RrdDb use(RRD4jDbPool pool, String name) throws IOException {
+        RrdDb db = pool.acquire(name);
+        pool.release(name);
+        return db;
+    }
+
+    /**
+     * Creates databases in memory and records them.
+     */
+    private static class MemoryFactory implements RRD4jDbPool.RrdDbFactory {
+
+        private final List<RrdDb> opened = new ArrayList<RrdDb>();
+
+        @Override
+        public RrdDb open(String name) throws IOException {
+            RrdDef def = new RrdDef(name, 60);
+            def.addDatasource("state", DsType.GAUGE, 60, Double.NaN, Double.NaN);
+            def.addArchive(ConsolFun.AVERAGE, 0.5, 1, 480);
+            RrdDb db = new RrdDb(def, RrdBackendFactory.getFactory("MEMORY"));
+            opened.add(db);
+            return db;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+
+public class RRD4jSnapshotBackendFactoryTest {
+
+    private static final long START = 1000000000L;
+
+    private File folder;
+
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = File.createTempFile("rrd4j", "test");
+        folder.delete();
+        folder.mkdirs();
+        path = new File(folder, "Item1.rrd").getAbsolutePath();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void testRestoreAfterUncleanShutdown() throws IOException {
+        RRD4jSnapshotBackendFactory factory = new RRD4jSnapshotBackendFactory("TEST_MEMORY_1");
+        RrdDb db = new RrdDb(createDef(), factory);
+        store(db, START + 60, 1);
+        store(db, START + 120, 2);
+        factory.writeSnapshot(path, db.getBytes());
+        store(db, START + 180, 3);
+        // crash: the last value is neither closed nor written to disk
+
+        assertTrue(new File(path).exists());
+        assertFalse(new File(path + ".tmp").exists());
+
+        RRD4jSnapshotBackendFactory restarted = new RRD4jSnapshotBackendFactory("TEST_MEMORY_2");
+        assertTrue(restarted.contains(path));
+        RrdDb restored = new RrdDb(path, restarted);
+        assertEquals(START + 120, restored.getLastUpdateTime());
+        assertEquals(2, restored.getLastDatasourceValue("state"), 0.0);
+
+        // storing continues from the restored state
+        store(restored, START + 180, 4);
+        assertEquals(4, restored.getLastDatasourceValue("state"), 0.0);
+    }
+
+    @Test
+    public void testInterruptedSnapshotKeepsPreviousSnapshot() throws IOException {
+        RRD4jSnapshotBackendFactory factory = new RRD4jSnapshotBackendFactory("TEST_MEMORY_3");
+        RrdDb db = new RrdDb(createDef(), factory);
+        store(db, START + 60, 1);
+        factory.writeSnapshot(path, db.getBytes());
+
+        // crash while the next snapshot is written
+        FileOutputStream out = new FileOutputStream(path + ".tmp");
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+
+        RrdDb restored = new RrdDb(path, new RRD4jSnapshotBackendFactory("TEST_MEMORY_4"));
+        assertEquals(START + 60, restored.getLastUpdateTime());
+        assertEquals(1, restored.getLastDatasourceValue("state"), 0.0);
+    }
+
+    @Test
+    public void testValuesKeptInMemoryUntilCleared() throws IOException {
+        RRD4jSnapshotBackendFactory factory = new RRD4jSnapshotBackendFactory("TEST_MEMORY_5");
+        RrdDb db = new RrdDb(createDef(), factory);
+        store(db, START + 60, 1);
+        db.close();
+
+        assertFalse(new File(path).exists());
+        assertTrue(factory.contains(path));
+        assertEquals(START + 60, new RrdDb(path, factory).getLastUpdateTime());
+
+        factory.clear();
+        assertFalse(factory.contains(path));
+    }
+
+    private RrdDef createDef() {
+        RrdDef def = new RrdDef(path, START, 60);
+        def.addDatasource("state", DsType.GAUGE, 120, Double.NaN, Double.NaN);
+        def.addArchive(ConsolFun.AVERAGE, 0.5, 1, 480);
+        return def;
+    }
+
+    private void store(RrdDb db, long time, double value) throws IOException {
+        Sample sample = db.createSample();
+        sample.setTime(time);
+        sample.setValue("state", value);
+        sample.update();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RRD4jChartCacheTest {
+
+    @Test
+    public void testValidUntilEndOfStep() {
+        RRD4jChartCache cache = new RRD4jChartCache(1000);
+        RRD4jChartCache.Entry entry = new RRD4jChartCache.Entry("a", new byte[10], 180000, 360000);
+        cache.put(entry);
+
+        assertSame(entry, cache.get("a", 359999));
+        assertNull(cache.get("a", 360000));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testSizeBounded() {
+        RRD4jChartCache cache = new RRD4jChartCache(250);
+        cache.put(new RRD4jChartCache.Entry("a", new byte[100], 0, 1000));
+        cache.put(new RRD4jChartCache.Entry("b", new byte[100], 0, 1000));
+        // touch a, so that b is the least recently used image
+        cache.get("a", 0);
+        cache.put(new RRD4jChartCache.Entry("c", new byte[100], 0, 1000));
+
+        assertNotNull(cache.get("a", 0));
+        assertNull(cache.get("b", 0));
+        assertNotNull(cache.get("c", 0));
+        assertEquals(200, cache.getBytes());
+    }
+
+    @Test
+    public void testTooLargeImageIsNotCached() {
+        RRD4jChartCache cache = new RRD4jChartCache(50);
+        cache.put(new RRD4jChartCache.Entry("a", new byte[100], 0, 1000));
+
+        assertNull(cache.get("a", 0));
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testReplace() {
+        RRD4jChartCache cache = new RRD4jChartCache(1000);
+        cache.put(new RRD4jChartCache.Entry("a", new byte[100], 0, 1000));
+        cache.put(new RRD4jChartCache.Entry("a", new byte[50], 1000, 2000));
+
+        assertEquals(1, cache.size());
+        assertEquals(50, cache.getBytes());
+    }
+
+    @Test
+    public void testETagChangesWithStep() {
+        RRD4jChartCache.Entry first = new RRD4jChartCache.Entry("a", new byte[0], 180000, 360000);
+        RRD4jChartCache.Entry second = new RRD4jChartCache.Entry("a", new byte[0], 360000, 540000);
+
+        assertNotEquals(first.getETag(), second.getETag());
+        assertTrue(first.getETag().startsWith("\"") && first.getETag().endsWith("\""));
+    }
+
+    @Test
+    public void testETagDiffersForOtherChart() {
+        RRD4jChartCache.Entry day = new RRD4jChartCache.Entry("Temperature|null|-86400000|480x240", new byte[0],
+                180000, 360000);
+        RRD4jChartCache.Entry larger = new RRD4jChartCache.Entry("Temperature|null|-86400000|960x480", new byte[0],
+                180000, 360000);
+        RRD4jChartCache.Entry other = new RRD4jChartCache.Entry("Humidity|null|-86400000|480x240", new byte[0],
+                180000, 360000);
+
+        assertNotEquals(day.getETag(), larger.getETag());
+        assertNotEquals(day.getETag(), other.getETag());
+    }
+}
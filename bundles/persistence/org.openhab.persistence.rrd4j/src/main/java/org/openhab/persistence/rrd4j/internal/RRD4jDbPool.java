@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the rrd4j databases of recently used items open, so that storing a
+ * value does not have to open and parse the database file every time.
+ *
+ * A database is handed out by {@link #acquire(String)} and must be handed back
+ * with {@link #release(String)}. Databases which are not in use are closed
+ * when more than 'capacity' databases are open (least recently used first) or
+ * when they have not been used for 'idleTimeout' milliseconds, see
+ * {@link #evictIdle()}. As long as a database is in use it is never closed, so
+ * the pool may temporarily hold more than 'capacity' databases.
+ *
+ * Every item has its own {@link RrdDb} instance, callers synchronize on it to
+ * serialize access to one item without blocking other items.
+ *
+ * @since 1.10.0
+ */
+public class RRD4jDbPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jDbPool.class);
+
+    /**
+     * Opens or creates the database of an item.
+     */
+    public interface RrdDbFactory {
+        /**
+         * @return the database, or null if it could not be opened
+         */
+        RrdDb open(String name) throws IOException;
+    }
+
+    private static class Entry {
+        private RrdDb db;
+        private int refCount = 0;
+        private long lastUsed = System.currentTimeMillis();
+    }
+
+    private final RrdDbFactory factory;
+    private final int capacity;
+    private final long idleTimeout;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param factory
+     *            opens the database of an item when it is not in the pool
+     * @param capacity
+     *            maximum number of databases kept open while they are not in use
+     * @param idleTimeout
+     *            time in milliseconds after which an unused database is closed
+     */
+    public RRD4jDbPool(RrdDbFactory factory, int capacity, long idleTimeout) {
+        this.factory = factory;
+        this.capacity = capacity;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns the open database of an item. The database must not be closed by
+     * the caller, but handed back with {@link #release(String)}.
+     *
+     * @return the database, or null if it could not be opened
+     */
+    public RrdDb acquire(String name) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(name);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(name, entry);
+            }
+            entry.refCount++;
+        }
+
+        // open outside of the pool lock, so that opening a file blocks only this item
+        boolean opened = false;
+        try {
+            synchronized (entry) {
+                if (entry.db == null) {
+                    entry.db = factory.open(name);
+                    synchronized (this) {
+                        misses++;
+                    }
+                } else {
+                    synchronized (this) {
+                        hits++;
+                    }
+                }
+                opened = entry.db != null;
+                return entry.db;
+            }
+        } finally {
+            if (!opened) {
+                release(name);
+            }
+        }
+    }
+
+    /**
+     * Hands back a database after use.
+     */
+    public void release(String name) {
+        List<Entry> evicted = new ArrayList<Entry>();
+        synchronized (this) {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                return;
+            }
+            entry.refCount--;
+            entry.lastUsed = System.currentTimeMillis();
+            if (entry.refCount == 0 && entry.db == null) {
+                // opening failed
+                entries.remove(name);
+            }
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (entries.size() > capacity && it.hasNext()) {
+                Entry e = it.next();
+                if (e.refCount == 0) {
+                    it.remove();
+                    evicted.add(e);
+                }
+            }
+            evictions += evicted.size();
+        }
+        close(evicted);
+    }
+
+    /**
+     * Closes all databases which have not been used for 'idleTimeout'
+     * milliseconds. This makes sure that rarely updated databases are written
+     * to disk and their files are not kept open.
+     */
+    public void evictIdle() {
+        List<Entry> evicted = new ArrayList<Entry>();
+        long limit = System.currentTimeMillis() - idleTimeout;
+        synchronized (this) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry e = it.next();
+                if (e.refCount == 0 && e.lastUsed < limit) {
+                    it.remove();
+                    evicted.add(e);
+                }
+            }
+            evictions += evicted.size();
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("Closing {} idle rrd4j databases, {} remain open", evicted.size(), size());
+        }
+        close(evicted);
+    }
+
+    /**
+     * Closes all databases, e.g. when the service is stopped.
+     */
+    public void close() {
+        List<Entry> evicted;
+        synchronized (this) {
+            evicted = new ArrayList<Entry>(entries.values());
+            entries.clear();
+        }
+        close(evicted);
+        logger.debug("Closed rrd4j database pool, hits={} misses={} evictions={}", hits, misses, evictions);
+    }
+
+    private void close(List<Entry> evicted) {
+        for (Entry e : evicted) {
+            synchronized (e) {
+                if (e.db != null) {
+                    try {
+                        e.db.close();
+                    } catch (IOException ex) {
+                        logger.debug("Error closing rrd4j database: {}", ex.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of open databases
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -13,10 +13,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
@@ -49,8 +49,10 @@ import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdNioBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,7 +79,35 @@ public class RRD4jService implements QueryablePersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(RRD4jService.class);
 
-    private Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<String, ScheduledFuture<?>>();
+    private Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+
+    // maximum number of databases kept open
+    private static final int DEFAULT_POOL_SIZE = 200;
+
+    // time in ms after which an unused database is closed
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT = 600000;
+
+    private RRD4jDbPool dbPool;
+
+    private ScheduledFuture<?> evictionJob;
+
+    // time in s between two snapshots of the memory backend
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 300;
+
+    // name under which the memory backend is registered with rrd4j, once for the lifetime of the bundle
+    private static final String SNAPSHOT_FACTORY_NAME = "OPENHAB_MEMORY";
+
+    // name of the rrd4j backend factory used to open the databases
+    private static volatile String backendName = "NIO";
+
+    private RrdBackendFactory backendFactory = RrdBackendFactory.getFactory(backendName);
+
+    private RRD4jSnapshotBackendFactory snapshotFactory;
+
+    // items stored since the last snapshot of the memory backend
+    private final Set<String> dirty = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private ScheduledFuture<?> snapshotJob;
 
     protected ItemRegistry itemRegistry;
 
@@ -101,10 +131,14 @@ public class RRD4jService implements QueryablePersistenceService {
      * @{inheritDoc}
      */
     @Override
-    public synchronized void store(final Item item, final String alias) {
+    public void store(final Item item, final String alias) {
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
+        RrdDb db = acquireDB(name);
+        if (db == null) {
+            return;
+        }
+        // values of one item are stored one after the other, other items are not blocked
+        synchronized (db) {
             ConsolFun function = getConsolidationFunction(db);
             long now = System.currentTimeMillis() / 1000;
             if (function != ConsolFun.AVERAGE) {
@@ -146,6 +180,9 @@ public class RRD4jService implements QueryablePersistenceService {
                     }
                     sample.setValue(DATASOURCE_STATE, value);
                     sample.update();
+                    if (snapshotFactory != null) {
+                        dirty.add(name);
+                    }
                     logger.debug("Stored '{}' with state '{}' in rrd4j database", name, state);
                 }
             } catch (IllegalArgumentException e) {
@@ -158,25 +195,25 @@ public class RRD4jService implements QueryablePersistenceService {
                             store(item, name);
                         }
                     };
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
+                    ScheduledFuture<?> job = scheduledJobs.remove(name);
                     if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
+                        job.cancel(false);
+                    }
+                    try {
+                        job = scheduler.schedule(task, 1, TimeUnit.SECONDS);
+                        scheduledJobs.put(name, job);
+                    } catch (RejectedExecutionException ex) {
+                        // this happens if the system is shut down
+                        logger.debug("Could not schedule storing '{}': {}", name, ex.getMessage());
                     }
-                    job = scheduler.schedule(task, 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
                 } else {
                     logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
                 }
             } catch (Exception e) {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
-            }
         }
+        dbPool.release(name);
     }
 
     /**
@@ -190,7 +227,7 @@ public class RRD4jService implements QueryablePersistenceService {
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
-        RrdDb db = getDB(itemName);
+        RrdDb db = acquireDB(itemName);
         if (db != null) {
             ConsolFun consolidationFunction = getConsolidationFunction(db);
             long start = 0L;
@@ -244,18 +281,33 @@ public class RRD4jService implements QueryablePersistenceService {
                 return items;
             } catch (IOException e) {
                 logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
+            } finally {
+                dbPool.release(itemName);
             }
         }
         return Collections.emptyList();
     }
 
-    protected synchronized RrdDb getDB(String alias) {
+    /**
+     * Returns the open database of an item from the pool, it must be handed back with
+     * {@link RRD4jDbPool#release(String)}.
+     */
+    protected RrdDb acquireDB(String alias) {
+        try {
+            return dbPool.acquire(alias);
+        } catch (IOException e) {
+            logger.error("Could not open rrd4j database '{}': {}", alias, e.getMessage());
+            return null;
+        }
+    }
+
+    protected RrdDb getDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
-            if (file.exists()) {
+            if (file.exists() || (snapshotFactory != null && snapshotFactory.contains(file.getAbsolutePath()))) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = new RrdDb(file.getAbsolutePath(), backendFactory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -263,7 +315,7 @@ public class RRD4jService implements QueryablePersistenceService {
                 }
                 // create a new database file
                 // db = new RrdDb(getRrdDef(function, file));
-                db = new RrdDb(getRrdDef(alias, file));
+                db = new RrdDb(getRrdDef(alias, file), backendFactory);
             }
         } catch (IOException e) {
             logger.error("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
@@ -274,6 +326,60 @@ public class RRD4jService implements QueryablePersistenceService {
         return db;
     }
 
+    /**
+     * Writes the databases of all items stored since the last snapshot from memory to their files.
+     */
+    protected void snapshot() {
+        int count = 0;
+        for (String name : dirty) {
+            dirty.remove(name);
+            RrdDb db = acquireDB(name);
+            if (db == null) {
+                continue;
+            }
+            try {
+                byte[] bytes;
+                synchronized (db) {
+                    bytes = db.getBytes();
+                }
+                snapshotFactory.writeSnapshot(db.getPath(), bytes);
+                count++;
+            } catch (IOException e) {
+                logger.warn("Could not write snapshot of rrd4j database '{}': {}", name, e.getMessage());
+                dirty.add(name);
+            } finally {
+                dbPool.release(name);
+            }
+        }
+        logger.debug("Wrote snapshots of {} rrd4j databases", count);
+    }
+
+    /**
+     * Returns the name of the rrd4j backend factory to read databases with which may be open in the pool at the same
+     * time. The safe backend locks the files as long as they are open, so they are read with the file backend
+     * instead, which does not lock them.
+     *
+     * @return name of the rrd4j backend factory for additional read-only access to the databases
+     */
+    public static String getReadBackendName() {
+        String name = backendName;
+        return "SAFE".equals(name) ? "FILE" : name;
+    }
+
+    /**
+     * Returns the memory backend, registering it with rrd4j on first use. rrd4j cannot unregister a factory, so the
+     * same instance is reused whenever the service is activated again.
+     */
+    private static synchronized RRD4jSnapshotBackendFactory getSnapshotFactory() {
+        try {
+            return (RRD4jSnapshotBackendFactory) RrdBackendFactory.getFactory(SNAPSHOT_FACTORY_NAME);
+        } catch (IllegalArgumentException e) {
+            RRD4jSnapshotBackendFactory factory = new RRD4jSnapshotBackendFactory(SNAPSHOT_FACTORY_NAME);
+            RrdBackendFactory.registerFactory(factory);
+            return factory;
+        }
+    }
+
     private RrdDefConfig getRrdDefConfig(String itemName) {
         RrdDefConfig useRdc = null;
         for (Map.Entry<String, RrdDefConfig> e : rrdDefs.entrySet()) {
@@ -360,6 +466,74 @@ public class RRD4jService implements QueryablePersistenceService {
      */
     public void activate(final Map<String, Object> config) {
 
+        int poolSize = DEFAULT_POOL_SIZE;
+        long poolIdleTimeout = DEFAULT_POOL_IDLE_TIMEOUT;
+        if (config != null) {
+            Object ps = config.get("poolSize");
+            if (ps instanceof String && StringUtils.isNumeric((String) ps) && StringUtils.isNotBlank((String) ps)) {
+                poolSize = Integer.parseInt((String) ps);
+            }
+            Object pit = config.get("poolIdleTimeout");
+            if (pit instanceof String && StringUtils.isNumeric((String) pit) && StringUtils.isNotBlank((String) pit)) {
+                poolIdleTimeout = Long.parseLong((String) pit) * 1000;
+            }
+        }
+        String backend = "nio";
+        int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        if (config != null) {
+            Object b = config.get("backend");
+            if (b instanceof String && StringUtils.isNotBlank((String) b)) {
+                backend = ((String) b).trim().toLowerCase();
+            }
+            Object nsp = config.get("nioSyncPeriod");
+            if (nsp instanceof String && StringUtils.isNumeric((String) nsp) && StringUtils.isNotBlank((String) nsp)) {
+                RrdNioBackendFactory.setSyncPeriod(Integer.parseInt((String) nsp));
+            }
+            Object si = config.get("snapshotInterval");
+            if (si instanceof String && StringUtils.isNumeric((String) si) && StringUtils.isNotBlank((String) si)
+                    && Integer.parseInt((String) si) > 0) {
+                snapshotInterval = Integer.parseInt((String) si);
+            }
+        }
+        snapshotFactory = null;
+        if (backend.equals("memory")) {
+            snapshotFactory = getSnapshotFactory();
+            backendFactory = snapshotFactory;
+        } else if (backend.equals("file")) {
+            backendFactory = RrdBackendFactory.getFactory("FILE");
+        } else if (backend.equals("safe")) {
+            backendFactory = RrdBackendFactory.getFactory("SAFE");
+        } else {
+            if (!backend.equals("nio")) {
+                logger.warn("Unknown rrd4j backend '{}', using nio", backend);
+            }
+            backendFactory = RrdBackendFactory.getFactory("NIO");
+        }
+        backendName = backendFactory.getName();
+        logger.debug("Using rrd4j backend {}", backendName);
+
+        logger.debug("Keeping up to {} rrd4j databases open, idle timeout {} ms", poolSize, poolIdleTimeout);
+        dbPool = new RRD4jDbPool(new RRD4jDbPool.RrdDbFactory() {
+            @Override
+            public RrdDb open(String name) throws IOException {
+                return getDB(name);
+            }
+        }, poolSize, poolIdleTimeout);
+        evictionJob = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                dbPool.evictIdle();
+            }
+        }, 60, 60, TimeUnit.SECONDS);
+        if (snapshotFactory != null) {
+            snapshotJob = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    snapshot();
+                }
+            }, snapshotInterval, snapshotInterval, TimeUnit.SECONDS);
+        }
+
         // add default configurations
         RrdDefConfig defaultNumeric = new RrdDefConfig("default_numeric");
         defaultNumeric.setDef("GAUGE,60,U,U,60");
@@ -388,6 +562,12 @@ public class RRD4jService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals("poolSize") || key.equals("poolIdleTimeout") || key.equals("backend")
+                    || key.equals("nioSyncPeriod") || key.equals("snapshotInterval")) {
+                // handled above
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -439,6 +619,32 @@ public class RRD4jService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * @{inheritDoc
+     */
+    public void deactivate() {
+        if (evictionJob != null) {
+            evictionJob.cancel(false);
+            evictionJob = null;
+        }
+        for (ScheduledFuture<?> job : scheduledJobs.values()) {
+            job.cancel(false);
+        }
+        scheduledJobs.clear();
+        if (snapshotJob != null) {
+            snapshotJob.cancel(false);
+            snapshotJob = null;
+            snapshot();
+        }
+        if (dbPool != null) {
+            // writes all open databases to disk
+            dbPool.close();
+        }
+        if (snapshotFactory != null) {
+            snapshotFactory.clear();
+        }
+    }
+
     private class RrdArchiveDef {
         public ConsolFun fcn;
         public double xff;
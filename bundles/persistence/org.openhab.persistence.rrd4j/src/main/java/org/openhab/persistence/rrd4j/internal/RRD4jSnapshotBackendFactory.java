@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.rrd4j.core.RrdBackend;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdMemoryBackendFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Backend which keeps the rrd4j databases in memory. A database is loaded
+ * from its file when it is opened the first time and written back to the file
+ * with {@link #writeSnapshot(String, byte[])}.
+ *
+ * A snapshot is written to a temporary file first, which is synced to disk and
+ * then renamed to the database file. So the database file always contains
+ * a complete snapshot, even if the system crashes while it is written, and
+ * values stored after the last snapshot are lost.
+ *
+ * @since 1.10.0
+ */
+public class RRD4jSnapshotBackendFactory extends RrdMemoryBackendFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RRD4jSnapshotBackendFactory.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String name;
+
+    // path of the database which is currently loaded from its file
+    private String loading;
+
+    /**
+     * @param name
+     *            unique name under which the factory is registered with {@link RrdBackendFactory}
+     */
+    public RRD4jSnapshotBackendFactory(String name) {
+        this.name = name;
+    }
+
+    @Override
+    protected synchronized RrdBackend open(String path, boolean readOnly) throws IOException {
+        if (!backends.containsKey(path) && !path.equals(loading) && new File(path).exists()) {
+            load(path);
+        }
+        return super.open(path, readOnly);
+    }
+
+    private void load(String path) throws IOException {
+        RrdDb file = new RrdDb(path, true, RrdBackendFactory.getFactory("FILE"));
+        try {
+            loading = path;
+            RrdDb memory = new RrdDb(file.getRrdDef(), this);
+            file.copyStateTo(memory);
+            memory.close();
+            logger.debug("Loaded rrd4j database '{}' into memory", path);
+        } catch (IOException e) {
+            backends.remove(path);
+            throw e;
+        } finally {
+            loading = null;
+            file.close();
+        }
+    }
+
+    @Override
+    protected synchronized boolean exists(String path) {
+        return backends.containsKey(path) || new File(path).exists();
+    }
+
+    /**
+     * @return true if the database is either in memory or has a snapshot file
+     */
+    public boolean contains(String path) {
+        return exists(path);
+    }
+
+    /**
+     * Writes a snapshot of a database, as returned by {@link RrdDb#getBytes()}, to its file.
+     */
+    public void writeSnapshot(String path, byte[] bytes) throws IOException {
+        File file = new File(path);
+        File temp = new File(path + TEMP_SUFFIX);
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(bytes);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Drops all databases from memory, they are loaded from their files again when they are opened.
+     */
+    public synchronized void clear() {
+        backends.clear();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache for rendered chart images. An image is valid until the end of the
+ * chart step it was rendered in, i.e. the time span one pixel of the chart
+ * covers. Before that, neither the x-axis nor the values stored since can
+ * move the chart by a pixel.
+ *
+ * The cache holds at most 'maxBytes' bytes of images, the least recently used
+ * images are dropped first.
+ *
+ * @since 1.10.0
+ */
+public class RRD4jChartCache {
+
+    /**
+     * A rendered image.
+     */
+    public static class Entry {
+        private final String key;
+        private final byte[] image;
+        private final long lastModified;
+        private final long expires;
+
+        /**
+         * @param key
+         *            the chart parameters the image was rendered for
+         * @param image
+         *            the encoded image
+         * @param lastModified
+         *            start of the chart step the image was rendered in
+         * @param expires
+         *            end of the chart step the image was rendered in
+         */
+        public Entry(String key, byte[] image, long lastModified, long expires) {
+            this.key = key;
+            this.image = image;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public byte[] getImage() {
+            return image;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getExpires() {
+            return expires;
+        }
+
+        /**
+         * @return quoted entity tag of the image, which differs for other chart parameters rendered in the same step
+         */
+        public String getETag() {
+            return "\"" + Integer.toHexString(key.hashCode()) + "-" + Long.toHexString(lastModified) + "-"
+                    + Long.toHexString(expires - lastModified) + "\"";
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public RRD4jChartCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the image for the key if it is still valid at 'now', null otherwise
+     */
+    public synchronized Entry get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now >= entry.expires) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    public synchronized void put(Entry entry) {
+        remove(entry.key);
+        if (entry.image.length > maxBytes) {
+            return;
+        }
+        entries.put(entry.key, entry);
+        bytes += entry.image.length;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().image.length;
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.image.length;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return number of cached images
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return size of all cached images in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
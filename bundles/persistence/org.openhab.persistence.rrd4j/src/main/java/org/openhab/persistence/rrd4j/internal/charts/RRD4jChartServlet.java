@@ -11,6 +11,7 @@ package org.openhab.persistence.rrd4j.internal.charts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Date;
@@ -24,6 +25,8 @@ import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -37,6 +40,7 @@ import org.osgi.service.http.HttpContext;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
 import org.rrd4j.ConsolFun;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
@@ -54,6 +58,9 @@ import org.slf4j.LoggerFactory;
  * <li>groups: A comma separated list of group names, whose members should be displayed
  * </ul>
  * 
+ * Rendered images are cached for the time one pixel of the chart covers, see {@link RRD4jChartCache}. Browsers
+ * receive ETag and Last-Modified headers, so they can revalidate their copy instead of downloading it again.
+ * 
  * @author Kai Kreuzer
  * @author Chris Jackson
  * @author Jan N. Klug
@@ -91,9 +98,17 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         PERIODS.put("Y", -31536000000L);
     }
 
+    // maximum size of all cached chart images in bytes
+    private static final long CACHE_SIZE = 4 * 1024 * 1024;
+
+    // minimum time in ms a rendered chart is cached
+    private static final long MIN_CHART_STEP = 1000;
+
     protected HttpService httpService;
     protected ItemUIRegistry itemUIRegistry;
 
+    private final RRD4jChartCache cache = new RRD4jChartCache(CACHE_SIZE);
+
     public void setHttpService(HttpService httpService) {
         this.httpService = httpService;
     }
@@ -126,6 +141,8 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
 
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        logger.debug("Chart cache: {} hits, {} misses", cache.getHits(), cache.getMisses());
+        cache.clear();
     }
 
     @Override
@@ -142,6 +159,14 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             height = Integer.parseInt(req.getParameter("h"));
         } catch (Exception e) {
         }
+        if (width <= 0 || height <= 0) {
+            logger.debug("Illegal chart size {}x{}", width, height);
+            if (res instanceof HttpServletResponse) {
+                ((HttpServletResponse) res).sendError(HttpServletResponse.SC_BAD_REQUEST,
+                        "Chart width and height must be positive");
+            }
+            return;
+        }
         Long period = PERIODS.get(req.getParameter("period"));
         if (period == null) {
             // use a day as the default period
@@ -151,16 +176,58 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         Date timeEnd = new Date();
         Date timeBegin = new Date(timeEnd.getTime() + period);
 
+        // the time one pixel covers, the chart does not change within it
+        long step = Math.max(MIN_CHART_STEP, -period / width);
+        String key = req.getParameter("items") + "|" + req.getParameter("groups") + "|" + period + "|" + width + "x"
+                + height;
+        RRD4jChartCache.Entry entry = cache.get(key, timeEnd.getTime());
+        if (entry == null) {
+            try {
+                BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width,
+                        req.getParameter("items"), req.getParameter("groups"));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(chart, getChartType().toString(), out);
+                long lastModified = timeEnd.getTime() - timeEnd.getTime() % step;
+                entry = new RRD4jChartCache.Entry(key, out.toByteArray(), lastModified, lastModified + step);
+                cache.put(entry);
+            } catch (ItemNotFoundException e) {
+                logger.debug("Item not found error while generating chart.");
+                return;
+            } catch (IllegalArgumentException e) {
+                logger.debug("Illegal argument in chart: {}", e);
+                return;
+            }
+        }
+
         // Set the content type to that provided by the chart provider
         res.setContentType("image/" + getChartType());
+        if (req instanceof HttpServletRequest && res instanceof HttpServletResponse) {
+            HttpServletRequest httpReq = (HttpServletRequest) req;
+            HttpServletResponse httpRes = (HttpServletResponse) res;
+            httpRes.setHeader("ETag", entry.getETag());
+            httpRes.setDateHeader("Last-Modified", entry.getLastModified());
+            httpRes.setHeader("Cache-Control",
+                    "private, max-age=" + Math.max(0, (entry.getExpires() - timeEnd.getTime()) / 1000));
+            if (isNotModified(httpReq, entry)) {
+                httpRes.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        res.setContentLength(entry.getImage().length);
+        res.getOutputStream().write(entry.getImage());
+    }
+
+    private boolean isNotModified(HttpServletRequest req, RRD4jChartCache.Entry entry) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.contains(entry.getETag()) || ifNoneMatch.trim().equals("*");
+        }
         try {
-            BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, req.getParameter("items"),
-                    req.getParameter("groups"));
-            ImageIO.write(chart, getChartType().toString(), res.getOutputStream());
-        } catch (ItemNotFoundException e) {
-            logger.debug("Item not found error while generating chart.");
+            long ifModifiedSince = req.getDateHeader("If-Modified-Since");
+            // HTTP dates have a precision of one second
+            return ifModifiedSince >= 0 && entry.getLastModified() / 1000 <= ifModifiedSince / 1000;
         } catch (IllegalArgumentException e) {
-            logger.debug("Illegal argument in chart: {}", e);
+            return false;
         }
     }
 
@@ -182,7 +249,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             label = label.substring(0, label.indexOf('['));
         }
         try {
-            RrdDb db = new RrdDb(rrdName);
+            RrdDb db = new RrdDb(rrdName, true, RrdBackendFactory.getFactory(RRD4jService.getReadBackendName()));
             consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
             db.close();
         } catch (IOException e) {
@@ -190,11 +257,13 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         }
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun,
+                    RRD4jService.getReadBackendName());
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun,
+                    RRD4jService.getReadBackendName());
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);